@@ -135,6 +135,20 @@ public abstract class TestListener {
      */
     public boolean shouldInvokeTestMethod(Object testObject, Method testMethod) {
         return true; // per default, execute all
+    }
+
+
+    /**
+     * Invoked once for every test class, before any of the other methods, to find out whether this listener has to
+     * be invoked for the tests of that class. This can be overridden to skip the listener for test classes that do
+     * not use any of the features of the module, e.g. because they do not contain any of its annotations. The result
+     * is cached by Unitils, so it should only depend on the test class.
+     *
+     * @param testClass The test class, not null
+     * @return True if this listener should be invoked for the tests of the given class, false otherwise
+     */
+    public boolean shouldListenToTestClass(Class<?> testClass) {
+        return true; // per default, listen to all
     }        
 
 }
@@ -15,10 +15,20 @@
  */
 package org.unitils.core;
 
+import org.unitils.core.timing.TimedTestListener;
+import org.unitils.core.timing.TimingRecorder;
+
+import java.io.File;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+import static org.unitils.util.PropertyUtils.getBoolean;
+import static org.unitils.util.PropertyUtils.getString;
+
 /**
  * Core class of the Unitils library, and the main entry point that gives access to the {@link TestContext} and the
  * different {@link Module}s.
@@ -37,6 +47,11 @@ import java.util.Properties;
  */
 public class Unitils {
 
+    /* Property key for enabling the recording of the time spent in the modules */
+    public static final String PROPKEY_TIMING_ENABLED = "unitils.timing.enabled";
+
+    /* Property key for the file to which the timing report is written */
+    public static final String PROPKEY_TIMING_REPORT_FILE = "unitils.timing.reportFile";
 
     /* The singleton instance */
     private static Unitils unitils;
@@ -115,12 +130,25 @@ public class Unitils {
     public void init(Properties configuration) {
         //verifyPackaging(configuration);
         this.configuration = configuration;
+        initTiming(configuration);
         modulesRepository = createModulesRepository(configuration);
         testListener = new UnitilsTestListener();
         afterInitModules();
     }
 
 
+    /**
+     * Enables the {@link TimingRecorder} if timing is enabled in the configuration.
+     *
+     * @param configuration The config, not null
+     */
+    protected void initTiming(Properties configuration) {
+        if (getBoolean(PROPKEY_TIMING_ENABLED, false, configuration)) {
+            TimingRecorder.enable(new File(getString(PROPKEY_TIMING_REPORT_FILE, configuration)));
+        }
+    }
+
+
     /**
      * Gives all modules the opportunity to performs initialization that
      * can only work after all other modules have been initialized
@@ -229,9 +257,42 @@ public class Unitils {
      * Module} gets the chance of performing some behavior, by calling the {@link TestListener} of each module in turn.
      * Also makes sure that the state of the instance of {@link TestContext} returned by {@link Unitils#getTestContext()}
      * is correctly set to the current test class, test object and test method.
+     * <p/>
+     * The test listeners that are invoked for a test class are determined only once, using {@link
+     * TestListener#shouldListenToTestClass}, and are then reused for all the tests of that class.
      */
     private class UnitilsTestListener extends TestListener {
 
+        /* The listeners that should be invoked, per test class */
+        private Map<Class<?>, List<TestListener>> testListenersPerTestClass = new HashMap<Class<?>, List<TestListener>>();
+
+
+        /**
+         * Gets the listeners of the modules that want to listen to the given test class. The listeners are determined
+         * the first time, after that the cached result is returned.
+         *
+         * @param testClass The test class, not null
+         * @return The listeners in module order, not null
+         */
+        private synchronized List<TestListener> getTestListeners(Class<?> testClass) {
+            List<TestListener> testListeners = testListenersPerTestClass.get(testClass);
+            if (testListeners == null) {
+                testListeners = new ArrayList<TestListener>();
+                for (Module module : modulesRepository.getModules()) {
+                    TestListener testListener = modulesRepository.getTestListener(module);
+                    if (!testListener.shouldListenToTestClass(testClass)) {
+                        continue;
+                    }
+                    if (TimingRecorder.isEnabled()) {
+                        testListener = new TimedTestListener(testListener, module.getClass().getSimpleName());
+                    }
+                    testListeners.add(testListener);
+                }
+                testListenersPerTestClass.put(testClass, testListeners);
+            }
+            return testListeners;
+        }
+
 
         @Override
         public void beforeTestClass(Class<?> testClass) {
@@ -240,9 +301,8 @@ public class Unitils {
             testContext.setTestObject(null);
             testContext.setTestMethod(null);
 
-            List<Module> modules = modulesRepository.getModules();
-            for (Module module : modules) {
-                modulesRepository.getTestListener(module).beforeTestClass(testClass);
+            for (TestListener testListener : getTestListeners(testClass)) {
+                testListener.beforeTestClass(testClass);
             }
         }
 
@@ -254,9 +314,8 @@ public class Unitils {
             testContext.setTestObject(testObject);
             testContext.setTestMethod(null);
 
-            List<Module> modules = modulesRepository.getModules();
-            for (Module module : modules) {
-                modulesRepository.getTestListener(module).afterCreateTestObject(testObject);
+            for (TestListener testListener : getTestListeners(testObject.getClass())) {
+                testListener.afterCreateTestObject(testObject);
             }
         }
 
@@ -268,9 +327,9 @@ public class Unitils {
             testContext.setTestObject(testObject);
             testContext.setTestMethod(testMethod);
 
-            List<Module> modules = modulesRepository.getModules();
-            for (Module module : modules) {
-                modulesRepository.getTestListener(module).beforeTestSetUp(testObject, testMethod);
+            TimingRecorder.startTest(testObject.getClass().getName() + "." + testMethod.getName());
+            for (TestListener testListener : getTestListeners(testObject.getClass())) {
+                testListener.beforeTestSetUp(testObject, testMethod);
             }
         }
 
@@ -282,9 +341,8 @@ public class Unitils {
             testContext.setTestObject(testObject);
             testContext.setTestMethod(testMethod);
 
-            List<Module> modules = modulesRepository.getModules();
-            for (Module module : modules) {
-                modulesRepository.getTestListener(module).beforeTestMethod(testObject, testMethod);
+            for (TestListener testListener : getTestListeners(testObject.getClass())) {
+                testListener.beforeTestMethod(testObject, testMethod);
             }
         }
 
@@ -296,9 +354,8 @@ public class Unitils {
             testContext.setTestObject(testObject);
             testContext.setTestMethod(testMethod);
 
-            List<Module> modules = modulesRepository.getModules();
-            for (Module module : modules) {
-                modulesRepository.getTestListener(module).afterTestMethod(testObject, testMethod, throwable);
+            for (TestListener testListener : getTestListeners(testObject.getClass())) {
+                testListener.afterTestMethod(testObject, testMethod, throwable);
             }
         }
 
@@ -310,17 +367,19 @@ public class Unitils {
             testContext.setTestObject(testObject);
             testContext.setTestMethod(null);
 
-            List<Module> modules = modulesRepository.getModules();
-            for (Module module : modules) {
-                modulesRepository.getTestListener(module).afterTestTearDown(testObject, testMethod);
+            try {
+                for (TestListener testListener : getTestListeners(testObject.getClass())) {
+                    testListener.afterTestTearDown(testObject, testMethod);
+                }
+            } finally {
+                TimingRecorder.stopTest();
             }
         }
 
         @Override
         public boolean shouldInvokeTestMethod(Object testObject, Method testMethod) {
-            List<Module> modules = modulesRepository.getModules();
-            for (Module module : modules) {
-                if(!modulesRepository.getTestListener(module).shouldInvokeTestMethod(testObject, testMethod)) {
+            for (TestListener testListener : getTestListeners(testObject.getClass())) {
+                if(!testListener.shouldInvokeTestMethod(testObject, testMethod)) {
                     return false; // there is a module that wants us to prevent execution of the method.
                 }
             }
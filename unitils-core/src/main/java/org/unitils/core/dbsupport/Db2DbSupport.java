@@ -15,6 +15,9 @@
  */
 package org.unitils.core.dbsupport;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -107,61 +110,55 @@ public class Db2DbSupport extends DbSupport {
 
 
     /**
-     * Disables all referential constraints (e.g. foreign keys) on all table in the schema
+     * Disables all referential constraints (e.g. foreign keys) on all table in the schema.
+     * <p/>
+     * The constraints of all tables are dropped using a single batch. Dropped constraints are no longer found, so
+     * running this again only handles the constraints that were added in the meantime.
      */
     @Override
     public void disableReferentialConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableReferentialConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableReferentialConstraints(String tableName) {
-        SQLHandler sqlHandler = getSQLHandler();
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select CONSTNAME from SYSCAT.TABCONST where TYPE = 'F' and TABNAME = '" + tableName + "' and TABSCHEMA = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select TABNAME, CONSTNAME from SYSCAT.TABCONST where TYPE = 'F' and TABSCHEMA = '" + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select CONSTNAME from SYSCAT.TABCONST where TABNAME = ? and TYPE = 'F' and TABSCHEMA = ?", getSchemaName());
         }
+        dropConstraints(constraintNames, "drop constraint");
     }
 
 
     /**
-     * Disables all value constraints (e.g. not null) on all tables in the schema
+     * Disables all value constraints (e.g. not null) on all tables in the schema.
+     * <p/>
+     * The check and unique constraints of all tables are dropped using a single batch. The not null constraints are
+     * dropped one by one, since the table has to be reorganized after every alter column.
      */
     @Override
     public void disableValueConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableValueConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableValueConstraints(String tableName) {
         SQLHandler sqlHandler = getSQLHandler();
 
         // disable all check and unique constraints
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select CONSTNAME from SYSCAT.TABCONST where TYPE in ('K', 'U') and TABNAME = '" + tableName + "' and TABSCHEMA = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select TABNAME, CONSTNAME from SYSCAT.TABCONST where TYPE in ('K', 'U') and TABSCHEMA = '" + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select CONSTNAME from SYSCAT.TABCONST where TABNAME = ? and TYPE in ('K', 'U') and TABSCHEMA = ?", getSchemaName());
         }
-
-        // Retrieve the name of the primary key columns, since we cannot remove the not-null constraint on these columns
-        Set<String> primaryKeyColumnNames = sqlHandler.getItemsAsStringSet("select COLNAME from SYSCAT.COLUMNS where KEYSEQ is not null and TABNAME = '" + tableName + "' and TABSCHEMA = '" + getSchemaName() + "'");
-
-        // disable all not null constraints
-        Set<String> notNullColumnNames = sqlHandler.getItemsAsStringSet("select COLNAME from SYSCAT.COLUMNS where NULLS = 'N' and TABNAME = '" + tableName + "' and TABSCHEMA = '" + getSchemaName() + "'");
-        for (String notNullColumnName : notNullColumnNames) {
-            if (primaryKeyColumnNames.contains(notNullColumnName)) {
-                // Do not remove PK constraints
-                continue;
+        dropConstraints(constraintNames, "drop constraint");
+
+        // disable all not null constraints, primary key columns are skipped since we cannot remove the not-null constraint on these columns
+        Map<String, Set<String>> notNullColumnNames;
+        if (isBulkQuerySupported()) {
+            notNullColumnNames = getDefaultSQLHandler().getItemsAsStringSetMap("select c.TABNAME, c.COLNAME from SYSCAT.COLUMNS c, SYSCAT.TABLES t where c.NULLS = 'N' and c.KEYSEQ is null and c.TABSCHEMA = '" + getSchemaName() + "' and t.TABSCHEMA = c.TABSCHEMA and t.TABNAME = c.TABNAME and t.TYPE = 'T'");
+        } else {
+            notNullColumnNames = getItemsAsStringSetPerTable("select COLNAME from SYSCAT.COLUMNS where TABNAME = ? and NULLS = 'N' and KEYSEQ is null and TABSCHEMA = ?", getSchemaName());
+        }
+        for (Map.Entry<String, Set<String>> entry : notNullColumnNames.entrySet()) {
+            String tableName = entry.getKey();
+            for (String notNullColumnName : entry.getValue()) {
+                sqlHandler.executeUpdate("alter table " + qualified(tableName) + " alter column " + quoted(notNullColumnName) + " drop not null");
+                sqlHandler.executeUpdate("call SYSPROC.ADMIN_CMD('REORG TABLE " + qualified(tableName) + "')");
             }
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " alter column " + quoted(notNullColumnName) + " drop not null");
-            sqlHandler.executeUpdate("call SYSPROC.ADMIN_CMD('REORG TABLE " + qualified(tableName) + "')");
         }
     }
 
@@ -191,6 +188,22 @@ public class Db2DbSupport extends DbSupport {
     }
 
 
+    /**
+     * Sets the next value of all sequences with the given names to the given sequence value using a single batch.
+     *
+     * @param sequenceNames    The sequences, not null
+     * @param newSequenceValue The value to set
+     */
+    @Override
+    public void incrementSequencesToValue(Set<String> sequenceNames, long newSequenceValue) {
+        List<String> statements = new ArrayList<String>();
+        for (String sequenceName : sequenceNames) {
+            statements.add("alter sequence " + qualified(sequenceName) + " restart with " + newSequenceValue);
+        }
+        executeUpdateBatch(statements);
+    }
+
+
     /**
      * Gets the names of all identity columns of the given table.
      * <p/>
@@ -205,6 +218,20 @@ public class Db2DbSupport extends DbSupport {
     }
 
 
+    /**
+     * Gets the names of all identity columns of all tables in the database schema using a single query.
+     *
+     * @return The names of the identity columns per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getIdentityColumnNames() {
+        if (!isBulkQuerySupported()) {
+            return super.getIdentityColumnNames();
+        }
+        return getDefaultSQLHandler().getItemsAsStringSetMap("select TABNAME, COLNAME from SYSCAT.COLUMNS where KEYSEQ is not null and TABSCHEMA = '" + getSchemaName() + "'");
+    }
+
+
     /**
      * Increments the identity value for the specified identity column on the specified table to the given value. If
      * there is no identity specified on the given primary key, the method silently finishes without effect.
@@ -24,6 +24,10 @@ import static org.unitils.util.PropertyUtils.getString;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import org.apache.commons.lang.StringUtils;
@@ -149,6 +153,135 @@ abstract public class DbSupport {
     }
 
 
+    /**
+     * Bound parameters and queries returning several columns are only supported by a {@link DefaultSQLHandler}. Dialects
+     * that use them for reading all constraints, sequences or identity columns at once, should fall back to querying
+     * them one table or sequence at a time when this returns false, so that all statements still go through the
+     * configured sql handler.
+     *
+     * @return True if the sql handler of this instance is a {@link DefaultSQLHandler}
+     */
+    protected boolean isBulkQuerySupported() {
+        return sqlHandler instanceof DefaultSQLHandler;
+    }
+
+
+    /**
+     * Gets the sql handler as a {@link DefaultSQLHandler}, for using bound parameters and queries returning several
+     * columns. Only call this if {@link #isBulkQuerySupported()} returns true.
+     *
+     * @return the sql handler, not null
+     */
+    protected DefaultSQLHandler getDefaultSQLHandler() {
+        if (!isBulkQuerySupported()) {
+            throw new UnitilsException("Unable to execute bulk query: the sql handler " + sqlHandler.getClass().getName() + " is not a " + DefaultSQLHandler.class.getName());
+        }
+        return (DefaultSQLHandler) sqlHandler;
+    }
+
+
+    /**
+     * Returns the value of the first column of the first record of the given query. The parameters are bound to the
+     * query if the sql handler supports it, otherwise they are filled in as literals.
+     *
+     * @param sql        The query, not null
+     * @param parameters The values for the ? placeholders of the query, not null
+     * @return The value
+     */
+    protected long getItemAsLong(String sql, Object... parameters) {
+        if (isBulkQuerySupported()) {
+            return getDefaultSQLHandler().getItemAsLong(sql, parameters);
+        }
+        return sqlHandler.getItemAsLong(fillInParameters(sql, parameters));
+    }
+
+
+    /**
+     * Returns the values of the first column of the records of the given query. The parameters are bound to the query
+     * if the sql handler supports it, otherwise they are filled in as literals.
+     *
+     * @param sql        The query, not null
+     * @param parameters The values for the ? placeholders of the query, not null
+     * @return The values, not null
+     */
+    protected Set<String> getItemsAsStringSet(String sql, Object... parameters) {
+        if (isBulkQuerySupported()) {
+            return getDefaultSQLHandler().getItemsAsStringSet(sql, parameters);
+        }
+        return sqlHandler.getItemsAsStringSet(fillInParameters(sql, parameters));
+    }
+
+
+    /**
+     * Executes the given query for every table and returns the values of the first column per table name. This is the
+     * fall back for dialects that read the values for all tables in a single query when {@link #isBulkQuerySupported()}
+     * returns false.
+     *
+     * @param sql        The query, the first ? placeholder is replaced by the table name, not null
+     * @param parameters The values for the other ? placeholders of the query, not null
+     * @return The values per table name, not null. Tables without values are left out.
+     */
+    protected Map<String, Set<String>> getItemsAsStringSetPerTable(String sql, Object... parameters) {
+        Map<String, Set<String>> result = new HashMap<String, Set<String>>();
+        for (String tableName : getTableNames()) {
+            Object[] tableParameters = new Object[parameters.length + 1];
+            tableParameters[0] = tableName;
+            System.arraycopy(parameters, 0, tableParameters, 1, parameters.length);
+
+            Set<String> items = getItemsAsStringSet(sql, tableParameters);
+            if (!items.isEmpty()) {
+                result.put(tableName, items);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Replaces the ? placeholders of the given query by the given values. Strings are quoted, other values are filled
+     * in as is.
+     *
+     * @param sql        The query, not null
+     * @param parameters The values for the placeholders, not null
+     * @return The query without placeholders, not null
+     */
+    protected String fillInParameters(String sql, Object... parameters) {
+        StringBuilder result = new StringBuilder();
+        int parameterIndex = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c != '?' || parameterIndex >= parameters.length) {
+                result.append(c);
+                continue;
+            }
+            Object parameter = parameters[parameterIndex++];
+            if (parameter instanceof String) {
+                result.append('\'').append(((String) parameter).replace("'", "''")).append('\'');
+            } else {
+                result.append(parameter);
+            }
+        }
+        return result.toString();
+    }
+
+
+    /**
+     * Executes the given statements as a single batch. If the sql handler is not a {@link DefaultSQLHandler}, the
+     * statements are executed one by one.
+     *
+     * @param statements The statements, not null
+     */
+    protected void executeUpdateBatch(List<String> statements) {
+        if (sqlHandler instanceof DefaultSQLHandler) {
+            ((DefaultSQLHandler) sqlHandler).executeUpdateBatch(statements);
+            return;
+        }
+        for (String statement : statements) {
+            sqlHandler.executeUpdate(statement);
+        }
+    }
+
+
     /**
      * Returns the names of all tables in the database.
      *
@@ -313,6 +446,24 @@ abstract public class DbSupport {
     public abstract void disableValueConstraints();
 
 
+    /**
+     * Drops the given constraints using a single batch. Dialects that disable their constraints by dropping them can
+     * use this to avoid a round trip to the database per constraint.
+     *
+     * @param constraintNames The names of the constraints per table name, not null
+     * @param dropClause      The clause that drops a constraint, followed by the constraint name, e.g. drop constraint
+     */
+    protected void dropConstraints(Map<String, Set<String>> constraintNames, String dropClause) {
+        List<String> statements = new ArrayList<String>();
+        for (Map.Entry<String, Set<String>> entry : constraintNames.entrySet()) {
+            for (String constraintName : entry.getValue()) {
+                statements.add("alter table " + qualified(entry.getKey()) + " " + dropClause + " " + quoted(constraintName));
+            }
+        }
+        executeUpdateBatch(statements);
+    }
+
+
     /**
      * Returns the value of the sequence with the given name.
      * <p/>
@@ -337,6 +488,54 @@ abstract public class DbSupport {
     }
 
 
+    /**
+     * Returns the values of all sequences in the database schema. The default implementation retrieves the value of
+     * every sequence separately, dialects that can, should override this to retrieve all values in a single query.
+     * <p/>
+     * Note: this can have the side-effect of increasing the sequence values.
+     *
+     * @return The sequence values per sequence name, not null
+     */
+    public Map<String, Long> getSequenceValues() {
+        Map<String, Long> sequenceValues = new HashMap<String, Long>();
+        for (String sequenceName : getSequenceNames()) {
+            sequenceValues.put(sequenceName, getSequenceValue(sequenceName));
+        }
+        return sequenceValues;
+    }
+
+
+    /**
+     * Sets the next value of all sequences with the given names to the given sequence value. The default implementation
+     * increments every sequence separately, dialects that can, should override this to increment all sequences using
+     * a single round trip to the database.
+     *
+     * @param sequenceNames    The sequences, not null
+     * @param newSequenceValue The value to set
+     */
+    public void incrementSequencesToValue(Set<String> sequenceNames, long newSequenceValue) {
+        for (String sequenceName : sequenceNames) {
+            incrementSequenceToValue(sequenceName, newSequenceValue);
+        }
+    }
+
+
+    /**
+     * Gets the names of all identity columns of all tables in the database schema. The default implementation
+     * retrieves the identity columns of every table separately, dialects that can, should override this to
+     * retrieve all identity columns in a single query.
+     *
+     * @return The names of the identity columns per table name, not null. Tables without identity columns can be left out.
+     */
+    public Map<String, Set<String>> getIdentityColumnNames() {
+        Map<String, Set<String>> identityColumnNames = new HashMap<String, Set<String>>();
+        for (String tableName : getTableNames()) {
+            identityColumnNames.put(tableName, getIdentityColumnNames(tableName));
+        }
+        return identityColumnNames;
+    }
+
+
     /**
      * Gets the names of all identity columns of the given table.
      *
@@ -22,15 +22,24 @@ import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQui
 
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Class to which database updates and queries are passed. Is in fact a utility class, but is a concrete instance to
  * enable decorating it or switching it with another implementation, allowing things like a dry run, creating a script
  * file or logging updates to a log file or database table.
+ * <p/>
+ * Every update or query gets a connection from the data source and closes it afterwards. Queries are executed using
+ * prepared statements, so that parameters can be bound to them. Subclasses can change how connections and statements
+ * are obtained and released, see {@link SessionSQLHandler}.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
@@ -40,6 +49,11 @@ public class DefaultSQLHandler implements SQLHandler {
     /* The logger instance for this class */
     private static Log logger = LogFactory.getLog(DefaultSQLHandler.class);
 
+    /**
+     * Empty parameters, for queries without placeholders.
+     */
+    public static final Object[] NO_PARAMETERS = new Object[0];
+
     /* The DataSource that provides access to the database, on which all queries and updates are executed */
     private DataSource dataSource;
 
@@ -86,14 +100,14 @@ public class DefaultSQLHandler implements SQLHandler {
         Connection connection = null;
         Statement statement = null;
         try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
-            return statement.executeUpdate(sql);
+            connection = getConnection();
+            statement = createStatement(connection);
+            return executeUpdate(statement, sql);
 
         } catch (Exception e) {
             throw new UnitilsException("Error while performing database update: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, null);
+            close(connection, statement, null);
         }
     }
 
@@ -112,14 +126,42 @@ public class DefaultSQLHandler implements SQLHandler {
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
+            connection = getConnection();
+            statement = createStatement(connection);
             resultSet = statement.executeQuery(sql);
 
         } catch (Exception e) {
             throw new UnitilsException("Error while performing database update: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
+        }
+    }
+
+
+    /**
+     * Executes the given statements as a single batch.
+     *
+     * @param sqls The sql statements, not null
+     * @return The nr of updates per statement
+     */
+    public int[] executeUpdateBatch(List<String> sqls) {
+        logger.debug(sqls);
+
+        if (!doExecuteUpdates || sqls.isEmpty()) {
+            // skip update
+            return new int[sqls.size()];
+        }
+        Connection connection = null;
+        Statement statement = null;
+        try {
+            connection = getConnection();
+            statement = createStatement(connection);
+            return executeBatch(statement, sqls);
+
+        } catch (Exception e) {
+            throw new UnitilsException("Error while performing database updates: " + sqls, e);
+        } finally {
+            close(connection, statement, null);
         }
     }
 
@@ -137,9 +179,9 @@ public class DefaultSQLHandler implements SQLHandler {
         Connection connection = null;
         Statement statement = null;
         try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
-            int nbChanges = statement.executeUpdate(sql);
+            connection = getConnection();
+            statement = createStatement(connection);
+            int nbChanges = executeUpdate(statement, sql);
             if (!connection.getAutoCommit()) {
                 connection.commit();
             }
@@ -148,7 +190,7 @@ public class DefaultSQLHandler implements SQLHandler {
         } catch (Exception e) {
             throw new UnitilsException("Error while performing database update: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, null);
+            close(connection, statement, null);
         }
     }
 
@@ -157,22 +199,30 @@ public class DefaultSQLHandler implements SQLHandler {
 	 * @see org.unitils.core.dbsupport.SQLHandler#getItemAsLong(java.lang.String)
 	 */
     public long getItemAsLong(String sql) {
+        return getItemAsLong(sql, NO_PARAMETERS);
+    }
+
+
+    /* (non-Javadoc)
+	 * @see org.unitils.core.dbsupport.SQLHandler#getItemAsLong(java.lang.String, java.lang.Object[])
+	 */
+    public long getItemAsLong(String sql, Object... parameters) {
         logger.debug(sql);
 
         Connection connection = null;
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
-            resultSet = statement.executeQuery(sql);
+            connection = getConnection();
+            statement = createQueryStatement(connection, sql, parameters);
+            resultSet = executeQuery(statement, sql, parameters);
             if (resultSet.next()) {
                 return resultSet.getLong(1);
             }
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
         }
 
         // in case no value was found, throw an exception
@@ -184,22 +234,30 @@ public class DefaultSQLHandler implements SQLHandler {
 	 * @see org.unitils.core.dbsupport.SQLHandler#getItemAsString(java.lang.String)
 	 */
     public String getItemAsString(String sql) {
+        return getItemAsString(sql, NO_PARAMETERS);
+    }
+
+
+    /* (non-Javadoc)
+	 * @see org.unitils.core.dbsupport.SQLHandler#getItemAsString(java.lang.String, java.lang.Object[])
+	 */
+    public String getItemAsString(String sql, Object... parameters) {
         logger.debug(sql);
 
         Connection connection = null;
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
-            resultSet = statement.executeQuery(sql);
+            connection = getConnection();
+            statement = createQueryStatement(connection, sql, parameters);
+            resultSet = executeQuery(statement, sql, parameters);
             if (resultSet.next()) {
                 return resultSet.getString(1);
             }
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
         }
 
         // in case no value was found, throw an exception
@@ -211,15 +269,23 @@ public class DefaultSQLHandler implements SQLHandler {
 	 * @see org.unitils.core.dbsupport.SQLHandler#getItemsAsStringSet(java.lang.String)
 	 */
     public Set<String> getItemsAsStringSet(String sql) {
+        return getItemsAsStringSet(sql, NO_PARAMETERS);
+    }
+
+
+    /* (non-Javadoc)
+	 * @see org.unitils.core.dbsupport.SQLHandler#getItemsAsStringSet(java.lang.String, java.lang.Object[])
+	 */
+    public Set<String> getItemsAsStringSet(String sql, Object... parameters) {
         logger.debug(sql);
 
         Connection connection = null;
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
-            resultSet = statement.executeQuery(sql);
+            connection = getConnection();
+            statement = createQueryStatement(connection, sql, parameters);
+            resultSet = executeQuery(statement, sql, parameters);
             Set<String> result = new HashSet<String>();
             while (resultSet.next()) {
                 result.add(resultSet.getString(1));
@@ -229,7 +295,101 @@ public class DefaultSQLHandler implements SQLHandler {
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
+        }
+    }
+
+
+    /**
+     * Returns the values of the second column of the result of the given query as longs, mapped on the values of the
+     * first column.
+     *
+     * @param sql The sql string for retrieving the items
+     * @return The long values per key, not null
+     */
+    public Map<String, Long> getItemsAsLongMap(String sql) {
+        return getItemsAsLongMap(sql, NO_PARAMETERS);
+    }
+
+
+    /**
+     * Returns the values of the second column of the result of the given query as longs, mapped on the values of the
+     * first column.
+     *
+     * @param sql        The sql string for retrieving the items, containing a ? placeholder for every parameter
+     * @param parameters The values that are bound to the placeholders, not null
+     * @return The long values per key, not null
+     */
+    public Map<String, Long> getItemsAsLongMap(String sql, Object... parameters) {
+        logger.debug(sql);
+
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getConnection();
+            statement = createQueryStatement(connection, sql, parameters);
+            resultSet = executeQuery(statement, sql, parameters);
+            Map<String, Long> result = new HashMap<String, Long>();
+            while (resultSet.next()) {
+                result.put(resultSet.getString(1), resultSet.getLong(2));
+            }
+            return result;
+
+        } catch (Exception e) {
+            throw new UnitilsException("Error while executing statement: " + sql, e);
+        } finally {
+            close(connection, statement, resultSet);
+        }
+    }
+
+
+    /**
+     * Returns the values of the second column of the result of the given query, grouped by the values of the
+     * first column.
+     *
+     * @param sql The sql string for retrieving the items
+     * @return The items per key, not null
+     */
+    public Map<String, Set<String>> getItemsAsStringSetMap(String sql) {
+        return getItemsAsStringSetMap(sql, NO_PARAMETERS);
+    }
+
+
+    /**
+     * Returns the values of the second column of the result of the given query, grouped by the values of the
+     * first column.
+     *
+     * @param sql        The sql string for retrieving the items, containing a ? placeholder for every parameter
+     * @param parameters The values that are bound to the placeholders, not null
+     * @return The items per key, not null
+     */
+    public Map<String, Set<String>> getItemsAsStringSetMap(String sql, Object... parameters) {
+        logger.debug(sql);
+
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getConnection();
+            statement = createQueryStatement(connection, sql, parameters);
+            resultSet = executeQuery(statement, sql, parameters);
+            Map<String, Set<String>> result = new HashMap<String, Set<String>>();
+            while (resultSet.next()) {
+                String key = resultSet.getString(1);
+                Set<String> items = result.get(key);
+                if (items == null) {
+                    items = new HashSet<String>();
+                    result.put(key, items);
+                }
+                items.add(resultSet.getString(2));
+            }
+            return result;
+
+        } catch (Exception e) {
+            throw new UnitilsException("Error while executing statement: " + sql, e);
+        } finally {
+            close(connection, statement, resultSet);
         }
     }
 
@@ -238,21 +398,29 @@ public class DefaultSQLHandler implements SQLHandler {
       * @see org.unitils.core.dbsupport.SQLHandler#exists(java.lang.String)
       */
     public boolean exists(String sql) {
+        return exists(sql, NO_PARAMETERS);
+    }
+
+
+    /* (non-Javadoc)
+      * @see org.unitils.core.dbsupport.SQLHandler#exists(java.lang.String, java.lang.Object[])
+      */
+    public boolean exists(String sql, Object... parameters) {
         logger.debug(sql);
 
         Connection connection = null;
         Statement statement = null;
         ResultSet resultSet = null;
         try {
-            connection = dataSource.getConnection();
-            statement = connection.createStatement();
-            resultSet = statement.executeQuery(sql);
+            connection = getConnection();
+            statement = createQueryStatement(connection, sql, parameters);
+            resultSet = executeQuery(statement, sql, parameters);
             return resultSet.next();
 
         } catch (Exception e) {
             throw new UnitilsException("Error while executing statement: " + sql, e);
         } finally {
-            closeQuietly(connection, statement, resultSet);
+            close(connection, statement, resultSet);
         }
     }
 
@@ -271,4 +439,118 @@ public class DefaultSQLHandler implements SQLHandler {
     public boolean isDoExecuteUpdates() {
         return doExecuteUpdates;
     }
+
+
+    /**
+     * @return A connection to execute a statement on, not null
+     */
+    protected Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+
+    /**
+     * Creates a statement for executing updates.
+     *
+     * @param connection The connection, not null
+     * @return The statement, not null
+     */
+    protected Statement createStatement(Connection connection) throws SQLException {
+        return connection.createStatement();
+    }
+
+
+    /**
+     * Creates a prepared statement for executing the given query.
+     *
+     * @param connection The connection, not null
+     * @param sql        The query, not null
+     * @return The statement, not null
+     */
+    protected PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        return connection.prepareStatement(sql);
+    }
+
+
+    /**
+     * Creates the statement for executing the given query. A prepared statement is only used when there are parameters
+     * to bind: some databases (e.g. H2) reuse the result of a prepared query on their system tables without noticing
+     * that the tables were changed in the meantime.
+     *
+     * @param connection The connection, not null
+     * @param sql        The query, not null
+     * @param parameters The values for the ? placeholders in the query, not null
+     * @return The statement, not null
+     */
+    protected Statement createQueryStatement(Connection connection, String sql, Object[] parameters) throws SQLException {
+        if (parameters.length == 0) {
+            return createStatement(connection);
+        }
+        return prepareStatement(connection, sql);
+    }
+
+
+    /**
+     * Executes the given update.
+     *
+     * @param statement The statement, not null
+     * @param sql       The update, not null
+     * @return The nr of updates
+     */
+    protected int executeUpdate(Statement statement, String sql) throws SQLException {
+        return statement.executeUpdate(sql);
+    }
+
+
+    /**
+     * Executes the given updates as a single batch. The batch of the statement is always cleared afterwards, so
+     * that a statement that is reused does not execute the updates of a failed batch again.
+     *
+     * @param statement The statement, not null
+     * @param sqls      The updates, not null
+     * @return The nr of updates per statement
+     */
+    protected int[] executeBatch(Statement statement, List<String> sqls) throws SQLException {
+        try {
+            for (String sql : sqls) {
+                statement.addBatch(sql);
+            }
+            return statement.executeBatch();
+        } finally {
+            statement.clearBatch();
+        }
+    }
+
+
+    /**
+     * Executes the given query. If there are parameters, they are bound to the statement, which is then a prepared
+     * statement for the query.
+     *
+     * @param statement  The statement, not null
+     * @param sql        The query, not null
+     * @param parameters The values for the ? placeholders in the query, not null
+     * @return The result, not null
+     */
+    protected ResultSet executeQuery(Statement statement, String sql, Object[] parameters) throws SQLException {
+        if (parameters.length == 0) {
+            return statement.executeQuery(sql);
+        }
+        PreparedStatement preparedStatement = (PreparedStatement) statement;
+        for (int i = 0; i < parameters.length; i++) {
+            preparedStatement.setObject(i + 1, parameters[i]);
+        }
+        return preparedStatement.executeQuery();
+    }
+
+
+    /**
+     * Releases the given connection, statement and result set after a statement was executed.
+     *
+     * @param connection The connection, null if none was obtained
+     * @param statement  The statement, null if none was created
+     * @param resultSet  The result set, null if there is none
+     */
+    protected void close(Connection connection, Statement statement, ResultSet resultSet) {
+        closeQuietly(connection, statement, resultSet);
+    }
 }
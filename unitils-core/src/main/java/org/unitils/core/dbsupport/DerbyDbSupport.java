@@ -22,7 +22,10 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -115,6 +118,20 @@ public class DerbyDbSupport extends DbSupport {
     }
 
 
+    /**
+     * Gets the names of all identity columns of all tables in the database schema using a single query.
+     *
+     * @return The names of the identity columns per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getIdentityColumnNames() {
+        if (!isBulkQuerySupported()) {
+            return super.getIdentityColumnNames();
+        }
+        return getDefaultSQLHandler().getItemsAsStringSetMap("select t.TABLENAME, c.COLUMNNAME from SYS.SYSCOLUMNS c, SYS.SYSTABLES t, SYS.SYSSCHEMAS s where c.REFERENCEID = t.TABLEID AND t.SCHEMAID = s.SCHEMAID AND t.TABLETYPE = 'T' AND c.AUTOINCREMENTINC is not null AND s.SCHEMANAME = '" + getSchemaName() + "'");
+    }
+
+
     /**
      * Increments the identity value for the specified identity column on the specified table to the given value.
      *
@@ -129,61 +146,56 @@ public class DerbyDbSupport extends DbSupport {
 
 
     /**
-     * Disables all referential constraints (e.g. foreign keys) on all table in the schema
+     * Disables all referential constraints (e.g. foreign keys) on all table in the schema.
+     * <p/>
+     * The constraints of all tables are dropped using a single batch. Dropped constraints are no longer found, so
+     * running this again only handles the constraints that were added in the meantime.
      */
     @Override
     public void disableReferentialConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableReferentialConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableReferentialConstraints(String tableName) {
-        SQLHandler sqlHandler = getSQLHandler();
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select c.CONSTRAINTNAME from SYS.SYSCONSTRAINTS c, SYS.SYSTABLES t, SYS.SYSSCHEMAS s where c.TYPE = 'F' AND c.TABLEID = t.TABLEID  AND t.TABLENAME = '" + tableName + "' AND t.SCHEMAID = s.SCHEMAID AND s.SCHEMANAME = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select t.TABLENAME, c.CONSTRAINTNAME from SYS.SYSCONSTRAINTS c, SYS.SYSTABLES t, SYS.SYSSCHEMAS s where c.TYPE = 'F' AND c.TABLEID = t.TABLEID AND t.SCHEMAID = s.SCHEMAID AND s.SCHEMANAME = '" + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select c.CONSTRAINTNAME from SYS.SYSCONSTRAINTS c, SYS.SYSTABLES t, SYS.SYSSCHEMAS s where t.TABLENAME = ? AND c.TYPE = 'F' AND c.TABLEID = t.TABLEID AND t.SCHEMAID = s.SCHEMAID AND s.SCHEMANAME = ?", getSchemaName());
         }
+        dropConstraints(constraintNames, "drop constraint");
     }
 
 
     /**
-     * Disables all value constraints (e.g. not null) on all tables in the schema
+     * Disables all value constraints (e.g. not null) on all tables in the schema.
+     * <p/>
+     * The check and unique constraints of all tables are dropped using a single batch, followed by a single batch for
+     * the not null constraints.
      */
     @Override
     public void disableValueConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableValueConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableValueConstraints(String tableName) {
-        SQLHandler sqlHandler = getSQLHandler();
-
         // disable all check and unique constraints
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select c.CONSTRAINTNAME from SYS.SYSCONSTRAINTS c, SYS.SYSTABLES t, SYS.SYSSCHEMAS s where c.TYPE in ('U', 'C') AND c.TABLEID = t.TABLEID  AND t.TABLENAME = '" + tableName + "' AND t.SCHEMAID = s.SCHEMAID AND s.SCHEMANAME = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select t.TABLENAME, c.CONSTRAINTNAME from SYS.SYSCONSTRAINTS c, SYS.SYSTABLES t, SYS.SYSSCHEMAS s where c.TYPE in ('U', 'C') AND c.TABLEID = t.TABLEID AND t.SCHEMAID = s.SCHEMAID AND s.SCHEMANAME = '" + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select c.CONSTRAINTNAME from SYS.SYSCONSTRAINTS c, SYS.SYSTABLES t, SYS.SYSSCHEMAS s where t.TABLENAME = ? AND c.TYPE in ('U', 'C') AND c.TABLEID = t.TABLEID AND t.SCHEMAID = s.SCHEMAID AND s.SCHEMANAME = ?", getSchemaName());
         }
-
-        // retrieve the name of the primary key, since we cannot remove the not-null constraint on this column
-        Set<String> primaryKeyColumnNames = getPrimaryKeyColumnNames(tableName);
+        dropConstraints(constraintNames, "drop constraint");
 
         // disable all not null constraints
-        Set<String> notNullColumnNames = getNotNullColummnNames(tableName);
-        for (String notNullColumnName : notNullColumnNames) {
-            if (primaryKeyColumnNames.contains(notNullColumnName)) {
-                // Do not remove PK constraints
-                continue;
+        List<String> statements = new ArrayList<String>();
+        for (String tableName : getTableNames()) {
+            // retrieve the name of the primary key, since we cannot remove the not-null constraint on this column
+            Set<String> primaryKeyColumnNames = getPrimaryKeyColumnNames(tableName);
+
+            Set<String> notNullColumnNames = getNotNullColummnNames(tableName);
+            for (String notNullColumnName : notNullColumnNames) {
+                if (primaryKeyColumnNames.contains(notNullColumnName)) {
+                    // Do not remove PK constraints
+                    continue;
+                }
+                statements.add("alter table " + qualified(tableName) + " alter column " + quoted(notNullColumnName) + " NULL");
             }
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " alter column " + quoted(notNullColumnName) + " NULL");
         }
+        executeUpdateBatch(statements);
     }
 
 
@@ -15,16 +15,14 @@
  */
 package org.unitils.core.dbsupport;
 
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.DbSupport;
 
-import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQuietly;
-
 /**
  * Implementation of {@link org.unitils.core.dbsupport.DbSupport} for a H2
  * database
@@ -80,6 +78,23 @@ public class H2DbSupport extends DbSupport {
           + getSchemaName() + "'");
     }
 
+
+    /**
+     * Gets the names of all primary columns of all tables in the database
+     * schema using a single query.
+     *
+     * @return The names of the primary key columns per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getIdentityColumnNames() {
+        if (!isBulkQuerySupported()) {
+            return super.getIdentityColumnNames();
+        }
+        return getDefaultSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, "
+          + "COLUMN_NAME from INFORMATION_SCHEMA.INDEXES where PRIMARY_KEY = "
+          + "'TRUE' AND TABLE_SCHEMA = '" + getSchemaName() + "'");
+    }
+
     /**
      * Retrieves the names of all the views in the database schema.
      *
@@ -145,6 +160,41 @@ public class H2DbSupport extends DbSupport {
           + qualified(sequenceName) + " restart with " + newSequenceValue);
     }
 
+
+    /**
+     * Returns the values of all sequences in the database schema using a
+     * single query.
+     *
+     * @return The sequence values per sequence name, not null
+     */
+    @Override
+    public Map<String, Long> getSequenceValues() {
+        if (!isBulkQuerySupported()) {
+            return super.getSequenceValues();
+        }
+        return getDefaultSQLHandler().getItemsAsLongMap("select SEQUENCE_NAME, "
+          + "CURRENT_VALUE from INFORMATION_SCHEMA.SEQUENCES where "
+          + "SEQUENCE_SCHEMA = '" + getSchemaName() + "'");
+    }
+
+    /**
+     * Sets the next value of all sequences with the given names to the given
+     * sequence value using a single batch.
+     *
+     * @param sequenceNames    The sequences, not null
+     * @param newSequenceValue The value to set
+     */
+    @Override
+    public void incrementSequencesToValue(Set<String> sequenceNames,
+      long newSequenceValue) {
+        List<String> statements = new ArrayList<String>();
+        for (String sequenceName : sequenceNames) {
+            statements.add("alter sequence " + qualified(sequenceName)
+              + " restart with " + newSequenceValue);
+        }
+        executeUpdateBatch(statements);
+    }
+
     /**
      * Increments the identity value for the specified identity column on the
      * specified table to the given value.
@@ -183,72 +233,70 @@ public class H2DbSupport extends DbSupport {
 
     /**
      * Disables all check and unique constraints on all tables in the schema
+     * using a single batch
      */
     protected void disableCheckAndUniqueConstraints() {
-        Connection connection = null;
-        Statement queryStatement = null;
-        Statement alterStatement = null;
-        ResultSet resultSet = null;
-        try {
-            connection = getSQLHandler().getDataSource().getConnection();
-            queryStatement = connection.createStatement();
-            alterStatement = connection.createStatement();
-
-            resultSet = queryStatement.executeQuery("select TABLE_NAME, "
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler()
+              .getItemsAsStringSetMap("select TABLE_NAME, CONSTRAINT_NAME "
+                + "from INFORMATION_SCHEMA.CONSTRAINTS where CONSTRAINT_TYPE "
+                + "IN ('CHECK', 'UNIQUE') AND CONSTRAINT_SCHEMA = '"
+                + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select "
               + "CONSTRAINT_NAME from INFORMATION_SCHEMA.CONSTRAINTS where "
-              + "CONSTRAINT_TYPE IN ('CHECK', 'UNIQUE') AND CONSTRAINT_SCHEMA "
-              + "= '" + getSchemaName() + "'");
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("TABLE_NAME");
-                String constraintName = resultSet.getString("CONSTRAINT_NAME");
-                alterStatement.executeUpdate("alter table "
-                  + qualified(tableName) + " drop constraint "
-                  + quoted(constraintName));
-            }
+              + "TABLE_NAME = ? AND CONSTRAINT_TYPE IN ('CHECK', 'UNIQUE') "
+              + "AND CONSTRAINT_SCHEMA = ?", getSchemaName());
+        }
+        try {
+            dropConstraints(constraintNames, "drop constraint");
         } catch (Exception e) {
             throw new UnitilsException("Error while disabling check and unique "
               + "constraints on schema " + getSchemaName(), e);
-        } finally {
-            closeQuietly(queryStatement);
-            closeQuietly(connection, alterStatement, resultSet);
         }
     }
 
     /**
-     * Disables all not null constraints on all tables in the schema
+     * Disables all not null constraints on all tables in the schema using a
+     * single batch
      */
     protected void disableNotNullConstraints() {
-        Connection connection = null;
-        Statement queryStatement = null;
-        Statement alterStatement = null;
-        ResultSet resultSet = null;
-        try {
-            connection = getSQLHandler().getDataSource().getConnection();
-            queryStatement = connection.createStatement();
-            alterStatement = connection.createStatement();
-
-            // Do not remove PK constraints
-            resultSet = queryStatement.executeQuery("select col.TABLE_NAME, "
+        // Do not remove PK constraints
+        Map<String, Set<String>> notNullColumnNames;
+        if (isBulkQuerySupported()) {
+            notNullColumnNames = getDefaultSQLHandler()
+              .getItemsAsStringSetMap("select col.TABLE_NAME, "
+                + "col.COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS col where "
+                + "col.IS_NULLABLE = 'NO' and col.TABLE_SCHEMA = '"
+                + getSchemaName() + "' AND NOT EXISTS (select COLUMN_NAME "
+                + "from INFORMATION_SCHEMA.INDEXES pk where pk.TABLE_NAME = "
+                + "col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and "
+                + "pk.TABLE_SCHEMA = '" + getSchemaName()
+                + "' AND pk.PRIMARY_KEY = TRUE)");
+        } else {
+            notNullColumnNames = getItemsAsStringSetPerTable("select "
               + "col.COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS col where "
-              + "col.IS_NULLABLE = 'NO' and col.TABLE_SCHEMA = '"
-              + getSchemaName() + "' " + "AND NOT EXISTS (select COLUMN_NAME "
+              + "col.TABLE_NAME = ? and col.IS_NULLABLE = 'NO' and "
+              + "col.TABLE_SCHEMA = ? AND NOT EXISTS (select COLUMN_NAME "
               + "from INFORMATION_SCHEMA.INDEXES pk where pk.TABLE_NAME = "
               + "col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and "
-              + "pk.TABLE_SCHEMA = '" + getSchemaName()
-              + "' AND pk.PRIMARY_KEY = TRUE)");
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("TABLE_NAME");
-                String columnName = resultSet.getString("COLUMN_NAME");
-                alterStatement.executeUpdate("alter table "
-                  + qualified(tableName) + " alter column " + quoted(columnName)
-                  + " set null");
+              + "pk.TABLE_SCHEMA = ? AND pk.PRIMARY_KEY = TRUE)",
+              getSchemaName(), getSchemaName());
+        }
+        List<String> statements = new ArrayList<String>();
+        for (Map.Entry<String, Set<String>> entry : notNullColumnNames
+          .entrySet()) {
+            for (String columnName : entry.getValue()) {
+                statements.add("alter table " + qualified(entry.getKey())
+                  + " alter column " + quoted(columnName) + " set null");
             }
+        }
+        try {
+            executeUpdateBatch(statements);
         } catch (Exception e) {
             throw new UnitilsException("Error while disabling not null "
               + "constraints on schema " + getSchemaName(), e);
-        } finally {
-            closeQuietly(queryStatement);
-            closeQuietly(connection, alterStatement, resultSet);
         }
     }
 
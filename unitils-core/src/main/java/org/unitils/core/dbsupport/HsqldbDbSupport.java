@@ -19,6 +19,9 @@ import org.unitils.core.UnitilsException;
 import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQuietly;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -48,9 +51,9 @@ public class HsqldbDbSupport extends DbSupport {
     @Override
     public Set<String> getTableNames() {
         if (getHsqldbMajorVersionNumber() >= 2) {
-            return getSQLHandler().getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_TYPE = 'BASE TABLE' AND TABLE_SCHEMA = '" + getSchemaName() + "'");
+            return getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_TYPE = 'BASE TABLE' AND TABLE_SCHEMA = ?", getSchemaName());
         }
-        return getSQLHandler().getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.SYSTEM_TABLES where TABLE_TYPE = 'TABLE' AND TABLE_SCHEM = '" + getSchemaName() + "'");
+        return getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.SYSTEM_TABLES where TABLE_TYPE = 'TABLE' AND TABLE_SCHEM = ?", getSchemaName());
     }
 
 
@@ -63,9 +66,9 @@ public class HsqldbDbSupport extends DbSupport {
     @Override
     public Set<String> getColumnNames(String tableName) {
         if (getHsqldbMajorVersionNumber() >= 2) {
-            return getSQLHandler().getItemsAsStringSet("select COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS where TABLE_NAME = '" + tableName + "' AND TABLE_SCHEMA = '" + getSchemaName() + "'");
+            return getItemsAsStringSet("select COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS where TABLE_NAME = ? AND TABLE_SCHEMA = ?", tableName, getSchemaName());
         }
-        return getSQLHandler().getItemsAsStringSet("select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_COLUMNS where TABLE_NAME = '" + tableName + "' AND TABLE_SCHEM = '" + getSchemaName() + "'");
+        return getItemsAsStringSet("select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_COLUMNS where TABLE_NAME = ? AND TABLE_SCHEM = ?", tableName, getSchemaName());
     }
 
 
@@ -77,9 +80,9 @@ public class HsqldbDbSupport extends DbSupport {
     @Override
     public Set<String> getViewNames() {
         if(getHsqldbMajorVersionNumber() >= 2){
-            return getSQLHandler().getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_TYPE = 'VIEW' AND TABLE_SCHEMA = '" + getSchemaName() + "'");
+            return getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_TYPE = 'VIEW' AND TABLE_SCHEMA = ?", getSchemaName());
         }
-        return getSQLHandler().getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.SYSTEM_TABLES where TABLE_TYPE = 'VIEW' AND TABLE_SCHEM = '" + getSchemaName() + "'");
+        return getItemsAsStringSet("select TABLE_NAME from INFORMATION_SCHEMA.SYSTEM_TABLES where TABLE_TYPE = 'VIEW' AND TABLE_SCHEM = ?", getSchemaName());
     }
 
 
@@ -91,9 +94,9 @@ public class HsqldbDbSupport extends DbSupport {
     @Override
     public Set<String> getSequenceNames() {
         if(getHsqldbMajorVersionNumber() >= 2){
-            return getSQLHandler().getItemsAsStringSet("select SEQUENCE_NAME from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_SCHEMA = '" + getSchemaName() + "'");
+            return getItemsAsStringSet("select SEQUENCE_NAME from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_SCHEMA = ?", getSchemaName());
         }
-        return getSQLHandler().getItemsAsStringSet("select SEQUENCE_NAME from INFORMATION_SCHEMA.SYSTEM_SEQUENCES where SEQUENCE_SCHEMA = '" + getSchemaName() + "'");
+        return getItemsAsStringSet("select SEQUENCE_NAME from INFORMATION_SCHEMA.SYSTEM_SEQUENCES where SEQUENCE_SCHEMA = ?", getSchemaName());
     }
 
 
@@ -105,43 +108,33 @@ public class HsqldbDbSupport extends DbSupport {
     @Override
     public Set<String> getTriggerNames() {
         if(getHsqldbMajorVersionNumber() >= 2){
-            return getSQLHandler().getItemsAsStringSet("select TRIGGER_NAME from INFORMATION_SCHEMA.TRIGGERS where TRIGGER_SCHEMA = '" + getSchemaName() + "'");
+            return getItemsAsStringSet("select TRIGGER_NAME from INFORMATION_SCHEMA.TRIGGERS where TRIGGER_SCHEMA = ?", getSchemaName());
         }
-        return getSQLHandler().getItemsAsStringSet("select TRIGGER_NAME from INFORMATION_SCHEMA.SYSTEM_TRIGGERS where TRIGGER_SCHEM = '" + getSchemaName() + "'");
+        return getItemsAsStringSet("select TRIGGER_NAME from INFORMATION_SCHEMA.SYSTEM_TRIGGERS where TRIGGER_SCHEM = ?", getSchemaName());
     }
 
 
     /**
-     * Disables all referential constraints (e.g. foreign keys) on all table in the schema
+     * Disables all referential constraints (e.g. foreign keys) on all table in the schema.
+     * <p/>
+     * The constraints of all tables are dropped using a single batch. Dropped constraints are no longer found, so
+     * running this again only handles the constraints that were added in the meantime.
      */
     @Override
     public void disableReferentialConstraints() {
-        int hsqlMajorVersionNumber = getHsqldbMajorVersionNumber();
-
-        Connection connection = null;
-        Statement queryStatement = null;
-        Statement alterStatement = null;
-        ResultSet resultSet = null;
+        Map<String, Set<String>> constraintNames;
+        if (!isBulkQuerySupported()) {
+            String tableConstraints = getHsqldbMajorVersionNumber() >= 2 ? "TABLE_CONSTRAINTS" : "SYSTEM_TABLE_CONSTRAINTS";
+            constraintNames = getItemsAsStringSetPerTable("select CONSTRAINT_NAME from INFORMATION_SCHEMA." + tableConstraints + " where TABLE_NAME = ? AND CONSTRAINT_TYPE = 'FOREIGN KEY' AND CONSTRAINT_SCHEMA = ?", getSchemaName());
+        } else if (getHsqldbMajorVersionNumber() >= 2) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS where CONSTRAINT_TYPE = 'FOREIGN KEY' AND CONSTRAINT_SCHEMA = ?", getSchemaName());
+        } else {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.SYSTEM_TABLE_CONSTRAINTS where CONSTRAINT_TYPE = 'FOREIGN KEY' AND CONSTRAINT_SCHEMA = ?", getSchemaName());
+        }
         try {
-            connection = getSQLHandler().getDataSource().getConnection();
-            queryStatement = connection.createStatement();
-            alterStatement = connection.createStatement();
-
-            if (hsqlMajorVersionNumber >= 2) {
-                resultSet = queryStatement.executeQuery("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS where CONSTRAINT_TYPE = 'FOREIGN KEY' AND CONSTRAINT_SCHEMA = '" + getSchemaName() + "'");
-            } else {
-                resultSet = queryStatement.executeQuery("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.SYSTEM_TABLE_CONSTRAINTS where CONSTRAINT_TYPE = 'FOREIGN KEY' AND CONSTRAINT_SCHEMA = '" + getSchemaName() + "'");
-            }
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("TABLE_NAME");
-                String constraintName = resultSet.getString("CONSTRAINT_NAME");
-                alterStatement.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
-            }
+            dropConstraints(constraintNames, "drop constraint");
         } catch (Exception e) {
             throw new UnitilsException("Error while disabling not referential constraints on schema " + getSchemaName(), e);
-        } finally {
-            closeQuietly(queryStatement);
-            closeQuietly(connection, alterStatement, resultSet);
         }
     }
 
@@ -157,73 +150,57 @@ public class HsqldbDbSupport extends DbSupport {
 
 
     /**
-     * Disables all check and unique constraints on all tables in the schema
+     * Disables all check and unique constraints on all tables in the schema using a single batch
      */
     protected void disableCheckAndUniqueConstraints() {
-        int hsqlMajorVersionNumber = getHsqldbMajorVersionNumber();
-
-        Connection connection = null;
-        Statement queryStatement = null;
-        Statement alterStatement = null;
-        ResultSet resultSet = null;
+        Map<String, Set<String>> constraintNames;
+        if (!isBulkQuerySupported()) {
+            String tableConstraints = getHsqldbMajorVersionNumber() >= 2 ? "TABLE_CONSTRAINTS" : "SYSTEM_TABLE_CONSTRAINTS";
+            constraintNames = getItemsAsStringSetPerTable("select CONSTRAINT_NAME from INFORMATION_SCHEMA." + tableConstraints + " where TABLE_NAME = ? AND CONSTRAINT_TYPE IN ('CHECK', 'UNIQUE') AND CONSTRAINT_SCHEMA = ?", getSchemaName());
+        } else if (getHsqldbMajorVersionNumber() >= 2) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS where CONSTRAINT_TYPE IN ('CHECK', 'UNIQUE') AND CONSTRAINT_SCHEMA = ?", getSchemaName());
+        } else {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.SYSTEM_TABLE_CONSTRAINTS where CONSTRAINT_TYPE IN ('CHECK', 'UNIQUE') AND CONSTRAINT_SCHEMA = ?", getSchemaName());
+        }
         try {
-            connection = getSQLHandler().getDataSource().getConnection();
-            queryStatement = connection.createStatement();
-            alterStatement = connection.createStatement();
-
-            if (hsqlMajorVersionNumber >= 2) {
-                resultSet = queryStatement.executeQuery("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.TABLE_CONSTRAINTS where CONSTRAINT_TYPE IN ('CHECK', 'UNIQUE') AND CONSTRAINT_SCHEMA = '" + getSchemaName() + "'");
-            } else {
-                resultSet = queryStatement.executeQuery("select TABLE_NAME, CONSTRAINT_NAME from INFORMATION_SCHEMA.SYSTEM_TABLE_CONSTRAINTS where CONSTRAINT_TYPE IN ('CHECK', 'UNIQUE') AND CONSTRAINT_SCHEMA = '" + getSchemaName() + "'");
-            }
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("TABLE_NAME");
-                String constraintName = resultSet.getString("CONSTRAINT_NAME");
-                alterStatement.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
-            }
+            dropConstraints(constraintNames, "drop constraint");
         } catch (Exception e) {
             throw new UnitilsException("Error while disabling check and unique constraints on schema " + getSchemaName(), e);
-        } finally {
-            closeQuietly(queryStatement);
-            closeQuietly(connection, alterStatement, resultSet);
         }
     }
 
 
     /**
-     * Disables all not null constraints on all tables in the schema
+     * Disables all not null constraints on all tables in the schema using a single batch
      */
     protected void disableNotNullConstraints() {
-        int hsqlMajorVersionNumber = getHsqldbMajorVersionNumber();
-
-        Connection connection = null;
-        Statement queryStatement = null;
-        Statement alterStatement = null;
-        ResultSet resultSet = null;
-        try {
-            connection = getSQLHandler().getDataSource().getConnection();
-            queryStatement = connection.createStatement();
-            alterStatement = connection.createStatement();
-
-            // Do not remove PK constraints
-            if(hsqlMajorVersionNumber >= 2){
-                resultSet = queryStatement.executeQuery("select col.TABLE_NAME, col.COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS col where col.IS_NULLABLE = 'NO' and col.TABLE_SCHEMA = '" + getSchemaName() + "' " +
-                        "AND NOT EXISTS ( select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS pk where pk.TABLE_NAME = col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and pk.TABLE_SCHEM = '" + getSchemaName() + "' )");
-            }   else {
-                resultSet = queryStatement.executeQuery("select col.TABLE_NAME, col.COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_COLUMNS col where col.IS_NULLABLE = 'NO' and col.TABLE_SCHEM = '" + getSchemaName() + "' " +
-                        "AND NOT EXISTS ( select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS pk where pk.TABLE_NAME = col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and pk.TABLE_SCHEM = '" + getSchemaName() + "' )");
+        // Do not remove PK constraints
+        Map<String, Set<String>> notNullColumnNames;
+        if (!isBulkQuerySupported()) {
+            if (getHsqldbMajorVersionNumber() >= 2) {
+                notNullColumnNames = getItemsAsStringSetPerTable("select col.COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS col where col.TABLE_NAME = ? and col.IS_NULLABLE = 'NO' and col.TABLE_SCHEMA = ? " +
+                        "AND NOT EXISTS ( select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS pk where pk.TABLE_NAME = col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and pk.TABLE_SCHEM = ? )", getSchemaName(), getSchemaName());
+            } else {
+                notNullColumnNames = getItemsAsStringSetPerTable("select col.COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_COLUMNS col where col.TABLE_NAME = ? and col.IS_NULLABLE = 'NO' and col.TABLE_SCHEM = ? " +
+                        "AND NOT EXISTS ( select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS pk where pk.TABLE_NAME = col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and pk.TABLE_SCHEM = ? )", getSchemaName(), getSchemaName());
             }
-
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("TABLE_NAME");
-                String columnName = resultSet.getString("COLUMN_NAME");
-                alterStatement.executeUpdate("alter table " + qualified(tableName) + " alter column " + quoted(columnName) + " set null");
+        } else if (getHsqldbMajorVersionNumber() >= 2) {
+            notNullColumnNames = getDefaultSQLHandler().getItemsAsStringSetMap("select col.TABLE_NAME, col.COLUMN_NAME from INFORMATION_SCHEMA.COLUMNS col where col.IS_NULLABLE = 'NO' and col.TABLE_SCHEMA = ? " +
+                    "AND NOT EXISTS ( select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS pk where pk.TABLE_NAME = col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and pk.TABLE_SCHEM = ? )", getSchemaName(), getSchemaName());
+        } else {
+            notNullColumnNames = getDefaultSQLHandler().getItemsAsStringSetMap("select col.TABLE_NAME, col.COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_COLUMNS col where col.IS_NULLABLE = 'NO' and col.TABLE_SCHEM = ? " +
+                    "AND NOT EXISTS ( select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS pk where pk.TABLE_NAME = col.TABLE_NAME and pk.COLUMN_NAME = col.COLUMN_NAME and pk.TABLE_SCHEM = ? )", getSchemaName(), getSchemaName());
+        }
+        List<String> statements = new ArrayList<String>();
+        for (Map.Entry<String, Set<String>> entry : notNullColumnNames.entrySet()) {
+            for (String columnName : entry.getValue()) {
+                statements.add("alter table " + qualified(entry.getKey()) + " alter column " + quoted(columnName) + " set null");
             }
+        }
+        try {
+            executeUpdateBatch(statements);
         } catch (Exception e) {
             throw new UnitilsException("Error while disabling not null constraints on schema " + getSchemaName(), e);
-        } finally {
-            closeQuietly(queryStatement);
-            closeQuietly(connection, alterStatement, resultSet);
         }
     }
 
@@ -239,9 +216,9 @@ public class HsqldbDbSupport extends DbSupport {
     @Override
     public long getSequenceValue(String sequenceName) {
         if (getHsqldbMajorVersionNumber() >= 2) {
-            return getSQLHandler().getItemAsLong("select NEXT_VALUE from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_SCHEMA = '" + getSchemaName() + "' and SEQUENCE_NAME = '" + sequenceName + "'");
+            return getItemAsLong("select NEXT_VALUE from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_SCHEMA = ? and SEQUENCE_NAME = ?", getSchemaName(), sequenceName);
         }
-        return getSQLHandler().getItemAsLong("select START_WITH from INFORMATION_SCHEMA.SYSTEM_SEQUENCES where SEQUENCE_SCHEMA = '" + getSchemaName() + "' and SEQUENCE_NAME = '" + sequenceName + "'");
+        return getItemAsLong("select START_WITH from INFORMATION_SCHEMA.SYSTEM_SEQUENCES where SEQUENCE_SCHEMA = ? and SEQUENCE_NAME = ?", getSchemaName(), sequenceName);
     }
 
 
@@ -257,6 +234,39 @@ public class HsqldbDbSupport extends DbSupport {
     }
 
 
+    /**
+     * Returns the values of all sequences in the database schema using a single query.
+     *
+     * @return The sequence values per sequence name, not null
+     */
+    @Override
+    public Map<String, Long> getSequenceValues() {
+        if (!isBulkQuerySupported()) {
+            return super.getSequenceValues();
+        }
+        if (getHsqldbMajorVersionNumber() >= 2) {
+            return getDefaultSQLHandler().getItemsAsLongMap("select SEQUENCE_NAME, NEXT_VALUE from INFORMATION_SCHEMA.SEQUENCES where SEQUENCE_SCHEMA = ?", getSchemaName());
+        }
+        return getDefaultSQLHandler().getItemsAsLongMap("select SEQUENCE_NAME, START_WITH from INFORMATION_SCHEMA.SYSTEM_SEQUENCES where SEQUENCE_SCHEMA = ?", getSchemaName());
+    }
+
+
+    /**
+     * Sets the next value of all sequences with the given names to the given sequence value using a single batch.
+     *
+     * @param sequenceNames    The sequences, not null
+     * @param newSequenceValue The value to set
+     */
+    @Override
+    public void incrementSequencesToValue(Set<String> sequenceNames, long newSequenceValue) {
+        List<String> statements = new ArrayList<String>();
+        for (String sequenceName : sequenceNames) {
+            statements.add("alter sequence " + qualified(sequenceName) + " restart with " + newSequenceValue);
+        }
+        executeUpdateBatch(statements);
+    }
+
+
     /**
      * Gets the names of all identity columns of the given table.
      * <p/>
@@ -267,7 +277,22 @@ public class HsqldbDbSupport extends DbSupport {
      */
     @Override
     public Set<String> getIdentityColumnNames(String tableName) {
-        return getSQLHandler().getItemsAsStringSet("select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS where TABLE_NAME = '" + tableName + "' AND TABLE_SCHEM = '" + getSchemaName() + "'");
+        return getItemsAsStringSet("select COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS where TABLE_NAME = ? AND TABLE_SCHEM = ?", tableName, getSchemaName());
+    }
+
+
+    /**
+     * Gets the names of all identity columns of all tables in the database schema using a single query.
+     * The same columns are returned as by {@link #getIdentityColumnNames(String)}.
+     *
+     * @return The names of the identity columns per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getIdentityColumnNames() {
+        if (!isBulkQuerySupported()) {
+            return super.getIdentityColumnNames();
+        }
+        return getDefaultSQLHandler().getItemsAsStringSetMap("select TABLE_NAME, COLUMN_NAME from INFORMATION_SCHEMA.SYSTEM_PRIMARYKEYS where TABLE_SCHEM = ?", getSchemaName());
     }
 
 
@@ -21,6 +21,9 @@ import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQui
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -122,57 +125,69 @@ public class MsSqlDbSupport extends DbSupport {
 
 
     /**
-     * Disables all referential constraints (e.g. foreign keys) on all table in the schema
+     * Gets the names of all identity columns of all tables in the database schema using a single query.
+     *
+     * @return The names of the identity columns per table name, not null
      */
     @Override
-    public void disableReferentialConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableReferentialConstraints(tableName);
+    public Map<String, Set<String>> getIdentityColumnNames() {
+        if (!isBulkQuerySupported()) {
+            return super.getIdentityColumnNames();
         }
+        return getDefaultSQLHandler().getItemsAsStringSetMap("select t.name, i.name from sys.identity_columns i, sys.tables t, sys.schemas s where i.object_id = t.object_id and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
     }
 
 
-    // todo refactor (see oracle)
-    protected void disableReferentialConstraints(String tableName) {
-        SQLHandler sqlHandler = getSQLHandler();
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select f.name from sys.foreign_keys f, sys.tables t, sys.schemas s where f.parent_object_id = t.object_id and t.name = '" + tableName + "' and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
+    /**
+     * Disables all referential constraints (e.g. foreign keys) on all table in the schema.
+     * <p/>
+     * The constraints of all tables are dropped using a single batch. Dropped constraints are no longer found, so
+     * running this again only handles the constraints that were added in the meantime.
+     */
+    @Override
+    public void disableReferentialConstraints() {
+        // the foreign keys are dropped instead of disabled, a disabled foreign key still prevents dropping the unique
+        // constraint it refers to when disabling the value constraints
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select t.name, f.name from sys.foreign_keys f, sys.tables t, sys.schemas s where f.parent_object_id = t.object_id and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select f.name from sys.foreign_keys f, sys.tables t, sys.schemas s where t.name = ? and f.parent_object_id = t.object_id and t.schema_id = s.schema_id and s.name = ?", getSchemaName());
         }
+        dropConstraints(constraintNames, "drop constraint");
     }
 
 
     /**
-     * Disables all value constraints (e.g. not null) on all tables in the schema
+     * Disables all value constraints (e.g. not null) on all tables in the schema.
+     * <p/>
+     * Unique constraints are dropped and check constraints are disabled using a single nocheck statement per table,
+     * both in a single batch. Only the constraints that are still enabled are handled, so running this again only
+     * handles the constraints that were added in the meantime.
      */
     @Override
     public void disableValueConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableValueConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableValueConstraints(String tableName) {
         SQLHandler sqlHandler = getSQLHandler();
 
         // disable all unique constraints
-        Set<String> keyConstraintNames = sqlHandler.getItemsAsStringSet("select k.name from sys.key_constraints k, sys.tables t, sys.schemas s where k.type = 'UQ' and k.parent_object_id = t.object_id and t.name = '" + tableName + "' and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
-        for (String keyConstraintName : keyConstraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(keyConstraintName));
+        Map<String, Set<String>> keyConstraintNames;
+        if (isBulkQuerySupported()) {
+            keyConstraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select t.name, k.name from sys.key_constraints k, sys.tables t, sys.schemas s where k.type = 'UQ' and k.parent_object_id = t.object_id and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
+        } else {
+            keyConstraintNames = getItemsAsStringSetPerTable("select k.name from sys.key_constraints k, sys.tables t, sys.schemas s where t.name = ? and k.type = 'UQ' and k.parent_object_id = t.object_id and t.schema_id = s.schema_id and s.name = ?", getSchemaName());
         }
+        dropConstraints(keyConstraintNames, "drop constraint");
 
         // disable all check constraints
-        Set<String> checkConstraintNames = sqlHandler.getItemsAsStringSet("select c.name from sys.check_constraints c, sys.tables t, sys.schemas s where c.parent_object_id = t.object_id and t.name = '" + tableName + "' and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
-        for (String checkConstraintName : checkConstraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(checkConstraintName));
+        Set<String> tableNames = sqlHandler.getItemsAsStringSet("select distinct t.name from sys.check_constraints c, sys.tables t, sys.schemas s where c.is_disabled = 0 and c.parent_object_id = t.object_id and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
+        List<String> statements = new ArrayList<String>();
+        for (String tableName : tableNames) {
+            statements.add("alter table " + qualified(tableName) + " nocheck constraint all");
         }
+        executeUpdateBatch(statements);
 
         // disable all not null constraints
-        disableNotNullConstraints(tableName);
+        disableNotNullConstraints();
     }
 
 
@@ -236,21 +251,28 @@ public class MsSqlDbSupport extends DbSupport {
 
 
     /**
-     * Disables not-null constraints on the given table.
+     * Disables the not-null constraints on all tables in the schema using a single batch.
      * <p/>
      * For primary keys, row-guid, identity and computed columns not-null constrains cannot be disabled in MS-Sql.
-     *
-     * @param tableName The table, not null
      */
-    protected void disableNotNullConstraints(String tableName) {
+    protected void disableNotNullConstraints() {
         SQLHandler sqlHandler = getSQLHandler();
 
-        // retrieve the name of the primary key, since we cannot remove the not-null constraint on this column
-        Set<String> primaryKeyColumnNames = sqlHandler.getItemsAsStringSet("select c.name from sys.key_constraints k, sys.index_columns i, sys.columns c, sys.tables t, sys.schemas s " +
-                "where k.type = 'PK' and i.index_id = k.unique_index_id and i.column_id = c.column_id " +
-                "  and c.object_id = t.object_id and k.parent_object_id = t.object_id and i.object_id = t.object_id " +
-                "  and t.name = '" + tableName + "' and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
+        // retrieve the names of the primary keys, since we cannot remove the not-null constraint on these columns
+        Map<String, Set<String>> primaryKeyColumnNames;
+        if (isBulkQuerySupported()) {
+            primaryKeyColumnNames = getDefaultSQLHandler().getItemsAsStringSetMap("select t.name, c.name from sys.key_constraints k, sys.index_columns i, sys.columns c, sys.tables t, sys.schemas s " +
+                    "where k.type = 'PK' and i.index_id = k.unique_index_id and i.column_id = c.column_id " +
+                    "  and c.object_id = t.object_id and k.parent_object_id = t.object_id and i.object_id = t.object_id " +
+                    "  and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
+        } else {
+            primaryKeyColumnNames = getItemsAsStringSetPerTable("select c.name from sys.key_constraints k, sys.index_columns i, sys.columns c, sys.tables t, sys.schemas s " +
+                    "where t.name = ? and k.type = 'PK' and i.index_id = k.unique_index_id and i.column_id = c.column_id " +
+                    "  and c.object_id = t.object_id and k.parent_object_id = t.object_id and i.object_id = t.object_id " +
+                    "  and t.schema_id = s.schema_id and s.name = ?", getSchemaName());
+        }
 
+        List<String> statements = new ArrayList<String>();
         Connection connection = null;
         Statement statement = null;
         ResultSet resultSet = null;
@@ -259,13 +281,15 @@ public class MsSqlDbSupport extends DbSupport {
             statement = connection.createStatement();
 
             // get all not-null columns but not row-guid, identity and computed columns (these cannot be altered in MS-Sql)
-            resultSet = statement.executeQuery("select c.name column_name, upper(y.name) data_type, c.max_length, c.precision from sys.types y, sys.columns c, sys.tables t, sys.schemas s " +
+            resultSet = statement.executeQuery("select t.name table_name, c.name column_name, upper(y.name) data_type, c.max_length, c.precision from sys.types y, sys.columns c, sys.tables t, sys.schemas s " +
                     "where c.is_nullable = 0 and c.is_rowguidcol = 0 and c.is_identity = 0 and c.is_computed = 0 " +
-                    "  and y.user_type_id = c.user_type_id and c.object_id = t.object_id and t.name = '" + tableName + "' and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
+                    "  and y.user_type_id = c.user_type_id and c.object_id = t.object_id and t.schema_id = s.schema_id and s.name = '" + getSchemaName() + "'");
 
             while (resultSet.next()) {
+                String tableName = resultSet.getString("table_name");
                 String columnName = resultSet.getString("column_name");
-                if (primaryKeyColumnNames.contains(columnName)) {
+                Set<String> tablePrimaryKeyColumnNames = primaryKeyColumnNames.get(tableName);
+                if (tablePrimaryKeyColumnNames != null && tablePrimaryKeyColumnNames.contains(columnName)) {
                     // skip primary key columns
                     continue;
                 }
@@ -285,13 +309,14 @@ public class MsSqlDbSupport extends DbSupport {
                     dataType += "(" + maxLength + ")";
                 }
                 // remove the not-null constraint
-                sqlHandler.executeUpdate("alter table " + qualified(tableName) + " alter column " + quoted(columnName) + " " + dataType + " null");
+                statements.add("alter table " + qualified(tableName) + " alter column " + quoted(columnName) + " " + dataType + " null");
             }
         } catch (Exception e) {
-            throw new UnitilsException("Error while disabling not null constraints. Table name: " + tableName, e);
+            throw new UnitilsException("Error while disabling not null constraints on schema " + getSchemaName(), e);
         } finally {
             closeQuietly(connection, statement, resultSet);
         }
+        executeUpdateBatch(statements);
     }
 
 }
@@ -15,10 +15,18 @@
  */
 package org.unitils.core.dbsupport;
 
+import org.unitils.core.UnitilsException;
 import org.unitils.core.util.StoredIdentifierCase;
 import static org.unitils.core.util.StoredIdentifierCase.LOWER_CASE;
 import static org.unitils.core.util.StoredIdentifierCase.UPPER_CASE;
-
+import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQuietly;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -92,56 +100,85 @@ public class MySqlDbSupport extends DbSupport {
 
 
     /**
-     * Disables all referential constraints (e.g. foreign keys) on all table in the schema
+     * Disables all referential constraints (e.g. foreign keys) on all table in the schema.
+     * <p/>
+     * The constraints of all tables are dropped using a single batch. Dropped constraints are no longer found, so
+     * running this again only handles the constraints that were added in the meantime.
      */
     @Override
     public void disableReferentialConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableReferentialConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableReferentialConstraints(String tableName) {
-        SQLHandler sqlHandler = getSQLHandler();
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select constraint_name from information_schema.table_constraints where constraint_type = 'FOREIGN KEY' AND table_name = '" + tableName + "' and constraint_schema = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop foreign key " + quoted(constraintName));
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select table_name, constraint_name from information_schema.table_constraints where constraint_type = 'FOREIGN KEY' and constraint_schema = '" + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select constraint_name from information_schema.table_constraints where table_name = ? and constraint_type = 'FOREIGN KEY' and constraint_schema = ?", getSchemaName());
         }
+        dropConstraints(constraintNames, "drop foreign key");
     }
 
 
     /**
-     * Disables all value constraints (e.g. not null) on all tables in the schema
+     * Disables all value constraints (e.g. not null) on all tables in the schema.
+     * <p/>
+     * The unique constraints of all tables are dropped using a single batch, followed by a single batch for the not
+     * null constraints.
      */
     @Override
     public void disableValueConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableValueConstraints(tableName);
+        // disable all unique constraints (check constraints are not implemented)
+        Map<String, Set<String>> constraintNames;
+        if (isBulkQuerySupported()) {
+            constraintNames = getDefaultSQLHandler().getItemsAsStringSetMap("select table_name, constraint_name from information_schema.table_constraints where constraint_type in ('UNIQUE') and constraint_schema = '" + getSchemaName() + "'");
+        } else {
+            constraintNames = getItemsAsStringSetPerTable("select constraint_name from information_schema.table_constraints where table_name = ? and constraint_type in ('UNIQUE') and constraint_schema = ?", getSchemaName());
         }
-    }
+        dropConstraints(constraintNames, "drop key");
 
+        // disable all not null constraints
+        disableNotNullConstraints();
+    }
 
-    // todo refactor (see oracle)
-    protected void disableValueConstraints(String tableName) {
-        SQLHandler sqlHandler = getSQLHandler();
 
-        // disable all unique constraints (check constraints are not implemented)
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select constraint_name from information_schema.table_constraints where constraint_type in ('UNIQUE') AND table_name = '" + tableName + "' and constraint_schema = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop key " + quoted(constraintName));
+    /**
+     * Disables the not null constraints on all tables in the schema using a single batch. The not null constraints on
+     * primary key columns are left untouched. If the sql handler does not support bulk queries, the columns are
+     * read through the sql handler one table at a time.
+     */
+    protected void disableNotNullConstraints() {
+        List<String> statements = new ArrayList<String>();
+        if (!isBulkQuerySupported()) {
+            SQLHandler sqlHandler = getSQLHandler();
+            for (String tableName : getTableNames()) {
+                Set<String> notNullColumnNames = sqlHandler.getItemsAsStringSet("select column_name from information_schema.columns where is_nullable = 'NO' and column_key <> 'PRI' and table_name = '" + tableName + "' and table_schema = '" + getSchemaName() + "'");
+                for (String notNullColumnName : notNullColumnNames) {
+                    // todo test length etc
+                    String columnType = sqlHandler.getItemAsString("select column_type from information_schema.columns where table_schema = '" + getSchemaName() + "' and table_name = '" + tableName + "' and column_name = '" + notNullColumnName + "'");
+                    statements.add("alter table " + qualified(tableName) + " change column " + quoted(notNullColumnName) + " " + quoted(notNullColumnName) + " " + columnType + " NULL ");
+                }
+            }
+            executeUpdateBatch(statements);
+            return;
         }
-
-        // disable all not null constraints
-        Set<String> notNullColumnNames = sqlHandler.getItemsAsStringSet("select column_name from information_schema.columns where is_nullable = 'NO' and column_key <> 'PRI' and table_name = '" + tableName + "' and table_schema = '" + getSchemaName() + "'");
-        for (String notNullColumnName : notNullColumnNames) {
-            // todo test length etc
-            String columnType = sqlHandler.getItemAsString("select column_type from information_schema.columns where table_schema = '" + getSchemaName() + "' and table_name = '" + tableName + "' and column_name = '" + notNullColumnName + "'");
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " change column " + quoted(notNullColumnName) + " " + quoted(notNullColumnName) + " " + columnType + " NULL ");
+        Connection connection = null;
+        Statement statement = null;
+        ResultSet resultSet = null;
+        try {
+            connection = getSQLHandler().getDataSource().getConnection();
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery("select col.table_name, col.column_name, col.column_type from information_schema.columns col, information_schema.tables tab where col.is_nullable = 'NO' and col.column_key <> 'PRI' and col.table_schema = '" + getSchemaName() + "' and tab.table_schema = col.table_schema and tab.table_name = col.table_name and tab.table_type = 'BASE TABLE'");
+            while (resultSet.next()) {
+                String tableName = resultSet.getString("table_name");
+                String notNullColumnName = resultSet.getString("column_name");
+                // todo test length etc
+                String columnType = resultSet.getString("column_type");
+                statements.add("alter table " + qualified(tableName) + " change column " + quoted(notNullColumnName) + " " + quoted(notNullColumnName) + " " + columnType + " NULL ");
+            }
+        } catch (Exception e) {
+            throw new UnitilsException("Error while disabling not null constraints on schema " + getSchemaName(), e);
+        } finally {
+            closeQuietly(connection, statement, resultSet);
         }
+        executeUpdateBatch(statements);
     }
 
 
@@ -158,6 +195,21 @@ public class MySqlDbSupport extends DbSupport {
     }
 
 
+    /**
+     * Gets the names of all identity columns of all tables in the database schema using a single query.
+     * The same columns are returned as by {@link #getIdentityColumnNames(String)}.
+     *
+     * @return The names of the identity columns per table name, not null
+     */
+    @Override
+    public Map<String, Set<String>> getIdentityColumnNames() {
+        if (!isBulkQuerySupported()) {
+            return super.getIdentityColumnNames();
+        }
+        return getDefaultSQLHandler().getItemsAsStringSetMap("select table_name, column_name from information_schema.columns where column_key = 'PRI' and table_schema = '" + getSchemaName() + "'");
+    }
+
+
     /**
      * Increments the identity value for the specified primary key on the specified table to the given value.
      *
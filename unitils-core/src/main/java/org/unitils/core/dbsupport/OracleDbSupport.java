@@ -19,6 +19,9 @@ import org.unitils.core.UnitilsException;
 import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQuietly;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -184,67 +187,61 @@ public class OracleDbSupport extends DbSupport {
 
 
     /**
-     * Disables all referential constraints (e.g. foreign keys) on all table in the schema
+     * Disables all referential constraints (e.g. foreign keys) on all table in the schema.
+     * <p/>
+     * The constraints are disabled by a single anonymous PL/SQL block. Constraints that are already disabled are
+     * skipped, so running this again only handles the constraints that were added in the meantime.
      */
     @Override
     public void disableReferentialConstraints() {
-        Connection connection = null;
-        Statement queryStatement = null;
-        Statement alterStatement = null;
-        ResultSet resultSet = null;
         try {
-            connection = getSQLHandler().getDataSource().getConnection();
-            queryStatement = connection.createStatement();
-            alterStatement = connection.createStatement();
-
-            // to be sure no recycled items are handled, all items with a name that starts with BIN$ will be filtered out.
-            resultSet = queryStatement.executeQuery("select TABLE_NAME, CONSTRAINT_NAME from ALL_CONSTRAINTS where CONSTRAINT_TYPE = 'R' and OWNER = '" + getSchemaName() + "' and CONSTRAINT_NAME not like 'BIN$%' and STATUS <> 'DISABLED'");
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("TABLE_NAME");
-                String constraintName = resultSet.getString("CONSTRAINT_NAME");
-                alterStatement.executeUpdate("alter table " + qualified(tableName) + " disable constraint " + quoted(constraintName));
-            }
+            getSQLHandler().executeUpdate(getDisableConstraintsBlock("'R'"));
         } catch (Exception e) {
             throw new UnitilsException("Error while disabling referential constraints on schema " + getSchemaName(), e);
-        } finally {
-            closeQuietly(queryStatement);
-            closeQuietly(connection, alterStatement, resultSet);
         }
     }
 
 
     /**
-     * Disables all value constraints (e.g. not null) on all tables in the schema
+     * Disables all value constraints (e.g. not null) on all tables in the schema.
+     * <p/>
+     * The constraints are disabled by a single anonymous PL/SQL block. Constraints that are already disabled are
+     * skipped, so running this again only handles the constraints that were added in the meantime.
      */
     @Override
     public void disableValueConstraints() {
-        Connection connection = null;
-        Statement queryStatement = null;
-        Statement alterStatement = null;
-        ResultSet resultSet = null;
         try {
-            connection = getSQLHandler().getDataSource().getConnection();
-            queryStatement = connection.createStatement();
-            alterStatement = connection.createStatement();
-
-            // to be sure no recycled items are handled, all items with a name that starts with BIN$ will be filtered out.
             // The 'O' type of constraints are ignored. These constraints are generated when a view is created with
             // the with read-only option and can't be disabled with an alter table
-            resultSet = queryStatement.executeQuery("select TABLE_NAME, CONSTRAINT_NAME from ALL_CONSTRAINTS where CONSTRAINT_TYPE in ('U', 'C', 'V') and OWNER = '" + getSchemaName() + "' and CONSTRAINT_NAME not like 'BIN$%' and STATUS <> 'DISABLED'");
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("TABLE_NAME");
-                String constraintName = resultSet.getString("CONSTRAINT_NAME");
-                alterStatement.executeUpdate("alter table " + qualified(tableName) + " disable constraint " + quoted(constraintName));
-            }
+            getSQLHandler().executeUpdate(getDisableConstraintsBlock("'U', 'C', 'V'"));
         } catch (Exception e) {
             throw new UnitilsException("Error while disabling value constraints on schema " + getSchemaName(), e);
-        } finally {
-            closeQuietly(queryStatement);
-            closeQuietly(connection, alterStatement, resultSet);
         }
     }
 
 
+    /**
+     * Creates an anonymous PL/SQL block that disables all enabled constraints of the given types in the schema.
+     *
+     * @param constraintTypes The constraint types, as a comma separated list of quoted values, not null
+     * @return The block, not null
+     */
+    protected String getDisableConstraintsBlock(String constraintTypes) {
+        // the table and constraint name are inserted into the dynamic statement by the block itself
+        String qualifiedTableName = qualified("' || c.TABLE_NAME || '");
+        String quotedConstraintName = quoted("' || c.CONSTRAINT_NAME || '");
+
+        StringBuilder block = new StringBuilder();
+        block.append("begin ");
+        // to be sure no recycled items are handled, all items with a name that starts with BIN$ will be filtered out.
+        block.append("for c in (select TABLE_NAME, CONSTRAINT_NAME from ALL_CONSTRAINTS where CONSTRAINT_TYPE in (").append(constraintTypes);
+        block.append(") and OWNER = '").append(getSchemaName()).append("' and CONSTRAINT_NAME not like 'BIN$%' and STATUS <> 'DISABLED') loop ");
+        block.append("execute immediate 'alter table ").append(qualifiedTableName).append(" disable constraint ").append(quotedConstraintName).append("'; ");
+        block.append("end loop; end;");
+        return block.toString();
+    }
+
+
     /**
      * Returns the value of the sequence with the given name.
      * <p/>
@@ -292,6 +289,59 @@ public class OracleDbSupport extends DbSupport {
     }
 
 
+    /**
+     * Returns the values of all sequences in the database schema using a single query.
+     *
+     * @return The sequence values per sequence name, not null
+     */
+    @Override
+    public Map<String, Long> getSequenceValues() {
+        if (!isBulkQuerySupported()) {
+            return super.getSequenceValues();
+        }
+        return getDefaultSQLHandler().getItemsAsLongMap("select SEQUENCE_NAME, LAST_NUMBER from ALL_SEQUENCES where SEQUENCE_OWNER = '" + getSchemaName() + "'");
+    }
+
+
+    /**
+     * Sets the next value of all sequences with the given names to the given sequence value. This is done using
+     * anonymous PL/SQL blocks that perform the same steps as {@link #incrementSequenceToValue} for every sequence.
+     * Every block handles at most 1000 sequences, the maximum number of values in an IN list.
+     *
+     * @param sequenceNames    The sequences, not null
+     * @param newSequenceValue The value to set
+     */
+    @Override
+    public void incrementSequencesToValue(Set<String> sequenceNames, long newSequenceValue) {
+        // the sequence name is inserted into the dynamic statements by the block itself
+        String qualifiedSequenceName = qualified("' || s.SEQUENCE_NAME || '");
+
+        List<String> sequenceNamesList = new ArrayList<String>(sequenceNames);
+        for (int i = 0; i < sequenceNamesList.size(); i += 1000) {
+            List<String> sequenceNamesPart = sequenceNamesList.subList(i, Math.min(i + 1000, sequenceNamesList.size()));
+
+            StringBuilder block = new StringBuilder();
+            block.append("declare next_value number; begin ");
+            block.append("for s in (select SEQUENCE_NAME, LAST_NUMBER, INCREMENT_BY from ALL_SEQUENCES where SEQUENCE_OWNER = '");
+            block.append(getSchemaName());
+            block.append("' and SEQUENCE_NAME in (");
+            for (int j = 0; j < sequenceNamesPart.size(); j++) {
+                if (j > 0) {
+                    block.append(", ");
+                }
+                block.append('\'').append(sequenceNamesPart.get(j).replace("'", "''")).append('\'');
+            }
+            block.append(")) loop ");
+            // change the increment, select the increment and set back the old increment
+            block.append("execute immediate 'alter sequence ").append(qualifiedSequenceName).append(" increment by ' || (").append(newSequenceValue).append(" - s.LAST_NUMBER); ");
+            block.append("execute immediate 'select ").append(qualifiedSequenceName).append(".NEXTVAL from DUAL' into next_value; ");
+            block.append("execute immediate 'alter sequence ").append(qualifiedSequenceName).append(" increment by ' || s.INCREMENT_BY; ");
+            block.append("end loop; end;");
+            getSQLHandler().executeUpdate(block.toString());
+        }
+    }
+
+
     /**
      * Gets the column type suitable to store values of the Java <code>java.lang.Long</code> type.
      *
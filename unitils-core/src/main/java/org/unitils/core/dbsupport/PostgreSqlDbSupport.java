@@ -8,7 +8,9 @@
  */
 package org.unitils.core.dbsupport;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -146,62 +148,55 @@ public class PostgreSqlDbSupport extends DbSupport {
 
 
     /**
-     * Disables all referential constraints (e.g. foreign keys) on all table in the schema
+     * Disables all referential constraints (e.g. foreign keys) on all table in the schema.
+     * <p/>
+     * The constraints are dropped by a single DO block. Dropped constraints are no longer found, so running this
+     * again only handles the constraints that were added in the meantime.
      */
     @Override
     public void disableReferentialConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableReferentialConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableReferentialConstraints(String tableName) {
-        SQLHandler sqlHandler = getSQLHandler();
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select constraint_name from information_schema.table_constraints con where con.table_name = '" + tableName + "' and constraint_type = 'FOREIGN KEY' and constraint_schema = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
-        }
+        String query = "select table_name, constraint_name from information_schema.table_constraints where constraint_type = 'FOREIGN KEY' and constraint_schema = '" + getSchemaName() + "'";
+        String statement = "'alter table " + qualified("' || r.table_name || '") + " drop constraint " + quoted("' || r.constraint_name || '") + "'";
+        getSQLHandler().executeUpdate(getDoBlock(query, statement));
     }
 
 
     /**
-     * Disables all value constraints (e.g. not null) on all tables in the schema
+     * Disables all value constraints (e.g. not null) on all tables in the schema.
+     * <p/>
+     * The constraints are dropped by DO blocks. Dropped constraints are no longer found, so running this again only
+     * handles the constraints that were added in the meantime.
      */
     @Override
     public void disableValueConstraints() {
-        Set<String> tableNames = getTableNames();
-        for (String tableName : tableNames) {
-            disableValueConstraints(tableName);
-        }
-    }
-
-
-    // todo refactor (see oracle)
-    protected void disableValueConstraints(String tableName) {
         SQLHandler sqlHandler = getSQLHandler();
 
         // disable all check and unique constraints
         // The join wiht pg_constraints is used to filter out not null check-constraints that are implicitly created by Postgresql
-        Set<String> constraintNames = sqlHandler.getItemsAsStringSet("select constraint_name from information_schema.table_constraints con, pg_constraint pg_con where pg_con.conname = con.constraint_name and con.table_name = '" + tableName + "' and constraint_type in ('CHECK', 'UNIQUE') and constraint_schema = '" + getSchemaName() + "'");
-        for (String constraintName : constraintNames) {
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " drop constraint " + quoted(constraintName));
-        }
+        String constraintsQuery = "select con.table_name, con.constraint_name from information_schema.table_constraints con, pg_constraint pg_con where pg_con.conname = con.constraint_name and con.constraint_type in ('CHECK', 'UNIQUE') and con.constraint_schema = '" + getSchemaName() + "'";
+        String constraintsStatement = "'alter table " + qualified("' || r.table_name || '") + " drop constraint " + quoted("' || r.constraint_name || '") + "'";
+        sqlHandler.executeUpdate(getDoBlock(constraintsQuery, constraintsStatement));
+
+        // disable all not null constraints, except on the primary key columns of the tables
+        String notNullQuery = "select col.table_name, col.column_name from information_schema.columns col, information_schema.tables tab " +
+                "where col.is_nullable = 'NO' and col.table_schema = '" + getSchemaName() + "' and tab.table_schema = col.table_schema and tab.table_name = col.table_name and tab.table_type = 'BASE TABLE' " +
+                "and not exists (select 1 from information_schema.table_constraints con, information_schema.key_column_usage key where con.table_name = col.table_name and con.table_schema = col.table_schema " +
+                "and key.table_name = con.table_name and key.table_schema = con.table_schema and key.constraint_name = con.constraint_name and con.constraint_type = 'PRIMARY KEY' and key.column_name = col.column_name)";
+        String notNullStatement = "'alter table " + qualified("' || r.table_name || '") + " alter column " + quoted("' || r.column_name || '") + " drop not null'";
+        sqlHandler.executeUpdate(getDoBlock(notNullQuery, notNullStatement));
+    }
 
-        // retrieve the name of the primary key, since we cannot remove the not-null constraint on this column
-        Set<String> primaryKeyColumnNames = sqlHandler.getItemsAsStringSet("select column_name from information_schema.table_constraints con, information_schema.key_column_usage key where con.table_name = '" + tableName + "' and con.table_schema = '" + getSchemaName() + "' and key.table_name = con.table_name and key.table_schema = con.table_schema and key.constraint_name = con.constraint_name and con.constraint_type = 'PRIMARY KEY'");
 
-        // disable all not null constraints
-        Set<String> notNullColumnNames = sqlHandler.getItemsAsStringSet("select column_name from information_schema.columns where is_nullable = 'NO' and table_name = '" + tableName + "' and table_schema = '" + getSchemaName() + "'");
-        for (String notNullColumnName : notNullColumnNames) {
-            if (primaryKeyColumnNames.contains(notNullColumnName)) {
-                // Do not remove PK constraints
-                continue;
-            }
-            sqlHandler.executeUpdate("alter table " + qualified(tableName) + " alter column " + notNullColumnName + " drop not null");
-        }
+    /**
+     * Creates an anonymous DO block that executes the given dynamic statement for every record of the given query.
+     * The columns of the current record can be used in the statement as r.column_name.
+     *
+     * @param query     The query, not null
+     * @param statement The expression that creates the statement for a record, not null
+     * @return The DO block, not null
+     */
+    protected String getDoBlock(String query, String statement) {
+        return "do $$ declare r record; begin for r in " + query + " loop execute " + statement + "; end loop; end $$";
     }
 
 
@@ -230,6 +225,60 @@ public class PostgreSqlDbSupport extends DbSupport {
     }
 
 
+
+    /**
+     * Returns the values of all sequences in the database schema using a single query.
+     * <p/>
+     * Note: this can have the side-effect of increasing the sequence values.
+     *
+     * @return The sequence values per sequence name, not null
+     */
+    @Override
+    public Map<String, Long> getSequenceValues() {
+        if (!isBulkQuerySupported()) {
+            return super.getSequenceValues();
+        }
+        Set<String> sequenceNames = getSequenceNames();
+        if (sequenceNames.isEmpty()) {
+            return new HashMap<String, Long>();
+        }
+        StringBuilder query = new StringBuilder();
+        for (String sequenceName : sequenceNames) {
+            if (query.length() > 0) {
+                query.append(" union all ");
+            }
+            query.append("select '").append(sequenceName.replace("'", "''")).append("', last_value from ").append(qualified(sequenceName));
+        }
+        return getDefaultSQLHandler().getItemsAsLongMap(query.toString());
+    }
+
+
+    /**
+     * Sets the next value of all sequences with the given names to the given sequence value using a single query.
+     *
+     * @param sequenceNames    The sequences, not null
+     * @param newSequenceValue The value to set
+     */
+    @Override
+    public void incrementSequencesToValue(Set<String> sequenceNames, long newSequenceValue) {
+        if (sequenceNames.isEmpty()) {
+            return;
+        }
+        StringBuilder query = new StringBuilder("select setval(s.name::regclass, " + newSequenceValue + ") from (values ");
+        boolean first = true;
+        for (String sequenceName : sequenceNames) {
+            if (first) {
+                first = false;
+            } else {
+                query.append(", ");
+            }
+            query.append("('").append(qualified(sequenceName).replace("'", "''")).append("')");
+        }
+        query.append(") as s(name)");
+        getSQLHandler().executeQuery(query.toString());
+    }
+
+
     /**
      * Sequences are supported.
      *
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Arrays.asList;
+import static org.unitils.thirdparty.org.apache.commons.dbutils.DbUtils.closeQuietly;
+
+/**
+ * SQLHandler that keeps its connection open for the duration of a session, e.g. a database maintenance task, instead
+ * of getting a new connection for every statement. The prepared statements of the queries with parameters are cached
+ * by their sql and reused until the schema changes: some databases (e.g. HSQLDB 1.8) keep returning the old content of
+ * their system tables from a reused prepared statement, so the cached statements are discarded as soon as the handler
+ * executes a statement that can change the schema. Inserts, updates and deletes keep the cache, any other statement,
+ * e.g. a create, drop or stored procedure call, discards it. Calling {@link #close()} ends the session and closes the
+ * connection and the cached statements. Since the handler can still be referenced afterwards, e.g. by a cached {@link DbSupport}, it then
+ * falls back to the behavior of the {@link DefaultSQLHandler} and gets a new connection for every statement.
+ * <p/>
+ * Every thread gets its own connection, so the handler can be used by tasks that run concurrently. The nr of
+ * executions and the execution time are recorded for at most {@link #MAX_NR_OF_STATEMENT_STATISTICS} different
+ * statements, see {@link #getStatementStatistics()}.
+ */
+public class SessionSQLHandler extends DefaultSQLHandler {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(SessionSQLHandler.class);
+
+    /**
+     * The maximum nr of different statements for which statistics are recorded. Scripts typically contain many
+     * statements that are only executed once, so statements beyond this limit are not recorded.
+     */
+    public static final int MAX_NR_OF_STATEMENT_STATISTICS = 1000;
+
+    /* The first keywords of the statements that cannot change the schema */
+    private static final Set<String> DATA_MANIPULATION_KEYWORDS = new HashSet<String>(asList("select", "insert", "update", "delete", "merge"));
+
+    /* The session of the current thread */
+    private ThreadLocal<Session> currentSession = new ThreadLocal<Session>();
+
+    /* All sessions that are still open */
+    private List<Session> sessions = new ArrayList<Session>();
+
+    /* The nr of schema changes executed by this handler, the cached statements of a session are discarded when it changes */
+    private AtomicLong schemaChangeCount = new AtomicLong();
+
+    /* True if the session was ended */
+    private volatile boolean closed;
+
+    /* The execution statistics per statement */
+    private Map<String, StatementStatistics> statementStatistics = new HashMap<String, StatementStatistics>();
+
+
+    /**
+     * Constructs a new instance that connects to the given DataSource
+     *
+     * @param dataSource The data source, not null
+     */
+    public SessionSQLHandler(DataSource dataSource) {
+        super(dataSource);
+    }
+
+
+    /**
+     * Constructs a new instance that connects to the given DataSource
+     *
+     * @param dataSource       The data source, not null
+     * @param doExecuteUpdates Boolean indicating whether updates should effectively be executed on the underlying
+     *                         database
+     */
+    public SessionSQLHandler(DataSource dataSource, boolean doExecuteUpdates) {
+        super(dataSource, doExecuteUpdates);
+    }
+
+
+    /**
+     * Ends the session: the cached statements and the connections of all threads are closed. The handler can still be
+     * used afterwards, but then every statement gets its own connection.
+     */
+    public void close() {
+        closed = true;
+        List<Session> sessionsToClose;
+        synchronized (sessions) {
+            sessionsToClose = new ArrayList<Session>(sessions);
+            sessions.clear();
+        }
+        for (Session session : sessionsToClose) {
+            session.close();
+        }
+        currentSession.remove();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Closed " + sessionsToClose.size() + " sql session(s). Statement statistics: " + getStatementStatistics().values());
+        }
+    }
+
+
+    /**
+     * @return The nr of executions and execution time per statement, not null
+     */
+    public Map<String, StatementStatistics> getStatementStatistics() {
+        synchronized (statementStatistics) {
+            Map<String, StatementStatistics> result = new HashMap<String, StatementStatistics>();
+            for (Map.Entry<String, StatementStatistics> entry : statementStatistics.entrySet()) {
+                StatementStatistics statistics = entry.getValue();
+                result.put(entry.getKey(), new StatementStatistics(statistics.sql, statistics.count, statistics.totalTimeNanos));
+            }
+            return result;
+        }
+    }
+
+
+    /**
+     * @return The connection of the session of the current thread, not null
+     */
+    @Override
+    protected Connection getConnection() throws SQLException {
+        if (closed) {
+            return super.getConnection();
+        }
+        return getSession().connection;
+    }
+
+
+    /**
+     * @param connection The connection of the session, not null
+     * @return The update statement of the session, not null
+     */
+    @Override
+    protected Statement createStatement(Connection connection) throws SQLException {
+        if (closed) {
+            return super.createStatement(connection);
+        }
+        Session session = getSession();
+        if (session.statement == null) {
+            session.statement = connection.createStatement();
+        }
+        return session.statement;
+    }
+
+
+    /**
+     * @param connection The connection of the session, not null
+     * @param sql        The query, not null
+     * @return The cached prepared statement for the query, not null
+     */
+    @Override
+    protected PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+        if (closed) {
+            return super.prepareStatement(connection, sql);
+        }
+        Session session = getSession();
+        long currentSchemaChangeCount = schemaChangeCount.get();
+        if (session.schemaChangeCount != currentSchemaChangeCount) {
+            session.closePreparedStatements();
+            session.schemaChangeCount = currentSchemaChangeCount;
+        }
+        PreparedStatement preparedStatement = session.preparedStatements.get(sql);
+        if (preparedStatement == null) {
+            preparedStatement = connection.prepareStatement(sql);
+            session.preparedStatements.put(sql, preparedStatement);
+        }
+        return preparedStatement;
+    }
+
+
+    @Override
+    protected int executeUpdate(Statement statement, String sql) throws SQLException {
+        long startTime = System.nanoTime();
+        try {
+            return super.executeUpdate(statement, sql);
+        } finally {
+            if (!isDataManipulation(sql)) {
+                schemaChangeCount.incrementAndGet();
+            }
+            registerExecution(sql, startTime);
+        }
+    }
+
+
+    @Override
+    protected int[] executeBatch(Statement statement, List<String> sqls) throws SQLException {
+        long startTime = System.nanoTime();
+        try {
+            return super.executeBatch(statement, sqls);
+        } finally {
+            for (String sql : sqls) {
+                if (!isDataManipulation(sql)) {
+                    schemaChangeCount.incrementAndGet();
+                    break;
+                }
+            }
+            registerExecution("batch of " + sqls.size() + " statements starting with: " + sqls.get(0), startTime);
+        }
+    }
+
+
+    @Override
+    protected ResultSet executeQuery(Statement statement, String sql, Object[] parameters) throws SQLException {
+        long startTime = System.nanoTime();
+        try {
+            return super.executeQuery(statement, sql, parameters);
+        } finally {
+            registerExecution(sql, startTime);
+        }
+    }
+
+
+    /**
+     * Only the result set is closed, the connection and statement are kept for the rest of the session.
+     */
+    @Override
+    protected void close(Connection connection, Statement statement, ResultSet resultSet) {
+        if (closed) {
+            super.close(connection, statement, resultSet);
+            return;
+        }
+        closeQuietly(resultSet);
+    }
+
+
+    /**
+     * @return The session of the current thread, a new one if there is none yet
+     */
+    protected Session getSession() throws SQLException {
+        Session session = currentSession.get();
+        if (session == null) {
+            session = new Session(super.getConnection());
+            currentSession.set(session);
+            synchronized (sessions) {
+                sessions.add(session);
+            }
+        }
+        return session;
+    }
+
+
+    /**
+     * @param sql The statement, not null
+     * @return True if the statement is an insert, update, delete, merge or select, i.e. cannot change the schema
+     */
+    protected boolean isDataManipulation(String sql) {
+        String trimmedSql = sql.trim();
+        int end = 0;
+        while (end < trimmedSql.length() && Character.isLetter(trimmedSql.charAt(end))) {
+            end++;
+        }
+        return DATA_MANIPULATION_KEYWORDS.contains(trimmedSql.substring(0, end).toLowerCase());
+    }
+
+
+    protected void registerExecution(String sql, long startTime) {
+        long time = System.nanoTime() - startTime;
+        synchronized (statementStatistics) {
+            StatementStatistics statistics = statementStatistics.get(sql);
+            if (statistics == null) {
+                if (statementStatistics.size() >= MAX_NR_OF_STATEMENT_STATISTICS) {
+                    return;
+                }
+                statistics = new StatementStatistics(sql, 0, 0);
+                statementStatistics.put(sql, statistics);
+            }
+            statistics.count++;
+            statistics.totalTimeNanos += time;
+        }
+    }
+
+
+    /**
+     * The connection and statements of a single thread.
+     */
+    protected static class Session {
+
+        protected Connection connection;
+
+        protected Statement statement;
+
+        protected Map<String, PreparedStatement> preparedStatements = new HashMap<String, PreparedStatement>();
+
+        protected long schemaChangeCount;
+
+        public Session(Connection connection) {
+            this.connection = connection;
+        }
+
+        public void close() {
+            closePreparedStatements();
+            closeQuietly(connection, statement, null);
+        }
+
+        public void closePreparedStatements() {
+            for (PreparedStatement preparedStatement : preparedStatements.values()) {
+                closeQuietly(preparedStatement);
+            }
+            preparedStatements.clear();
+        }
+    }
+
+
+    /**
+     * The nr of executions and total execution time of a statement.
+     */
+    public static class StatementStatistics {
+
+        private String sql;
+
+        private long count;
+
+        private long totalTimeNanos;
+
+        public StatementStatistics(String sql, long count, long totalTimeNanos) {
+            this.sql = sql;
+            this.count = count;
+            this.totalTimeNanos = totalTimeNanos;
+        }
+
+        /**
+         * @return The statement, not null
+         */
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return The nr of times the statement was executed
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The total execution time of the statement in milliseconds
+         */
+        public long getTotalTime() {
+            return totalTimeNanos / 1000000;
+        }
+
+        @Override
+        public String toString() {
+            return sql + ": " + count + " times in " + getTotalTime() + " ms";
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.timing;
+
+import org.unitils.core.TestListener;
+import org.unitils.core.timing.TimingRecorder.Measurement;
+
+import java.lang.reflect.Method;
+
+import static org.unitils.core.timing.TimingRecorder.start;
+import static org.unitils.core.timing.TimingRecorder.stop;
+
+/**
+ * Test listener that records the time of every lifecycle phase of the listener of a module in the
+ * {@link TimingRecorder} and delegates to that listener.
+ */
+public class TimedTestListener extends TestListener {
+
+    /* The listener of the module, not null */
+    protected TestListener testListener;
+    /* The category under which the phases are recorded, i.e. the name of the module */
+    protected String category;
+
+
+    /**
+     * @param testListener The listener of the module, not null
+     * @param category     The category under which the phases are recorded, not null
+     */
+    public TimedTestListener(TestListener testListener, String category) {
+        this.testListener = testListener;
+        this.category = category;
+    }
+
+
+    @Override
+    public void beforeTestClass(Class<?> testClass) {
+        Measurement measurement = start(category, "beforeTestClass");
+        try {
+            testListener.beforeTestClass(testClass);
+        } finally {
+            stop(measurement);
+        }
+    }
+
+    @Override
+    public void afterCreateTestObject(Object testObject) {
+        Measurement measurement = start(category, "afterCreateTestObject");
+        try {
+            testListener.afterCreateTestObject(testObject);
+        } finally {
+            stop(measurement);
+        }
+    }
+
+    @Override
+    public void beforeTestSetUp(Object testObject, Method testMethod) {
+        Measurement measurement = start(category, "beforeTestSetUp");
+        try {
+            testListener.beforeTestSetUp(testObject, testMethod);
+        } finally {
+            stop(measurement);
+        }
+    }
+
+    @Override
+    public void beforeTestMethod(Object testObject, Method testMethod) {
+        Measurement measurement = start(category, "beforeTestMethod");
+        try {
+            testListener.beforeTestMethod(testObject, testMethod);
+        } finally {
+            stop(measurement);
+        }
+    }
+
+    @Override
+    public void afterTestMethod(Object testObject, Method testMethod, Throwable testThrowable) {
+        Measurement measurement = start(category, "afterTestMethod");
+        try {
+            testListener.afterTestMethod(testObject, testMethod, testThrowable);
+        } finally {
+            stop(measurement);
+        }
+    }
+
+    @Override
+    public void afterTestTearDown(Object testObject, Method testMethod) {
+        Measurement measurement = start(category, "afterTestTearDown");
+        try {
+            testListener.afterTestTearDown(testObject, testMethod);
+        } finally {
+            stop(measurement);
+        }
+    }
+
+    @Override
+    public boolean shouldInvokeTestMethod(Object testObject, Method testMethod) {
+        return testListener.shouldInvokeTestMethod(testObject, testMethod);
+    }
+
+    @Override
+    public boolean shouldListenToTestClass(Class<?> testClass) {
+        return testListener.shouldListenToTestClass(testClass);
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.timing;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.unitils.core.UnitilsException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.unitils.thirdparty.org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Records the wall and CPU time that is spent in Unitils, per module and lifecycle phase (e.g. DbUnitModule
+ * beforeTestSetUp), per operation (e.g. loading a data set) and per test. When the JVM shuts down, a report is
+ * written ranking the phases and tests from slowest to fastest. If the report file name ends with .json, the
+ * report is written in JSON, otherwise as CSV.
+ * <p/>
+ * Recording is disabled by default. When disabled, {@link #start} returns null and {@link #stop} does nothing, so
+ * instrumented code only pays for a null check:
+ * <pre>
+ * Measurement measurement = TimingRecorder.start("DBMaintainer", "updateDatabase");
+ * try {
+ *     ...
+ * } finally {
+ *     TimingRecorder.stop(measurement);
+ * }
+ * </pre>
+ */
+public class TimingRecorder {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(TimingRecorder.class);
+
+    /* The category under which the tests are recorded */
+    public static final String TEST_CATEGORY = "test";
+
+    /* The recorder of the current run, null if timing is disabled */
+    private static volatile TimingRecorder instance;
+
+    /* Thread for writing the report at shutdown, null if not registered */
+    private static Thread shutdownHook;
+
+    /* The test that is currently running, per thread */
+    private static ThreadLocal<Measurement> currentTestMeasurement = new ThreadLocal<Measurement>();
+
+    private static ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+
+    /**
+     * Enables timing. The report is written to the given file when the JVM shuts down. Nothing is done if timing is
+     * already enabled with the same report file.
+     *
+     * @param reportFile The file to write the report to, not null
+     */
+    public static synchronized void enable(File reportFile) {
+        if (instance != null && instance.reportFile.equals(reportFile)) {
+            return;
+        }
+        instance = new TimingRecorder(reportFile);
+        if (shutdownHook == null) {
+            shutdownHook = new Thread(new WriteReportRunnable(), "unitils-timing-report");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+    }
+
+    /**
+     * Disables timing. All recorded times are discarded, no report will be written.
+     */
+    public static synchronized void disable() {
+        instance = null;
+    }
+
+    /**
+     * @return True if timing is enabled
+     */
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    /**
+     * @return The recorder of the current run, null if timing is disabled
+     */
+    public static TimingRecorder getInstance() {
+        return instance;
+    }
+
+
+    /**
+     * Starts measuring an operation.
+     *
+     * @param category The category, e.g. the name of the module, not null
+     * @param name     The name of the operation or phase, not null
+     * @return The measurement, null if timing is disabled
+     */
+    public static Measurement start(String category, String name) {
+        TimingRecorder timingRecorder = instance;
+        if (timingRecorder == null) {
+            return null;
+        }
+        return new Measurement(timingRecorder, category, name);
+    }
+
+    /**
+     * Stops the given measurement and records the time.
+     *
+     * @param measurement The measurement, null if timing is disabled
+     */
+    public static void stop(Measurement measurement) {
+        if (measurement != null) {
+            measurement.stop();
+        }
+    }
+
+    /**
+     * Starts measuring a test on the current thread.
+     *
+     * @param testName The name of the test, not null
+     */
+    public static void startTest(String testName) {
+        if (instance == null) {
+            return;
+        }
+        currentTestMeasurement.set(start(TEST_CATEGORY, testName));
+    }
+
+    /**
+     * Stops measuring the test on the current thread, if any.
+     */
+    public static void stopTest() {
+        if (instance == null) {
+            return;
+        }
+        Measurement measurement = currentTestMeasurement.get();
+        currentTestMeasurement.remove();
+        stop(measurement);
+    }
+
+
+    /* The file to write the report to, not null */
+    protected File reportFile;
+    /* The statistics per category and name, except for the tests */
+    protected Map<String, Statistic> phaseStatistics = new HashMap<String, Statistic>();
+    /* The statistics per test */
+    protected Map<String, Statistic> testStatistics = new HashMap<String, Statistic>();
+
+
+    /**
+     * @param reportFile The file to write the report to, not null
+     */
+    protected TimingRecorder(File reportFile) {
+        this.reportFile = reportFile;
+    }
+
+
+    /**
+     * Records the time of an operation.
+     *
+     * @param category The category, not null
+     * @param name     The name, not null
+     * @param wallTime The elapsed time in nanoseconds
+     * @param cpuTime  The CPU time of the thread in nanoseconds, 0 if not supported
+     */
+    public synchronized void record(String category, String name, long wallTime, long cpuTime) {
+        Map<String, Statistic> statistics = TEST_CATEGORY.equals(category) ? testStatistics : phaseStatistics;
+        String key = category + '#' + name;
+        Statistic statistic = statistics.get(key);
+        if (statistic == null) {
+            statistic = new Statistic(category, name);
+            statistics.put(key, statistic);
+        }
+        statistic.add(wallTime, cpuTime);
+    }
+
+    /**
+     * @return The statistics of all phases and operations, slowest first, not null
+     */
+    public synchronized List<Statistic> getPhaseStatistics() {
+        return sort(phaseStatistics);
+    }
+
+    /**
+     * @return The statistics of all tests, slowest first, not null
+     */
+    public synchronized List<Statistic> getTestStatistics() {
+        return sort(testStatistics);
+    }
+
+
+    /**
+     * Writes the report to the report file.
+     */
+    public void writeReport() {
+        List<Statistic> phases = getPhaseStatistics();
+        List<Statistic> tests = getTestStatistics();
+
+        File parentDir = reportFile.getAbsoluteFile().getParentFile();
+        if (parentDir != null) {
+            parentDir.mkdirs();
+        }
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8");
+            if (reportFile.getName().endsWith(".json")) {
+                writeJsonReport(phases, tests, writer);
+            } else {
+                writeCsvReport(phases, tests, writer);
+            }
+        } catch (IOException e) {
+            throw new UnitilsException("Unable to write timing report to " + reportFile, e);
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+
+    protected void writeCsvReport(List<Statistic> phases, List<Statistic> tests, Writer writer) throws IOException {
+        writer.write("type,category,name,count,wallTimeMillis,cpuTimeMillis,maxWallTimeMillis\n");
+        for (Statistic statistic : phases) {
+            writeCsvLine("phase", statistic, writer);
+        }
+        for (Statistic statistic : tests) {
+            writeCsvLine("test", statistic, writer);
+        }
+    }
+
+    protected void writeCsvLine(String type, Statistic statistic, Writer writer) throws IOException {
+        writer.write(type + "," + statistic.getCategory() + "," + escapeCsv(statistic.getName()) + "," + statistic.getCount() + "," +
+                toMillis(statistic.getWallTime()) + "," + toMillis(statistic.getCpuTime()) + "," + toMillis(statistic.getMaxWallTime()) + "\n");
+    }
+
+    protected void writeJsonReport(List<Statistic> phases, List<Statistic> tests, Writer writer) throws IOException {
+        writer.write("{\n  \"phases\": [");
+        writeJsonStatistics(phases, writer);
+        writer.write("],\n  \"tests\": [");
+        writeJsonStatistics(tests, writer);
+        writer.write("]\n}\n");
+    }
+
+    protected void writeJsonStatistics(List<Statistic> statistics, Writer writer) throws IOException {
+        for (int i = 0; i < statistics.size(); i++) {
+            Statistic statistic = statistics.get(i);
+            writer.write(i == 0 ? "\n    " : ",\n    ");
+            writer.write("{\"category\": \"" + escapeJson(statistic.getCategory()) + "\", \"name\": \"" + escapeJson(statistic.getName()) +
+                    "\", \"count\": " + statistic.getCount() + ", \"wallTimeMillis\": " + toMillis(statistic.getWallTime()) +
+                    ", \"cpuTimeMillis\": " + toMillis(statistic.getCpuTime()) + ", \"maxWallTimeMillis\": " + toMillis(statistic.getMaxWallTime()) + "}");
+        }
+        if (!statistics.isEmpty()) {
+            writer.write("\n  ");
+        }
+    }
+
+
+    protected List<Statistic> sort(Map<String, Statistic> statistics) {
+        List<Statistic> result = new ArrayList<Statistic>(statistics.size());
+        for (Statistic statistic : statistics.values()) {
+            result.add(statistic.copy());
+        }
+        Collections.sort(result, new Comparator<Statistic>() {
+            public int compare(Statistic statistic1, Statistic statistic2) {
+                long wallTime1 = statistic1.getWallTime();
+                long wallTime2 = statistic2.getWallTime();
+                return wallTime1 < wallTime2 ? 1 : (wallTime1 == wallTime2 ? 0 : -1);
+            }
+        });
+        return result;
+    }
+
+    protected String toMillis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f", nanos / 1000000d);
+    }
+
+    protected String escapeCsv(String value) {
+        if (value.indexOf(',') == -1 && value.indexOf('"') == -1) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    protected String escapeJson(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        result.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.toString();
+    }
+
+
+    protected static long getCurrentThreadCpuTime() {
+        if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
+            return 0;
+        }
+        try {
+            return threadMXBean.getCurrentThreadCpuTime();
+        } catch (UnsupportedOperationException e) {
+            return 0;
+        }
+    }
+
+
+    /**
+     * A running measurement of an operation.
+     */
+    public static class Measurement {
+
+        private TimingRecorder timingRecorder;
+        private String category;
+        private String name;
+        private long startWallTime;
+        private long startCpuTime;
+
+        protected Measurement(TimingRecorder timingRecorder, String category, String name) {
+            this.timingRecorder = timingRecorder;
+            this.category = category;
+            this.name = name;
+            this.startCpuTime = getCurrentThreadCpuTime();
+            this.startWallTime = System.nanoTime();
+        }
+
+        protected void stop() {
+            long wallTime = System.nanoTime() - startWallTime;
+            long cpuTime = getCurrentThreadCpuTime() - startCpuTime;
+            timingRecorder.record(category, name, wallTime, cpuTime);
+        }
+    }
+
+
+    /**
+     * The recorded times of an operation.
+     */
+    public static class Statistic {
+
+        private String category;
+        private String name;
+        private long count;
+        private long wallTime;
+        private long cpuTime;
+        private long maxWallTime;
+
+        public Statistic(String category, String name) {
+            this.category = category;
+            this.name = name;
+        }
+
+        protected void add(long wallTime, long cpuTime) {
+            this.count++;
+            this.wallTime += wallTime;
+            this.cpuTime += cpuTime;
+            this.maxWallTime = Math.max(maxWallTime, wallTime);
+        }
+
+        protected Statistic copy() {
+            Statistic statistic = new Statistic(category, name);
+            statistic.count = count;
+            statistic.wallTime = wallTime;
+            statistic.cpuTime = cpuTime;
+            statistic.maxWallTime = maxWallTime;
+            return statistic;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return The total elapsed time in nanoseconds
+         */
+        public long getWallTime() {
+            return wallTime;
+        }
+
+        /**
+         * @return The total CPU time in nanoseconds, 0 if not supported by the JVM
+         */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        /**
+         * @return The longest elapsed time of a single invocation in nanoseconds
+         */
+        public long getMaxWallTime() {
+            return maxWallTime;
+        }
+    }
+
+
+    private static class WriteReportRunnable implements Runnable {
+
+        public void run() {
+            TimingRecorder timingRecorder = instance;
+            if (timingRecorder == null) {
+                return;
+            }
+            try {
+                timingRecorder.writeReport();
+            } catch (Exception e) {
+                logger.warn("Unable to write Unitils timing report.", e);
+            }
+        }
+    }
+}
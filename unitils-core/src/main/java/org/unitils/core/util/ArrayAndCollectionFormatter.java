@@ -22,6 +22,8 @@ import java.util.Map;
 
 /**
  * Helper class for generating a string representation of a collection or array.
+ * <p/>
+ * As for the {@link ObjectFormatter}, the deprecated StringBuilder methods are no longer called during formatting.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -51,9 +53,9 @@ public class ArrayAndCollectionFormatter {
      *
      * @param array        The array, not null
      * @param currentDepth The current recursion depth
-     * @param result       The builder to append the result to, not null
+     * @param result       The output to append the result to, not null
      */
-    public void formatArray(Object array, int currentDepth, StringBuilder result) {
+    public void formatArray(Object array, int currentDepth, ObjectFormatterOutput result) {
         if (array instanceof byte[]) {
             formatByteArray((byte[]) array, result);
             return;
@@ -94,12 +96,15 @@ public class ArrayAndCollectionFormatter {
      *
      * @param collection   The collection, not null
      * @param currentDepth The current recursion depth
-     * @param result       The builder to append the result to, not null
+     * @param result       The output to append the result to, not null
      */
-    public void formatCollection(Collection<?> collection, int currentDepth, StringBuilder result) {
+    public void formatCollection(Collection<?> collection, int currentDepth, ObjectFormatterOutput result) {
         result.append("[");
         int count = 0;
         for (Object element : collection) {
+            if (result.isTruncated()) {
+                return;
+            }
             if (count++ > 0) {
                 result.append(", ");
             }
@@ -118,12 +123,15 @@ public class ArrayAndCollectionFormatter {
      *
      * @param map          The map, not null
      * @param currentDepth The current recursion depth
-     * @param result       The builder to append the result to, not null
+     * @param result       The output to append the result to, not null
      */
-    public void formatMap(Map<?, ?> map, int currentDepth, StringBuilder result) {
+    public void formatMap(Map<?, ?> map, int currentDepth, ObjectFormatterOutput result) {
         result.append("{");
         int count = 0;
         for (Map.Entry<?, ?> element : map.entrySet()) {
+            if (result.isTruncated()) {
+                return;
+            }
             if (count++ > 0) {
                 result.append(", ");
             }
@@ -140,10 +148,10 @@ public class ArrayAndCollectionFormatter {
     }
 
 
-    protected void formatObjectArray(Object[] array, int currentDepth, StringBuilder result) {
+    protected void formatObjectArray(Object[] array, int currentDepth, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -155,10 +163,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatByteArray(byte[] array, StringBuilder result) {
+    protected void formatByteArray(byte[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -170,10 +178,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatShortArray(short[] array, StringBuilder result) {
+    protected void formatShortArray(short[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -185,10 +193,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatIntArray(int[] array, StringBuilder result) {
+    protected void formatIntArray(int[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -200,10 +208,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatLongArray(long[] array, StringBuilder result) {
+    protected void formatLongArray(long[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -215,10 +223,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatCharArray(char[] array, StringBuilder result) {
+    protected void formatCharArray(char[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -232,10 +240,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatFloatArray(float[] array, StringBuilder result) {
+    protected void formatFloatArray(float[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -247,10 +255,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatDoubleArray(double[] array, StringBuilder result) {
+    protected void formatDoubleArray(double[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -262,10 +270,10 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
-    protected void formatBooleanArray(boolean[] array, StringBuilder result) {
+    protected void formatBooleanArray(boolean[] array, ObjectFormatterOutput result) {
         result.append("[");
         int i = 0;
-        for (; i < array.length && i < maxNrOfElements; i++) {
+        for (; i < array.length && i < maxNrOfElements && !result.isTruncated(); i++) {
             if (i > 0) {
                 result.append(", ");
             }
@@ -277,4 +285,99 @@ public class ArrayAndCollectionFormatter {
         result.append("]");
     }
 
+    /**
+     * @deprecated Not called during formatting, use {@link #formatArray(Object, int, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    public void formatArray(Object array, int currentDepth, StringBuilder result) {
+        formatArray(array, currentDepth, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatCollection(Collection, int, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    public void formatCollection(Collection<?> collection, int currentDepth, StringBuilder result) {
+        formatCollection(collection, currentDepth, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatMap(Map, int, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    public void formatMap(Map<?, ?> map, int currentDepth, StringBuilder result) {
+        formatMap(map, currentDepth, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatObjectArray(Object[], int, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatObjectArray(Object[] array, int currentDepth, StringBuilder result) {
+        formatObjectArray(array, currentDepth, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatByteArray(byte[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatByteArray(byte[] array, StringBuilder result) {
+        formatByteArray(array, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatShortArray(short[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatShortArray(short[] array, StringBuilder result) {
+        formatShortArray(array, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatIntArray(int[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatIntArray(int[] array, StringBuilder result) {
+        formatIntArray(array, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatLongArray(long[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatLongArray(long[] array, StringBuilder result) {
+        formatLongArray(array, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatCharArray(char[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatCharArray(char[] array, StringBuilder result) {
+        formatCharArray(array, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatFloatArray(float[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatFloatArray(float[] array, StringBuilder result) {
+        formatFloatArray(array, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatDoubleArray(double[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatDoubleArray(double[] array, StringBuilder result) {
+        formatDoubleArray(array, objectFormatter.createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatBooleanArray(boolean[], ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatBooleanArray(boolean[] array, StringBuilder result) {
+        formatBooleanArray(array, objectFormatter.createOutput(result));
+    }
 }
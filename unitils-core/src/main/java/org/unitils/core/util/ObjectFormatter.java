@@ -21,8 +21,11 @@ import java.io.File;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.reflect.Modifier.isStatic;
@@ -35,7 +38,13 @@ import static org.unitils.reflectionassert.util.HibernateUtil.getUnproxiedValue;
  * A class for generating a string representation of any object, array or primitive value.
  * <p/>
  * Non-primitive objects are processed recursively so that a string representation of inner objects is also generated.
- * Too avoid too much output, this recursion is limited with a given maximum depth.
+ * Too avoid too much output, this recursion is limited with a given maximum depth and the total output is limited
+ * with a given maximum nr of characters. Cycles are detected and output as ClassName&lt;cycle&gt;.
+ * <p/>
+ * Since 3.4 the formatting methods write to an {@link ObjectFormatterOutput} instead of a StringBuilder. The
+ * StringBuilder methods are still there for callers, but they are no longer called during formatting. Subclasses
+ * that override them should override the ObjectFormatterOutput methods instead. A StringBuilder method starts a new
+ * output with its own size limit and cycle detection.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -44,13 +53,22 @@ public class ObjectFormatter {
 
     public static final String MOCK_NAME_CHAIN_SEPARATOR = "##chained##";
 
+    /* The default maximum nr of characters of a formatted value */
+    public static final int DEFAULT_MAX_NR_OF_CHARS = 10000;
+
+
     /* The maximum recursion depth */
     protected int maxDepth;
     /* The maximum nr of elements for arrays and collections to display */
     protected int maxNrArrayOrCollectionElements;
+    /* The maximum nr of characters of a formatted value */
+    protected int maxNrOfChars;
 
     protected ArrayAndCollectionFormatter arrayAndCollectionFormatter;
 
+    /* The formattable fields per class, including the fields of the super classes */
+    protected Map<Class<?>, List<Field>> fieldsPerClass = new HashMap<Class<?>, List<Field>>();
+
     /**
      * Creates a formatter with a maximum recursion depth of 3.
      */
@@ -61,15 +79,29 @@ public class ObjectFormatter {
 
     /**
      * Creates a formatter with the given maximum recursion depth.
-     * <p/>
-     * NOTE: there is no cycle detection. A large max depth value can cause lots of output in case of a cycle.
      *
      * @param maxDepth                       The max depth > 0
      * @param maxNrArrayOrCollectionElements The maximum nr of elements for arrays and collections to display  > 0
      */
     public ObjectFormatter(int maxDepth, int maxNrArrayOrCollectionElements) {
+        this(maxDepth, maxNrArrayOrCollectionElements, DEFAULT_MAX_NR_OF_CHARS);
+    }
+
+
+    /**
+     * Creates a formatter with the given maximum recursion depth and size.
+     * <p/>
+     * Cycles are detected: an object that refers back to an object that is being formatted, is output as a cycle.
+     *
+     * @param maxDepth                       The max depth > 0
+     * @param maxNrArrayOrCollectionElements The maximum nr of elements for arrays and collections to display  > 0
+     * @param maxNrOfChars                   The maximum nr of characters of a formatted value, longer values are
+     *                                       truncated > 0
+     */
+    public ObjectFormatter(int maxDepth, int maxNrArrayOrCollectionElements, int maxNrOfChars) {
         this.maxDepth = maxDepth;
         this.maxNrArrayOrCollectionElements = maxNrArrayOrCollectionElements;
+        this.maxNrOfChars = maxNrOfChars;
         this.arrayAndCollectionFormatter = new ArrayAndCollectionFormatter(maxNrArrayOrCollectionElements, this);
     }
 
@@ -82,19 +114,35 @@ public class ObjectFormatter {
      */
     public String format(Object object) {
         StringBuilder result = new StringBuilder();
-        formatImpl(object, 0, result);
+        format(object, result);
         return result.toString();
     }
 
 
+    /**
+     * Writes the string representation of the given object to the given appendable. At most the maximum nr of
+     * characters are written, followed by a truncation marker if the representation was longer. The formatting
+     * stops as soon as the maximum is reached.
+     *
+     * @param object     The instance
+     * @param appendable The appendable to write to, not null
+     */
+    public void format(Object object, Appendable appendable) {
+        formatImpl(object, 0, new ObjectFormatterOutput(appendable, maxNrOfChars));
+    }
+
+
     /**
      * Actual implementation of the formatting.
      *
      * @param object       The instance
      * @param currentDepth The current recursion depth
-     * @param result       The builder to append the result to, not null
+     * @param result       The output to append the result to, not null
      */
-    protected void formatImpl(Object object, int currentDepth, StringBuilder result) {
+    protected void formatImpl(Object object, int currentDepth, ObjectFormatterOutput result) {
+        if (result.isTruncated()) {
+            return;
+        }
         // get the actual value if the value is wrapped by a Hibernate proxy
         object = getUnproxiedValue(object);
 
@@ -124,6 +172,28 @@ public class ObjectFormatter {
         if (formatJavaLang(object, result, type)) {
             return;
         }
+        if (!result.startFormatting(object)) {
+            result.append(getShortClassName(type));
+            result.append("<cycle>");
+            return;
+        }
+        try {
+            formatComposite(object, type, currentDepth, result);
+        } finally {
+            result.endFormatting(object);
+        }
+    }
+
+
+    /**
+     * Formats arrays, collections, maps and other objects, i.e. values that can contain other values.
+     *
+     * @param object       The instance, not null
+     * @param type         The type of the instance, not null
+     * @param currentDepth The current recursion depth
+     * @param result       The output to append the result to, not null
+     */
+    protected void formatComposite(Object object, Class<?> type, int currentDepth, ObjectFormatterOutput result) {
         if (type.isArray()) {
             arrayAndCollectionFormatter.formatArray(object, currentDepth, result);
             return;
@@ -148,7 +218,7 @@ public class ObjectFormatter {
     }
 
 
-    protected boolean formatJavaLang(Object object, StringBuilder result, Class<?> type) {
+    protected boolean formatJavaLang(Object object, ObjectFormatterOutput result, Class<?> type) {
         if (type.getName().startsWith("java.lang")) {
             result.append(String.valueOf(object));
             return true;
@@ -156,7 +226,7 @@ public class ObjectFormatter {
         return false;
     }
 
-    protected boolean formatPrimitiveOrEnum(Object object, Class<?> type, StringBuilder result) {
+    protected boolean formatPrimitiveOrEnum(Object object, Class<?> type, ObjectFormatterOutput result) {
         if (type.isPrimitive() || type.isEnum()) {
             result.append(String.valueOf(object));
             return true;
@@ -164,7 +234,7 @@ public class ObjectFormatter {
         return false;
     }
 
-    protected boolean formatCharacter(Object object, Class<?> type, StringBuilder result) {
+    protected boolean formatCharacter(Object object, Class<?> type, ObjectFormatterOutput result) {
         if (object instanceof Character || Character.TYPE.equals(type)) {
             result.append('\'');
             result.append(String.valueOf(object));
@@ -174,7 +244,7 @@ public class ObjectFormatter {
         return false;
     }
 
-    protected boolean formatNumberOrDate(Object object, StringBuilder result) {
+    protected boolean formatNumberOrDate(Object object, ObjectFormatterOutput result) {
         if (object instanceof Number || object instanceof Date) {
             result.append(String.valueOf(object));
             return true;
@@ -182,7 +252,7 @@ public class ObjectFormatter {
         return false;
     }
 
-    protected boolean formatString(Object object, StringBuilder result) {
+    protected boolean formatString(Object object, ObjectFormatterOutput result) {
         if (object instanceof String) {
             result.append('"');
             result.append(object);
@@ -198,9 +268,9 @@ public class ObjectFormatter {
      *
      * @param object       The object, not null
      * @param currentDepth The current recursion depth
-     * @param result       The builder to append the result to, not null
+     * @param result       The output to append the result to, not null
      */
-    protected void formatObject(Object object, int currentDepth, StringBuilder result) {
+    protected void formatObject(Object object, int currentDepth, ObjectFormatterOutput result) {
         Class<?> type = object.getClass();
         result.append(getShortClassName(type));
         result.append("<");
@@ -213,20 +283,14 @@ public class ObjectFormatter {
      * Formats the field values of the given object.
      *
      * @param object       The object, not null
-     * @param clazz        The class for which to format the fields, not null
+     * @param clazz        The class for which to format the fields, including the fields of the super classes, not null
      * @param currentDepth The current recursion depth
-     * @param result       The builder to append the result to, not null
+     * @param result       The output to append the result to, not null
      */
-    protected void formatFields(Object object, Class<?> clazz, int currentDepth, StringBuilder result) {
-        Field[] fields = clazz.getDeclaredFields();
-        AccessibleObject.setAccessible(fields, true);
-
-        for (int i = 0; i < fields.length; i++) {
-            // skip transient and static fields
-            Field field = fields[i];
-            if (isTransient(field.getModifiers()) || isStatic(field.getModifiers()) || field.isSynthetic()) {
-                continue;
-            }
+    protected void formatFields(Object object, Class<?> clazz, int currentDepth, ObjectFormatterOutput result) {
+        List<Field> fields = getFields(clazz);
+        for (int i = 0; i < fields.size() && !result.isTruncated(); i++) {
+            Field field = fields.get(i);
             try {
                 if (i > 0) {
                     result.append(", ");
@@ -241,17 +305,41 @@ public class ObjectFormatter {
                 throw new InternalError("Unexpected IllegalAccessException");
             }
         }
+    }
+
 
-        // format fields declared in superclass
-        Class<?> superclazz = clazz.getSuperclass();
-        while (superclazz != null && !superclazz.getName().startsWith("java.lang")) {
-            formatFields(object, superclazz, currentDepth, result);
-            superclazz = superclazz.getSuperclass();
+    /**
+     * Gets the fields of the given class that should be formatted: all fields of the class and its super classes,
+     * except the transient, static and synthetic fields. Super classes in java.lang are skipped. The fields are
+     * looked up once per class by this formatter.
+     *
+     * @param clazz The class, not null
+     * @return The accessible fields, not null
+     */
+    protected List<Field> getFields(Class<?> clazz) {
+        synchronized (fieldsPerClass) {
+            List<Field> result = fieldsPerClass.get(clazz);
+            if (result == null) {
+                result = new ArrayList<Field>();
+                Class<?> currentClass = clazz;
+                do {
+                    for (Field field : currentClass.getDeclaredFields()) {
+                        if (!isTransient(field.getModifiers()) && !isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                            result.add(field);
+                        }
+                    }
+                    currentClass = currentClass.getSuperclass();
+                } while (currentClass != null && !currentClass.getName().startsWith("java.lang"));
+
+                AccessibleObject.setAccessible(result.toArray(new Field[result.size()]), true);
+                fieldsPerClass.put(clazz, result);
+            }
+            return result;
         }
     }
 
 
-    protected boolean formatMock(Object object, StringBuilder result) {
+    protected boolean formatMock(Object object, ObjectFormatterOutput result) {
         try {
             Class<?> proxyUtilsClass = getProxyUtilsClass();
             if (proxyUtilsClass == null) {
@@ -282,7 +370,7 @@ public class ObjectFormatter {
     }
 
 
-    protected boolean formatProxy(Object object, Class<?> type, StringBuilder result) {
+    protected boolean formatProxy(Object object, Class<?> type, ObjectFormatterOutput result) {
         if (Proxy.isProxyClass(type)) {
             result.append("Proxy<?>");
             return true;
@@ -298,7 +386,7 @@ public class ObjectFormatter {
         return false;
     }
 
-    protected boolean formatFile(Object object, StringBuilder result) {
+    protected boolean formatFile(Object object, ObjectFormatterOutput result) {
         if (object instanceof File) {
             result.append("File<");
             result.append(((File) object).getPath());
@@ -332,4 +420,104 @@ public class ObjectFormatter {
         }
     }
 
+
+    /**
+     * Creates an output that writes to the given builder, for the methods that still take a builder. The output has
+     * its own size limit and cycle detection, it does not continue the output of a formatting that is in progress.
+     *
+     * @param result The builder to append the result to, not null
+     * @return The output, not null
+     */
+    protected ObjectFormatterOutput createOutput(StringBuilder result) {
+        return new ObjectFormatterOutput(result, maxNrOfChars);
+    }
+
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatImpl(Object, int, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatImpl(Object object, int currentDepth, StringBuilder result) {
+        formatImpl(object, currentDepth, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatJavaLang(Object, ObjectFormatterOutput, Class)}
+     */
+    @Deprecated
+    protected boolean formatJavaLang(Object object, StringBuilder result, Class<?> type) {
+        return formatJavaLang(object, createOutput(result), type);
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatPrimitiveOrEnum(Object, Class, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected boolean formatPrimitiveOrEnum(Object object, Class<?> type, StringBuilder result) {
+        return formatPrimitiveOrEnum(object, type, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatCharacter(Object, Class, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected boolean formatCharacter(Object object, Class<?> type, StringBuilder result) {
+        return formatCharacter(object, type, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatNumberOrDate(Object, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected boolean formatNumberOrDate(Object object, StringBuilder result) {
+        return formatNumberOrDate(object, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatString(Object, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected boolean formatString(Object object, StringBuilder result) {
+        return formatString(object, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatObject(Object, int, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatObject(Object object, int currentDepth, StringBuilder result) {
+        formatObject(object, currentDepth, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatFields(Object, Class, int, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected void formatFields(Object object, Class<?> clazz, int currentDepth, StringBuilder result) {
+        formatFields(object, clazz, currentDepth, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatMock(Object, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected boolean formatMock(Object object, StringBuilder result) {
+        return formatMock(object, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatProxy(Object, Class, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected boolean formatProxy(Object object, Class<?> type, StringBuilder result) {
+        return formatProxy(object, type, createOutput(result));
+    }
+
+    /**
+     * @deprecated Not called during formatting, use {@link #formatFile(Object, ObjectFormatterOutput)}
+     */
+    @Deprecated
+    protected boolean formatFile(Object object, StringBuilder result) {
+        return formatFile(object, createOutput(result));
+    }
 }
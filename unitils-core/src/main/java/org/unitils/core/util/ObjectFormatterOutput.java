@@ -0,0 +1,135 @@
+/*
+ *
+ *  * Copyright 2010,  Unitils.org
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ */
+package org.unitils.core.util;
+
+import org.unitils.core.UnitilsException;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The output of an {@link ObjectFormatter}. The formatted values are written to the given appendable until the
+ * maximum nr of characters is reached. Once this maximum is reached, a truncation marker is written and all
+ * other output is ignored.
+ * <p/>
+ * The output also keeps track of the objects that are being formatted, so that the formatter can detect cycles.
+ */
+public class ObjectFormatterOutput {
+
+    public static final String TRUNCATION_MARKER = "...";
+
+    /* The appendable to write to, not null */
+    protected Appendable appendable;
+    /* The nr of characters that can still be written */
+    protected int remainingNrOfChars;
+    /* True if the maximum nr of characters was reached */
+    protected boolean truncated;
+    /* The objects that are currently being formatted */
+    protected Map<Object, Object> objectsBeingFormatted = new IdentityHashMap<Object, Object>();
+
+
+    /**
+     * Creates an output.
+     *
+     * @param appendable   The appendable to write to, not null
+     * @param maxNrOfChars The maximum nr of characters to write, not including the truncation marker
+     */
+    public ObjectFormatterOutput(Appendable appendable, int maxNrOfChars) {
+        this.appendable = appendable;
+        this.remainingNrOfChars = maxNrOfChars;
+    }
+
+
+    /**
+     * Writes the given value. If this would exceed the maximum nr of characters, only the first part of the value is
+     * written, followed by the truncation marker.
+     *
+     * @param value The value to write, not null
+     * @return This output, not null
+     */
+    public ObjectFormatterOutput append(String value) {
+        if (truncated) {
+            return this;
+        }
+        try {
+            if (value.length() <= remainingNrOfChars) {
+                appendable.append(value);
+                remainingNrOfChars -= value.length();
+                return this;
+            }
+            appendable.append(value, 0, remainingNrOfChars);
+            appendable.append(TRUNCATION_MARKER);
+            remainingNrOfChars = 0;
+            truncated = true;
+            return this;
+        } catch (IOException e) {
+            throw new UnitilsException("Unable to write formatted object.", e);
+        }
+    }
+
+
+    /**
+     * Writes the given character.
+     *
+     * @param value The value to write
+     * @return This output, not null
+     */
+    public ObjectFormatterOutput append(char value) {
+        return append(String.valueOf(value));
+    }
+
+
+    /**
+     * Writes the string representation of the given value.
+     *
+     * @param value The value to write
+     * @return This output, not null
+     */
+    public ObjectFormatterOutput append(Object value) {
+        return append(String.valueOf(value));
+    }
+
+
+    /**
+     * @return True if the maximum nr of characters was reached, all further output will be ignored
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+
+    /**
+     * Registers the given object as being formatted.
+     *
+     * @param object The object, not null
+     * @return False if the object was already being formatted, i.e. there is a cycle
+     */
+    public boolean startFormatting(Object object) {
+        return objectsBeingFormatted.put(object, object) == null;
+    }
+
+
+    /**
+     * Unregisters the given object, it is no longer being formatted.
+     *
+     * @param object The object, not null
+     */
+    public void endFormatting(Object object) {
+        objectsBeingFormatted.remove(object);
+    }
+}
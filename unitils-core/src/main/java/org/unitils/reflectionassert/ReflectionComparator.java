@@ -36,6 +36,10 @@ import java.util.Map;
  * The preferred way of creating new instances is by using the ReflectionComparatorFactory. This factory will make
  * sure that a correct comparator chain is assembled.
  * <p/>
+ * A reflection comparator does not hold any state of a comparison and can therefore be shared, also between threads.
+ * Every comparison is performed in its own {@link ComparisonSession}, which keeps the results of the values that
+ * were already compared.
+ * <p/>
  * A readable report differences can be created using the DifferenceReport.
  *
  * @author Tim Ducheyne
@@ -48,17 +52,9 @@ public class ReflectionComparator {
      */
     protected List<Comparator> comparators;
 
-    /**
-     * A cache of results, so that comparisons are only performed once and infinite loops because of cycles are avoided
-     * A different cache is used dependent on whether only the first difference is required or whether we need all
-     * differences, since the resulting {@link Difference} objects differ. 
-     */
-    protected Map<Object, Map<Object, Difference>> firstDifferenceCachedResults = new IdentityHashMap<Object, Map<Object, Difference>>();
-    protected Map<Object, Map<Object, Difference>> allDifferencesCachedResults = new IdentityHashMap<Object, Map<Object, Difference>>();
-
 
     /**
-     * Creates a comparator that will use the given chain.
+     * Creates a comparator that will use the given chain. The chain should not be changed afterwards.
      *
      * @param comparators The comparator chain, not null
      */
@@ -102,53 +98,146 @@ public class ReflectionComparator {
      * @return the root difference, null if there is no difference
      */
     public Difference getDifference(Object left, Object right, boolean onlyFirstDifference) {
-        // check whether difference is available in cache
-        Map<Object, Difference> cachedResult = getCachedDifference(left, onlyFirstDifference);
-        if (cachedResult != null) {
-            if (cachedResult.containsKey(right)) {
-                // found difference in cache, return cached value
-                return cachedResult.get(right);
-            }
-        } else {
-            cachedResult = new IdentityHashMap<Object, Difference>();
-            saveResultInCache(left, cachedResult, onlyFirstDifference);
-        }
-        cachedResult.put(right, null);
+        ReflectionComparator comparisonSession = createComparisonSession();
+        return comparisonSession.getDifference(left, right, onlyFirstDifference);
+    }
+
+
+    /**
+     * @return A new session for performing a single comparison, not null
+     */
+    protected ReflectionComparator createComparisonSession() {
+        return new ComparisonSession(comparators, null);
+    }
 
-        // perform actual comparison by iterating over the comparators
-        boolean compared = false;
-        Difference result = null;
+
+    /**
+     * Creates a session for comparing values on another thread, as part of the comparison of this session. The
+     * sub session can use the results of this session, so this session should not be used while sub sessions are
+     * running.
+     *
+     * @return The sub session, null if the comparison cannot be split up any further
+     */
+    public ReflectionComparator createSubSession() {
+        return null;
+    }
+
+
+    /**
+     * Compares the given values by iterating over the comparators. The first comparator that can compare the values
+     * performs the comparison.
+     *
+     * @param left                the left instance
+     * @param right               the right instance
+     * @param onlyFirstDifference True if the comparison should stop at the first differnece
+     * @param comparisonSession   The session of the comparison, not null
+     * @return the difference, null if there is no difference
+     */
+    protected Difference compare(Object left, Object right, boolean onlyFirstDifference, ReflectionComparator comparisonSession) {
         for (Comparator comparator : comparators) {
             if (comparator.canCompare(left, right)) {
-                result = comparator.compare(left, right, onlyFirstDifference, this);
-                compared = true;
-                break;
+                return comparator.compare(left, right, onlyFirstDifference, comparisonSession);
             }
         }
+        throw new UnitilsException("Could not determine differences. No comparator found that is able to compare the values. Left: " + left + ", right " + right);
+    }
 
-        // check whether a suitable comparator was found
-        if (!compared) {
-            throw new UnitilsException("Could not determine differences. No comparator found that is able to compare the values. Left: " + left + ", right " + right);
+
+    /**
+     * The state of a single comparison. The comparators of the chain get the session passed, so that the values
+     * that they compare in turn, are compared within the same session.
+     */
+    protected static class ComparisonSession extends ReflectionComparator {
+
+        /**
+         * A cache of results, so that comparisons are only performed once and infinite loops because of cycles are avoided
+         * A different cache is used dependent on whether only the first difference is required or whether we need all
+         * differences, since the resulting {@link Difference} objects differ.
+         */
+        protected Map<Object, Map<Object, Difference>> firstDifferenceCachedResults;
+        protected Map<Object, Map<Object, Difference>> allDifferencesCachedResults;
+
+        /**
+         * The session of which this is a sub session, null if this is not a sub session. The results of the parent
+         * are used as well. This includes the values that are being compared by the parent, so cycles are detected
+         * in the same way as when everything is compared in the parent session.
+         */
+        protected ComparisonSession parentSession;
+
+
+        public ComparisonSession(List<Comparator> comparators, ComparisonSession parentSession) {
+            super(comparators);
+            this.parentSession = parentSession;
         }
 
-        // register outcome in cache
-        cachedResult.put(right, result);
-        return result;
-    }
 
-    protected void saveResultInCache(Object left, Map<Object, Difference> cachedResult, boolean onlyFirstDifference) {
-        if (onlyFirstDifference) {
-            firstDifferenceCachedResults.put(left, cachedResult);
-        } else {
-            allDifferencesCachedResults.put(left, cachedResult);
+        @Override
+        public Difference getDifference(Object left, Object right, boolean onlyFirstDifference) {
+            // check whether difference is available in cache
+            Map<Object, Difference> parentCachedResult = parentSession == null ? null : parentSession.getCachedDifference(left, onlyFirstDifference);
+            if (parentCachedResult != null && parentCachedResult.containsKey(right)) {
+                // found difference in the cache of the parent, the parent does not change while this session is used
+                return parentCachedResult.get(right);
+            }
+            Map<Object, Difference> cachedResult = getCachedDifference(left, onlyFirstDifference);
+            if (cachedResult != null) {
+                if (cachedResult.containsKey(right)) {
+                    // found difference in cache, return cached value
+                    return cachedResult.get(right);
+                }
+            } else {
+                cachedResult = new IdentityHashMap<Object, Difference>();
+                saveResultInCache(left, cachedResult, onlyFirstDifference);
+            }
+            cachedResult.put(right, null);
+
+            // perform actual comparison by iterating over the comparators
+            Difference result = compare(left, right, onlyFirstDifference, this);
+
+            // register outcome in cache
+            cachedResult.put(right, result);
+            return result;
         }
-    }
 
-    protected Map<Object, Difference> getCachedDifference(Object left, boolean onlyFirstDifference) {
-        if (onlyFirstDifference) {
-            return firstDifferenceCachedResults.get(left);
-        } else {
-            return allDifferencesCachedResults.get(left);
+
+        @Override
+        protected ReflectionComparator createComparisonSession() {
+            return this;
+        }
+
+
+        /**
+         * Only one level of sub sessions is supported: a sub session cannot be split up any further.
+         */
+        @Override
+        public ReflectionComparator createSubSession() {
+            if (parentSession != null) {
+                return null;
+            }
+            return new ComparisonSession(comparators, this);
+        }
+
+
+        protected void saveResultInCache(Object left, Map<Object, Difference> cachedResult, boolean onlyFirstDifference) {
+            if (onlyFirstDifference) {
+                if (firstDifferenceCachedResults == null) {
+                    firstDifferenceCachedResults = new IdentityHashMap<Object, Map<Object, Difference>>();
+                }
+                firstDifferenceCachedResults.put(left, cachedResult);
+            } else {
+                if (allDifferencesCachedResults == null) {
+                    allDifferencesCachedResults = new IdentityHashMap<Object, Map<Object, Difference>>();
+                }
+                allDifferencesCachedResults.put(left, cachedResult);
+            }
+        }
+
+        protected Map<Object, Difference> getCachedDifference(Object left, boolean onlyFirstDifference) {
+            Map<Object, Map<Object, Difference>> cachedResults = onlyFirstDifference ? firstDifferenceCachedResults : allDifferencesCachedResults;
+            if (cachedResults == null) {
+                return null;
+            }
+            return cachedResults.get(left);
         }
     }
 }
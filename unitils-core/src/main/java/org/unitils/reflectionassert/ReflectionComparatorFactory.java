@@ -21,13 +21,19 @@ import org.unitils.reflectionassert.comparator.impl.*;
 import static org.unitils.util.CollectionUtils.asSet;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A factory for creating a reflection comparator.
  * This will assemble the apropriate comparator chain and constructs a reflection comparator.
  * <p/>
+ * Reflection comparators can be shared, so only one comparator is created per set of comparator modes. It is then
+ * reused by all assertions and argument matchers that compare using these modes.
+ * <p/>
  * By default, a strict comparison is performed, but if needed, some leniency can be configured by setting one or more
  * comparator modes: <ul>
  * <li>ignore defaults: all fields that have a default java value for the left object will be ignored. Eg if
@@ -37,7 +43,9 @@ import java.util.Set;
  * with value 2-2-2006 they would still be considered equal.</li>
  * <li>lenient order: only check whether both collections or arrays contain the same value, the actual order of the
  * values is not compared. Eg. if the left object is int[]{ 1, 2} and the right value is int[]{2, 1} they would still
- * be considered equal.
+ * be considered equal.</li>
+ * <li>parallel: large collections, arrays and maps are compared on several threads.</li>
+ * </ul>
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -74,11 +82,21 @@ public class ReflectionComparatorFactory {
      */
     protected static final Comparator COLLECTION_COMPARATOR = new CollectionComparator();
 
+    /**
+     * The ParallelCollectionComparator singleton insance
+     */
+    protected static final Comparator PARALLEL_COLLECTION_COMPARATOR = new ParallelCollectionComparator();
+
     /**
      * The MapComparator singleton insance
      */
     protected static final Comparator MAP_COMPARATOR = new MapComparator();
 
+    /**
+     * The ParallelMapComparator singleton insance
+     */
+    protected static final Comparator PARALLEL_MAP_COMPARATOR = new ParallelMapComparator();
+
     /**
      * The HibernateProxyComparator singleton insance
      */
@@ -89,17 +107,31 @@ public class ReflectionComparatorFactory {
      */
     protected static final Comparator OBJECT_COMPARATOR = new ObjectComparator();
 
+    /**
+     * The reflection comparators per set of modes
+     */
+    protected static final Map<Set<ReflectionComparatorMode>, ReflectionComparator> REFLECTION_COMPARATORS = new ConcurrentHashMap<Set<ReflectionComparatorMode>, ReflectionComparator>();
+
 
     /**
-     * Creates a reflection comparator for the given modes.
-     * If no mode is given, a strict comparator will be created.
+     * Gets the reflection comparator for the given modes. The comparator is only created the first time it is
+     * requested for a set of modes, later on the same instance is returned.
+     * If no mode is given, a strict comparator is returned.
      *
      * @param modes The modes, null for strict comparison
      * @return The reflection comparator, not null
      */
     public static ReflectionComparator createRefectionComparator(ReflectionComparatorMode... modes) {
-        List<Comparator> comparators = getComparatorChain(asSet(modes));
-        return new ReflectionComparator(comparators);
+        Set<ReflectionComparatorMode> modeSet = EnumSet.noneOf(ReflectionComparatorMode.class);
+        modeSet.addAll(asSet(modes));
+
+        ReflectionComparator reflectionComparator = REFLECTION_COMPARATORS.get(modeSet);
+        if (reflectionComparator == null) {
+            List<Comparator> comparators = getComparatorChain(modeSet);
+            reflectionComparator = new ReflectionComparator(comparators);
+            REFLECTION_COMPARATORS.put(modeSet, reflectionComparator);
+        }
+        return reflectionComparator;
     }
 
 
@@ -122,10 +154,16 @@ public class ReflectionComparatorFactory {
         comparatorChain.add(SIMPLE_CASES_COMPARATOR);
         if (modes.contains(LENIENT_ORDER)) {
             comparatorChain.add(LENIENT_ORDER_COMPARATOR);
+        } else if (modes.contains(PARALLEL)) {
+            comparatorChain.add(PARALLEL_COLLECTION_COMPARATOR);
         } else {
             comparatorChain.add(COLLECTION_COMPARATOR);
         }
-        comparatorChain.add(MAP_COMPARATOR);
+        if (modes.contains(PARALLEL)) {
+            comparatorChain.add(PARALLEL_MAP_COMPARATOR);
+        } else {
+            comparatorChain.add(MAP_COMPARATOR);
+        }
         comparatorChain.add(HIBERNATE_PROXY_COMPARATOR);
         comparatorChain.add(OBJECT_COMPARATOR);
         return comparatorChain;
@@ -22,6 +22,7 @@ package org.unitils.reflectionassert;
  * <li>ignore defaults: compare only fields (and inner values) that have a non default value (eg null) as exepected value</li>
  * <li>lenient dates: do not compare actual date values, just that they both have a value or not</li>
  * <li>lenient order: order is not important when comparing collections or arrays</li>
+ * <li>parallel: compare the elements of large collections, arrays and maps on several threads</li>
  * </ul>
  * The modes can be combined if needed.
  *
@@ -44,6 +45,13 @@ public enum ReflectionComparatorMode {
      * Do not compare the order of collections and arrays. Only check that all values of the left-hand (expected) side
      * collection or array are also contained in the right-hand (actual) side and vice versa.
      */
-    LENIENT_ORDER
+    LENIENT_ORDER,
+
+    /**
+     * Compare the elements of large collections, arrays and maps on several threads. This does not change the
+     * outcome of the comparison, it only speeds up the comparison of very large object graphs. Collections and arrays
+     * that are compared with lenient order are not compared in parallel.
+     */
+    PARALLEL
 
 }
@@ -22,6 +22,7 @@ import org.unitils.reflectionassert.difference.Difference;
 import static org.unitils.util.CollectionUtils.convertToCollection;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -65,43 +66,151 @@ public class CollectionComparator implements Comparator {
      * @return A CollectionDifference or null if both collections are equal
      */
     public Difference compare(Object left, Object right, boolean onlyFirstDifference, ReflectionComparator reflectionComparator) {
+        // shortcut for equal primitive arrays and lists of values, these are equal in all comparison modes
+        if (isEqualPrimitiveArray(left, right) || isEqualValueList(left, right)) {
+            return null;
+        }
         // Convert to list and compare as collection
         List<Object> leftList = new ArrayList<Object>(convertToCollection(left));
         List<Object> rightList = new ArrayList<Object>(convertToCollection(right));
 
-        int elementIndex = -1;
         CollectionDifference difference = new CollectionDifference("Different elements", left, right, leftList, rightList);
 
-        Iterator<?> leftIterator = leftList.iterator();
-        Iterator<?> rightIterator = rightList.iterator();
-        while (leftIterator.hasNext() && rightIterator.hasNext()) {
-            elementIndex++;
+        int nrOfElements = Math.min(leftList.size(), rightList.size());
+        compareElements(leftList, rightList, nrOfElements, onlyFirstDifference, reflectionComparator, difference);
+        if (onlyFirstDifference && !difference.getElementDifferences().isEmpty()) {
+            return difference;
+        }
+
+        // check for missing elements
+        for (int leftElementIndex = nrOfElements; leftElementIndex < leftList.size(); leftElementIndex++) {
+            difference.addLeftMissingIndex(leftElementIndex);
+        }
+        for (int rightElementIndex = nrOfElements; rightElementIndex < rightList.size(); rightElementIndex++) {
+            difference.addRightMissingIndex(rightElementIndex);
+        }
+
+        if (difference.getElementDifferences().isEmpty() && difference.getLeftMissingIndexes().isEmpty() && difference.getRightMissingIndexes().isEmpty()) {
+            return null;
+        }
+        return difference;
+    }
+
 
-            Difference elementDifference = reflectionComparator.getDifference(leftIterator.next(), rightIterator.next(), onlyFirstDifference);
+    /**
+     * Compares the elements at the same index of both lists. The differences are added to the given difference.
+     *
+     * @param leftList             The left elements, not null
+     * @param rightList            The right elements, not null
+     * @param nrOfElements         The nr of elements to compare
+     * @param onlyFirstDifference  True if only the first difference should be added
+     * @param reflectionComparator The root comparator for inner comparisons, not null
+     * @param difference           The difference to add the element differences to, not null
+     */
+    protected void compareElements(List<Object> leftList, List<Object> rightList, int nrOfElements, boolean onlyFirstDifference, ReflectionComparator reflectionComparator, CollectionDifference difference) {
+        for (int elementIndex = 0; elementIndex < nrOfElements; elementIndex++) {
+            Object leftElement = leftList.get(elementIndex);
+            Object rightElement = rightList.get(elementIndex);
+            if (isEqualValue(leftElement, rightElement)) {
+                continue;
+            }
+            Difference elementDifference = reflectionComparator.getDifference(leftElement, rightElement, onlyFirstDifference);
             if (elementDifference != null) {
                 difference.addElementDifference(elementIndex, elementDifference);
                 if (onlyFirstDifference) {
-                    return difference;
+                    return;
                 }
             }
         }
+    }
 
-        // check for missing elements 
-        int leftElementIndex = elementIndex;
-        while (leftIterator.hasNext()) {
-            leftIterator.next();
-            difference.addLeftMissingIndex(++leftElementIndex);
+
+    /**
+     * Checks whether both objects are primitive arrays of the same type with the same values.
+     * Equal values are equal in all comparison modes, so these arrays need not be compared element by element.
+     *
+     * @param left  The left object, not null
+     * @param right The right object, not null
+     * @return True if both are equal primitive arrays
+     */
+    protected boolean isEqualPrimitiveArray(Object left, Object right) {
+        if (left.getClass() != right.getClass() || !left.getClass().isArray() || !left.getClass().getComponentType().isPrimitive()) {
+            return false;
+        }
+        if (left instanceof int[]) {
+            return Arrays.equals((int[]) left, (int[]) right);
+        }
+        if (left instanceof long[]) {
+            return Arrays.equals((long[]) left, (long[]) right);
+        }
+        if (left instanceof byte[]) {
+            return Arrays.equals((byte[]) left, (byte[]) right);
+        }
+        if (left instanceof double[]) {
+            return Arrays.equals((double[]) left, (double[]) right);
         }
-        int rightElementIndex = elementIndex;
-        while (rightIterator.hasNext()) {
-            rightIterator.next();
-            difference.addRightMissingIndex(++rightElementIndex);
+        if (left instanceof float[]) {
+            return Arrays.equals((float[]) left, (float[]) right);
         }
+        if (left instanceof short[]) {
+            return Arrays.equals((short[]) left, (short[]) right);
+        }
+        if (left instanceof char[]) {
+            return Arrays.equals((char[]) left, (char[]) right);
+        }
+        return Arrays.equals((boolean[]) left, (boolean[]) right);
+    }
 
-        if (difference.getElementDifferences().isEmpty() && difference.getLeftMissingIndexes().isEmpty() && difference.getRightMissingIndexes().isEmpty()) {
-            return null;
+
+    /**
+     * Checks whether both objects are lists of the same size that only contain equal strings and boxed primitives.
+     * As soon as another element is found, false is returned and the lists are compared in the regular way.
+     *
+     * @param left  The left object, not null
+     * @param right The right object, not null
+     * @return True if both are lists with equal values
+     */
+    protected boolean isEqualValueList(Object left, Object right) {
+        if (!(left instanceof List) || !(right instanceof List)) {
+            return false;
         }
-        return difference;
+        List<?> leftList = (List<?>) left;
+        List<?> rightList = (List<?>) right;
+        if (leftList.size() != rightList.size()) {
+            return false;
+        }
+        Iterator<?> leftIterator = leftList.iterator();
+        Iterator<?> rightIterator = rightList.iterator();
+        while (leftIterator.hasNext() && rightIterator.hasNext()) {
+            if (!isEqualValue(leftIterator.next(), rightIterator.next())) {
+                return false;
+            }
+        }
+        return !leftIterator.hasNext() && !rightIterator.hasNext();
     }
 
+
+    /**
+     * Checks whether both values are equal strings or boxed primitives of the same type. For these types, values
+     * that are equal according to equals() are also equal in all comparison modes.
+     *
+     * @param left  The left value
+     * @param right The right value
+     * @return True if both are the same instance or equal values
+     */
+    protected boolean isEqualValue(Object left, Object right) {
+        if (left == right) {
+            return true;
+        }
+        if (left == null || right == null || left.getClass() != right.getClass()) {
+            return false;
+        }
+        return isValueType(left.getClass()) && left.equals(right);
+    }
+
+
+    protected boolean isValueType(Class<?> type) {
+        return type == String.class || type == Integer.class || type == Long.class || type == Double.class || type == Float.class
+                || type == Short.class || type == Byte.class || type == Character.class || type == Boolean.class;
+    }
 }
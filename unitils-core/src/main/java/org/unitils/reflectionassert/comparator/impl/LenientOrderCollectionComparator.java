@@ -38,6 +38,16 @@ import java.util.Map;
  */
 public class LenientOrderCollectionComparator implements Comparator {
 
+    /**
+     * The default maximum nr of elements that are compared to find the best matches between collections that differ
+     */
+    public static final int MAX_NR_OF_ELEMENT_COMPARISONS = 10000;
+
+    /**
+     * The maximum nr of elements that are compared to find the best matches between collections that differ
+     */
+    protected int maxNrOfElementComparisons = MAX_NR_OF_ELEMENT_COMPARISONS;
+
 
     /**
      * Returns true if both objects are not null and are both Arrays or Collections.
@@ -60,7 +70,7 @@ public class LenientOrderCollectionComparator implements Comparator {
     /**
      * Compares the given collections/arrays but ignoring the actual order of the elements.
      * This will first try to find a sequence that is an exact match. If no such sequence can be found,
-     * the difference of all elements with all other elements are calculated one by one.
+     * the differences of the elements that do not have a match are calculated one by one.
      *
      * @param left                 The left array/collection, not null
      * @param right                The right array/collection, not null
@@ -138,8 +148,14 @@ public class LenientOrderCollectionComparator implements Comparator {
 
 
     /**
-     * Calculates the difference of all elements in the left list with all elements of the right list. The result is
-     * added to the given difference.
+     * Calculates the differences between the elements of the left list and the elements of the right list. The
+     * result is added to the given difference.
+     * <p/>
+     * Elements that are equal to the element at the same index of the other list are first paired off, these are not
+     * compared with any other element. The remaining left elements are then compared one by one with the remaining
+     * right elements until a match is found. These comparisons count for the maximum nr of element comparisons: when
+     * this maximum is reached, the remaining elements are no longer compared. This avoids comparing every combination
+     * of elements when large collections are compared.
      * <p/>
      * NOTE: because difference are cached in the reflection comparator, comparing two elements that were already
      * compared should be very fast.
@@ -150,23 +166,48 @@ public class LenientOrderCollectionComparator implements Comparator {
      * @param difference           The root difference to which all differences will be added, not null
      */
     protected void fillAllDifferences(ArrayList<Object> leftList, ArrayList<Object> rightList, ReflectionComparator reflectionComparator, UnorderedCollectionDifference difference) {
-        // loops over all left and right elements to calculate the differences
+        ArrayList<Integer> leftIndexes = new ArrayList<Integer>();
+        boolean[] rightMatched = new boolean[rightList.size()];
+
+        // pair off the elements that are equal to the element at the same index
         for (int leftIndex = 0; leftIndex < leftList.size(); leftIndex++) {
+            if (leftIndex < rightList.size() && reflectionComparator.getDifference(leftList.get(leftIndex), rightList.get(leftIndex), true) == null) {
+                rightMatched[leftIndex] = true;
+                difference.addElementDifference(leftIndex, leftIndex, null);
+            } else {
+                leftIndexes.add(leftIndex);
+            }
+        }
+
+        // compare the remaining elements until a match is found
+        int nrOfComparisons = 0;
+        for (Integer leftIndex : leftIndexes) {
             Object leftValue = leftList.get(leftIndex);
             for (int rightIndex = 0; rightIndex < rightList.size(); rightIndex++) {
-                Object rightValue = rightList.get(rightIndex);
-                Difference elementDifference = reflectionComparator.getDifference(leftValue, rightValue, false);
+                if (rightMatched[rightIndex]) {
+                    continue;
+                }
+                if (nrOfComparisons++ >= maxNrOfElementComparisons) {
+                    return;
+                }
+                Difference elementDifference = reflectionComparator.getDifference(leftValue, rightList.get(rightIndex), false);
                 difference.addElementDifference(leftIndex, rightIndex, elementDifference);
+                if (elementDifference == null) {
+                    rightMatched[rightIndex] = true;
+                    break;
+                }
             }
         }
     }
 
+
     /**
      * Calculates the indexes of the best matching differences for the given unordered collection difference.
      * The resulting indexes are set on the given difference.
      * <p/>
-     * Note: The unordered collection difference should contain the differences of all left-elements with
-     * all right-elements.
+     * Note: The unordered collection difference should contain the matches found by
+     * {@link #fillAllDifferences} and the differences of the remaining left-elements with the remaining
+     * right-elements.
      *
      * @param leftList   The left list, not null
      * @param rightList  The right list, not null
@@ -184,6 +225,9 @@ public class LenientOrderCollectionComparator implements Comparator {
      * Actual implementation of the best match finding algorithm. This will loop over the different elements in the
      * collections to the match with the lowest total matching score. These indexes are then set on the given
      * difference. The matching scores are determined by the given matchingScoreCalculator.
+     * <p/>
+     * Left elements that were not compared because the maximum nr of element comparisons was reached, are set
+     * as not having a match (right index -1).
      *
      * @param leftIndexes  The current remaining indexes in the left collection, not null
      * @param rightIndexes The current remaining indexes in the right collection, not null
@@ -194,9 +238,19 @@ public class LenientOrderCollectionComparator implements Comparator {
         Map<Integer, Map<Integer, Difference>> differences = difference.getElementDifferences();
 
         for (Integer leftIndex : leftIndexes) {
+            Map<Integer, Difference> rightDifferences = differences.get(leftIndex);
+            if (rightDifferences == null) {
+                if (!rightIndexes.isEmpty()) {
+                    difference.setBestMatchingIndexes(leftIndex, -1);
+                }
+                continue;
+            }
             int score = Integer.MAX_VALUE;
             for (Integer rightIndex : rightIndexes) {
-                Difference elementDifference = differences.get(leftIndex).get(rightIndex);
+                if (!rightDifferences.containsKey(rightIndex)) {
+                    continue;
+                }
+                Difference elementDifference = rightDifferences.get(rightIndex);
 
                 int matchingScore = matchingScoreCalculator.calculateMatchingScore(elementDifference);
                 if (matchingScore < score) {
@@ -216,16 +270,16 @@ public class LenientOrderCollectionComparator implements Comparator {
      */
     protected void removeMatchingIndexes(ArrayList<Integer> leftIndexes, ArrayList<Integer> rightIndexes, UnorderedCollectionDifference difference) {
         Map<Integer, Map<Integer, Difference>> differences = difference.getElementDifferences();
-        Iterator<Integer> rightIterator = rightIndexes.iterator();
-        while (rightIterator.hasNext()) {
-            int rightIndex = rightIterator.next();
-            Iterator<Integer> leftIterator = leftIndexes.iterator();
-            while (leftIterator.hasNext()) {
-                int leftIndex = leftIterator.next();
-                Difference elementDifference = differences.get(leftIndex).get(rightIndex);
-                if (elementDifference == null) {
-                    rightIterator.remove();
+        Iterator<Integer> leftIterator = leftIndexes.iterator();
+        while (leftIterator.hasNext()) {
+            Map<Integer, Difference> rightDifferences = differences.get(leftIterator.next());
+            if (rightDifferences == null) {
+                continue;
+            }
+            for (Map.Entry<Integer, Difference> rightDifference : rightDifferences.entrySet()) {
+                if (rightDifference.getValue() == null && rightIndexes.remove(rightDifference.getKey())) {
                     leftIterator.remove();
+                    break;
                 }
             }
         }
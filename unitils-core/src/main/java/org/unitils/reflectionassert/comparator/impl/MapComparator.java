@@ -20,9 +20,11 @@ import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRef
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.difference.MapDifference;
+import org.unitils.reflectionassert.util.MapKeyIndex;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -54,7 +56,9 @@ public class MapComparator implements Comparator {
 
     /**
      * Compares the given maps by looping over the keys and comparing their values.
-     * The key values are compared using a strict reflection comparison.
+     * The key values are compared using a strict reflection comparison. The right keys are looked up in a
+     * {@link MapKeyIndex}, so that a key is only compared with the keys that have the same structural hash code.
+     * The values of the matching keys are then compared using {@link #compareValues}.
      *
      * @param left                 The left map, not null
      * @param right                The right map, not null
@@ -66,47 +70,33 @@ public class MapComparator implements Comparator {
         Map<?, ?> leftMap = (Map<?, ?>) left;
         Map<?, ?> rightMap = (Map<?, ?>) right;
 
-        // Create copy from which we can remove elements.
-        Map<Object, Object> rightCopy = new HashMap<Object, Object>(rightMap);
-
-        ReflectionComparator keyReflectionComparator = createRefectionComparator();
+        // index the keys of the right map, a hash map copy is indexed so that the right keys are matched and
+        // reported in the order of a hash map
+        MapKeyIndex rightKeyIndex = new MapKeyIndex(new HashMap<Object, Object>(rightMap), createRefectionComparator());
         MapDifference difference = new MapDifference("Different elements", left, right, leftMap, rightMap);
 
+        // match the keys, the values of the matching keys are kept in the order of the left map
+        List<Object> keys = new ArrayList<Object>(leftMap.size());
+        List<Object> leftValues = new ArrayList<Object>(leftMap.size());
+        List<Object> rightValues = new ArrayList<Object>(leftMap.size());
         for (Map.Entry<?, ?> leftEntry : leftMap.entrySet()) {
             Object leftKey = leftEntry.getKey();
-            Object leftValue = leftEntry.getValue();
-
-            boolean found = false;
-            Iterator<Map.Entry<Object, Object>> rightIterator = rightCopy.entrySet().iterator();
-            while (rightIterator.hasNext()) {
-                Map.Entry<Object, Object> rightEntry = rightIterator.next();
-                Object rightKey = rightEntry.getKey();
-                Object rightValue = rightEntry.getValue();
-
-                // compare keys using strict reflection compare
-                boolean isKeyEqual = keyReflectionComparator.isEqual(leftKey, rightKey);
-                if (isKeyEqual) {
-                    found = true;
-                    rightIterator.remove();
-
-                    // compare values
-                    Difference elementDifference = reflectionComparator.getDifference(leftValue, rightValue, onlyFirstDifference);
-                    if (elementDifference != null) {
-                        difference.addValueDifference(leftKey, elementDifference);
-                        if (onlyFirstDifference) {
-                            return difference;
-                        }
-                    }
-                    break;
-                }
-            }
-
-            if (!found) {
+            Map.Entry<Object, Object> rightEntry = rightKeyIndex.removeMatchingEntry(leftKey);
+            if (rightEntry == null) {
                 difference.addLeftMissingKey(leftKey);
+                continue;
             }
+            keys.add(leftKey);
+            leftValues.add(leftEntry.getValue());
+            rightValues.add(rightEntry.getValue());
         }
 
-        for (Object rightKey : rightCopy.keySet()) {
+        compareValues(keys, leftValues, rightValues, onlyFirstDifference, reflectionComparator, difference);
+        if (onlyFirstDifference && !difference.getValueDifferences().isEmpty()) {
+            return difference;
+        }
+
+        for (Object rightKey : rightKeyIndex.getUnmatchedKeys()) {
             difference.addRightMissingKey(rightKey);
         }
 
@@ -115,4 +105,27 @@ public class MapComparator implements Comparator {
         }
         return difference;
     }
+
+
+    /**
+     * Compares the values of the matching keys. The differences are added to the given difference.
+     *
+     * @param keys                 The left keys of the values, not null
+     * @param leftValues           The left values, not null
+     * @param rightValues          The right values, same size as the left values, not null
+     * @param onlyFirstDifference  True if only the first difference should be added
+     * @param reflectionComparator The root comparator for inner comparisons, not null
+     * @param difference           The difference to add the value differences to, not null
+     */
+    protected void compareValues(List<Object> keys, List<Object> leftValues, List<Object> rightValues, boolean onlyFirstDifference, ReflectionComparator reflectionComparator, MapDifference difference) {
+        for (int index = 0; index < keys.size(); index++) {
+            Difference valueDifference = reflectionComparator.getDifference(leftValues.get(index), rightValues.get(index), onlyFirstDifference);
+            if (valueDifference != null) {
+                difference.addValueDifference(keys.get(index), valueDifference);
+                if (onlyFirstDifference) {
+                    return;
+                }
+            }
+        }
+    }
 }
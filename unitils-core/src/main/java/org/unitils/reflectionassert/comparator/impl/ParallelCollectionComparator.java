@@ -0,0 +1,67 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Comparator for collections and arrays that compares the elements of large collections and arrays on several
+ * threads. The result is the same as that of the {@link CollectionComparator}.
+ * This implements the PARALLEL comparison mode.
+ */
+public class ParallelCollectionComparator extends CollectionComparator {
+
+    /* Compares the elements in parallel */
+    protected ParallelElementComparator parallelElementComparator;
+
+
+    /**
+     * Creates a comparator that uses the default settings for comparing the elements in parallel.
+     */
+    public ParallelCollectionComparator() {
+        this(new ParallelElementComparator());
+    }
+
+
+    /**
+     * @param parallelElementComparator Compares the elements in parallel, not null
+     */
+    public ParallelCollectionComparator(ParallelElementComparator parallelElementComparator) {
+        this.parallelElementComparator = parallelElementComparator;
+    }
+
+
+    @Override
+    protected void compareElements(List<Object> leftList, List<Object> rightList, int nrOfElements, boolean onlyFirstDifference, ReflectionComparator reflectionComparator, CollectionDifference difference) {
+        SortedMap<Integer, Difference> elementDifferences = null;
+        if (parallelElementComparator.isParallelComparisonWorthwhile(nrOfElements)) {
+            elementDifferences = parallelElementComparator.getElementDifferences(leftList.subList(0, nrOfElements), rightList.subList(0, nrOfElements), onlyFirstDifference, reflectionComparator);
+        }
+        if (elementDifferences == null) {
+            super.compareElements(leftList, rightList, nrOfElements, onlyFirstDifference, reflectionComparator, difference);
+            return;
+        }
+        for (Map.Entry<Integer, Difference> elementDifference : elementDifferences.entrySet()) {
+            difference.addElementDifference(elementDifference.getKey(), elementDifference.getValue());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import org.unitils.core.UnitilsException;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the elements of 2 lists on several threads: the element at index i of the left list is compared with the
+ * element at index i of the right list. This is used to compare the elements of large collections, arrays and maps
+ * in parallel.
+ * <p/>
+ * The elements are split up in a chunk per thread. Each chunk is compared on a thread of a shared pool in its own
+ * sub session of the comparison. A sub session also uses the results of the comparison that started it, so the values
+ * that are being compared higher up in the object graph are treated in the same way as in a comparison on a single
+ * thread.
+ * <p/>
+ * If only the first difference is needed, the comparison of the elements that come after an element that is found
+ * to be different, is cancelled.
+ */
+public class ParallelElementComparator {
+
+    /**
+     * The default minimum nr of elements for comparing the elements in parallel
+     */
+    public static final int MIN_NR_OF_ELEMENTS = 1000;
+
+    /* The thread pool that is shared by all parallel comparisons */
+    private static ExecutorService executorService;
+
+    /**
+     * The minimum nr of elements for comparing the elements in parallel, smaller lists are not worth the overhead
+     */
+    protected int minNrOfElements;
+
+    /**
+     * The nr of threads that compare the elements
+     */
+    protected int nrOfThreads;
+
+
+    /**
+     * Creates a comparator that uses a thread per available processor for lists of at least
+     * {@link #MIN_NR_OF_ELEMENTS} elements.
+     */
+    public ParallelElementComparator() {
+        this(Runtime.getRuntime().availableProcessors(), MIN_NR_OF_ELEMENTS);
+    }
+
+
+    /**
+     * @param nrOfThreads     The nr of threads that compare the elements
+     * @param minNrOfElements The minimum nr of elements for comparing the elements in parallel
+     */
+    public ParallelElementComparator(int nrOfThreads, int minNrOfElements) {
+        this.nrOfThreads = nrOfThreads;
+        this.minNrOfElements = minNrOfElements;
+    }
+
+
+    /**
+     * @param nrOfElements The nr of elements to compare
+     * @return True if that many elements are worth comparing in parallel
+     */
+    public boolean isParallelComparisonWorthwhile(int nrOfElements) {
+        return nrOfThreads > 1 && nrOfElements >= minNrOfElements;
+    }
+
+
+    /**
+     * Compares the elements of the given lists in parallel.
+     *
+     * @param leftElements         The left elements, not null
+     * @param rightElements        The right elements, same size as the left elements, not null
+     * @param onlyFirstDifference  True if only the first difference should be returned
+     * @param reflectionComparator The comparator of the current comparison, not null
+     * @return The differences per index, only the difference with the lowest index if only the first difference is
+     *         needed, null if the elements could not be compared in parallel
+     */
+    public SortedMap<Integer, Difference> getElementDifferences(List<?> leftElements, List<?> rightElements, boolean onlyFirstDifference, ReflectionComparator reflectionComparator) {
+        int nrOfElements = leftElements.size();
+        if (!isParallelComparisonWorthwhile(nrOfElements)) {
+            return null;
+        }
+        int chunkSize = (nrOfElements + nrOfThreads - 1) / nrOfThreads;
+
+        AtomicInteger firstDifferenceIndex = new AtomicInteger(Integer.MAX_VALUE);
+        List<Callable<SortedMap<Integer, Difference>>> chunkComparisons = new ArrayList<Callable<SortedMap<Integer, Difference>>>();
+        for (int fromIndex = 0; fromIndex < nrOfElements; fromIndex += chunkSize) {
+            ReflectionComparator subSession = reflectionComparator.createSubSession();
+            if (subSession == null) {
+                // already running in a sub session, compare on the current thread
+                return null;
+            }
+            int toIndex = Math.min(fromIndex + chunkSize, nrOfElements);
+            chunkComparisons.add(new ChunkComparison(leftElements, rightElements, fromIndex, toIndex, onlyFirstDifference, subSession, firstDifferenceIndex));
+        }
+
+        SortedMap<Integer, Difference> result = new TreeMap<Integer, Difference>();
+        for (Future<SortedMap<Integer, Difference>> chunkResult : invokeAll(chunkComparisons)) {
+            result.putAll(getResult(chunkResult));
+        }
+        if (onlyFirstDifference && !result.isEmpty()) {
+            // other chunks could have found a difference before they were cancelled, only keep the first one
+            return result.headMap(result.firstKey() + 1);
+        }
+        return result;
+    }
+
+
+    protected List<Future<SortedMap<Integer, Difference>>> invokeAll(List<Callable<SortedMap<Integer, Difference>>> chunkComparisons) {
+        try {
+            return getExecutorService().invokeAll(chunkComparisons);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnitilsException("Interrupted while comparing elements in parallel.", e);
+        }
+    }
+
+
+    protected SortedMap<Integer, Difference> getResult(Future<SortedMap<Integer, Difference>> chunkResult) {
+        try {
+            return chunkResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnitilsException("Interrupted while comparing elements in parallel.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UnitilsException("Unable to compare elements in parallel.", cause);
+        }
+    }
+
+
+    protected static synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            executorService = Executors.newCachedThreadPool(new ComparatorThreadFactory());
+        }
+        return executorService;
+    }
+
+
+    /**
+     * Compares a range of elements in a sub session.
+     */
+    protected static class ChunkComparison implements Callable<SortedMap<Integer, Difference>> {
+
+        private List<?> leftElements;
+        private List<?> rightElements;
+        private int fromIndex;
+        private int toIndex;
+        private boolean onlyFirstDifference;
+        private ReflectionComparator subSession;
+        private AtomicInteger firstDifferenceIndex;
+
+        public ChunkComparison(List<?> leftElements, List<?> rightElements, int fromIndex, int toIndex, boolean onlyFirstDifference, ReflectionComparator subSession, AtomicInteger firstDifferenceIndex) {
+            this.leftElements = leftElements;
+            this.rightElements = rightElements;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.onlyFirstDifference = onlyFirstDifference;
+            this.subSession = subSession;
+            this.firstDifferenceIndex = firstDifferenceIndex;
+        }
+
+        public SortedMap<Integer, Difference> call() {
+            SortedMap<Integer, Difference> elementDifferences = new TreeMap<Integer, Difference>();
+            for (int index = fromIndex; index < toIndex; index++) {
+                if (onlyFirstDifference && index > firstDifferenceIndex.get()) {
+                    // a difference was already found before this element
+                    break;
+                }
+                Difference elementDifference = subSession.getDifference(leftElements.get(index), rightElements.get(index), onlyFirstDifference);
+                if (elementDifference != null) {
+                    elementDifferences.put(index, elementDifference);
+                    if (onlyFirstDifference) {
+                        setFirstDifferenceIndex(index);
+                        break;
+                    }
+                }
+            }
+            return elementDifferences;
+        }
+
+        protected void setFirstDifferenceIndex(int index) {
+            int currentIndex = firstDifferenceIndex.get();
+            while (index < currentIndex && !firstDifferenceIndex.compareAndSet(currentIndex, index)) {
+                currentIndex = firstDifferenceIndex.get();
+            }
+        }
+    }
+
+
+    /**
+     * Creates daemon threads, so that the pool does not keep the jvm alive after the tests have run.
+     */
+    protected static class ComparatorThreadFactory implements ThreadFactory {
+
+        private AtomicInteger threadNr = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "unitils-reflection-comparator-" + threadNr.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.MapDifference;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Comparator for maps that compares the values of large maps on several threads. The keys are matched in the same
+ * way as the {@link MapComparator} does, only the comparison of the values is done in parallel. The result is the
+ * same as that of the {@link MapComparator}.
+ * This implements the PARALLEL comparison mode.
+ */
+public class ParallelMapComparator extends MapComparator {
+
+    /* Compares the values in parallel */
+    protected ParallelElementComparator parallelElementComparator;
+
+
+    /**
+     * Creates a comparator that uses the default settings for comparing the values in parallel.
+     */
+    public ParallelMapComparator() {
+        this(new ParallelElementComparator());
+    }
+
+
+    /**
+     * @param parallelElementComparator Compares the values in parallel, not null
+     */
+    public ParallelMapComparator(ParallelElementComparator parallelElementComparator) {
+        this.parallelElementComparator = parallelElementComparator;
+    }
+
+
+    @Override
+    protected void compareValues(List<Object> keys, List<Object> leftValues, List<Object> rightValues, boolean onlyFirstDifference, ReflectionComparator reflectionComparator, MapDifference difference) {
+        SortedMap<Integer, Difference> valueDifferences = null;
+        if (parallelElementComparator.isParallelComparisonWorthwhile(keys.size())) {
+            valueDifferences = parallelElementComparator.getElementDifferences(leftValues, rightValues, onlyFirstDifference, reflectionComparator);
+        }
+        if (valueDifferences == null) {
+            super.compareValues(keys, leftValues, rightValues, onlyFirstDifference, reflectionComparator, difference);
+            return;
+        }
+        for (Map.Entry<Integer, Difference> valueDifference : valueDifferences.entrySet()) {
+            difference.addValueDifference(keys.get(valueDifference.getKey()), valueDifference.getValue());
+        }
+    }
+}
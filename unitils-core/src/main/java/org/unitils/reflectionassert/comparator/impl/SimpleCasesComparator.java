@@ -94,6 +94,10 @@ public class SimpleCasesComparator implements Comparator {
         }
         // check if right and left have same number value (including NaN and Infinity)
         if ((left instanceof Character || left instanceof Number) && (right instanceof Character || right instanceof Number)) {
+            if (left.getClass() == right.getClass() && left.equals(right)) {
+                // same type and value, no need to convert to doubles
+                return null;
+            }
             Double leftDouble = getDoubleValue(left);
             Double rightDouble = getDoubleValue(right);
             if (leftDouble.equals(rightDouble)) {
@@ -23,6 +23,10 @@ import org.unitils.reflectionassert.report.DifferenceReport;
  * Creates a report of the given differences. This will first output the differences using the default difference
  * view. If the difference is not a simple difference, this will also output the difference tree using the
  * difference tree view.
+ * <p/>
+ * The size of the report is bounded: the views stop outputting differences when the maximum depth, the maximum nr
+ * of inner differences or the maximum view size is reached, so that a failing assertion on large object graphs or
+ * collections still reports quickly.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -31,6 +35,23 @@ public class DefaultDifferenceReport implements DifferenceReport {
 
     public static final int MAX_LINE_SIZE = 110;
 
+    /**
+     * The maximum nr of characters that a view will output. When this size is reached, the rest of the differences
+     * are no longer formatted.
+     */
+    public static final int MAX_VIEW_SIZE = 50000;
+
+    /**
+     * The maximum nr of field, element or value differences that are output for a single object, collection or map
+     */
+    public static final int MAX_NR_OF_INNER_DIFFERENCES = 50;
+
+    /**
+     * The maximum depth of the difference tree that is output. Deeper differences are output as a difference of
+     * the values at this depth.
+     */
+    public static final int MAX_DEPTH = 10;
+
     public static enum MatchType {NO_MATCH};
 
     /**
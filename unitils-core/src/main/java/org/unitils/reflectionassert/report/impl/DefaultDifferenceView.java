@@ -44,6 +44,11 @@ public class DefaultDifferenceView implements DifferenceView {
      */
     protected ObjectFormatter objectFormatter = new ObjectFormatter();
 
+    /**
+     * The limits of the view that is being created, a new limiter is created for every view
+     */
+    protected DifferenceViewLimiter limiter;
+
     /**
      * The visitor for visiting the difference tree
      */
@@ -56,7 +61,17 @@ public class DefaultDifferenceView implements DifferenceView {
      * @return The string representation, not null
      */
     public String createView(Difference difference) {
-        return difference.accept(differenceFormatterVisitor, null);
+        limiter = createDifferenceViewLimiter();
+        String result = difference.accept(differenceFormatterVisitor, null);
+        return result + limiter.formatTruncatedOutput();
+    }
+
+
+    /**
+     * @return The limiter for a new view, not null
+     */
+    protected DifferenceViewLimiter createDifferenceViewLimiter() {
+        return new DifferenceViewLimiter();
     }
 
 
@@ -81,10 +96,16 @@ public class DefaultDifferenceView implements DifferenceView {
      */
     protected String formatDifference(ObjectDifference objectDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
         for (Map.Entry<String, Difference> fieldDifference : objectDifference.getFieldDifferences().entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, fieldDifference.getKey(), true);
-            result.append(fieldDifference.getValue().accept(differenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(fieldDifference.getValue(), innerFieldName, differenceFormatterVisitor));
         }
+        result.append(limiter.formatOmittedDifferences(fieldName, objectDifference.getFieldDifferences().size() - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -93,7 +114,7 @@ public class DefaultDifferenceView implements DifferenceView {
         StringBuilder result = new StringBuilder();
         result.append("Expected: object of type ").append(getShortClassName(classDifference.getLeftClass()));
         result.append(", actual: object of type ").append(getShortClassName(classDifference.getRightClass())).append("\n");
-        return result.toString();
+        return limiter.countOutput(result.toString());
     }
 
 
@@ -106,21 +127,36 @@ public class DefaultDifferenceView implements DifferenceView {
      */
     protected String formatDifference(CollectionDifference collectionDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
         for (Map.Entry<Integer, Difference> elementDifferences : collectionDifference.getElementDifferences().entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, "[" + elementDifferences.getKey() + "]", false);
-            result.append(elementDifferences.getValue().accept(differenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(elementDifferences.getValue(), innerFieldName, differenceFormatterVisitor));
         }
 
         List<?> leftList = collectionDifference.getLeftList();
         List<?> rightList = collectionDifference.getRightList();
         for (Integer leftIndex : collectionDifference.getLeftMissingIndexes()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, "[" + leftIndex + "]", false);
             result.append(formatValues(innerFieldName, leftList.get(leftIndex), NO_MATCH));
         }
         for (Integer rightIndex : collectionDifference.getRightMissingIndexes()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, "[" + rightIndex + "]", false);
             result.append(formatValues(innerFieldName, NO_MATCH, rightList.get(rightIndex)));
         }
+        int nrOfDifferences = collectionDifference.getElementDifferences().size() + collectionDifference.getLeftMissingIndexes().size() + collectionDifference.getRightMissingIndexes().size();
+        result.append(limiter.formatOmittedDifferences(fieldName, nrOfDifferences - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -134,21 +170,36 @@ public class DefaultDifferenceView implements DifferenceView {
      */
     protected String formatDifference(MapDifference mapDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
         for (Map.Entry<Object, Difference> valueDifference : mapDifference.getValueDifferences().entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, formatObject(valueDifference.getKey()), true);
-            result.append(valueDifference.getValue().accept(differenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(valueDifference.getValue(), innerFieldName, differenceFormatterVisitor));
         }
 
         Map<?, ?> leftMap = mapDifference.getLeftMap();
         Map<?, ?> rightMap = mapDifference.getRightMap();
         for (Object leftKey : mapDifference.getLeftMissingKeys()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, formatObject(leftKey), true);
             result.append(formatValues(innerFieldName, leftMap.get(leftKey), ""));
         }
         for (Object rightKey : mapDifference.getRightMissingKeys()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, formatObject(rightKey), true);
             result.append(formatValues(innerFieldName, rightMap.get(rightKey), ""));
         }
+        int nrOfDifferences = mapDifference.getValueDifferences().size() + mapDifference.getLeftMissingKeys().size() + mapDifference.getRightMissingKeys().size();
+        result.append(limiter.formatOmittedDifferences(fieldName, nrOfDifferences - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -169,6 +220,7 @@ public class DefaultDifferenceView implements DifferenceView {
      */
     protected String formatDifference(UnorderedCollectionDifference unorderedCollectionDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
 
         result.append(fieldName == null ? "" : fieldName + ": ");
         if (unorderedCollectionDifference.getRightList().size() != unorderedCollectionDifference.getLeftList().size()) {
@@ -178,6 +230,10 @@ public class DefaultDifferenceView implements DifferenceView {
 
         Map<Integer, Integer> bestMatchingIndexes = unorderedCollectionDifference.getBestMatchingIndexes();
         for (Map.Entry<Integer, Integer> bestMatchingIndex : bestMatchingIndexes.entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             int leftIndex = bestMatchingIndex.getKey();
             int rightIndex = bestMatchingIndex.getValue();
 
@@ -198,8 +254,9 @@ public class DefaultDifferenceView implements DifferenceView {
             }
 
             String innerFieldName = createFieldName(fieldName, "[" + leftIndex + "," + rightIndex + "]", false);
-            result.append(difference.accept(differenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(difference, innerFieldName, differenceFormatterVisitor));
         }
+        result.append(limiter.formatOmittedDifferences(fieldName, bestMatchingIndexes.size() - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -215,12 +272,11 @@ public class DefaultDifferenceView implements DifferenceView {
     protected String formatValues(String fieldName, Object leftValue, Object rightValue) {
         String leftValueFormatted = formatObject(leftValue);
         String rightValueFormatted = formatObject(rightValue);
-        String valuesFormattedOnOneLine = formatValuesOnOneLine(fieldName, leftValueFormatted, rightValueFormatted);
-        if (valuesFormattedOnOneLine.length() < MAX_LINE_SIZE) {
-            return valuesFormattedOnOneLine;
-        } else {
-            return formatValuesOnMultipleLines(fieldName, leftValueFormatted, rightValueFormatted);
+        String result = formatValuesOnOneLine(fieldName, leftValueFormatted, rightValueFormatted);
+        if (result.length() >= MAX_LINE_SIZE) {
+            result = formatValuesOnMultipleLines(fieldName, leftValueFormatted, rightValueFormatted);
         }
+        return limiter.countOutput(result);
     }
 
     protected String formatValuesOnOneLine(String fieldName, String leftValueFormatted, String rightValueFormatted) {
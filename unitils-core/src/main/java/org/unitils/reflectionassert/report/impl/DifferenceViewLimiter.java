@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.report.impl;
+
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.DifferenceVisitor;
+
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_DEPTH;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_NR_OF_INNER_DIFFERENCES;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_VIEW_SIZE;
+
+/**
+ * Keeps track of the size and depth of the output of a difference view, so that views of large differences stay
+ * readable. A new limiter is created for every view that is created.
+ */
+public class DifferenceViewLimiter {
+
+    /**
+     * The maximum nr of inner differences that is output for a single difference
+     */
+    protected int maxNrOfInnerDifferences;
+
+    /**
+     * The maximum depth of the differences that are output
+     */
+    protected int maxDepth;
+
+    /**
+     * The nr of characters that can still be output
+     */
+    protected int remainingViewSize;
+
+    /**
+     * The depth of the difference that is being formatted
+     */
+    protected int currentDepth;
+
+
+    /**
+     * Creates a limiter with the default limits of {@link DefaultDifferenceReport}.
+     */
+    public DifferenceViewLimiter() {
+        this(MAX_VIEW_SIZE, MAX_NR_OF_INNER_DIFFERENCES, MAX_DEPTH);
+    }
+
+
+    /**
+     * @param maxViewSize             The maximum nr of characters that is output
+     * @param maxNrOfInnerDifferences The maximum nr of inner differences that is output for a single difference
+     * @param maxDepth                The maximum depth of the differences that are output
+     */
+    public DifferenceViewLimiter(int maxViewSize, int maxNrOfInnerDifferences, int maxDepth) {
+        this.remainingViewSize = maxViewSize;
+        this.maxNrOfInnerDifferences = maxNrOfInnerDifferences;
+        this.maxDepth = maxDepth;
+    }
+
+
+    /**
+     * Creates a string representation of a difference that is part of another difference. If the maximum depth
+     * is reached, only the values of the difference are output.
+     *
+     * @param difference The difference, not null
+     * @param fieldName  The current fieldName, not null
+     * @param visitor    The visitor of the view, not null
+     * @return The string representation, not null
+     */
+    public String formatInnerDifference(Difference difference, String fieldName, DifferenceVisitor<String, String> visitor) {
+        if (currentDepth >= maxDepth) {
+            return visitor.visit(difference, fieldName);
+        }
+        currentDepth++;
+        try {
+            return difference.accept(visitor, fieldName);
+        } finally {
+            currentDepth--;
+        }
+    }
+
+
+    /**
+     * @param nrOfInnerDifferences The nr of inner differences that were already output for the current difference
+     * @return True if no more inner differences should be output
+     */
+    public boolean isLimitReached(int nrOfInnerDifferences) {
+        return nrOfInnerDifferences >= maxNrOfInnerDifferences || isOutputTruncated();
+    }
+
+
+    /**
+     * @return True if the maximum nr of characters was output
+     */
+    public boolean isOutputTruncated() {
+        return remainingViewSize <= 0;
+    }
+
+
+    /**
+     * Counts the given output in the size of the view.
+     *
+     * @param output The output, not null
+     * @return The output, not null
+     */
+    public String countOutput(String output) {
+        remainingViewSize -= output.length();
+        return output;
+    }
+
+
+    /**
+     * Creates a string representation for the inner differences that were not output.
+     *
+     * @param fieldName              The current fieldName, null for root
+     * @param nrOfOmittedDifferences The nr of inner differences that were not output
+     * @return The string representation, empty if nothing was omitted or if the output was already truncated
+     */
+    public String formatOmittedDifferences(String fieldName, int nrOfOmittedDifferences) {
+        if (nrOfOmittedDifferences <= 0 || isOutputTruncated()) {
+            return "";
+        }
+        return countOutput((fieldName == null ? "" : fieldName + ": ") + "...and " + nrOfOmittedDifferences + " more differences\n");
+    }
+
+
+    /**
+     * @return The message that is added at the end of the view, empty if the output was not truncated
+     */
+    public String formatTruncatedOutput() {
+        if (!isOutputTruncated()) {
+            return "";
+        }
+        return "...and more differences, output truncated\n";
+    }
+}
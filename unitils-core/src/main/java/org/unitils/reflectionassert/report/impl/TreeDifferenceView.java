@@ -38,6 +38,11 @@ public class TreeDifferenceView implements DifferenceView {
      */
     protected ObjectFormatter objectFormatter = new ObjectFormatter();
 
+    /**
+     * The limits of the view that is being created, a new limiter is created for every view
+     */
+    protected DifferenceViewLimiter limiter;
+
     /**
      * The visitor for visiting the difference tree
      */
@@ -51,7 +56,17 @@ public class TreeDifferenceView implements DifferenceView {
      * @return The string representation, not null
      */
     public String createView(Difference difference) {
-        return difference.accept(treeDifferenceFormatterVisitor, null);
+        limiter = createDifferenceViewLimiter();
+        String result = difference.accept(treeDifferenceFormatterVisitor, null);
+        return result + limiter.formatTruncatedOutput();
+    }
+
+
+    /**
+     * @return The limiter for a new view, not null
+     */
+    protected DifferenceViewLimiter createDifferenceViewLimiter() {
+        return new DifferenceViewLimiter();
     }
 
 
@@ -76,12 +91,18 @@ public class TreeDifferenceView implements DifferenceView {
      */
     protected String formatDifference(ObjectDifference objectDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
         result.append(formatDifference((Difference) objectDifference, fieldName));
 
         for (Map.Entry<String, Difference> fieldDifference : objectDifference.getFieldDifferences().entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, fieldDifference.getKey(), true);
-            result.append(fieldDifference.getValue().accept(treeDifferenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(fieldDifference.getValue(), innerFieldName, treeDifferenceFormatterVisitor));
         }
+        result.append(limiter.formatOmittedDifferences(fieldName, objectDifference.getFieldDifferences().size() - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -91,7 +112,7 @@ public class TreeDifferenceView implements DifferenceView {
         result.append((fieldName == null) ? "" : fieldName + ":");
         result.append("Expected: object of type ").append(getShortClassName(classDifference.getLeftClass()));
         result.append(", actual: object of type ").append(getShortClassName(classDifference.getRightClass())).append("\n");
-        return result.toString();
+        return limiter.countOutput(result.toString());
     }
 
 
@@ -104,23 +125,38 @@ public class TreeDifferenceView implements DifferenceView {
      */
     protected String formatDifference(CollectionDifference collectionDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
         result.append(formatDifference((Difference) collectionDifference, fieldName));
 
         for (Map.Entry<Integer, Difference> elementDifferences : collectionDifference.getElementDifferences().entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, "[" + elementDifferences.getKey() + "]", false);
-            result.append(elementDifferences.getValue().accept(treeDifferenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(elementDifferences.getValue(), innerFieldName, treeDifferenceFormatterVisitor));
         }
 
         List<?> leftList = collectionDifference.getLeftList();
         List<?> rightList = collectionDifference.getRightList();
         for (Integer leftIndex : collectionDifference.getLeftMissingIndexes()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, "[" + leftIndex + "]", false);
             result.append(formatValues(innerFieldName, leftList.get(leftIndex), ""));
         }
         for (Integer rightIndex : collectionDifference.getRightMissingIndexes()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, "[" + rightIndex + "]", false);
             result.append(formatValues(innerFieldName, "", rightList.get(rightIndex)));
         }
+        int nrOfDifferences = collectionDifference.getElementDifferences().size() + collectionDifference.getLeftMissingIndexes().size() + collectionDifference.getRightMissingIndexes().size();
+        result.append(limiter.formatOmittedDifferences(fieldName, nrOfDifferences - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -134,23 +170,38 @@ public class TreeDifferenceView implements DifferenceView {
      */
     protected String formatDifference(MapDifference mapDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
         result.append(formatDifference((Difference) mapDifference, fieldName));
 
         for (Map.Entry<Object, Difference> valueDifference : mapDifference.getValueDifferences().entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, formatObject(valueDifference.getKey()), true);
-            result.append(valueDifference.getValue().accept(treeDifferenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(valueDifference.getValue(), innerFieldName, treeDifferenceFormatterVisitor));
         }
 
         Map<?, ?> leftMap = mapDifference.getLeftMap();
         Map<?, ?> rightMap = mapDifference.getRightMap();
         for (Object leftKey : mapDifference.getLeftMissingKeys()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, formatObject(leftKey), true);
             result.append(formatValues(innerFieldName, leftMap.get(leftKey), ""));
         }
         for (Object rightKey : mapDifference.getRightMissingKeys()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             String innerFieldName = createFieldName(fieldName, formatObject(rightKey), true);
             result.append(formatValues(innerFieldName, rightMap.get(rightKey), ""));
         }
+        int nrOfDifferences = mapDifference.getValueDifferences().size() + mapDifference.getLeftMissingKeys().size() + mapDifference.getRightMissingKeys().size();
+        result.append(limiter.formatOmittedDifferences(fieldName, nrOfDifferences - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -171,10 +222,15 @@ public class TreeDifferenceView implements DifferenceView {
      */
     protected String formatDifference(UnorderedCollectionDifference unorderedCollectionDifference, String fieldName) {
         StringBuilder result = new StringBuilder();
+        int nrOfInnerDifferences = 0;
         result.append(formatDifference((Difference) unorderedCollectionDifference, fieldName));
 
         Map<Integer, Integer> bestMatchingIndexes = unorderedCollectionDifference.getBestMatchingIndexes();
         for (Map.Entry<Integer, Integer> bestMatchingIndex : bestMatchingIndexes.entrySet()) {
+            if (limiter.isLimitReached(nrOfInnerDifferences)) {
+                break;
+            }
+            nrOfInnerDifferences++;
             int leftIndex = bestMatchingIndex.getKey();
             int rightIndex = bestMatchingIndex.getValue();
 
@@ -195,8 +251,9 @@ public class TreeDifferenceView implements DifferenceView {
             }
 
             String innerFieldName = createFieldName(fieldName, "[" + leftIndex + "," + rightIndex + "]", false);
-            result.append(difference.accept(treeDifferenceFormatterVisitor, innerFieldName));
+            result.append(limiter.formatInnerDifference(difference, innerFieldName, treeDifferenceFormatterVisitor));
         }
+        result.append(limiter.formatOmittedDifferences(fieldName, bestMatchingIndexes.size() - nrOfInnerDifferences));
         return result.toString();
     }
 
@@ -221,7 +278,7 @@ public class TreeDifferenceView implements DifferenceView {
         result.append("   actual: ");
         result.append(formatObject(rightValue));
         result.append("\n\n");
-        return result.toString();
+        return limiter.countOutput(result.toString());
     }
 
 
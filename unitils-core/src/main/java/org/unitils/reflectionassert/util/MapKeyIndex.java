@@ -0,0 +1,310 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import org.unitils.reflectionassert.ReflectionComparator;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.reflect.Modifier.isStatic;
+import static java.lang.reflect.Modifier.isTransient;
+import static org.unitils.reflectionassert.util.HibernateUtil.isHibernateProxy;
+import static org.unitils.util.CollectionUtils.convertToCollection;
+import static org.unitils.util.ReflectionUtils.getFieldValue;
+
+/**
+ * An index on the keys of a map for finding the keys that are equal to a given key according to a strict reflection
+ * comparison. This avoids having to compare a key with all keys of the map.
+ * <p/>
+ * The keys are indexed on a structural hash code: a hash code that is the same for all values that are equal
+ * according to a strict reflection comparison. Strings, booleans and other java.lang values are hashed on their
+ * hash code and are looked up using equals. Numbers and characters are hashed on their double value, so that
+ * for example an Integer and Long with the same value end up in the same bucket. Collections, arrays, maps and objects
+ * are hashed on their elements or field values, up to a maximum depth. Objects of other jdk classes, e.g. a UUID
+ * or a File, are also hashed on their field values.
+ * <p/>
+ * Some values can be equal to values of another type, for example a date is considered equal to any object that is
+ * not a date. Keys that contain such values cannot be hashed: they are compared with all other keys.
+ * <p/>
+ * The entries are matched in the iteration order of the given map: a key is matched with the first entry that has
+ * an equal key, in the same way as when looping over all entries.
+ */
+public class MapKeyIndex {
+
+    /**
+     * The maximum depth of inner values that is used for calculating the hash codes. Deeper values do not contribute.
+     */
+    protected static final int MAX_HASH_DEPTH = 3;
+
+    /* The comparator for the keys */
+    protected ReflectionComparator keyReflectionComparator;
+
+    /* All entries, in the iteration order of the map */
+    protected List<IndexedEntry> indexedEntries = new ArrayList<IndexedEntry>();
+
+    /* The entries that were not matched yet, per structural hash code of their key */
+    protected Map<Integer, List<IndexedEntry>> indexedEntriesPerHashCode = new HashMap<Integer, List<IndexedEntry>>();
+
+    /* The entries with a key that could not be hashed */
+    protected List<IndexedEntry> unhashedEntries = new ArrayList<IndexedEntry>();
+
+    /* The fields that are used for hashing objects, per class */
+    protected Map<Class<?>, List<Field>> hashedFieldsPerClass = new HashMap<Class<?>, List<Field>>();
+
+
+    /**
+     * Creates an index for the keys of the given map.
+     *
+     * @param map                     The map, not null
+     * @param keyReflectionComparator The strict comparator for the keys, not null
+     */
+    public MapKeyIndex(Map<?, ?> map, ReflectionComparator keyReflectionComparator) {
+        this.keyReflectionComparator = keyReflectionComparator;
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            IndexedEntry indexedEntry = new IndexedEntry(indexedEntries.size(), entry);
+            indexedEntries.add(indexedEntry);
+
+            Integer hashCode = getStructuralHashCode(entry.getKey(), 0);
+            if (hashCode == null) {
+                unhashedEntries.add(indexedEntry);
+                continue;
+            }
+            List<IndexedEntry> bucket = indexedEntriesPerHashCode.get(hashCode);
+            if (bucket == null) {
+                bucket = new ArrayList<IndexedEntry>(1);
+                indexedEntriesPerHashCode.put(hashCode, bucket);
+            }
+            bucket.add(indexedEntry);
+        }
+    }
+
+
+    /**
+     * Looks for the first entry that was not matched yet and that has a key that is equal to the given key.
+     * If found, the entry is marked as matched.
+     *
+     * @param key The key to look for
+     * @return The matching entry, null if not found
+     */
+    @SuppressWarnings("unchecked")
+    public Map.Entry<Object, Object> removeMatchingEntry(Object key) {
+        IndexedEntry match;
+        Integer hashCode = getStructuralHashCode(key, 0);
+        if (hashCode == null) {
+            match = findFirstMatch(key, indexedEntries, indexedEntries.size());
+        } else {
+            List<IndexedEntry> bucket = indexedEntriesPerHashCode.get(hashCode);
+            match = bucket == null ? null : findFirstMatch(key, bucket, indexedEntries.size());
+            // keys that could not be hashed could also be equal, use them if they come first
+            IndexedEntry unhashedMatch = findFirstMatch(key, unhashedEntries, match == null ? indexedEntries.size() : match.position);
+            if (unhashedMatch != null) {
+                match = unhashedMatch;
+            } else if (match != null) {
+                bucket.remove(match);
+            }
+        }
+        if (match == null) {
+            return null;
+        }
+        match.matched = true;
+        return (Map.Entry<Object, Object>) match.entry;
+    }
+
+
+    /**
+     * @return The keys that were not matched, in the iteration order of the map, not null
+     */
+    public List<Object> getUnmatchedKeys() {
+        List<Object> unmatchedKeys = new ArrayList<Object>();
+        for (IndexedEntry indexedEntry : indexedEntries) {
+            if (!indexedEntry.matched) {
+                unmatchedKeys.add(indexedEntry.entry.getKey());
+            }
+        }
+        return unmatchedKeys;
+    }
+
+
+    /**
+     * @param key         The key to look for
+     * @param candidates  The entries to look in, in iteration order, not null
+     * @param maxPosition Only look at entries before this position
+     * @return The first entry that was not matched yet and has a key that is equal to the given key, null if not found
+     */
+    protected IndexedEntry findFirstMatch(Object key, List<IndexedEntry> candidates, int maxPosition) {
+        for (IndexedEntry candidate : candidates) {
+            if (candidate.position >= maxPosition) {
+                break;
+            }
+            if (!candidate.matched && isEqualKey(key, candidate.entry.getKey())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Java.lang values (except numbers and characters) are compared using equals, this gives the same result as
+     * a reflection comparison. Other values are compared using the reflection comparator.
+     *
+     * @param left  The left key
+     * @param right The right key
+     * @return True if both keys are equal
+     */
+    protected boolean isEqualKey(Object left, Object right) {
+        if (left == right) {
+            return true;
+        }
+        if (left != null && !(left instanceof Number) && !(left instanceof Character) && left.getClass().getName().startsWith("java.lang")) {
+            return left.equals(right);
+        }
+        return keyReflectionComparator.isEqual(left, right);
+    }
+
+
+    /**
+     * Calculates a hash code that is the same for values that are equal according to a strict reflection comparison.
+     *
+     * @param value The value
+     * @param depth The depth of the value in the key
+     * @return The hash code, null if the value cannot be hashed
+     */
+    protected Integer getStructuralHashCode(Object value, int depth) {
+        if (value == null || depth > MAX_HASH_DEPTH) {
+            return 0;
+        }
+        // numbers are compared on their double value
+        if (value instanceof Number) {
+            return Double.valueOf(((Number) value).doubleValue()).hashCode();
+        }
+        if (value instanceof Character) {
+            return Double.valueOf(((Character) value).charValue()).hashCode();
+        }
+        Class<?> type = value.getClass();
+        if (type.getName().startsWith("java.lang") || value instanceof Enum) {
+            return value.hashCode();
+        }
+        // dates are considered equal to values of other types and proxies to the values they wrap
+        if (value instanceof Date || value instanceof Calendar || isHibernateProxy(value)) {
+            return null;
+        }
+        if (type.isArray() || value instanceof Collection) {
+            int hashCode = 1;
+            for (Object element : convertToCollection(value)) {
+                Integer elementHashCode = getStructuralHashCode(element, depth + 1);
+                if (elementHashCode == null) {
+                    return null;
+                }
+                hashCode = 31 * hashCode + elementHashCode;
+            }
+            return hashCode;
+        }
+        if (value instanceof Map) {
+            int hashCode = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Integer keyHashCode = getStructuralHashCode(entry.getKey(), depth + 1);
+                Integer valueHashCode = getStructuralHashCode(entry.getValue(), depth + 1);
+                if (keyHashCode == null || valueHashCode == null) {
+                    return null;
+                }
+                hashCode += keyHashCode ^ valueHashCode;
+            }
+            return hashCode;
+        }
+        // other objects, including jdk types such as UUID or File, are compared field by field
+        return getObjectHashCode(value, depth);
+    }
+
+
+    /**
+     * Objects are compared field by field and can be equal to an instance of a sub class. Only the fields of
+     * the top-most class of the hierarchy (below java.lang) are hashed: these are compared for all instances.
+     *
+     * @param value The object, not null
+     * @param depth The depth of the value in the key
+     * @return The hash code, null if the object cannot be hashed
+     */
+    protected Integer getObjectHashCode(Object value, int depth) {
+        Class<?> rootClass = value.getClass();
+        while (rootClass.getSuperclass() != null && !rootClass.getSuperclass().getName().startsWith("java.lang")) {
+            rootClass = rootClass.getSuperclass();
+        }
+        List<Field> hashedFields = getHashedFields(rootClass);
+        if (hashedFields == null) {
+            return null;
+        }
+        int hashCode = rootClass.getName().hashCode();
+        for (Field field : hashedFields) {
+            Integer fieldHashCode = getStructuralHashCode(getFieldValue(value, field), depth + 1);
+            if (fieldHashCode == null) {
+                return null;
+            }
+            hashCode = 31 * hashCode + fieldHashCode;
+        }
+        return hashCode;
+    }
+
+
+    /**
+     * @param clazz The class, not null
+     * @return The fields that are compared by the object comparator: the non-static, non-transient declared fields,
+     *         null if the fields cannot be accessed, e.g. for jdk classes of a module that is not opened
+     */
+    protected List<Field> getHashedFields(Class<?> clazz) {
+        if (hashedFieldsPerClass.containsKey(clazz)) {
+            return hashedFieldsPerClass.get(clazz);
+        }
+        List<Field> hashedFields = new ArrayList<Field>();
+        try {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (isTransient(field.getModifiers()) || isStatic(field.getModifiers()) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                hashedFields.add(field);
+            }
+        } catch (RuntimeException e) {
+            hashedFields = null;
+        }
+        hashedFieldsPerClass.put(clazz, hashedFields);
+        return hashedFields;
+    }
+
+
+    /**
+     * A map entry with its position in the iteration order of the map.
+     */
+    protected static class IndexedEntry {
+
+        private int position;
+        private Map.Entry<?, ?> entry;
+        private boolean matched;
+
+        public IndexedEntry(int position, Map.Entry<?, ?> entry) {
+            this.position = position;
+            this.entry = entry;
+        }
+    }
+}
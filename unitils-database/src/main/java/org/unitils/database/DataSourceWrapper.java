@@ -12,6 +12,7 @@ import org.unitils.core.Unitils;
 import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.DefaultSQLHandler;
 import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.core.dbsupport.SessionSQLHandler;
 import org.unitils.core.util.ConfigUtils;
 import org.unitils.database.config.DataSourceFactory;
 import org.unitils.database.config.DatabaseConfiguration;
@@ -116,7 +117,13 @@ public class DataSourceWrapper {
 
         // Call the database maintainer if enabled
         if (updateDatabaseSchemaEnabled) {
-            updateDatabase(new DefaultSQLHandler(dataSource));
+            // use a single connection for the whole update instead of a connection per statement
+            SessionSQLHandler sqlHandler = new SessionSQLHandler(dataSource);
+            try {
+                updateDatabase(sqlHandler);
+            } finally {
+                sqlHandler.close();
+            }
         }
         return dataSource;
     }
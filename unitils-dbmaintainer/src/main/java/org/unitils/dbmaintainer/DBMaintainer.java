@@ -19,6 +19,8 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.unitils.core.UnitilsException;
 import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.core.timing.TimingRecorder;
+import org.unitils.core.timing.TimingRecorder.Measurement;
 import org.unitils.core.util.ConfigUtils;
 import org.unitils.dbmaintainer.clean.DBCleaner;
 import org.unitils.dbmaintainer.clean.DBClearer;
@@ -36,10 +38,17 @@ import org.unitils.dbmaintainer.version.ExecutedScriptInfoSource;
 import org.unitils.dbmaintainer.version.Version;
 import org.unitils.util.PropertyUtils;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A class for performing automatic maintenance of a database.<br>
@@ -61,6 +70,9 @@ import java.util.Set;
  * <li>A DTD is generated that describes the database's table structure, to use in test data XML
  * files</li>
  * </ul>
+ * <p/> Top-level script folders that are listed in {@link #PROPKEY_INDEPENDENT_SCRIPT_FOLDERS} are considered to have
+ * no dependencies on any other script folder. The incremental scripts of each such folder are executed in sequence,
+ * but concurrently with the scripts of the other folders.
  * <p/> To obtain a properly configured <code>DBMaintainer</code>, invoke the constructor
  * {@link #DBMaintainer(Properties,SQLHandler)} with a <code>TestDataSource</code> providing
  * access to the database and a <code>Configuration</code> object containing all necessary
@@ -110,6 +122,21 @@ public class DBMaintainer {
      */
     public static final String PROPKEY_GENERATE_DATA_SET_STRUCTURE_ENABLED = "dbMaintainer.generateDataSetStructure.enabled";
 
+    /**
+     * Property containing the names of the top-level script folders that do not depend on any other script folder
+     */
+    public static final String PROPKEY_INDEPENDENT_SCRIPT_FOLDERS = "dbMaintainer.script.independentFolders";
+
+    /**
+     * Property containing the maximum number of script folders that are executed concurrently
+     */
+    public static final String PROPKEY_MAX_PARALLEL_SCRIPT_FOLDERS = "dbMaintainer.script.maxParallelFolders";
+
+    /**
+     * The maximum number of script folders that are executed concurrently when the property is not set
+     */
+    public static final int DEFAULT_MAX_PARALLEL_SCRIPT_FOLDERS = 4;
+
     /**
      * Provider of the current version of the database, and means to increment it
      */
@@ -169,6 +196,17 @@ public class DBMaintainer {
      */
     protected boolean keepRetryingAfterError;
 
+    /**
+     * The names of the top-level script folders whose scripts can be executed concurrently with the other scripts,
+     * empty if all scripts should be executed in sequence
+     */
+    protected List<String> independentScriptFolders = new ArrayList<String>();
+
+    /**
+     * The maximum number of script folders that are executed concurrently
+     */
+    protected int maxParallelScriptFolders = DEFAULT_MAX_PARALLEL_SCRIPT_FOLDERS;
+
     protected String dialect;
 
     /**
@@ -210,6 +248,9 @@ public class DBMaintainer {
                 sequenceUpdater = getConfiguredDatabaseTaskInstance(SequenceUpdater.class, configuration, sqlHandler, dialect, schemaNames);
             }
 
+            independentScriptFolders = PropertyUtils.getStringList(PROPKEY_INDEPENDENT_SCRIPT_FOLDERS, configuration, false);
+            maxParallelScriptFolders = PropertyUtils.getInt(PROPKEY_MAX_PARALLEL_SCRIPT_FOLDERS, DEFAULT_MAX_PARALLEL_SCRIPT_FOLDERS, configuration);
+
             boolean generateDtd = PropertyUtils.getBoolean(PROPKEY_GENERATE_DATA_SET_STRUCTURE_ENABLED, configuration);
             if (generateDtd) {
                 dataSetStructureGenerator = getConfiguredDatabaseTaskInstance(DataSetStructureGenerator.class, configuration, sqlHandler, dialect, schemaNames);
@@ -229,6 +270,19 @@ public class DBMaintainer {
      * with one of the scripts, a {@link UnitilsException} is thrown.
      */
     public void updateDatabase(String databaseName, boolean defaultDatabase) {
+        Measurement measurement = TimingRecorder.start("DBMaintainer", "updateDatabase");
+        try {
+            doUpdateDatabase(databaseName, defaultDatabase);
+        } finally {
+            TimingRecorder.stop(measurement);
+        }
+    }
+
+
+    /**
+     * Performs the actual update, see {@link #updateDatabase(String, boolean)}.
+     */
+    protected void doUpdateDatabase(String databaseName, boolean defaultDatabase) {
         // Check if the executed scripts info source recommends a from-scratch update
         boolean fromScratchUpdateRecommended = versionSource.isFromScratchUpdateRecommended();
 
@@ -331,27 +385,137 @@ public class DBMaintainer {
      * stored in the database and marked as unsuccesful. If fromScratch is not enabled, the last
      * succesful version is stored in the database that way, the next time an update is tried, the
      * execution restarts from the last unsuccessful script.
+     * <p/>
+     * If independent script folders are configured, the scripts are split in a branch per independent folder and
+     * a branch containing all other scripts. Every branch is executed in sequence, but the branches themselves are
+     * executed concurrently. If a script of one of the branches fails, the other branches stop before executing
+     * their next script and the error is rethrown.
      *
      * @param scripts The scripts to execute, not null
      */
     protected void executeScripts(List<Script> scripts) {
-        for (Script script : scripts) {
-            try {
-                // We register the script execution, but we indicate it to be unsuccessful. If anything goes wrong or if the update is
-                // interrupted before being completed, this will be the final state and the DbMaintainer will do a from-scratch update the next time
-                ExecutedScript executedScript = new ExecutedScript(script, new Date(), false);
+        List<List<Script>> scriptBranches = getScriptBranches(scripts);
+        if (scriptBranches.size() <= 1 || maxParallelScriptFolders <= 1) {
+            for (Script script : scripts) {
+                executeScript(script);
+            }
+            return;
+        }
+        executeScriptBranches(scriptBranches);
+    }
+
+
+    /**
+     * Executes the given script and registers the execution in the executed scripts info source.
+     *
+     * @param script The script to execute, not null
+     */
+    protected void executeScript(Script script) {
+        try {
+            // We register the script execution, but we indicate it to be unsuccessful. If anything goes wrong or if the update is
+            // interrupted before being completed, this will be the final state and the DbMaintainer will do a from-scratch update the next time
+            ExecutedScript executedScript = new ExecutedScript(script, new Date(), false);
+            synchronized (versionSource) {
                 versionSource.registerExecutedScript(executedScript);
+            }
 
-                logger.info("Executing script " + script.getFileName());
-                scriptRunner.execute(script.getScriptContentHandle());
-                // We now register the previously registered script execution as being successful
-                executedScript.setSuccessful(true);
+            logger.info("Executing script " + script.getFileName());
+            scriptRunner.execute(script.getScriptContentHandle());
+            // We now register the previously registered script execution as being successful
+            executedScript.setSuccessful(true);
+            synchronized (versionSource) {
                 versionSource.updateExecutedScript(executedScript);
+            }
 
-            } catch (UnitilsException e) {
-                logger.error("Error while executing script " + script.getFileName(), e);
-                throw e;
+        } catch (UnitilsException e) {
+            logger.error("Error while executing script " + script.getFileName(), e);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Splits the given scripts in branches that can be executed concurrently: one branch for every independent
+     * script folder and one branch for all other scripts. The order of the scripts within a branch is the
+     * order of the given scripts, i.e. the order of their versions.
+     *
+     * @param scripts The scripts, not null
+     * @return The branches, not null
+     */
+    protected List<List<Script>> getScriptBranches(List<Script> scripts) {
+        Map<String, List<Script>> scriptBranches = new LinkedHashMap<String, List<Script>>();
+        for (Script script : scripts) {
+            String branchName = getIndependentScriptFolder(script);
+            List<Script> scriptBranch = scriptBranches.get(branchName);
+            if (scriptBranch == null) {
+                scriptBranch = new ArrayList<Script>();
+                scriptBranches.put(branchName, scriptBranch);
             }
+            scriptBranch.add(script);
+        }
+        return new ArrayList<List<Script>>(scriptBranches.values());
+    }
+
+
+    /**
+     * Gets the name of the independent top-level folder that contains the given script.
+     *
+     * @param script The script, not null
+     * @return The folder name, an empty string if the script is not located in an independent folder
+     */
+    protected String getIndependentScriptFolder(Script script) {
+        if (independentScriptFolders == null || independentScriptFolders.isEmpty()) {
+            return "";
+        }
+        String fileName = script.getFileName().replace('\\', '/');
+        int index = fileName.indexOf('/');
+        if (index == -1) {
+            return "";
+        }
+        String folderName = fileName.substring(0, index);
+        if (independentScriptFolders.contains(folderName)) {
+            return folderName;
+        }
+        return "";
+    }
+
+
+    /**
+     * Executes the given script branches concurrently. The scripts within a branch are executed in sequence. As soon
+     * as a script fails, no new scripts are started in any of the branches. The first error is rethrown once all
+     * running scripts are finished.
+     *
+     * @param scriptBranches The branches to execute, not null
+     */
+    protected void executeScriptBranches(List<List<Script>> scriptBranches) {
+        int nrOfThreads = Math.min(maxParallelScriptFolders, scriptBranches.size());
+        logger.info("Executing " + scriptBranches.size() + " independent script folders using " + nrOfThreads + " threads.");
+
+        ScriptBranchExecution scriptBranchExecution = new ScriptBranchExecution();
+        ExecutorService executorService = Executors.newFixedThreadPool(nrOfThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (List<Script> scriptBranch : scriptBranches) {
+                futures.add(executorService.submit(new ScriptBranchRunnable(scriptBranch, scriptBranchExecution)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    scriptBranchExecution.registerError(e.getCause());
+                } catch (InterruptedException e) {
+                    scriptBranchExecution.registerError(e);
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        Throwable error = scriptBranchExecution.getError();
+        if (error instanceof UnitilsException) {
+            throw (UnitilsException) error;
+        }
+        if (error != null) {
+            throw new UnitilsException("Error while executing independent script folders.", error);
         }
     }
 
@@ -440,5 +604,63 @@ public class DBMaintainer {
         this.dialect = dialect;
     }
 
-    
+
+    /**
+     * Keeps track of the first error that occurred while executing script branches concurrently.
+     */
+    protected static class ScriptBranchExecution {
+
+        /* The first error that occurred, null if none */
+        private Throwable error;
+
+
+        public synchronized void registerError(Throwable throwable) {
+            if (error == null) {
+                error = throwable;
+            }
+        }
+
+        public synchronized Throwable getError() {
+            return error;
+        }
+
+        public synchronized boolean isFailed() {
+            return error != null;
+        }
+    }
+
+
+    /**
+     * Executes the scripts of a single branch in sequence, stopping when a script of any branch has failed.
+     */
+    protected class ScriptBranchRunnable implements Runnable {
+
+        /* The scripts of the branch, not null */
+        private List<Script> scripts;
+
+        /* The execution to which errors are reported, not null */
+        private ScriptBranchExecution scriptBranchExecution;
+
+
+        public ScriptBranchRunnable(List<Script> scripts, ScriptBranchExecution scriptBranchExecution) {
+            this.scripts = scripts;
+            this.scriptBranchExecution = scriptBranchExecution;
+        }
+
+
+        public void run() {
+            for (Script script : scripts) {
+                if (scriptBranchExecution.isFailed()) {
+                    logger.info("Skipping script " + script.getFileName() + " because the execution of another script failed.");
+                    return;
+                }
+                try {
+                    executeScript(script);
+                } catch (RuntimeException e) {
+                    scriptBranchExecution.registerError(e);
+                    return;
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbmaintainer.locator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.unitils.thirdparty.org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Index of the resources on the classpath that are used by the resource locators and picking strategies.
+ * <p/>
+ * Looking up resources on the classpath (and certainly scanning jars for sub-resources) is expensive and the same
+ * data sets and scripts are typically looked up by many tests. The index therefore keeps the resources that were found
+ * for a path, per class loader. The class loaders are weakly referenced, so that they can still be garbage collected.
+ * The sub-resources and the last modification time of a resource in a jar are also only looked up once.
+ * <p/>
+ * Scripts and data sets in directories can be changed or added while the tests are running. Paths for which no
+ * resources were found are therefore not indexed, and the sub-resources and last modification time of a file
+ * resource are looked up every time. {@link #clear} can be used to remove all indexed resources. The returned lists
+ * are unmodifiable.
+ */
+public class ClassPathResourceIndex {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(ClassPathResourceIndex.class);
+
+    /* The shared instance */
+    private static ClassPathResourceIndex instance = new ClassPathResourceIndex();
+
+    /* The resources per class loader and path */
+    protected Map<ClassLoader, Map<String, List<URL>>> resourcesPerClassLoader = new WeakHashMap<ClassLoader, Map<String, List<URL>>>();
+
+    /* The sub-resources per resource url, only for resources that are not files */
+    protected Map<String, List<URL>> subResources = new HashMap<String, List<URL>>();
+
+    /* The last modification times per resource url, only for resources that are not files */
+    protected Map<String, Long> lastModifiedTimes = new HashMap<String, Long>();
+
+
+    /**
+     * @return The index that is shared by all locators and picking strategies, not null
+     */
+    public static ClassPathResourceIndex getInstance() {
+        return instance;
+    }
+
+
+    /**
+     * Gets all resources with the given path, as found by {@link ClassLoader#getResources}. This will also return
+     * resources in jars that are in the classpath. If no resources are found, the path is looked up again the next
+     * time.
+     *
+     * @param classLoader The class loader to use, not null
+     * @param path        The path of the resource, not null
+     * @return The resources, empty if none found, not null
+     */
+    public synchronized List<URL> getResources(ClassLoader classLoader, String path) throws IOException {
+        Map<String, List<URL>> resourcesPerPath = resourcesPerClassLoader.get(classLoader);
+        if (resourcesPerPath == null) {
+            resourcesPerPath = new HashMap<String, List<URL>>();
+            resourcesPerClassLoader.put(classLoader, resourcesPerPath);
+        }
+        List<URL> result = resourcesPerPath.get(path);
+        if (result == null) {
+            result = new ArrayList<URL>();
+            Enumeration<URL> resources = classLoader.getResources(path);
+            while (resources.hasMoreElements()) {
+                result.add(resources.nextElement());
+            }
+            result = Collections.unmodifiableList(result);
+            if (!result.isEmpty()) {
+                resourcesPerPath.put(path, result);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets all resources that are located below the given resource, e.g. all files in all sub-directories of a
+     * directory. The Spring {@link PathMatchingResourcePatternResolver} is used to find the resources. The
+     * sub-resources of a directory are looked up every time, so that added files are found.
+     *
+     * @param url The resource, not null
+     * @return The sub-resources, empty if none found, not null
+     */
+    public synchronized List<URL> getSubResources(URL url) throws IOException {
+        String key = url.toString();
+        List<URL> result = subResources.get(key);
+        if (result == null) {
+            result = readSubResources(key);
+            if (!isFile(url)) {
+                subResources.put(key, result);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Gets the last modification time of the given resource. For a file, this is the last modification time of the
+     * file, which is read every time. For other resources, e.g. resources in a jar, a connection is opened to get
+     * the time, this is only done once.
+     *
+     * @param url The resource, not null
+     * @return The last modification time, 0 if not known
+     */
+    public synchronized long getLastModified(URL url) throws IOException {
+        if (isFile(url)) {
+            return readLastModified(url);
+        }
+        String key = url.toString();
+        Long result = lastModifiedTimes.get(key);
+        if (result == null) {
+            result = readLastModified(url);
+            lastModifiedTimes.put(key, result);
+        }
+        return result;
+    }
+
+
+    /**
+     * Removes all indexed resources.
+     */
+    public synchronized void clear() {
+        resourcesPerClassLoader.clear();
+        subResources.clear();
+        lastModifiedTimes.clear();
+    }
+
+
+    protected List<URL> readSubResources(String url) throws IOException {
+        List<URL> result = new ArrayList<URL>();
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(url + "**");
+        for (Resource resource : resources) {
+            URL resourceUrl = FileUtils.toURLs(new File[]{resource.getFile()})[0];
+            result.add(resourceUrl);
+            logger.debug(" Resource '" + resourceUrl + "' added to index ");
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+
+    protected long readLastModified(URL url) throws IOException {
+        if (isFile(url)) {
+            try {
+                return new File(url.toURI()).lastModified();
+            } catch (URISyntaxException e) {
+                // not a valid file uri, use a connection instead
+            } catch (IllegalArgumentException e) {
+                // not a valid file uri, use a connection instead
+            }
+        }
+        return url.openConnection().getLastModified();
+    }
+
+
+    protected boolean isFile(URL url) {
+        return "file".equals(url.getProtocol());
+    }
+}
@@ -1,18 +1,14 @@
 package org.unitils.dbmaintainer.locator;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.unitils.core.UnitilsException;
-import org.unitils.thirdparty.org.apache.commons.io.FileUtils;
 
 
 /**
@@ -46,11 +42,9 @@ public abstract class ClassPathResourceLocator {
 
         try {
             // will also check in external referenced jars.
-            Enumeration<URL> resources = getClass().getClassLoader().getResources(path);
+            List<URL> resources = ClassPathResourceIndex.getInstance().getResources(getClass().getClassLoader(), path);
 
-            while (resources.hasMoreElements()) {
-
-                URL url = resources.nextElement();
+            for (URL url : resources) {
 
                 resourceList.add(url);
                 logger.debug(" Resource '" + url.toString() + "' added to resourcelist ");
@@ -71,23 +65,13 @@ public abstract class ClassPathResourceLocator {
 
     /**
      * Will use the Spring {@link PathMatchingResourcePatternResolver} to find a resource that corresponds to the <code>url</code>.
+     * The result of the scan is kept in the {@link ClassPathResourceIndex}, so that each url is only scanned once.
      * 
      * @param url
      * @return List<URL>
      * @throws IOException
      */
     protected List<URL> searchResources(URL url) throws IOException {
-        PathMatchingResourcePatternResolver p = new PathMatchingResourcePatternResolver();
-        Resource[] scriptResources = p.getResources(url.toString() + "**");
-        List<URL> listScriptResources = new ArrayList<URL>();
-
-        for (int i = 0; i < scriptResources.length; i++) {
-            URL urlResource = FileUtils.toURLs(new File[]{scriptResources[i].getFile()})[0];
-            listScriptResources.add(urlResource);
-            logger.debug(" Resource '" + urlResource.toString() + "' added to resourcelist ");
-
-        }
-
-        return listScriptResources;
+        return ClassPathResourceIndex.getInstance().getSubResources(url);
     }
 }
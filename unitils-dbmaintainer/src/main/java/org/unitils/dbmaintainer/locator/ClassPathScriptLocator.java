@@ -63,7 +63,7 @@ public class ClassPathScriptLocator extends ClassPathResourceLocator {
                 DefaultScriptSource defaultScriptSource = new DefaultScriptSource();
                 defaultScriptSource.init(configuration);
                 if (defaultScriptSource.checkIfScriptContainsCorrectDatabaseName(scriptName, schema, defaultDatabase) && defaultScriptSource.containsOneOfQualifiers(scriptName)) {
-                    Script script = new Script(scriptName, Long.valueOf(url.openConnection().getLastModified()), new org.unitils.dbmaintainer.script.ScriptContentHandle.UrlScriptContentHandle(url));
+                    Script script = new Script(scriptName, ClassPathResourceIndex.getInstance().getLastModified(url), new org.unitils.dbmaintainer.script.ScriptContentHandle.UrlScriptContentHandle(url));
 
                     logger.debug(" + script added (" + url.toString() + "))");
 
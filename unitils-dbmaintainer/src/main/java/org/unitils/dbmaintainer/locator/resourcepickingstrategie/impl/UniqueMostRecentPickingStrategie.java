@@ -9,6 +9,7 @@ import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.unitils.dbmaintainer.locator.ClassPathResourceIndex;
 import org.unitils.dbmaintainer.locator.resourcepickingstrategie.ResourcePickingStrategie;
 
 
@@ -59,8 +60,8 @@ public class UniqueMostRecentPickingStrategie implements ResourcePickingStrategi
             //    logger.debug("List Resource ending with :" + endingWith);
 
                 if (urlNew.toString().endsWith(endingWith)) {
-                    Long inlistresource = url.openConnection().getLastModified();
-                    Long newresource = urlNew.openConnection().getLastModified();
+                    long inlistresource = ClassPathResourceIndex.getInstance().getLastModified(url);
+                    long newresource = ClassPathResourceIndex.getInstance().getLastModified(urlNew);
                     if (inlistresource < newresource) {
                         logger.debug("Resource replace by more recent after PickingStrategie: '" + url + "'(" + sdf.format(new Date(inlistresource)) + ") replaced_by '" + urlNew + "' (" + sdf.format(new Date(newresource)) + ")");
                         filteredResources.remove(url);
@@ -23,6 +23,8 @@ import org.unitils.dbmaintainer.structure.SequenceUpdater;
 import org.unitils.dbmaintainer.util.BaseDatabaseAccessor;
 import org.unitils.util.PropertyUtils;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -70,7 +72,8 @@ public class DefaultSequenceUpdater extends BaseDatabaseAccessor implements Sequ
 
 
     /**
-     * Increments all sequences whose value is too low.
+     * Increments all sequences whose value is too low. The values of all sequences are retrieved at once, after which
+     * only the sequences with a value that is too low are incremented together.
      *
      * @param dbSupport The database support, not null
      */
@@ -78,13 +81,17 @@ public class DefaultSequenceUpdater extends BaseDatabaseAccessor implements Sequ
         if (!dbSupport.supportsSequences()) {
             return;
         }
-        Set<String> sequenceNames = dbSupport.getSequenceNames();
-        for (String sequenceName : sequenceNames) {
-            if (dbSupport.getSequenceValue(sequenceName) < lowestAcceptableSequenceValue) {
-                logger.debug("Incrementing value for sequence " + sequenceName + " in database schema " + dbSupport.getSchemaName());
-                dbSupport.incrementSequenceToValue(sequenceName, lowestAcceptableSequenceValue);
+        Set<String> sequenceNamesWithLowValue = new HashSet<String>();
+        Map<String, Long> sequenceValues = dbSupport.getSequenceValues();
+        for (Map.Entry<String, Long> sequenceValue : sequenceValues.entrySet()) {
+            if (sequenceValue.getValue() < lowestAcceptableSequenceValue) {
+                logger.debug("Incrementing value for sequence " + sequenceValue.getKey() + " in database schema " + dbSupport.getSchemaName());
+                sequenceNamesWithLowValue.add(sequenceValue.getKey());
             }
         }
+        if (!sequenceNamesWithLowValue.isEmpty()) {
+            dbSupport.incrementSequencesToValue(sequenceNamesWithLowValue, lowestAcceptableSequenceValue);
+        }
     }
 
 
@@ -97,10 +104,10 @@ public class DefaultSequenceUpdater extends BaseDatabaseAccessor implements Sequ
         if (!dbSupport.supportsIdentityColumns()) {
             return;
         }
-        Set<String> tableNames = dbSupport.getTableNames();
-        for (String tableName : tableNames) {
-            Set<String> identityColumnNames = dbSupport.getIdentityColumnNames(tableName);
-            for (String identityColumnName : identityColumnNames) {
+        Map<String, Set<String>> identityColumnNamesPerTable = dbSupport.getIdentityColumnNames();
+        for (Map.Entry<String, Set<String>> identityColumnNames : identityColumnNamesPerTable.entrySet()) {
+            String tableName = identityColumnNames.getKey();
+            for (String identityColumnName : identityColumnNames.getValue()) {
                 try {
                     dbSupport.incrementIdentityColumnToValue(tableName, identityColumnName, lowestAcceptableSequenceValue);
                     logger.debug("Incrementing value for identity column " + identityColumnName + " in database schema " + dbSupport.getSchemaName());
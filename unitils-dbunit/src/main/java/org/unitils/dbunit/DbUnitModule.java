@@ -22,9 +22,11 @@ import static org.unitils.core.dbsupport.DbSupportFactory.getDbSupport;
 import static org.unitils.core.util.ConfigUtils.getInstanceOf;
 import static org.unitils.util.AnnotationUtils.getMethodOrClassLevelAnnotation;
 import static org.unitils.util.AnnotationUtils.getMethodOrClassLevelAnnotationProperty;
+import static org.unitils.util.AnnotationUtils.hasClassMethodOrFieldLevelAnnotation;
 import static org.unitils.util.ModuleUtils.getAnnotationPropertyDefault;
 import static org.unitils.util.ModuleUtils.getAnnotationPropertyDefaults;
 import static org.unitils.util.ModuleUtils.getClassValueReplaceDefault;
+import static org.unitils.util.PropertyUtils.getInt;
 import static org.unitils.util.ReflectionUtils.createInstanceOfType;
 import static org.unitils.util.ReflectionUtils.getClassWithName;
 
@@ -34,12 +36,19 @@ import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.sql.DataSource;
 import org.apache.commons.collections.CollectionUtils;
@@ -48,8 +57,12 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.dbunit.database.DatabaseConfig;
 import org.dbunit.database.IMetadataHandler;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.DefaultDataSet;
 import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITableIterator;
 import org.dbunit.dataset.datatype.IDataTypeFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.unitils.core.Module;
 import org.unitils.core.TestListener;
 import org.unitils.core.Unitils;
@@ -58,6 +71,8 @@ import org.unitils.core.dbsupport.DbSupport;
 import org.unitils.core.dbsupport.DbSupportFactory;
 import org.unitils.core.dbsupport.DefaultSQLHandler;
 import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.core.timing.TimingRecorder;
+import org.unitils.core.timing.TimingRecorder.Measurement;
 import org.unitils.core.util.ConfigUtils;
 import org.unitils.database.DataSourceWrapper;
 import org.unitils.database.DatabaseModule;
@@ -70,10 +85,12 @@ import org.unitils.dbunit.annotation.ExpectedDataSet;
 import org.unitils.dbunit.annotation.ExpectedDataSets;
 import org.unitils.dbunit.datasetfactory.DataSetFactory;
 import org.unitils.dbunit.datasetfactory.DataSetResolver;
+import org.unitils.dbunit.datasetfactory.impl.MultiSchemaXmlDataSetFactory;
 import org.unitils.dbunit.datasetloadstrategy.DataSetLoadStrategy;
 import org.unitils.dbunit.datasetloadstrategy.impl.CleanInsertLoadStrategy;
 import org.unitils.dbunit.datasetloadstrategy.impl.InsertLoadStrategy;
 import org.unitils.dbunit.util.DataSetAssert;
+import org.unitils.dbunit.util.DataSetBatchHandler;
 import org.unitils.dbunit.util.DbUnitDatabaseConnection;
 import org.unitils.dbunit.util.FileHandler;
 import org.unitils.dbunit.util.MultiSchemaDataSet;
@@ -99,6 +116,16 @@ public class DbUnitModule implements Module {
 
     public static final String PROPERTY_METAHANDLER = "org.dbunit.database.DatabaseConfig.metadatahandler";
 
+    /**
+     * Property key for the maximum nr of rows that are kept in memory per table when streaming a data set
+     */
+    public static final String PROPKEY_STREAMING_BATCH_SIZE = "DbUnitModule.DataSet.streaming.batchSize";
+
+    /**
+     * Property key for the maximum nr of tables of a data set that are loaded concurrently
+     */
+    public static final String PROPKEY_MAX_PARALLEL_TABLES = "DbUnitModule.DataSet.maxParallelTables";
+
     /* The logger instance for this class */
     private static Log logger = LogFactory.getLog(DbUnitModule.class);
 
@@ -118,6 +145,17 @@ public class DbUnitModule implements Module {
      */
     protected Map<String, DbUnitDatabaseConnection> dbUnitDatabaseConnections = new HashMap<String, DbUnitDatabaseConnection>();
 
+    /**
+     * The extra DbUnit connections per schema that are used when loading the tables of a data set concurrently. Like the
+     * default DbUnit connections, they are created only once to avoid reloading the database metadata.
+     */
+    protected Map<String, List<DbUnitDatabaseConnection>> parallelDbUnitDatabaseConnections = new HashMap<String, List<DbUnitDatabaseConnection>>();
+
+    /**
+     * The maximum nr of tables of a data set that are loaded concurrently, 1 to load the tables in sequence
+     */
+    protected int maxParallelTables;
+
     /**
      * The unitils configuration
      */
@@ -140,6 +178,7 @@ public class DbUnitModule implements Module {
     public void init(Properties configuration) {
         this.configuration = configuration;
         defaultAnnotationPropertyValues = getAnnotationPropertyDefaults(DbUnitModule.class, configuration, DataSet.class, ExpectedDataSet.class);
+        maxParallelTables = getInt(PROPKEY_MAX_PARALLEL_TABLES, 1, configuration);
     }
 
 
@@ -331,7 +370,66 @@ public class DbUnitModule implements Module {
 
 
     /**
-     * Loads the given multi schema dataset into the database, using the given loadstrategy
+     * Streams the test data coming from the given DbUnit dataset file into the database using the default
+     * {@link DataSetLoadStrategy}. See {@link #streamDataSet(File, Class)}.
+     *
+     * @param dataSetFile The test data set, not null
+     */
+    public void streamDataSet(File dataSetFile) {
+        DataSetLoadStrategy dataSetLoadStrategy = getDefaultDataSetLoadStrategy();
+        streamDataSet(dataSetFile, dataSetLoadStrategy);
+    }
+
+
+    /**
+     * Streams the test data coming from the given DbUnit dataset file into the database. Unlike
+     * {@link #insertDataSet(File, Class, Class)}, the data set is not read into memory as a whole: the rows are loaded
+     * in batches of consecutive rows of the same table, in the order in which they occur in the file. The maximum
+     * size of a batch can be configured using the {@link #PROPKEY_STREAMING_BATCH_SIZE} property.
+     * <p/>
+     * When using the {@link CleanInsertLoadStrategy}, a table is cleared right before its first batch is inserted,
+     * instead of clearing all tables up front. The tables are therefore cleared in data set order, which
+     * can differ from the order needed to satisfy foreign key constraints.
+     * <p/>
+     * Streaming is only supported by the {@link MultiSchemaXmlDataSetFactory}. If another data set factory is
+     * configured, the data set is inserted as a whole.
+     *
+     * @param dataSetFile              The test data set, not null
+     * @param dataSetLoadStrategyClass The class of the load strategy that must be used to load this dataset
+     */
+    public void streamDataSet(File dataSetFile, Class<? extends DataSetLoadStrategy> dataSetLoadStrategyClass) {
+        DataSetLoadStrategy dataSetLoadStrategy = createInstanceOfType(dataSetLoadStrategyClass, false);
+        streamDataSet(dataSetFile, dataSetLoadStrategy);
+    }
+
+
+    /**
+     * Streams the given dataset file into the database, using the given loadstrategy
+     *
+     * @param dataSetFile         The test data set, not null
+     * @param dataSetLoadStrategy The load strategy that is used, not null
+     */
+    protected void streamDataSet(File dataSetFile, DataSetLoadStrategy dataSetLoadStrategy) {
+        DataSetFactory dataSetFactory = getDefaultDataSetFactory();
+        if (!(dataSetFactory instanceof MultiSchemaXmlDataSetFactory)) {
+            logger.debug("Streaming is not supported by data set factory " + dataSetFactory.getClass().getName() + ". Inserting data set as a whole.");
+            insertDataSet(dataSetFactory.createDataSet(dataSetFile), dataSetLoadStrategy);
+            return;
+        }
+        int batchSize = getInt(PROPKEY_STREAMING_BATCH_SIZE, configuration);
+        try {
+            StreamingDataSetBatchHandler dataSetBatchHandler = new StreamingDataSetBatchHandler(dataSetLoadStrategy);
+            ((MultiSchemaXmlDataSetFactory) dataSetFactory).streamDataSet(dataSetBatchHandler, batchSize, dataSetFile);
+        } finally {
+            closeJdbcConnection();
+        }
+    }
+
+
+    /**
+     * Loads the given multi schema dataset into the database, using the given loadstrategy. If the
+     * {@link #PROPKEY_MAX_PARALLEL_TABLES} property is larger than 1, the tables of a schema are loaded concurrently,
+     * see {@link #insertTablesConcurrently}.
      * 
      * @param multiSchemaDataSet The multi schema dataset that is inserted in the database
      * @param dataSetLoadStrategy The load strategy that is used
@@ -340,7 +438,16 @@ public class DbUnitModule implements Module {
         try {
             for (String schemaName : multiSchemaDataSet.getSchemaNames()) {
                 IDataSet schemaDataSet = multiSchemaDataSet.getDataSetForSchema(schemaName);
-                dataSetLoadStrategy.execute(getDbUnitDatabaseConnection(schemaName), schemaDataSet);
+                Measurement measurement = TimingRecorder.start("DbUnitModule", "DataSetLoadStrategy.execute");
+                try {
+                    if (isParallelLoadPossible()) {
+                        insertTablesConcurrently(schemaName, schemaDataSet, dataSetLoadStrategy);
+                    } else {
+                        dataSetLoadStrategy.execute(getDbUnitDatabaseConnection(schemaName), schemaDataSet);
+                    }
+                } finally {
+                    TimingRecorder.stop(measurement);
+                }
             }
         } finally {
             closeJdbcConnection();
@@ -348,6 +455,112 @@ public class DbUnitModule implements Module {
     }
 
 
+    /**
+     * Tables can only be loaded concurrently if this is enabled and there is no transaction active for the test. The
+     * concurrent loads each use their own connection and commit their own data. Data loaded outside the transaction
+     * of the test would not be rolled back with it, so in that case the tables are loaded in sequence.
+     *
+     * @return True if the tables of a data set can be loaded concurrently
+     */
+    protected boolean isParallelLoadPossible() {
+        return maxParallelTables > 1 && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+
+    /**
+     * Loads the tables of the given data set concurrently, each table as a separate data set. Every thread uses its
+     * own connection, which is committed once the table is loaded, so that the data is visible to the connection of
+     * the test afterwards. The tables should be independent of each other, e.g. because the constraints were disabled
+     * by the DBMaintainer. The first error is rethrown once all running loads are finished.
+     *
+     * @param schemaName          The schema, not null
+     * @param schemaDataSet       The data set of the schema, not null
+     * @param dataSetLoadStrategy The load strategy that is used, not null
+     */
+    protected void insertTablesConcurrently(String schemaName, IDataSet schemaDataSet, DataSetLoadStrategy dataSetLoadStrategy) {
+        List<IDataSet> tableDataSets = getTableDataSets(schemaDataSet);
+        if (tableDataSets.size() <= 1) {
+            dataSetLoadStrategy.execute(getDbUnitDatabaseConnection(schemaName), schemaDataSet);
+            return;
+        }
+        int nrOfThreads = Math.min(maxParallelTables, tableDataSets.size());
+        logger.debug("Loading " + tableDataSets.size() + " tables of schema " + schemaName + " using " + nrOfThreads + " threads.");
+
+        BlockingQueue<DbUnitDatabaseConnection> dbUnitDatabaseConnectionQueue = new ArrayBlockingQueue<DbUnitDatabaseConnection>(nrOfThreads, false, getParallelDbUnitDatabaseConnections(schemaName, nrOfThreads));
+        ExecutorService executorService = Executors.newFixedThreadPool(nrOfThreads);
+        Throwable error = null;
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (IDataSet tableDataSet : tableDataSets) {
+                futures.add(executorService.submit(new TableLoadRunnable(tableDataSet, dataSetLoadStrategy, dbUnitDatabaseConnectionQueue)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                } catch (InterruptedException e) {
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        if (error instanceof UnitilsException) {
+            throw (UnitilsException) error;
+        }
+        if (error != null) {
+            throw new UnitilsException("Error while loading data set tables concurrently.", error);
+        }
+    }
+
+
+    /**
+     * Splits the given data set in a data set per table.
+     *
+     * @param dataSet The data set, not null
+     * @return The data sets, not null
+     */
+    protected List<IDataSet> getTableDataSets(IDataSet dataSet) {
+        try {
+            List<IDataSet> tableDataSets = new ArrayList<IDataSet>();
+            ITableIterator tableIterator = dataSet.iterator();
+            while (tableIterator.next()) {
+                tableDataSets.add(new DefaultDataSet(tableIterator.getTable()));
+            }
+            return tableDataSets;
+        } catch (DataSetException e) {
+            throw new UnitilsException("Unable to split data set in tables.", e);
+        }
+    }
+
+
+    /**
+     * Gets the given nr of extra DbUnit connections for loading tables concurrently, or creates them if they do not
+     * exist yet.
+     *
+     * @param schemaName    The schema name, not null
+     * @param nrOfConnections The nr of connections
+     * @return The DbUnit connections, not null
+     */
+    protected List<DbUnitDatabaseConnection> getParallelDbUnitDatabaseConnections(String schemaName, int nrOfConnections) {
+        String keyInDbUnitConnection = schemaName + databaseName;
+        List<DbUnitDatabaseConnection> connections = parallelDbUnitDatabaseConnections.get(keyInDbUnitConnection);
+        if (connections == null) {
+            connections = new ArrayList<DbUnitDatabaseConnection>();
+            parallelDbUnitDatabaseConnections.put(keyInDbUnitConnection, connections);
+        }
+        while (connections.size() < nrOfConnections) {
+            connections.add(createDbUnitConnection(schemaName));
+        }
+        return connections.subList(0, nrOfConnections);
+    }
+
+
     /**
      * Compares the contents of the expected DbUnitDataSet with the contents of the database. Only the tables and columns that occur in the
      * expected DbUnitDataSet are compared with the database contents.
@@ -788,6 +1001,12 @@ public class DbUnitModule implements Module {
      */
     protected class DbUnitListener extends TestListener {
 
+        @Override
+        public boolean shouldListenToTestClass(Class<?> testClass) {
+            return hasClassMethodOrFieldLevelAnnotation(testClass, DataSet.class) || hasClassMethodOrFieldLevelAnnotation(testClass, DataSets.class)
+                    || hasClassMethodOrFieldLevelAnnotation(testClass, ExpectedDataSet.class) || hasClassMethodOrFieldLevelAnnotation(testClass, ExpectedDataSets.class);
+        }
+
         @Override
         public void beforeTestSetUp(Object testObject, Method testMethod) {
             insertDataSet(testMethod, testObject);
@@ -802,4 +1021,90 @@ public class DbUnitModule implements Module {
 
     }
 
+
+
+    /**
+     * Loads the batches of a streamed data set into the database. If the load strategy is a clean insert, only the
+     * first batch of a table is loaded using a clean insert, the next batches of the table are inserted.
+     */
+    protected class StreamingDataSetBatchHandler implements DataSetBatchHandler {
+
+        /* The load strategy for the first batch of a table */
+        protected DataSetLoadStrategy dataSetLoadStrategy;
+
+        /* The load strategy for the next batches of a table */
+        protected DataSetLoadStrategy nextBatchesDataSetLoadStrategy;
+
+
+        public StreamingDataSetBatchHandler(DataSetLoadStrategy dataSetLoadStrategy) {
+            this.dataSetLoadStrategy = dataSetLoadStrategy;
+            if (dataSetLoadStrategy instanceof CleanInsertLoadStrategy) {
+                nextBatchesDataSetLoadStrategy = new InsertLoadStrategy();
+            } else {
+                nextBatchesDataSetLoadStrategy = dataSetLoadStrategy;
+            }
+        }
+
+        public void handleBatch(String schemaName, IDataSet dataSet, boolean firstBatch) {
+            DataSetLoadStrategy batchDataSetLoadStrategy = firstBatch ? dataSetLoadStrategy : nextBatchesDataSetLoadStrategy;
+            Measurement measurement = TimingRecorder.start("DbUnitModule", "DataSetLoadStrategy.execute");
+            try {
+                batchDataSetLoadStrategy.execute(getDbUnitDatabaseConnection(schemaName), dataSet);
+            } finally {
+                TimingRecorder.stop(measurement);
+            }
+        }
+    }
+
+
+
+    /**
+     * Loads a single table using one of the given connections. The connection is committed and returned to the pool
+     * afterwards, so that the loaded data is visible to other connections.
+     */
+    protected static class TableLoadRunnable implements Runnable {
+
+        /* The data set containing the table */
+        protected IDataSet tableDataSet;
+
+        /* The load strategy that is used */
+        protected DataSetLoadStrategy dataSetLoadStrategy;
+
+        /* The DbUnit connections that are not in use by another thread */
+        protected BlockingQueue<DbUnitDatabaseConnection> dbUnitDatabaseConnectionQueue;
+
+
+        public TableLoadRunnable(IDataSet tableDataSet, DataSetLoadStrategy dataSetLoadStrategy, BlockingQueue<DbUnitDatabaseConnection> dbUnitDatabaseConnectionQueue) {
+            this.tableDataSet = tableDataSet;
+            this.dataSetLoadStrategy = dataSetLoadStrategy;
+            this.dbUnitDatabaseConnectionQueue = dbUnitDatabaseConnectionQueue;
+        }
+
+        public void run() {
+            DbUnitDatabaseConnection dbUnitDatabaseConnection;
+            try {
+                dbUnitDatabaseConnection = dbUnitDatabaseConnectionQueue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UnitilsException("Interrupted while waiting for a connection to load table.", e);
+            }
+            try {
+                dataSetLoadStrategy.execute(dbUnitDatabaseConnection, tableDataSet);
+                Connection connection = dbUnitDatabaseConnection.getConnection();
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                throw new UnitilsException("Unable to commit loaded table.", e);
+            } finally {
+                try {
+                    dbUnitDatabaseConnection.closeJdbcConnection();
+                } catch (SQLException e) {
+                    logger.warn("Unable to close connection.", e);
+                }
+                dbUnitDatabaseConnectionQueue.add(dbUnitDatabaseConnection);
+            }
+        }
+    }
+
 }
@@ -72,6 +72,29 @@ public class DbUnitUnitils {
     }
 
 
+    /**
+     * Streams the test data coming from the given DbUnit dataset file into the database, using the default
+     * {@link DataSetLoadStrategy}. The data set is loaded in batches instead of reading it into memory as a whole.
+     *
+     * @param dataSetFile The test data set, not null
+     */
+    public static void streamDataSet(File dataSetFile) {
+        getDbUnitModule().streamDataSet(dataSetFile);
+    }
+
+
+    /**
+     * Streams the test data coming from the given DbUnit dataset file into the database. The data set is loaded in
+     * batches instead of reading it into memory as a whole.
+     *
+     * @param dataSetFile              The test data set, not null
+     * @param dataSetLoadStrategyClass The class of the load strategy that must be used to load this dataset
+     */
+    public static void streamDataSet(File dataSetFile, Class<? extends DataSetLoadStrategy> dataSetLoadStrategyClass) {
+        getDbUnitModule().streamDataSet(dataSetFile, dataSetLoadStrategyClass);
+    }
+
+
     /**
      * Gets the instance DbUnitModule that is registered in the modules repository.
      * This instance implements the actual behavior of the static methods in this class.
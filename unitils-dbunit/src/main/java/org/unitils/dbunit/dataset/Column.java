@@ -25,6 +25,15 @@ public class Column {
     /* The actual value with a type corresponding the column type, e.g. String for varchar */
     private Object value;
 
+    /* The case-insensitive form of the name, used for looking up columns by name */
+    private String caseInsensitiveName;
+
+    /* The type to which the value was last casted, null if not yet casted */
+    private DataType castType;
+
+    /* The value casted to the cast type */
+    private Object castedValue;
+
 
     /**
      * Creates a value
@@ -37,6 +46,7 @@ public class Column {
         this.name = name;
         this.type = type;
         this.value = value;
+        this.caseInsensitiveName = toCaseInsensitiveName(name);
     }
 
 
@@ -48,6 +58,30 @@ public class Column {
     }
 
 
+    /**
+     * @return The case-insensitive form of the name of the data set column, not null
+     */
+    public String getCaseInsensitiveName() {
+        return caseInsensitiveName;
+    }
+
+
+    /**
+     * Folds the case of every char in the same way as {@link String#equalsIgnoreCase}, so that two names are
+     * equal ignoring case if and only if their case-insensitive forms are equal.
+     *
+     * @param name The name, not null
+     * @return The case-insensitive form of the name, not null
+     */
+    public static String toCaseInsensitiveName(String name) {
+        char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return new String(chars);
+    }
+
+
     /**
      * @return The type of the data set column, e.g. varchar, not null
      */
@@ -65,15 +99,22 @@ public class Column {
 
 
     /**
-     * Gets the value casted to the given type.
+     * Gets the value casted to the given type. The casted value is kept, so that comparing the column with a lot of
+     * actual columns of the same type, e.g. all the rows of a table, only casts the value once.
      *
      * @param castType The type to cast the value to, not null
      * @return The casted value
      * @throws UnitilsException When the value cannot be cast
      */
     public Object getCastedValue(DataType castType) {
+        if (castType != null && castType == this.castType) {
+            return castedValue;
+        }
         try {
-            return castType.typeCast(value);
+            Object result = castType.typeCast(value);
+            this.castedValue = result;
+            this.castType = castType;
+            return result;
         } catch (TypeCastException e) {
             throw new UnitilsException("Unable to convert \"" + value + "\" to " + castType.toString() + ". Column name: " + name + ", current type: " + type.toString(), e);
         }
@@ -104,7 +145,11 @@ public class Column {
             return new ColumnDifference(this, actualColumn);
         }
         if (!castedValue.equals(actualColumn.getValue())) {
-            if (castedValue.getClass().isArray()) {
+            if (castedValue instanceof byte[] && actualColumn.getValue() instanceof byte[]) {
+                if (Arrays.equals((byte[]) castedValue, (byte[]) actualColumn.getValue())) {
+                    return null;
+                }
+            } else if (castedValue instanceof Object[] && actualColumn.getValue() instanceof Object[]) {
                 if (Arrays.equals((Object[]) castedValue, (Object[]) actualColumn.getValue())) {
                     return null;
                 }
@@ -20,7 +20,9 @@ import org.unitils.dbunit.dataset.comparison.ColumnDifference;
 import org.unitils.dbunit.dataset.comparison.RowDifference;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A data set row
@@ -36,6 +38,9 @@ public class Row {
     /* The columns of the row */
     private List<Column> columns = new ArrayList<Column>();
 
+    /* All columns of the row (including the primary key columns) by case-insensitive name */
+    private Map<String, Column> columnsByCaseInsensitiveName = new HashMap<String, Column>();
+
 
     /**
      * Gets the column for the given name. The name is case insensitive.
@@ -44,17 +49,19 @@ public class Row {
      * @return The column, null if not found
      */
     public Column getColumn(String columnName) {
-        for (Column primaryKeyColumn : primaryKeyColumns) {
-            if (columnName.equalsIgnoreCase(primaryKeyColumn.getName())) {
-                return primaryKeyColumn;
-            }
-        }
-        for (Column column : columns) {
-            if (columnName.equalsIgnoreCase(column.getName())) {
-                return column;
-            }
-        }
-        return null;
+        return columnsByCaseInsensitiveName.get(Column.toCaseInsensitiveName(columnName));
+    }
+
+
+    /**
+     * Gets the column with the same name as the given column. The name is case insensitive. This is the same as
+     * {@link #getColumn(String)}, but the case-insensitive name of the given column is reused.
+     *
+     * @param otherColumn The column of another row, not null
+     * @return The column, null if not found
+     */
+    public Column getColumn(Column otherColumn) {
+        return columnsByCaseInsensitiveName.get(otherColumn.getCaseInsensitiveName());
     }
 
 
@@ -81,11 +88,11 @@ public class Row {
      * @throws UnitilsException When a value for the same column was already added
      */
     public void addPrimaryKeyColumn(Column primaryKeyColumn) {
-        Column existingColumn = getColumn(primaryKeyColumn.getName());
-        if (existingColumn != null) {
+        if (columnsByCaseInsensitiveName.containsKey(primaryKeyColumn.getCaseInsensitiveName())) {
             throw new UnitilsException("Unable to add primary column to data set row. Duplicate column name: " + primaryKeyColumn.getName());
         }
         primaryKeyColumns.add(primaryKeyColumn);
+        columnsByCaseInsensitiveName.put(primaryKeyColumn.getCaseInsensitiveName(), primaryKeyColumn);
     }
 
 
@@ -96,11 +103,11 @@ public class Row {
      * @throws UnitilsException When a value for the same column was already added
      */
     public void addColumn(Column column) {
-        Column existingColumn = getColumn(column.getName());
-        if (existingColumn != null) {
+        if (columnsByCaseInsensitiveName.containsKey(column.getCaseInsensitiveName())) {
             throw new UnitilsException("Unable to add column to data set row. Duplicate column name: " + column.getName());
         }
         columns.add(column);
+        columnsByCaseInsensitiveName.put(column.getCaseInsensitiveName(), column);
     }
 
 
@@ -110,7 +117,7 @@ public class Row {
      */
     public boolean hasDifferentPrimaryKeyColumns(Row actualRow) {
         for (Column primaryKeyColumn : actualRow.getPrimaryKeyColumns()) {
-            Column column = getColumn(primaryKeyColumn.getName());
+            Column column = getColumn(primaryKeyColumn);
             if (column != null && column.compare(primaryKeyColumn) != null) {
                 return true;
             }
@@ -146,7 +153,7 @@ public class Row {
      */
     protected void compareColumns(List<Column> columns, Row actualRow, RowDifference result) {
         for (Column column : columns) {
-            Column actualColumn = actualRow.getColumn(column.getName());
+            Column actualColumn = actualRow.getColumn(column);
             if (actualColumn == null) {
                 result.addMissingColumn(column);
             } else {
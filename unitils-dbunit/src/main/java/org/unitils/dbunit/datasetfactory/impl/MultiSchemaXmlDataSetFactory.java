@@ -17,6 +17,8 @@ package org.unitils.dbunit.datasetfactory.impl;
 
 import org.unitils.core.UnitilsException;
 import org.unitils.dbunit.datasetfactory.DataSetFactory;
+import org.unitils.dbunit.util.CompiledDataSetCache;
+import org.unitils.dbunit.util.DataSetBatchHandler;
 import org.unitils.dbunit.util.MultiSchemaDataSet;
 import org.unitils.dbunit.util.MultiSchemaXmlDataSetReader;
 
@@ -24,19 +26,35 @@ import java.io.File;
 import java.util.Arrays;
 import java.util.Properties;
 
+import static org.apache.commons.lang.StringUtils.isBlank;
+import static org.unitils.util.PropertyUtils.getString;
+
 /**
  * A data set factory that can handle data set definitions for multiple database schemas.
+ * <p/>
+ * If a directory is configured using the {@link #PROPKEY_COMPILED_DATA_SETS_DIR} property, the data sets are compiled
+ * into that directory the first time they are read. Later reads use the compiled data sets instead of parsing the xml.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
  */
 public class MultiSchemaXmlDataSetFactory implements DataSetFactory {
 
+    /**
+     * Property key for the directory in which compiled data sets are stored. If not set, data sets are not compiled.
+     */
+    public static final String PROPKEY_COMPILED_DATA_SETS_DIR = "dbUnit.compiledDataSets.dir";
+
     /**
      * The schema name to use when no name was explicitly specified.
      */
     protected String defaultSchemaName;
 
+    /**
+     * The cache of compiled data sets, null if data sets should not be compiled.
+     */
+    protected CompiledDataSetCache compiledDataSetCache;
+
 
     /**
      * Initializes this DataSetFactory
@@ -46,6 +64,11 @@ public class MultiSchemaXmlDataSetFactory implements DataSetFactory {
      */
     public void init(Properties configuration, String defaultSchemaName) {
         this.defaultSchemaName = defaultSchemaName;
+
+        String compiledDataSetsDir = getString(PROPKEY_COMPILED_DATA_SETS_DIR, null, configuration);
+        if (!isBlank(compiledDataSetsDir)) {
+            compiledDataSetCache = new CompiledDataSetCache(new File(compiledDataSetsDir));
+        }
     }
 
 
@@ -57,7 +80,7 @@ public class MultiSchemaXmlDataSetFactory implements DataSetFactory {
      */
     public MultiSchemaDataSet createDataSet(File... dataSetFiles) {
         try {
-            MultiSchemaXmlDataSetReader multiSchemaXmlDataSetReader = new MultiSchemaXmlDataSetReader(defaultSchemaName);
+            MultiSchemaXmlDataSetReader multiSchemaXmlDataSetReader = new MultiSchemaXmlDataSetReader(defaultSchemaName, compiledDataSetCache);
             return multiSchemaXmlDataSetReader.readDataSetXml(dataSetFiles);
         } catch (Exception e) {
             throw new UnitilsException("Unable to create DbUnit dataset for data set files: " + Arrays.toString(dataSetFiles), e);
@@ -65,6 +88,23 @@ public class MultiSchemaXmlDataSetFactory implements DataSetFactory {
     }
 
 
+    /**
+     * Streams the data sets in the given files to the given handler, without reading them into memory as a whole.
+     *
+     * @param dataSetBatchHandler The handler for the batches of rows, not null
+     * @param batchSize           The maximum nr of rows per batch
+     * @param dataSetFiles        The dataset files, not null
+     */
+    public void streamDataSet(DataSetBatchHandler dataSetBatchHandler, int batchSize, File... dataSetFiles) {
+        try {
+            MultiSchemaXmlDataSetReader multiSchemaXmlDataSetReader = new MultiSchemaXmlDataSetReader(defaultSchemaName, compiledDataSetCache);
+            multiSchemaXmlDataSetReader.streamDataSetXml(dataSetBatchHandler, batchSize, dataSetFiles);
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to stream DbUnit dataset for data set files: " + Arrays.toString(dataSetFiles), e);
+        }
+    }
+
+
     /**
      * @return The extension that files which can be interpreted by this factory must have
      */
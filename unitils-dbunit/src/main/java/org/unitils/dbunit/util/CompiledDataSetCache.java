@@ -0,0 +1,328 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbunit.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.unitils.core.UnitilsException;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static org.unitils.thirdparty.org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Cache of compiled xml data sets.
+ * <p/>
+ * Parsing a large xml data set is expensive. The first time a data set is read, the elements that the SAX parser
+ * reports are also written to a compiled file in a compact binary format. The next time the same data set is read,
+ * the elements are replayed from the compiled file, which is memory-mapped, so that the xml no longer needs to be
+ * parsed.
+ * <p/>
+ * The compiled files are named after the MD5 checksum of the content of the data set file. A changed data set
+ * therefore automatically gets a new compiled file. Data sets are typically copied to a temporary file before they are
+ * read, so the name or the modification time of the data set file can not be used.
+ */
+public class CompiledDataSetCache {
+
+    /* The logger instance for this class */
+    private static Log logger = LogFactory.getLog(CompiledDataSetCache.class);
+
+    /* The marker at the start of each compiled file: UDS + version 1 */
+    protected static final int MAGIC_NUMBER = 0x55445301;
+    /* Record type for the end of the compiled file */
+    protected static final byte END = 0;
+    /* Record type for an xml element */
+    protected static final byte ELEMENT = 1;
+
+    /* The directory that contains the compiled files */
+    protected File cacheDirectory;
+
+
+    /**
+     * Creates a cache.
+     *
+     * @param cacheDirectory The directory that will contain the compiled files, not null
+     */
+    public CompiledDataSetCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+
+    /**
+     * Gets the compiled file for the given data set file. The file is not created if it does not exist yet.
+     *
+     * @param dataSetFile The xml data set file, not null
+     * @return The compiled file, not null
+     */
+    public File getCompiledFile(File dataSetFile) {
+        return new File(cacheDirectory, getChecksum(dataSetFile) + ".uds");
+    }
+
+
+    /**
+     * Replays all elements of the given compiled file on the given content handler.
+     *
+     * @param compiledFile   The compiled file, not null
+     * @param contentHandler The handler, not null
+     */
+    public void replay(File compiledFile, ContentHandler contentHandler) throws SAXException {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(compiledFile, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer buffer = channel.map(READ_ONLY, 0, channel.size());
+            new CompiledDataSetReader(buffer).replay(contentHandler);
+
+        } catch (IOException e) {
+            throw new UnitilsException("Unable to read compiled data set " + compiledFile, e);
+        } finally {
+            close(randomAccessFile);
+        }
+    }
+
+
+    protected void close(RandomAccessFile randomAccessFile) {
+        if (randomAccessFile == null) {
+            return;
+        }
+        try {
+            randomAccessFile.close();
+        } catch (IOException e) {
+            // ignored
+        }
+    }
+
+
+    /**
+     * Creates a content handler that passes all events to the given content handler and that also writes the
+     * elements to the compiled file. The {@link CompilingContentHandler#close} method should be called when the
+     * data set was parsed successfully.
+     *
+     * @param compiledFile   The compiled file, not null
+     * @param contentHandler The handler, not null
+     * @return The handler, not null
+     */
+    public CompilingContentHandler createCompilingContentHandler(File compiledFile, ContentHandler contentHandler) {
+        try {
+            cacheDirectory.mkdirs();
+            File tempFile = File.createTempFile(compiledFile.getName(), ".tmp", cacheDirectory);
+            return new CompilingContentHandler(tempFile, compiledFile, contentHandler);
+        } catch (IOException e) {
+            throw new UnitilsException("Unable to create compiled data set " + compiledFile, e);
+        }
+    }
+
+
+    /**
+     * @param file The file, not null
+     * @return The MD5 checksum of the file content as a hex string, not null
+     */
+    protected String getChecksum(File file) {
+        InputStream inputStream = null;
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+            inputStream = new FileInputStream(file);
+            byte[] buffer = new byte[64 * 1024];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, length);
+            }
+            StringBuilder result = new StringBuilder();
+            for (byte digestByte : messageDigest.digest()) {
+                result.append(Character.forDigit((digestByte >> 4) & 0xF, 16));
+                result.append(Character.forDigit(digestByte & 0xF, 16));
+            }
+            return result.toString();
+
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to calculate checksum of data set " + file, e);
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+
+    /**
+     * Content handler that writes all elements to a compiled file. Names (element names, namespace uris and
+     * attribute names) are only written once and afterwards referred to by their index.
+     */
+    public static class CompilingContentHandler extends DefaultHandler {
+
+        /* The handler to pass all events to */
+        protected ContentHandler contentHandler;
+        /* The file that is being written */
+        protected File tempFile;
+        /* The compiled file, the temp file is renamed to this file when closed */
+        protected File compiledFile;
+        /* The output of the temp file */
+        protected DataOutputStream outputStream;
+        /* The indexes of the names that were already written */
+        protected Map<String, Integer> nameIndexes = new HashMap<String, Integer>();
+
+
+        public CompilingContentHandler(File tempFile, File compiledFile, ContentHandler contentHandler) throws IOException {
+            this.tempFile = tempFile;
+            this.compiledFile = compiledFile;
+            this.contentHandler = contentHandler;
+            this.outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024));
+            outputStream.writeInt(MAGIC_NUMBER);
+        }
+
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            try {
+                outputStream.writeByte(ELEMENT);
+                writeName(uri);
+                writeName(localName);
+                writeName(qName);
+                outputStream.writeInt(attributes.getLength());
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    writeName(attributes.getQName(i));
+                    writeValue(attributes.getValue(i));
+                }
+            } catch (IOException e) {
+                throw new SAXException("Unable to write compiled data set " + tempFile, e);
+            }
+            contentHandler.startElement(uri, localName, qName, attributes);
+        }
+
+
+        /**
+         * Finishes the compiled file and makes it available in the cache.
+         */
+        public void close() {
+            try {
+                outputStream.writeByte(END);
+                outputStream.close();
+            } catch (IOException e) {
+                throw new UnitilsException("Unable to write compiled data set " + tempFile, e);
+            }
+            if (!tempFile.renameTo(compiledFile)) {
+                // another process already compiled the same data set
+                tempFile.delete();
+            }
+            logger.debug("Created compiled data set " + compiledFile);
+        }
+
+
+        /**
+         * Stops writing the compiled file, e.g. because the data set could not be parsed.
+         */
+        public void abort() {
+            closeQuietly(outputStream);
+            tempFile.delete();
+        }
+
+
+        protected void writeName(String name) throws IOException {
+            Integer index = nameIndexes.get(name);
+            if (index != null) {
+                outputStream.writeInt(index);
+                return;
+            }
+            nameIndexes.put(name, nameIndexes.size());
+            outputStream.writeInt(-1);
+            writeValue(name);
+        }
+
+        protected void writeValue(String value) throws IOException {
+            byte[] bytes = value.getBytes("UTF-8");
+            outputStream.writeInt(bytes.length);
+            outputStream.write(bytes);
+        }
+    }
+
+
+    /**
+     * Reads the elements from a compiled file and passes them to a content handler.
+     */
+    protected static class CompiledDataSetReader {
+
+        /* The content of the compiled file */
+        protected ByteBuffer buffer;
+        /* The names that were already read, in order of their index */
+        protected List<String> names = new ArrayList<String>();
+        /* Reusable buffer for decoding the strings */
+        protected byte[] bytes = new byte[256];
+
+
+        public CompiledDataSetReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+
+        public void replay(ContentHandler contentHandler) throws IOException, SAXException {
+            if (buffer.remaining() < 4 || buffer.getInt() != MAGIC_NUMBER) {
+                throw new IOException("Not a compiled data set or compiled by an incompatible version.");
+            }
+            AttributesImpl attributes = new AttributesImpl();
+            while (buffer.get() == ELEMENT) {
+                String uri = readName();
+                String localName = readName();
+                String qName = readName();
+
+                attributes.clear();
+                int nrOfAttributes = buffer.getInt();
+                for (int i = 0; i < nrOfAttributes; i++) {
+                    String attributeName = readName();
+                    attributes.addAttribute("", attributeName, attributeName, "CDATA", readValue());
+                }
+                contentHandler.startElement(uri, localName, qName, attributes);
+            }
+        }
+
+
+        protected String readName() throws IOException {
+            int index = buffer.getInt();
+            if (index >= 0) {
+                return names.get(index);
+            }
+            String name = readValue();
+            names.add(name);
+            return name;
+        }
+
+        protected String readValue() throws IOException {
+            int length = buffer.getInt();
+            if (length > bytes.length) {
+                bytes = new byte[length];
+            }
+            buffer.get(bytes, 0, length);
+            return new String(bytes, 0, length, "UTF-8");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbunit.util;
+
+import org.dbunit.dataset.IDataSet;
+
+/**
+ * Callback for data sets that are streamed instead of read into memory as a whole. The rows of the data set are
+ * handed over in batches, each batch containing the consecutive rows of a single table, in the order in which they
+ * occur in the data set files.
+ *
+ * @see MultiSchemaXmlDataSetReader#streamDataSetXml(DataSetBatchHandler, int, java.io.File...)
+ */
+public interface DataSetBatchHandler {
+
+    /**
+     * Handles a batch of rows.
+     *
+     * @param schemaName The schema of the table, not null
+     * @param dataSet    A data set containing a single table with the rows of the batch, not null
+     * @param firstBatch True if this is the first batch for this table
+     */
+    void handleBatch(String schemaName, IDataSet dataSet, boolean firstBatch);
+
+}
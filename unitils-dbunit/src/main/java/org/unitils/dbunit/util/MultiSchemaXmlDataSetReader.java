@@ -24,15 +24,18 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.dbunit.dataset.Column;
+import org.dbunit.dataset.IDataSet;
 import org.dbunit.dataset.ReplacementDataSet;
 import org.unitils.core.UnitilsException;
 import org.unitils.dbunit.datasetfactory.impl.DbUnitDataSet;
@@ -87,6 +90,9 @@ public class MultiSchemaXmlDataSetReader {
     /* The schema name to use when none is specified */
     private String defaultSchemaName;
 
+    /* The cache of compiled data sets, null if data sets should not be compiled */
+    private CompiledDataSetCache compiledDataSetCache;
+
 
     /**
      * Creates a data set reader.
@@ -94,7 +100,20 @@ public class MultiSchemaXmlDataSetReader {
      * @param defaultSchemaName The schema name to use when none is specified, not null
      */
     public MultiSchemaXmlDataSetReader(String defaultSchemaName) {
+        this(defaultSchemaName, null);
+    }
+
+
+    /**
+     * Creates a data set reader that uses compiled data sets. The first time a data set is read, it is also compiled
+     * into the cache. The next time, the compiled data set is read instead of parsing the xml.
+     *
+     * @param defaultSchemaName    The schema name to use when none is specified, not null
+     * @param compiledDataSetCache The cache of compiled data sets, null if data sets should not be compiled
+     */
+    public MultiSchemaXmlDataSetReader(String defaultSchemaName, CompiledDataSetCache compiledDataSetCache) {
         this.defaultSchemaName = defaultSchemaName;
+        this.compiledDataSetCache = compiledDataSetCache;
     }
 
 
@@ -113,12 +132,10 @@ public class MultiSchemaXmlDataSetReader {
             xmlReader.setErrorHandler(dataSetContentHandler);
 
             for (File dataSetFile : dataSetFiles) {
-                InputStream dataSetInputStream = null;
-                try {
-                    dataSetInputStream = new FileInputStream(dataSetFile);
-                    xmlReader.parse(new InputSource(dataSetInputStream));
-                } finally {
-                    closeQuietly(dataSetInputStream);
+                if (compiledDataSetCache == null) {
+                    parseDataSetXml(xmlReader, dataSetFile);
+                } else {
+                    readCompiledDataSet(xmlReader, dataSetFile, dataSetContentHandler);
                 }
             }
             return dataSetContentHandler.getMultiSchemaDataSet();
@@ -130,6 +147,87 @@ public class MultiSchemaXmlDataSetReader {
     }
 
 
+    /**
+     * Streams the datasets from the given files to the given handler, instead of reading them into memory as a whole.
+     * Consecutive rows of the same table are handed over in batches of at most the given size. A batch is also
+     * handed over when a row for another table is encountered, so the rows are handled in the order in which they
+     * occur in the files. Tables without rows are handed over as an empty batch.
+     *
+     * @param dataSetBatchHandler The handler for the batches of rows, not null
+     * @param batchSize           The maximum nr of rows per batch, should be larger than 0
+     * @param dataSetFiles        The dataset files, not null
+     */
+    public void streamDataSetXml(DataSetBatchHandler dataSetBatchHandler, int batchSize, File... dataSetFiles) {
+        try {
+            StreamingDataSetContentHandler dataSetContentHandler = new StreamingDataSetContentHandler(defaultSchemaName, dataSetBatchHandler, batchSize);
+            XMLReader xmlReader = createXMLReader();
+            xmlReader.setContentHandler(dataSetContentHandler);
+            xmlReader.setErrorHandler(dataSetContentHandler);
+
+            for (File dataSetFile : dataSetFiles) {
+                if (compiledDataSetCache == null) {
+                    parseDataSetXml(xmlReader, dataSetFile);
+                } else {
+                    readCompiledDataSet(xmlReader, dataSetFile, dataSetContentHandler);
+                }
+            }
+            dataSetContentHandler.flush();
+
+        } catch (UnitilsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to stream data set xml.", e);
+        }
+    }
+
+
+    /**
+     * Parses the given data set file.
+     *
+     * @param xmlReader   The reader that has the content handler set, not null
+     * @param dataSetFile The dataset file, not null
+     */
+    protected void parseDataSetXml(XMLReader xmlReader, File dataSetFile) throws Exception {
+        InputStream dataSetInputStream = null;
+        try {
+            dataSetInputStream = new FileInputStream(dataSetFile);
+            xmlReader.parse(new InputSource(dataSetInputStream));
+        } finally {
+            closeQuietly(dataSetInputStream);
+        }
+    }
+
+
+    /**
+     * Reads the compiled version of the given data set file. If there is no compiled version yet, the data set file
+     * is parsed and compiled at the same time.
+     *
+     * @param xmlReader             The reader that has the content handler set, not null
+     * @param dataSetFile           The dataset file, not null
+     * @param dataSetContentHandler The handler that creates the data sets, not null
+     */
+    protected void readCompiledDataSet(XMLReader xmlReader, File dataSetFile, DataSetContentHandler dataSetContentHandler) throws Exception {
+        File compiledFile = compiledDataSetCache.getCompiledFile(dataSetFile);
+        if (compiledFile.exists()) {
+            logger.debug("Reading compiled data set " + compiledFile + " for data set " + dataSetFile);
+            compiledDataSetCache.replay(compiledFile, dataSetContentHandler);
+            return;
+        }
+
+        CompiledDataSetCache.CompilingContentHandler compilingContentHandler = compiledDataSetCache.createCompilingContentHandler(compiledFile, dataSetContentHandler);
+        xmlReader.setContentHandler(compilingContentHandler);
+        try {
+            parseDataSetXml(xmlReader, dataSetFile);
+            compilingContentHandler.close();
+        } catch (Exception e) {
+            compilingContentHandler.abort();
+            throw e;
+        } finally {
+            xmlReader.setContentHandler(dataSetContentHandler);
+        }
+    }
+
+
     /**
      * Factory method for creating the SAX xml reader.
      *
@@ -200,15 +298,23 @@ public class MultiSchemaXmlDataSetReader {
             MultiSchemaDataSet multiSchemaDataSet = new MultiSchemaDataSet();
             for (String schemaName : dbUnitDataSetsPerSchemaName.keySet()) {
                 DbUnitDataSet dataSet = dbUnitDataSetsPerSchemaName.get(schemaName);
-
-                // wrap data sets in replacement data sets, and replace [null] tokens by the null reference
-                ReplacementDataSet replacementDataSet = new ReplacementDataSet(dataSet);
-                replacementDataSet.addReplacementObject("[null]", null);
-                multiSchemaDataSet.setDataSetForSchema(schemaName, replacementDataSet);
+                multiSchemaDataSet.setDataSetForSchema(schemaName, createReplacementDataSet(dataSet));
             }
             return multiSchemaDataSet;
         }
 
+        /**
+         * Wraps the given data set in a replacement data set that replaces [null] tokens by the null reference.
+         *
+         * @param dataSet The data set, not null
+         * @return The replacement data set, not null
+         */
+        protected IDataSet createReplacementDataSet(DbUnitDataSet dataSet) {
+            ReplacementDataSet replacementDataSet = new ReplacementDataSet(dataSet);
+            replacementDataSet.addReplacementObject("[null]", null);
+            return replacementDataSet;
+        }
+
         /**
          * Processes an xml element. A new table is started for each element.
          *
@@ -228,11 +334,7 @@ public class MultiSchemaXmlDataSetReader {
             }
 
             // Begin new table for row
-            String schemaName = defaultSchemaName;
-            if (!isEmpty(uri)) {
-                schemaName = uri;
-            }
-
+            String schemaName = getSchemaName(uri);
             DbUnitDataSet dbUnitDataSet = dbUnitDataSetsPerSchemaName.get(schemaName);
             if (dbUnitDataSet == null) {
                 dbUnitDataSet = new DbUnitDataSet();
@@ -247,6 +349,17 @@ public class MultiSchemaXmlDataSetReader {
             addRow(attributes, table);
         }
 
+        /**
+         * @param uri the xml namespace uri of the element
+         * @return the schema name for the element, the default schema if the element has no namespace
+         */
+        protected String getSchemaName(String uri) {
+            if (isEmpty(uri)) {
+                return defaultSchemaName;
+            }
+            return uri;
+        }
+
         /**
          * Gets column names and row values from the given attribute and adds a new row to the given table.
          *
@@ -282,4 +395,89 @@ public class MultiSchemaXmlDataSetReader {
             throw e;
         }
     }
+
+
+    /**
+     * The xml content handler that hands over the rows in batches instead of creating the complete data sets. Only
+     * the rows of the current batch are kept in memory.
+     */
+    protected static class StreamingDataSetContentHandler extends DataSetContentHandler {
+
+        /* The handler for the batches of rows */
+        protected DataSetBatchHandler dataSetBatchHandler;
+
+        /* The maximum nr of rows per batch */
+        protected int batchSize;
+
+        /* The schema of the current batch, null if there is no current batch */
+        protected String currentSchemaName;
+
+        /* The table containing the rows of the current batch, null if there is no current batch */
+        protected DbUnitTable currentTable;
+
+        /* The schema and table names of the tables for which a batch was handed over */
+        protected Set<String> handledTableNames = new HashSet<String>();
+
+
+        /**
+         * Creates a streaming data set SAX content handler
+         *
+         * @param defaultSchemaName   The schema name to use when none is specified, not null
+         * @param dataSetBatchHandler The handler for the batches of rows, not null
+         * @param batchSize           The maximum nr of rows per batch
+         */
+        public StreamingDataSetContentHandler(String defaultSchemaName, DataSetBatchHandler dataSetBatchHandler, int batchSize) {
+            super(defaultSchemaName);
+            this.dataSetBatchHandler = dataSetBatchHandler;
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Processes an xml element. The row is added to the current batch. If the row is for another table, the current
+         * batch is handed over first. If the batch is full, it is handed over after adding the row.
+         *
+         * @param uri        the xml namespace uri (= schema name)
+         * @param localName  the local xml name
+         * @param qName      the element name (should be table name for table rows)
+         * @param attributes the attributes (should be table columns for table rows)
+         */
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if ("dataset".equals(localName)) {
+                if (!isEmpty(uri)) {
+                    defaultSchemaName = uri;
+                }
+                return;
+            }
+
+            String schemaName = getSchemaName(uri);
+            if (currentTable == null || !schemaName.equals(currentSchemaName) || !localName.equals(currentTable.getTableMetaData().getTableName())) {
+                flush();
+                currentSchemaName = schemaName;
+                currentTable = new DbUnitTable(localName);
+            }
+            addRow(attributes, currentTable);
+            if (currentTable.getRowCount() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Hands over the current batch, if any. A batch without rows is only handed over if it is the first batch
+         * for the table, e.g. for an empty table element.
+         */
+        public void flush() {
+            if (currentTable == null) {
+                return;
+            }
+            boolean firstBatch = handledTableNames.add(currentSchemaName + "." + currentTable.getTableMetaData().getTableName());
+            if (firstBatch || currentTable.getRowCount() > 0) {
+                DbUnitDataSet dataSet = new DbUnitDataSet();
+                dataSet.addTable(currentTable);
+                dataSetBatchHandler.handleBatch(currentSchemaName, createReplacementDataSet(dataSet), firstBatch);
+            }
+            currentTable = null;
+            currentSchemaName = null;
+        }
+    }
 }
@@ -75,6 +75,9 @@ public class InjectModule implements Module {
     /* Indicates if tested object instance should be created if they are not created yet */
     private boolean createTestedObjectsIfNullEnabled;
 
+    /* The annotated fields per test class and annotation, so that they only need to be looked up once per test class */
+    private Map<Class<?>, Map<Class<? extends Annotation>, Set<Field>>> annotatedFieldsPerTestClass = new HashMap<Class<?>, Map<Class<? extends Annotation>, Set<Field>>>();
+
 
     /**
      * Initializes this module using the given configuration.
@@ -101,7 +104,7 @@ public class InjectModule implements Module {
      * @param testObject The test instance, not null
      */
     public void createTestedObjectsIfNull(Object testObject) {
-        Set<Field> testedObjectFields = getFieldsAnnotatedWith(testObject.getClass(), TestedObject.class);
+        Set<Field> testedObjectFields = getAnnotatedFields(testObject.getClass(), TestedObject.class);
         for (Field testedObjectField : testedObjectFields) {
             if (getFieldValue(testObject, testedObjectField) == null) {
                 createObjectForField(testObject, testedObjectField);
@@ -154,7 +157,7 @@ public class InjectModule implements Module {
      * @param test The instance to inject into, not null
      */
     public void injectAll(Object test) {
-        Set<Field> fields = getFieldsAnnotatedWith(test.getClass(), InjectInto.class);
+        Set<Field> fields = getAnnotatedFields(test.getClass(), InjectInto.class);
         for (Field field : fields) {
             inject(test, field);
         }
@@ -166,7 +169,7 @@ public class InjectModule implements Module {
      * @param test The instance to inject into, not null
      */
     public void injectAllByType(Object test) {
-        Set<Field> fields = getFieldsAnnotatedWith(test.getClass(), InjectIntoByType.class);
+        Set<Field> fields = getAnnotatedFields(test.getClass(), InjectIntoByType.class);
         for (Field field : fields) {
             injectByType(test, field);
         }
@@ -178,7 +181,7 @@ public class InjectModule implements Module {
      * @param test The instance to inject into, not null
      */
     public void injectAllStatic(Object test) {
-        Set<Field> fields = getFieldsAnnotatedWith(test.getClass(), InjectIntoStatic.class);
+        Set<Field> fields = getAnnotatedFields(test.getClass(), InjectIntoStatic.class);
         for (Field field : fields) {
             injectStatic(test, field);
         }
@@ -190,13 +193,36 @@ public class InjectModule implements Module {
      * @param test The instance to inject into, not null
      */
     public void injectAllStaticByType(Object test) {
-        Set<Field> fields = getFieldsAnnotatedWith(test.getClass(), InjectIntoStaticByType.class);
+        Set<Field> fields = getAnnotatedFields(test.getClass(), InjectIntoStaticByType.class);
         for (Field field : fields) {
             injectStaticByType(test, field);
         }
     }
 
 
+    /**
+     * Gets the fields of the given test class that are annotated with the given annotation. The fields are looked up
+     * only once per test class.
+     *
+     * @param testClass  The test class, not null
+     * @param annotation The annotation, not null
+     * @return The annotated fields, not null
+     */
+    protected synchronized Set<Field> getAnnotatedFields(Class<?> testClass, Class<? extends Annotation> annotation) {
+        Map<Class<? extends Annotation>, Set<Field>> annotatedFields = annotatedFieldsPerTestClass.get(testClass);
+        if (annotatedFields == null) {
+            annotatedFields = new HashMap<Class<? extends Annotation>, Set<Field>>();
+            annotatedFieldsPerTestClass.put(testClass, annotatedFields);
+        }
+        Set<Field> fields = annotatedFields.get(annotation);
+        if (fields == null) {
+            fields = Collections.unmodifiableSet(getFieldsAnnotatedWith(testClass, annotation));
+            annotatedFields.put(annotation, fields);
+        }
+        return fields;
+    }
+
+
     /**
      * Restores the values that were stored using {@link #storeValueToRestoreAfterTest(Class, String, Class, org.unitils.inject.util.PropertyAccess, Object, org.unitils.inject.util.Restore)}.
      */
@@ -423,7 +449,7 @@ public class InjectModule implements Module {
         List<Object> targets;
         if ("".equals(targetName)) {
             // Default targetName, so it is probably not specified. Return all objects that are annotated with the TestedObject annotation.
-            Set<Field> testedObjectFields = getFieldsAnnotatedWith(test.getClass(), TestedObject.class);
+            Set<Field> testedObjectFields = getAnnotatedFields(test.getClass(), TestedObject.class);
             targets = new ArrayList<Object>(testedObjectFields.size());
             for (Field testedObjectField : testedObjectFields) {
                 Object target = getTarget(test, testedObjectField);
@@ -476,6 +502,19 @@ public class InjectModule implements Module {
      */
     protected class InjectTestListener extends TestListener {
 
+        /**
+         * The listener is only needed for test classes that contain fields with one of the inject annotations.
+         *
+         * @param testClass The test class, not null
+         * @return True if the test class has injection annotations
+         */
+        @Override
+        public boolean shouldListenToTestClass(Class<?> testClass) {
+            return !getAnnotatedFields(testClass, TestedObject.class).isEmpty() || !getAnnotatedFields(testClass, InjectInto.class).isEmpty()
+                    || !getAnnotatedFields(testClass, InjectIntoByType.class).isEmpty() || !getAnnotatedFields(testClass, InjectIntoStatic.class).isEmpty()
+                    || !getAnnotatedFields(testClass, InjectIntoStaticByType.class).isEmpty();
+        }
+
         /**
          * Before executing a test method (i.e. after the fixture methods), the injection is performed, since
          * objects to inject or targets are possibly instantiated during the fixture.
@@ -28,14 +28,23 @@ import org.unitils.util.ReflectionUtils;
 import static org.unitils.util.ReflectionUtils.*;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * Class containing static methods that implement explicit injection using OGNL expressions, and auto-injection by type.
+ * <p/>
+ * The field or setter that is found for an auto-injection by type is cached per target class, injected type and
+ * property access. Injecting the same type into the same class again, e.g. for the next test or when restoring
+ * a static value, does not search the target class again. The target classes are only weakly referenced and the
+ * cached targets softly, so that the cache does not prevent classes from being garbage collected.
  *
  * @author Filip Neven
  * @author Tim Ducheyne
@@ -45,6 +54,9 @@ public class InjectionUtils {
     /* The logger instance for this class */
     private static Log logger = LogFactory.getLog(InjectionUtils.class);
 
+    /* The resolved targets for auto-injection by type, per target class */
+    private static Map<Class<?>, SoftReference<Map<ByTypeInjectionKey, ByTypeInjectionTarget>>> byTypeInjectionTargets = new WeakHashMap<Class<?>, SoftReference<Map<ByTypeInjectionKey, ByTypeInjectionTarget>>>();
+
 
     /**
      * Explicit injection of the objectToInject into the specified property of the target. The property should be a
@@ -188,10 +200,7 @@ public class InjectionUtils {
 
     /**
      * Performs auto-injection on a field by type of the objectToInject into the given target object or targetClass,
-     * depending on the value of isStatic. The object is injected on one single field, if there is more than one
-     * candidate field, a {@link UnitilsException} is thrown. We try to inject the object on the most specific field,
-     * this means that when there are muliple fields of one of the super-types or implemented interfaces of the field,
-     * the one that is lowest in the hierarchy is chosen (if possible, otherwise, a {@link UnitilsException} is thrown.
+     * depending on the value of isStatic. See {@link #getFieldToInjectTo} for how the field is determined.
      *
      * @param objectToInject     The object that is injected
      * @param objectToInjectType The type of the object that is injected
@@ -201,6 +210,40 @@ public class InjectionUtils {
      * @return The object that was replaced by the injection
      */
     private static Object injectIntoFieldByType(Object objectToInject, Type objectToInjectType, Object target, Class<?> targetClass, boolean isStatic) {
+        ByTypeInjectionKey key = new ByTypeInjectionKey(objectToInjectType, PropertyAccess.FIELD, isStatic);
+        ByTypeInjectionTarget injectionTarget = getByTypeInjectionTarget(targetClass, key);
+        if (injectionTarget == null) {
+            injectionTarget = new ByTypeInjectionTarget(getFieldToInjectTo(objectToInjectType, targetClass, isStatic), null, null);
+            putByTypeInjectionTarget(targetClass, key, injectionTarget);
+        }
+        Field fieldToInjectTo = injectionTarget.field;
+
+        // Field to inject into found, inject the object and return old value
+        Object oldValue = null;
+        try {
+            oldValue = getFieldValue(target, fieldToInjectTo);
+
+        } catch (Exception e) {
+            logger.warn("Unable to retrieve current value of field to inject into. Will not be able to restore value after injection.", e);
+        }
+        setFieldValue(target, fieldToInjectTo, objectToInject);
+        return oldValue;
+    }
+
+
+    /**
+     * Finds the field of the target class for auto-injection by type. The object is injected on one single field, if
+     * there is more than one candidate field, a {@link UnitilsException} is thrown. We try to inject the object on the
+     * most specific field, this means that when there are muliple fields of one of the super-types or implemented
+     * interfaces of the field, the one that is lowest in the hierarchy is chosen (if possible, otherwise, a
+     * {@link UnitilsException} is thrown.
+     *
+     * @param objectToInjectType The type of the object that is injected
+     * @param targetClass        The target class, not null
+     * @param isStatic           Indicates wether a static field should be found
+     * @return The field, not null
+     */
+    private static Field getFieldToInjectTo(Type objectToInjectType, Class<?> targetClass, boolean isStatic) {
         // Try to find a field with an exact matching type
         Field fieldToInjectTo = null;
         Set<Field> fieldsWithExactType = getFieldsOfType(targetClass, objectToInjectType, isStatic);
@@ -242,27 +285,13 @@ public class InjectionUtils {
                 throw new UnitilsException("Multiple candidate target " + (isStatic ? "static " : "") + "fields found in " + targetClass.getSimpleName() + ", with none of them more specific than all others.");
             }
         }
-
-        // Field to inject into found, inject the object and return old value
-        Object oldValue = null;
-        try {
-            oldValue = getFieldValue(target, fieldToInjectTo);
-
-        } catch (Exception e) {
-            logger.warn("Unable to retrieve current value of field to inject into. Will not be able to restore value after injection.", e);
-        }
-        setFieldValue(target, fieldToInjectTo, objectToInject);
-        return oldValue;
+        return fieldToInjectTo;
     }
 
 
     /**
      * Performs auto-injection on a setter by type of the objectToInject into the given target object or targetClass,
-     * depending on the value of isStatic. The object is injected to one single setter, if there is more than one
-     * candidate setter, a {@link UnitilsException} is thrown. We try to inject the object on the most specific type,
-     * this means that when there are muliple setters for one of the super-types or implemented interfaces of the setter
-     * type, the one that is lowest in the hierarchy is chosen (if possible, otherwise, a {@link UnitilsException} is
-     * thrown.
+     * depending on the value of isStatic. See {@link #getSetterToInjectTo} for how the setter is determined.
      *
      * @param objectToInject     The object that is injected
      * @param objectToInjectType The type of the object that is injected
@@ -272,6 +301,51 @@ public class InjectionUtils {
      * @return The object that was replaced by the injection
      */
     private static Object injectIntoSetterByType(Object objectToInject, Type objectToInjectType, Object target, Class<?> targetClass, boolean isStatic) {
+        ByTypeInjectionKey key = new ByTypeInjectionKey(objectToInjectType, PropertyAccess.SETTER, isStatic);
+        ByTypeInjectionTarget injectionTarget = getByTypeInjectionTarget(targetClass, key);
+        if (injectionTarget == null) {
+            Method setter = getSetterToInjectTo(objectToInjectType, targetClass, isStatic);
+            injectionTarget = new ByTypeInjectionTarget(null, setter, getGetter(setter, isStatic));
+            putByTypeInjectionTarget(targetClass, key, injectionTarget);
+        }
+        Method setterToInjectTo = injectionTarget.setter;
+
+        // Setter to inject into found, inject the object and return old value
+        Object oldValue = null;
+        try {
+            Method getter = injectionTarget.getter;
+            if (getter == null) {
+                logger.warn("Unable to retrieve current value of field to inject into, no getter found for setter: " + setterToInjectTo + ". Will not be able to restore value after injection.");
+            } else {
+                oldValue = invokeMethod(target, getter);
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to retrieve current value of field to inject into. Will not be able to restore value after injection.", e);
+        }
+
+        try {
+            invokeMethod(target, setterToInjectTo, objectToInject);
+
+        } catch (InvocationTargetException e) {
+            throw new UnitilsException("Unable to inject to setter, exception thrown by target.", e);
+        }
+        return oldValue;
+    }
+
+
+    /**
+     * Finds the setter of the target class for auto-injection by type. The object is injected to one single setter, if
+     * there is more than one candidate setter, a {@link UnitilsException} is thrown. We try to inject the object on the
+     * most specific type, this means that when there are muliple setters for one of the super-types or implemented
+     * interfaces of the setter type, the one that is lowest in the hierarchy is chosen (if possible, otherwise, a
+     * {@link UnitilsException} is thrown.
+     *
+     * @param objectToInjectType The type of the object that is injected
+     * @param targetClass        The target class, not null
+     * @param isStatic           Indicates wether a static setter should be found
+     * @return The setter, not null
+     */
+    private static Method getSetterToInjectTo(Type objectToInjectType, Class<?> targetClass, boolean isStatic) {
         // Try to find a method with an exact matching type
         Method setterToInjectTo = null;
         Set<Method> settersWithExactType = getSettersOfType(targetClass, objectToInjectType, isStatic);
@@ -309,27 +383,27 @@ public class InjectionUtils {
                         ", with none of them more specific than all others.");
             }
         }
+        return setterToInjectTo;
+    }
 
-        // Setter to inject into found, inject the object and return old value
-        Object oldValue = null;
-        try {
-            Method getter = getGetter(setterToInjectTo, isStatic);
-            if (getter == null) {
-                logger.warn("Unable to retrieve current value of field to inject into, no getter found for setter: " + setterToInjectTo + ". Will not be able to restore value after injection.");
-            } else {
-                oldValue = invokeMethod(target, getter);
-            }
-        } catch (Exception e) {
-            logger.warn("Unable to retrieve current value of field to inject into. Will not be able to restore value after injection.", e);
+
+    private static synchronized ByTypeInjectionTarget getByTypeInjectionTarget(Class<?> targetClass, ByTypeInjectionKey key) {
+        SoftReference<Map<ByTypeInjectionKey, ByTypeInjectionTarget>> injectionTargets = byTypeInjectionTargets.get(targetClass);
+        if (injectionTargets == null || injectionTargets.get() == null) {
+            return null;
         }
+        return injectionTargets.get().get(key);
+    }
 
-        try {
-            invokeMethod(target, setterToInjectTo, objectToInject);
 
-        } catch (InvocationTargetException e) {
-            throw new UnitilsException("Unable to inject to setter, exception thrown by target.", e);
+    private static synchronized void putByTypeInjectionTarget(Class<?> targetClass, ByTypeInjectionKey key, ByTypeInjectionTarget injectionTarget) {
+        SoftReference<Map<ByTypeInjectionKey, ByTypeInjectionTarget>> injectionTargets = byTypeInjectionTargets.get(targetClass);
+        Map<ByTypeInjectionKey, ByTypeInjectionTarget> injectionTargetsPerKey = (injectionTargets == null) ? null : injectionTargets.get();
+        if (injectionTargetsPerKey == null) {
+            injectionTargetsPerKey = new HashMap<ByTypeInjectionKey, ByTypeInjectionTarget>();
+            byTypeInjectionTargets.put(targetClass, new SoftReference<Map<ByTypeInjectionKey, ByTypeInjectionTarget>>(injectionTargetsPerKey));
         }
-        return oldValue;
+        injectionTargetsPerKey.put(key, injectionTarget);
     }
 
 
@@ -384,4 +458,58 @@ public class InjectionUtils {
             setFieldValue(targetClass, staticField, value);
         }
     }
+
+
+    /**
+     * The key of a resolved target for auto-injection by type within a target class.
+     */
+    private static class ByTypeInjectionKey {
+
+        private Type objectToInjectType;
+        private PropertyAccess propertyAccess;
+        private boolean isStatic;
+
+        public ByTypeInjectionKey(Type objectToInjectType, PropertyAccess propertyAccess, boolean isStatic) {
+            this.objectToInjectType = objectToInjectType;
+            this.propertyAccess = propertyAccess;
+            this.isStatic = isStatic;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ByTypeInjectionKey)) {
+                return false;
+            }
+            ByTypeInjectionKey other = (ByTypeInjectionKey) o;
+            return isStatic == other.isStatic && propertyAccess == other.propertyAccess && objectToInjectType.equals(other.objectToInjectType);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = objectToInjectType.hashCode();
+            result = 31 * result + propertyAccess.hashCode();
+            result = 31 * result + (isStatic ? 1 : 0);
+            return result;
+        }
+    }
+
+
+    /**
+     * A resolved target for auto-injection by type: either a field, or a setter with an optional getter.
+     */
+    private static class ByTypeInjectionTarget {
+
+        private Field field;
+        private Method setter;
+        private Method getter;
+
+        public ByTypeInjectionTarget(Field field, Method setter, Method getter) {
+            this.field = field;
+            this.setter = setter;
+            this.getter = getter;
+        }
+    }
 }
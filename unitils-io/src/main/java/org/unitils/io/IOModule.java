@@ -18,6 +18,9 @@ package org.unitils.io;
 
 import org.unitils.core.Module;
 import org.unitils.core.TestListener;
+import org.unitils.io.annotation.FileContent;
+import org.unitils.io.annotation.TempDir;
+import org.unitils.io.annotation.TempFile;
 import org.unitils.io.annotation.handler.FileContentAnnotationHandler;
 import org.unitils.io.annotation.handler.TempDirAnnotationHandler;
 import org.unitils.io.annotation.handler.TempFileAnnotationHandler;
@@ -31,6 +34,7 @@ import java.lang.reflect.Method;
 import java.util.Properties;
 
 import static org.unitils.core.util.ConfigUtils.getInstanceOf;
+import static org.unitils.util.AnnotationUtils.getFieldsAnnotatedWith;
 import static org.unitils.util.PropertyUtils.getBoolean;
 
 /**
@@ -108,6 +112,11 @@ public class IOModule implements Module {
             this.tempDirAnnotationHandler = tempDirAnnotationHandler;
         }
 
+        @Override
+        public boolean shouldListenToTestClass(Class<?> testClass) {
+            return !getFieldsAnnotatedWith(testClass, FileContent.class).isEmpty() || !getFieldsAnnotatedWith(testClass, TempFile.class).isEmpty() || !getFieldsAnnotatedWith(testClass, TempDir.class).isEmpty();
+        }
+
         @Override
         public void beforeTestSetUp(Object testObject, Method testMethod) {
             tempDirAnnotationHandler.beforeTestSetUp(testObject, testMethod);
@@ -117,6 +126,7 @@ public class IOModule implements Module {
 
         @Override
         public void afterTestMethod(Object testObject, Method testMethod, Throwable testThrowable) {
+            fileContentAnnotationHandler.afterTestMethod(testObject, testMethod, testThrowable);
             tempFileAnnotationHandler.afterTestMethod(testObject, testMethod, testThrowable);
             tempDirAnnotationHandler.afterTestMethod(testObject, testMethod, testThrowable);
         }
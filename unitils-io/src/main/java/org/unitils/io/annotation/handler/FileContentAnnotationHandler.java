@@ -21,12 +21,14 @@ import org.unitils.core.UnitilsException;
 import org.unitils.io.annotation.FileContent;
 import org.unitils.io.filecontent.FileContentReader;
 
+import java.io.Closeable;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Set;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.unitils.util.AnnotationUtils.getFieldsAnnotatedWith;
+import static org.unitils.util.ReflectionUtils.getFieldValue;
 import static org.unitils.util.ReflectionUtils.setFieldValue;
 
 /**
@@ -68,6 +70,23 @@ public class FileContentAnnotationHandler extends TestListener {
     }
 
 
+    /**
+     * Closes all file contents that hold on to a resource, e.g. a Reader that was injected by a lazy conversion
+     * strategy. Errors while closing are ignored.
+     *
+     * @param testObject    The test instance, not null
+     * @param testMethod    The test method, not null
+     * @param testThrowable The throwable thrown during the test, null if none was thrown
+     */
+    @Override
+    public void afterTestMethod(Object testObject, Method testMethod, Throwable testThrowable) {
+        Set<Field> fieldsAnnotatedWithFileContent = getFieldsAnnotatedWith(testObject.getClass(), FileContent.class);
+        for (Field field : fieldsAnnotatedWithFileContent) {
+            closeFileContentForField(testObject, field);
+        }
+    }
+
+
     /**
      * Does the actual content reading and injection for the given field.
      *
@@ -90,6 +109,24 @@ public class FileContentAnnotationHandler extends TestListener {
         }
     }
 
+    /**
+     * Closes the content of the given field if it is closeable.
+     *
+     * @param testObject The test instance, not null
+     * @param field      The field with the FileContent annotation, not null
+     */
+    protected void closeFileContentForField(Object testObject, Field field) {
+        Object fileContent = getFieldValue(testObject, field);
+        if (!(fileContent instanceof Closeable)) {
+            return;
+        }
+        try {
+            ((Closeable) fileContent).close();
+        } catch (Exception e) {
+            // ignored
+        }
+    }
+
     /**
      * @param fileContentAnnotation The annotation, not null
      * @return the encoding specified in the annotation, null if no encoding was specified
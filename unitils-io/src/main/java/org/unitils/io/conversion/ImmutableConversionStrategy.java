@@ -0,0 +1,39 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A conversion strategy that converts content into immutable instances (e.g. a String). Since these instances can
+ * not be changed by a test, the same instance can be shared by all tests that use the same file. The content can also
+ * be converted directly from a byte buffer, e.g. a memory-mapped file, without copying it through a stream first.
+ *
+ * @since 3.4
+ */
+public interface ImmutableConversionStrategy<T> extends ConversionStrategy<T> {
+
+    /**
+     * Converts the given content into the target type.
+     *
+     * @param content  The bytes of the content, not null
+     * @param encoding The encoding to use when decoding the bytes, not null
+     * @return The converted instance of the target type, not null
+     */
+    T convertContent(ByteBuffer content, String encoding) throws IOException;
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A conversion strategy that does not read the content up front, but returns an instance that reads the file on demand
+ * (e.g. a Reader or a memory-mapped buffer). This way, tests can use very large files without loading them into the
+ * heap. Instances that implement {@link java.io.Closeable} are closed after the test.
+ * <p/>
+ * Content that is not located in a file on the file system is still converted using
+ * {@link #convertContent(java.io.InputStream, String)}.
+ *
+ * @since 3.4
+ */
+public interface LazyConversionStrategy<T> extends ConversionStrategy<T> {
+
+    /**
+     * Creates an instance of the target type that reads the content of the given file on demand.
+     *
+     * @param file     The file, not null
+     * @param encoding The encoding of the file, not null
+     * @return The instance of the target type, not null
+     */
+    T convertContent(File file, String encoding) throws IOException;
+
+}
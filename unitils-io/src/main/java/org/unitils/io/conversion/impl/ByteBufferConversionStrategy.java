@@ -0,0 +1,74 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import org.unitils.core.UnitilsException;
+import org.unitils.io.conversion.LazyConversionStrategy;
+import org.unitils.thirdparty.org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * This conversion strategy will convert the content into a read-only ByteBuffer. The default file extension for this
+ * conversion strategy is bin. So when not overriding the default file when using the @FileContent the file should
+ * end with '.bin' .
+ * <p/>
+ * Files are memory-mapped: the content is only paged in when it is accessed and does not take any heap space.
+ * A ByteBuffer cannot hold more than 2GB, so larger files are not supported.
+ * The encoding is not used.
+ *
+ * @since 3.4
+ */
+public class ByteBufferConversionStrategy implements LazyConversionStrategy<ByteBuffer> {
+
+
+    public ByteBuffer convertContent(File file, String encoding) throws IOException {
+        long size = file.length();
+        if (size > Integer.MAX_VALUE) {
+            throw new UnitilsException("Unable to map file " + file + ": the file is " + size + " bytes, files larger than " + Integer.MAX_VALUE + " bytes are not supported.");
+        }
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            // the mapping stays valid after the channel is closed
+            return inputStream.getChannel().map(READ_ONLY, 0, size);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+    }
+
+    public ByteBuffer convertContent(InputStream inputStream, String encoding) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        IOUtils.copy(inputStream, outputStream);
+        return ByteBuffer.wrap(outputStream.toByteArray()).asReadOnlyBuffer();
+    }
+
+
+    public String getDefaultFileExtension() {
+        return "bin";
+    }
+
+    public Class<ByteBuffer> getTargetType() {
+        return ByteBuffer.class;
+    }
+
+}
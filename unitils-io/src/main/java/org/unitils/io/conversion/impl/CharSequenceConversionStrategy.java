@@ -0,0 +1,111 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import org.unitils.io.conversion.LazyConversionStrategy;
+import org.unitils.thirdparty.org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+
+import static java.nio.charset.CodingErrorAction.REPLACE;
+
+/**
+ * This conversion strategy will convert the content into a CharSequence. The default file extension for this
+ * conversion strategy is txt. So when not overriding the default file when using the @FileContent the file should
+ * end with '.txt' .
+ * <p/>
+ * Files are memory-mapped, so files larger than 2GB are not supported. For single-byte encodings (e.g. the default
+ * ISO-8859-1), the chars are decoded on demand, so the content does not take any heap space. For UTF-8 the content is
+ * decoded in chunks and only the last accessed chunk is kept on the heap. Other multi-byte encodings (e.g. UTF-16)
+ * cannot be decoded from an arbitrary position: for these the mapped content is decoded into a char buffer on the heap.
+ *
+ * @since 3.4
+ */
+public class CharSequenceConversionStrategy implements LazyConversionStrategy<CharSequence> {
+
+    protected ByteBufferConversionStrategy byteBufferConversionStrategy = new ByteBufferConversionStrategy();
+
+
+    public CharSequence convertContent(File file, String encoding) throws IOException {
+        ByteBuffer content = byteBufferConversionStrategy.convertContent(file, encoding);
+        Charset charset = Charset.forName(encoding);
+
+        char[] decodingTable = getSingleByteDecodingTable(charset);
+        if (decodingTable != null) {
+            return new MappedCharSequence(content, decodingTable);
+        }
+        if (isChunkDecodable(charset)) {
+            return new ChunkedCharSequence(content, charset);
+        }
+        return charset.decode(content);
+    }
+
+    public CharSequence convertContent(InputStream inputStream, String encoding) throws IOException {
+        return IOUtils.toString(inputStream, encoding);
+    }
+
+
+    public String getDefaultFileExtension() {
+        return "txt";
+    }
+
+    public Class<CharSequence> getTargetType() {
+        return CharSequence.class;
+    }
+
+
+    /**
+     * @param charset The charset, not null
+     * @return True if a chunk of the content can be decoded without decoding the bytes that precede it
+     */
+    protected boolean isChunkDecodable(Charset charset) {
+        return "UTF-8".equals(charset.name());
+    }
+
+    /**
+     * @param charset The charset, not null
+     * @return The char for every byte value, null if the charset is not a single-byte charset
+     */
+    protected char[] getSingleByteDecodingTable(Charset charset) throws CharacterCodingException {
+        if (!charset.canEncode()) {
+            return null;
+        }
+        CharsetEncoder encoder = charset.newEncoder();
+        if (encoder.maxBytesPerChar() != 1.0f) {
+            return null;
+        }
+        byte[] allBytes = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            allBytes[i] = (byte) i;
+        }
+        CharsetDecoder decoder = charset.newDecoder().onMalformedInput(REPLACE).onUnmappableCharacter(REPLACE);
+        CharBuffer chars = decoder.decode(ByteBuffer.wrap(allBytes));
+        if (chars.remaining() != 256) {
+            return null;
+        }
+        char[] decodingTable = new char[256];
+        chars.get(decodingTable);
+        return decodingTable;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2026,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+
+import static java.nio.charset.CodingErrorAction.REPLACE;
+
+/**
+ * A char sequence that decodes the bytes of a (memory-mapped) buffer in chunks, on demand. The content is decoded
+ * once up front to find the byte offset at which every chunk starts, but only the last accessed chunk is kept
+ * on the heap.
+ * <p/>
+ * This only works for charsets for which a chunk can be decoded independently of the bytes that precede it,
+ * such as UTF-8. Charsets with a byte order mark or shift states (e.g. UTF-16 or ISO-2022-JP) are not supported.
+ *
+ * @since 3.4
+ */
+public class ChunkedCharSequence implements CharSequence {
+
+    /* The default nr of chars in a chunk */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /* The bytes of the content, not null */
+    protected ByteBuffer content;
+    /* The charset of the content, not null */
+    protected Charset charset;
+    /* The byte offset of the start of every chunk, followed by the byte offset of the end of the content */
+    protected int[] chunkByteOffsets;
+    /* The char offset of the start of every chunk, followed by the total nr of chars */
+    protected int[] chunkCharOffsets;
+    /* The nr of chunks */
+    protected int nrOfChunks;
+    /* The index of the first char of this sequence in the content */
+    protected int offset;
+    /* The nr of chars in this sequence */
+    protected int length;
+    /* The last decoded chunk, null if none decoded yet */
+    protected volatile DecodedChunk decodedChunk;
+
+
+    /**
+     * @param content The bytes of the content, not null
+     * @param charset The charset of the content, not null
+     */
+    public ChunkedCharSequence(ByteBuffer content, Charset charset) throws CharacterCodingException {
+        this(content, charset, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param content   The bytes of the content, not null
+     * @param charset   The charset of the content, not null
+     * @param chunkSize The max nr of chars in a chunk, larger than 1
+     */
+    public ChunkedCharSequence(ByteBuffer content, Charset charset, int chunkSize) throws CharacterCodingException {
+        this.content = content;
+        this.charset = charset;
+        indexChunks(chunkSize);
+        this.offset = 0;
+        this.length = chunkCharOffsets[nrOfChunks];
+    }
+
+    protected ChunkedCharSequence(ChunkedCharSequence chunkedCharSequence, int offset, int length) {
+        this.content = chunkedCharSequence.content;
+        this.charset = chunkedCharSequence.charset;
+        this.chunkByteOffsets = chunkedCharSequence.chunkByteOffsets;
+        this.chunkCharOffsets = chunkedCharSequence.chunkCharOffsets;
+        this.nrOfChunks = chunkedCharSequence.nrOfChunks;
+        this.decodedChunk = chunkedCharSequence.decodedChunk;
+        this.offset = offset;
+        this.length = length;
+    }
+
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+        }
+        int contentIndex = offset + index;
+        DecodedChunk chunk = getDecodedChunk(findChunkIndex(contentIndex));
+        return chunk.chars[contentIndex - chunkCharOffsets[chunk.index]];
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new ChunkedCharSequence(this, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(length);
+        int end = offset + length;
+        int index = offset;
+        while (index < end) {
+            int chunkIndex = findChunkIndex(index);
+            int chunkOffset = chunkCharOffsets[chunkIndex];
+            char[] chars = getDecodedChunk(chunkIndex).chars;
+            int count = Math.min(chars.length - (index - chunkOffset), end - index);
+            result.append(chars, index - chunkOffset, count);
+            index += count;
+        }
+        return result.toString();
+    }
+
+
+    /**
+     * Decodes the content chunk by chunk and records where every chunk starts. A chunk can contain less than
+     * chunkSize chars when a surrogate pair does not fit in the remaining space.
+     *
+     * @param chunkSize The max nr of chars in a chunk, larger than 1
+     */
+    protected void indexChunks(int chunkSize) throws CharacterCodingException {
+        int initialCapacity = content.remaining() / chunkSize + 2;
+        chunkByteOffsets = new int[initialCapacity];
+        chunkCharOffsets = new int[initialCapacity];
+
+        ByteBuffer bytes = content.duplicate();
+        CharBuffer chars = CharBuffer.allocate(chunkSize);
+        CharsetDecoder decoder = createDecoder();
+
+        int charOffset = 0;
+        chunkByteOffsets[0] = bytes.position();
+        while (true) {
+            chars.clear();
+            CoderResult result = decoder.decode(bytes, chars, true);
+            if (result.isUnderflow()) {
+                result = decoder.flush(chars);
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (chars.position() > 0) {
+                charOffset += chars.position();
+                addChunk(bytes.position(), charOffset);
+            }
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+    }
+
+    protected void addChunk(int byteEndOffset, int charEndOffset) {
+        nrOfChunks++;
+        if (nrOfChunks == chunkByteOffsets.length) {
+            int[] newChunkByteOffsets = new int[nrOfChunks * 2];
+            System.arraycopy(chunkByteOffsets, 0, newChunkByteOffsets, 0, nrOfChunks);
+            chunkByteOffsets = newChunkByteOffsets;
+            int[] newChunkCharOffsets = new int[nrOfChunks * 2];
+            System.arraycopy(chunkCharOffsets, 0, newChunkCharOffsets, 0, nrOfChunks);
+            chunkCharOffsets = newChunkCharOffsets;
+        }
+        chunkByteOffsets[nrOfChunks] = byteEndOffset;
+        chunkCharOffsets[nrOfChunks] = charEndOffset;
+    }
+
+    /**
+     * @param index The index of a char, in range
+     * @return The index of the chunk that contains the char
+     */
+    protected int findChunkIndex(int index) {
+        int low = 0;
+        int high = nrOfChunks - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (chunkCharOffsets[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    protected DecodedChunk getDecodedChunk(int chunkIndex) {
+        DecodedChunk chunk = decodedChunk;
+        if (chunk == null || chunk.index != chunkIndex) {
+            chunk = new DecodedChunk(chunkIndex, decodeChunk(chunkIndex));
+            decodedChunk = chunk;
+        }
+        return chunk;
+    }
+
+    protected char[] decodeChunk(int chunkIndex) {
+        ByteBuffer bytes = content.duplicate();
+        bytes.limit(chunkByteOffsets[chunkIndex + 1]);
+        bytes.position(chunkByteOffsets[chunkIndex]);
+        char[] chars = new char[chunkCharOffsets[chunkIndex + 1] - chunkCharOffsets[chunkIndex]];
+        CharsetDecoder decoder = createDecoder();
+        CharBuffer charBuffer = CharBuffer.wrap(chars);
+        decoder.decode(bytes, charBuffer, true);
+        decoder.flush(charBuffer);
+        return chars;
+    }
+
+    protected CharsetDecoder createDecoder() {
+        return charset.newDecoder().onMalformedInput(REPLACE).onUnmappableCharacter(REPLACE);
+    }
+
+
+    /**
+     * The chars of a decoded chunk. Instances are immutable so they can be shared between threads.
+     */
+    protected static class DecodedChunk {
+
+        protected final int index;
+        protected final char[] chars;
+
+        public DecodedChunk(int index, char[] chars) {
+            this.index = index;
+            this.chars = chars;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A char sequence that decodes the bytes of a (memory-mapped) buffer on demand. This only works for single-byte
+ * encodings: every byte is mapped on a char using a decoding table with 256 entries.
+ *
+ * @since 3.4
+ */
+public class MappedCharSequence implements CharSequence {
+
+    /* The bytes of the content, not null */
+    protected ByteBuffer content;
+    /* The char for every byte value, not null */
+    protected char[] decodingTable;
+    /* The index of the first byte of this sequence in the content */
+    protected int offset;
+    /* The nr of chars in this sequence */
+    protected int length;
+
+
+    /**
+     * @param content       The bytes of the content, not null
+     * @param decodingTable The char for every byte value, not null
+     */
+    public MappedCharSequence(ByteBuffer content, char[] decodingTable) {
+        this(content, decodingTable, content.position(), content.remaining());
+    }
+
+    protected MappedCharSequence(ByteBuffer content, char[] decodingTable, int offset, int length) {
+        this.content = content;
+        this.decodingTable = decodingTable;
+        this.offset = offset;
+        this.length = length;
+    }
+
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", length: " + length);
+        }
+        return decodingTable[content.get(offset + index) & 0xff];
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Start: " + start + ", end: " + end + ", length: " + length);
+        }
+        return new MappedCharSequence(content, decodingTable, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = decodingTable[content.get(offset + i) & 0xff];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import org.unitils.io.conversion.LazyConversionStrategy;
+import org.unitils.thirdparty.org.apache.commons.io.IOUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * This conversion strategy will convert the content into a Reader. The default file extension for this
+ * conversion strategy is txt. So when not overriding the default file when using the @FileContent the file should
+ * end with '.txt' .
+ * <p/>
+ * Files are not read up front: the returned reader reads the file while it is being used, so only the part
+ * that is actually read is loaded. The result is always a BufferedReader, so a field can also be declared as a
+ * BufferedReader to read the file line by line. The reader is closed after the test.
+ *
+ * @since 3.4
+ */
+public class ReaderConversionStrategy implements LazyConversionStrategy<Reader> {
+
+
+    public Reader convertContent(File file, String encoding) throws IOException {
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            return new BufferedReader(new InputStreamReader(inputStream, encoding));
+        } catch (IOException e) {
+            IOUtils.closeQuietly(inputStream);
+            throw e;
+        }
+    }
+
+    public Reader convertContent(InputStream inputStream, String encoding) throws IOException {
+        String content = IOUtils.toString(inputStream, encoding);
+        return new BufferedReader(new StringReader(content));
+    }
+
+
+    public String getDefaultFileExtension() {
+        return "txt";
+    }
+
+    public Class<Reader> getTargetType() {
+        return Reader.class;
+    }
+
+}
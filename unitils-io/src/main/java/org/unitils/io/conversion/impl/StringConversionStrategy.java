@@ -16,25 +16,29 @@
 
 package org.unitils.io.conversion.impl;
 
-import org.unitils.io.conversion.ConversionStrategy;
+import org.unitils.io.conversion.ImmutableConversionStrategy;
 import org.unitils.thirdparty.org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 
 /**
  * This conversion strategy will try to convert the input stream into a String. The default file extension for this
  * conversion strategy is txt. So when not overriding the default file when using the @FileContent the file should
  * end with '.txt' .
+ * <p/>
+ * Strings are immutable, so the result can be shared by all tests that use the same file.
  *
  * @author Jeroen Horemans
  * @author Tim Ducheyne
  * @author Thomas De Rycke
  * @since 3.3
  */
-public class StringConversionStrategy implements ConversionStrategy<String> {
+public class StringConversionStrategy implements ImmutableConversionStrategy<String> {
 
 
     public String convertContent(InputStream inputStream, String encoding) throws IOException {
@@ -45,6 +49,10 @@ public class StringConversionStrategy implements ConversionStrategy<String> {
         return writer.toString();
     }
 
+    public String convertContent(ByteBuffer content, String encoding) throws IOException {
+        return Charset.forName(encoding).decode(content).toString();
+    }
+
 
     public String getDefaultFileExtension() {
         return "txt";
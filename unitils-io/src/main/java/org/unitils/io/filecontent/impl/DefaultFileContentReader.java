@@ -18,16 +18,38 @@ package org.unitils.io.filecontent.impl;
 
 import org.unitils.core.UnitilsException;
 import org.unitils.io.conversion.ConversionStrategy;
+import org.unitils.io.conversion.ImmutableConversionStrategy;
+import org.unitils.io.conversion.LazyConversionStrategy;
 import org.unitils.io.filecontent.FileContentReader;
+import org.unitils.io.reader.FileLocatingReadingStrategy;
 import org.unitils.io.reader.ReadingStrategy;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.List;
 
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.unitils.thirdparty.org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
+ * Reads the content of a file and converts it to the requested target type.
+ * <p/>
+ * If the reading strategy is a {@link FileLocatingReadingStrategy}, the location of the content is looked up first.
+ * If the conversion strategy for the target type is an {@link ImmutableConversionStrategy} and the content is located
+ * in a file on the file system, the converted content is cached and shared by all readers of the same file. These
+ * files are read directly in a byte buffer. Files larger than the mapped file threshold are memory-mapped instead of
+ * being copied into the heap.
+ * <p/>
+ * If the conversion strategy is a {@link LazyConversionStrategy} and the content is located in a file on the file
+ * system, the strategy is given the file itself so that it can read the content on demand.
+ *
  * @author Jeroen Horemans
  * @author Tim Ducheyne
  * @author Thomas De Rycke
@@ -38,12 +60,22 @@ public class DefaultFileContentReader implements FileContentReader {
     protected ReadingStrategy readingStrategy;
     protected List<ConversionStrategy<?>> conversionStrategies;
     protected String defaultEncoding;
+    /* The cache for immutable contents, null if contents should not be cached */
+    protected FileContentCache fileContentCache;
+    /* Files with a size in bytes of at least this value are memory-mapped */
+    protected long mappedFileThreshold;
 
 
     public DefaultFileContentReader(ReadingStrategy readingStrategy, List<ConversionStrategy<?>> conversionStrategies, String defaultEncoding) {
+        this(readingStrategy, conversionStrategies, defaultEncoding, null, Long.MAX_VALUE);
+    }
+
+    public DefaultFileContentReader(ReadingStrategy readingStrategy, List<ConversionStrategy<?>> conversionStrategies, String defaultEncoding, FileContentCache fileContentCache, long mappedFileThreshold) {
         this.readingStrategy = readingStrategy;
         this.conversionStrategies = conversionStrategies;
         this.defaultEncoding = defaultEncoding;
+        this.fileContentCache = fileContentCache;
+        this.mappedFileThreshold = mappedFileThreshold;
     }
 
     @SuppressWarnings({"unchecked"})
@@ -52,6 +84,18 @@ public class DefaultFileContentReader implements FileContentReader {
         if (isBlank(encoding)) {
             encoding = defaultEncoding;
         }
+        if (conversionStrategy instanceof ImmutableConversionStrategy) {
+            File file = getFile(fileName, conversionStrategy, testClass);
+            if (file != null) {
+                return (T) readImmutableFileContent(file, targetType, encoding, (ImmutableConversionStrategy<?>) conversionStrategy);
+            }
+        }
+        if (conversionStrategy instanceof LazyConversionStrategy) {
+            File file = getFile(fileName, conversionStrategy, testClass);
+            if (file != null) {
+                return (T) readLazyFileContent(file, targetType, encoding, (LazyConversionStrategy<?>) conversionStrategy);
+            }
+        }
         InputStream inputStream = null;
         try {
             if (isBlank(fileName)) {
@@ -69,6 +113,94 @@ public class DefaultFileContentReader implements FileContentReader {
     }
 
 
+    protected Object readImmutableFileContent(File file, Class<?> targetType, String encoding, ImmutableConversionStrategy<?> conversionStrategy) {
+        try {
+            if (fileContentCache == null) {
+                return conversionStrategy.convertContent(readFile(file), encoding);
+            }
+            Object content = fileContentCache.get(file, encoding, targetType);
+            if (content == null) {
+                content = conversionStrategy.convertContent(readFile(file), encoding);
+                fileContentCache.put(file, encoding, targetType, content);
+            }
+            return content;
+
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to read file content for file " + file + " and target type " + targetType.getSimpleName(), e);
+        }
+    }
+
+
+    protected Object readLazyFileContent(File file, Class<?> targetType, String encoding, LazyConversionStrategy<?> conversionStrategy) {
+        try {
+            return conversionStrategy.convertContent(file, encoding);
+
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to read file content for file " + file + " and target type " + targetType.getSimpleName(), e);
+        }
+    }
+
+
+    /**
+     * Reads the content of the given file in a byte buffer. Files that are larger than the mapped file threshold
+     * are memory-mapped. A byte buffer can hold at most 2GB, larger files cannot be read.
+     *
+     * @param file The file, not null
+     * @return The content, not null
+     */
+    protected ByteBuffer readFile(File file) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileChannel channel = inputStream.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new UnitilsException("Unable to read file content for file " + file + ": the file is " + size + " bytes, files larger than " + Integer.MAX_VALUE + " bytes are not supported.");
+            }
+            if (size >= mappedFileThreshold) {
+                return channel.map(READ_ONLY, 0, size);
+            }
+            ByteBuffer content = ByteBuffer.allocate((int) size);
+            while (content.hasRemaining() && channel.read(content) != -1) {
+                // read until the buffer is full
+            }
+            content.flip();
+            return content;
+
+        } finally {
+            closeQuietly(inputStream);
+        }
+    }
+
+
+    /**
+     * @param fileName           The file name, null for the default file
+     * @param conversionStrategy The strategy that will convert the content, not null
+     * @param testClass          The test class, not null
+     * @return The file on the file system, null if the content is not located in a file on the file system or if
+     *         the reading strategy cannot locate the content
+     */
+    protected File getFile(String fileName, ConversionStrategy<?> conversionStrategy, Class<?> testClass) {
+        if (!(readingStrategy instanceof FileLocatingReadingStrategy)) {
+            return null;
+        }
+        FileLocatingReadingStrategy fileLocatingReadingStrategy = (FileLocatingReadingStrategy) readingStrategy;
+        URI fileURI;
+        try {
+            if (isBlank(fileName)) {
+                fileURI = fileLocatingReadingStrategy.getDefaultFileURI(conversionStrategy.getDefaultFileExtension(), testClass);
+            } else {
+                fileURI = fileLocatingReadingStrategy.getFileURI(fileName, testClass);
+            }
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to read file content for file " + fileName + " and target type " + conversionStrategy.getTargetType().getSimpleName(), e);
+        }
+        if (fileURI == null || !"file".equals(fileURI.getScheme())) {
+            return null;
+        }
+        return new File(fileURI);
+    }
+
+
     protected ConversionStrategy<?> determineConversionStrategy(Class<?> targetType) {
         for (ConversionStrategy conversionStrategy : conversionStrategies) {
             if (conversionStrategy.getTargetType().isAssignableFrom(targetType)) {
@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Properties;
 
 import static org.unitils.core.util.ConfigUtils.getInstanceOf;
+import static org.unitils.util.PropertyUtils.getLong;
 import static org.unitils.util.PropertyUtils.getString;
 import static org.unitils.util.PropertyUtils.getStringList;
 import static org.unitils.util.ReflectionUtils.createInstanceOfType;
@@ -42,14 +43,27 @@ public class DefaultFileContentReaderFactory implements FileContentReaderFactory
     public static final String DEFAULT_CONVERSION_STRATEGY_KEY = "IOModule.conversion.default";
     public static final String CUSTOM_CONVERSION_STRATEGY_KEY = "IOModule.conversion.custom";
     public static final String DEFAULT_FILE_ENCODING = "IOModule.encoding.default";
+    public static final String CACHE_MAX_SIZE_KEY = "IOModule.fileContent.cache.maxSize";
+    public static final String MAPPED_FILE_THRESHOLD_KEY = "IOModule.fileContent.mappedFileThreshold";
 
 
     public FileContentReader createFileContentReader(Properties configuration) {
         ReadingStrategy readingStrategy = createReadingStrategy(configuration);
         List<ConversionStrategy<?>> conversionStrategies = createConversionStrategies(configuration);
         String defaultEncoding = getString(DEFAULT_FILE_ENCODING, configuration);
+        FileContentCache fileContentCache = createFileContentCache(configuration);
+        long mappedFileThreshold = getLong(MAPPED_FILE_THRESHOLD_KEY, Long.MAX_VALUE, configuration);
 
-        return new DefaultFileContentReader(readingStrategy, conversionStrategies, defaultEncoding);
+        return new DefaultFileContentReader(readingStrategy, conversionStrategies, defaultEncoding, fileContentCache, mappedFileThreshold);
+    }
+
+
+    protected FileContentCache createFileContentCache(Properties configuration) {
+        long maxSize = getLong(CACHE_MAX_SIZE_KEY, 0, configuration);
+        if (maxSize <= 0) {
+            return null;
+        }
+        return new FileContentCache(maxSize);
     }
 
 
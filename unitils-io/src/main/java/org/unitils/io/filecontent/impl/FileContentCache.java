@@ -0,0 +1,164 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.filecontent.impl;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache for converted file contents. The contents are cached per file, encoding and target type. The last
+ * modification time of the file is part of the key, so a modified file will never return a stale content.
+ * <p/>
+ * The cache is bounded by the total size of the cached files: when the maximum size is exceeded, the least recently
+ * used contents are removed. The contents are only softly referenced, so they can also be reclaimed by the garbage
+ * collector when memory runs low.
+ *
+ * @since 3.4
+ */
+public class FileContentCache {
+
+    /* The maximum total size in bytes of the files of which the content is cached */
+    protected long maxSize;
+    /* The current total size in bytes of the files of which the content is cached */
+    protected long currentSize;
+    /* The cached contents, in access order (least recently used first) */
+    protected Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+
+
+    /**
+     * @param maxSize The maximum total size in bytes of the files of which the content is cached
+     */
+    public FileContentCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+
+    /**
+     * @param file       The file, not null
+     * @param encoding   The encoding of the file, not null
+     * @param targetType The type of the content, not null
+     * @return The cached content, null if not cached
+     */
+    public synchronized Object get(File file, String encoding, Class<?> targetType) {
+        Key key = new Key(file, encoding, targetType);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        Object content = entry.content.get();
+        if (content == null) {
+            // reclaimed by the garbage collector
+            remove(key);
+        }
+        return content;
+    }
+
+
+    /**
+     * Adds the given content to the cache. Nothing is cached if the file is larger than the maximum size of the cache.
+     *
+     * @param file       The file, not null
+     * @param encoding   The encoding of the file, not null
+     * @param targetType The type of the content, not null
+     * @param content    The content, not null
+     */
+    public synchronized void put(File file, String encoding, Class<?> targetType, Object content) {
+        long size = file.length();
+        if (size > maxSize) {
+            return;
+        }
+        Key key = new Key(file, encoding, targetType);
+        remove(key);
+        entries.put(key, new Entry(content, size));
+        currentSize += size;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (currentSize > maxSize && iterator.hasNext()) {
+            Entry leastRecentlyUsedEntry = iterator.next();
+            iterator.remove();
+            currentSize -= leastRecentlyUsedEntry.size;
+        }
+    }
+
+
+    /**
+     * Removes all contents from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        currentSize = 0;
+    }
+
+
+    protected void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            currentSize -= entry.size;
+        }
+    }
+
+
+    protected static class Key {
+
+        private String path;
+        private long lastModified;
+        private String encoding;
+        private Class<?> targetType;
+
+        public Key(File file, String encoding, Class<?> targetType) {
+            this.path = file.getAbsolutePath();
+            this.lastModified = file.lastModified();
+            this.encoding = encoding;
+            this.targetType = targetType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return lastModified == other.lastModified && path.equals(other.path) && encoding.equals(other.encoding) && targetType.equals(other.targetType);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + (int) (lastModified ^ (lastModified >>> 32));
+            result = 31 * result + encoding.hashCode();
+            result = 31 * result + targetType.hashCode();
+            return result;
+        }
+    }
+
+
+    protected static class Entry {
+
+        private SoftReference<Object> content;
+        private long size;
+
+        public Entry(Object content, long size) {
+            this.content = new SoftReference<Object>(content);
+            this.size = size;
+        }
+    }
+}
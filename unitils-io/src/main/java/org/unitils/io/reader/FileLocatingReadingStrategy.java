@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.unitils.io.reader;
+
+import java.net.URI;
+
+/**
+ * Reading strategy that can also tell where the content is located. This is optional: if the reading strategy
+ * does not implement this interface, the content is always read from the input stream and is not cached.
+ *
+ * @since 3.4
+ */
+public interface FileLocatingReadingStrategy extends ReadingStrategy {
+
+    /**
+     * @param extension The extension of the file, not null
+     * @param testClass The test class, not null
+     * @return The location of the file with the default name, null if the content has no location
+     */
+    URI getDefaultFileURI(String extension, Class<?> testClass);
+
+    /**
+     * @param fileName  The name of the file, not null
+     * @param testClass The test class, not null
+     * @return The location of the file with the given name, null if the content has no location
+     */
+    URI getFileURI(String fileName, Class<?> testClass);
+
+}
@@ -16,8 +16,8 @@
 
 package org.unitils.io.reader.impl;
 
+import org.unitils.io.reader.FileLocatingReadingStrategy;
 import org.unitils.io.reader.FileResolvingStrategy;
-import org.unitils.io.reader.ReadingStrategy;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,7 +29,7 @@ import java.net.URI;
  * @author Thomas De Rycke
  * @since 3.3
  */
-public class FileReadingStrategy implements ReadingStrategy {
+public class FileReadingStrategy implements FileLocatingReadingStrategy {
 
     protected FileResolvingStrategy fileResolvingStrategy;
 
@@ -48,4 +48,12 @@ public class FileReadingStrategy implements ReadingStrategy {
         URI fileURI = fileResolvingStrategy.resolveFileName(fileName, testClass);
         return fileURI.toURL().openStream();
     }
+
+    public URI getDefaultFileURI(String extension, Class<?> testClass) {
+        return fileResolvingStrategy.resolveDefaultFileName(extension, testClass);
+    }
+
+    public URI getFileURI(String fileName, Class<?> testClass) {
+        return fileResolvingStrategy.resolveFileName(fileName, testClass);
+    }
 }
\ No newline at end of file
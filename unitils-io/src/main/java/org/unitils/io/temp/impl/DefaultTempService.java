@@ -21,10 +21,19 @@ import org.unitils.io.temp.TempService;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import static org.unitils.thirdparty.org.apache.commons.io.FileUtils.forceDelete;
 
 /**
+ * Creates and deletes temp files and dirs in the root temp dir.
+ * <p/>
+ * If a delete executor is set, deleting a file or dir does not happen synchronously: the file or dir is first renamed
+ * to a unique name in a trash dir in the root temp dir, after which the actual (recursive) delete is done by the
+ * executor. Renaming is a cheap operation, so the test does not have to wait for large dirs to be deleted. If the
+ * file or dir can not be renamed, e.g. because it is located on another file system, it is deleted synchronously.
+ *
  * @author Jeroen Horemans
  * @author Tim Ducheyne
  * @author Thomas De Rycke
@@ -32,12 +41,22 @@ import static org.unitils.thirdparty.org.apache.commons.io.FileUtils.forceDelete
  */
 public class DefaultTempService implements TempService {
 
+    /* The name of the dir in the root temp dir to which files are moved before they are deleted in the background */
+    public static final String TRASH_DIR_NAME = ".unitils-trash";
+
     /* The directory to use as temporary dir */
     protected File rootTempDir;
+    /* The executor that performs the deletes in the background, null to delete synchronously */
+    protected Executor deleteExecutor;
 
 
     public DefaultTempService(File rootTempDir) {
+        this(rootTempDir, null);
+    }
+
+    public DefaultTempService(File rootTempDir, Executor deleteExecutor) {
         this.rootTempDir = rootTempDir;
+        this.deleteExecutor = deleteExecutor;
     }
 
 
@@ -69,6 +88,13 @@ public class DefaultTempService implements TempService {
         if (fileOrDir == null || !fileOrDir.exists()) {
             return;
         }
+        if (deleteExecutor != null) {
+            File trashedFileOrDir = moveToTrash(fileOrDir);
+            if (trashedFileOrDir != null) {
+                deleteExecutor.execute(new DeleteRunnable(trashedFileOrDir));
+                return;
+            }
+        }
         try {
             forceDelete(fileOrDir);
 
@@ -76,4 +102,61 @@ public class DefaultTempService implements TempService {
             throw new UnitilsException("Unable to delete temp file/dir " + fileOrDir.getAbsolutePath());
         }
     }
+
+    /**
+     * Deletes all files and dirs that are still in the trash dir, e.g. because a previous run was stopped before
+     * they were deleted. Nothing is done if there is no delete executor.
+     */
+    public void emptyTrash() {
+        if (deleteExecutor == null) {
+            return;
+        }
+        File[] trashedFilesOrDirs = getTrashDir().listFiles();
+        if (trashedFilesOrDirs == null) {
+            return;
+        }
+        for (File trashedFileOrDir : trashedFilesOrDirs) {
+            deleteExecutor.execute(new DeleteRunnable(trashedFileOrDir));
+        }
+    }
+
+
+    /**
+     * Renames the given file or dir to a unique name in the trash dir.
+     *
+     * @param fileOrDir The file or dir, not null
+     * @return The renamed file or dir, null if it could not be renamed
+     */
+    protected File moveToTrash(File fileOrDir) {
+        File trashDir = getTrashDir();
+        trashDir.mkdirs();
+
+        File trashedFileOrDir = new File(trashDir, fileOrDir.getName() + "-" + UUID.randomUUID());
+        if (fileOrDir.renameTo(trashedFileOrDir)) {
+            return trashedFileOrDir;
+        }
+        return null;
+    }
+
+    protected File getTrashDir() {
+        return new File(rootTempDir, TRASH_DIR_NAME);
+    }
+
+
+    protected static class DeleteRunnable implements Runnable {
+
+        private File fileOrDir;
+
+        public DeleteRunnable(File fileOrDir) {
+            this.fileOrDir = fileOrDir;
+        }
+
+        public void run() {
+            try {
+                forceDelete(fileOrDir);
+            } catch (IOException e) {
+                // ignored, the file or dir will be deleted the next time the trash is emptied
+            }
+        }
+    }
 }
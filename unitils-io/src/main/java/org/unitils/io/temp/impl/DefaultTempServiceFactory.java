@@ -22,7 +22,11 @@ import org.unitils.io.temp.TempServiceFactory;
 
 import java.io.File;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
+import static org.unitils.util.PropertyUtils.getBoolean;
 import static org.unitils.util.PropertyUtils.getString;
 
 /**
@@ -34,11 +38,35 @@ import static org.unitils.util.PropertyUtils.getString;
 public class DefaultTempServiceFactory implements TempServiceFactory {
 
     public static final String ROOT_TEMP_DIR = "IOModule.temp.rootTempDir";
+    public static final String ASYNC_DELETE = "IOModule.temp.asyncDelete";
 
 
     public TempService createTempService(Properties configuration) {
         File rootTempDir = getRootTempDir(configuration);
-        return new DefaultTempService(rootTempDir);
+        Executor deleteExecutor = createDeleteExecutor(configuration);
+
+        DefaultTempService defaultTempService = new DefaultTempService(rootTempDir, deleteExecutor);
+        defaultTempService.emptyTrash();
+        return defaultTempService;
+    }
+
+
+    /**
+     * @param configuration The configuration, not null
+     * @return A single daemon thread executor for deleting temp files and dirs, null if they should be deleted synchronously
+     */
+    protected Executor createDeleteExecutor(Properties configuration) {
+        boolean asyncDelete = getBoolean(ASYNC_DELETE, false, configuration);
+        if (!asyncDelete) {
+            return null;
+        }
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "unitils-temp-delete");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
 
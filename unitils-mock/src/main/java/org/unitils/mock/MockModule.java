@@ -24,6 +24,7 @@ import org.unitils.mock.annotation.AfterCreateMock;
 import org.unitils.mock.annotation.Dummy;
 import org.unitils.mock.core.MockObject;
 import org.unitils.mock.core.PartialMockObject;
+import org.unitils.mock.core.proxy.ProxyEngine;
 import org.unitils.util.AnnotationUtils;
 
 import java.lang.reflect.Field;
@@ -33,7 +34,9 @@ import java.lang.reflect.Type;
 import java.util.Properties;
 import java.util.Set;
 
+import static org.unitils.core.util.ConfigUtils.getInstanceOf;
 import static org.unitils.mock.MockUnitils.logFullScenarioReport;
+import static org.unitils.mock.core.proxy.ProxyFactory.setProxyEngine;
 import static org.unitils.mock.dummy.DummyObjectUtil.createDummy;
 import static org.unitils.util.AnnotationUtils.getMethodsAnnotatedWith;
 import static org.unitils.util.ReflectionUtils.*;
@@ -49,6 +52,8 @@ public class MockModule implements Module {
 
 
     public void init(Properties configuration) {
+        ProxyEngine proxyEngine = getInstanceOf(ProxyEngine.class, configuration);
+        setProxyEngine(proxyEngine);
     }
 
     public void afterInit() {
@@ -24,6 +24,7 @@ import org.unitils.mock.core.MockObject;
 import org.unitils.mock.core.Scenario;
 import org.unitils.mock.dummy.DummyObjectUtil;
 
+import static org.unitils.mock.core.proxy.ProxyFactory.prepareProxyClass;
 import static org.unitils.mock.core.proxy.StackTraceUtils.getInvocationStackTrace;
 
 /**
@@ -47,6 +48,22 @@ public class MockUnitils {
     }
 
 
+    /**
+     * Generates the proxy classes that are needed to mock the given types. Creating the first mock of a type is a lot
+     * slower than creating the next ones, since a class needs to be generated. Calling this method before the tests
+     * run, avoids this delay during the tests.
+     *
+     * @param mockedTypes The types that will be mocked, not null
+     */
+    public static void prepareMockedTypes(Class<?>... mockedTypes) {
+        for (Class<?> mockedType : mockedTypes) {
+            // the mock proxy and the proxy that is used for defining behavior and asserts
+            prepareProxyClass(mockedType, Cloneable.class);
+            prepareProxyClass(mockedType);
+        }
+    }
+
+
     public static void logFullScenarioReport() {
         Scenario scenario = getScenario();
         if (scenario != null) {
@@ -19,18 +19,21 @@ package org.unitils.mock.core;
 
 import org.unitils.mock.core.proxy.ProxyInvocation;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
 /**
+ * The behaviors of a mock. The behaviors can be looked up concurrently, e.g. when the mock is invoked from several
+ * threads: the list is copied when a behavior is added or removed, so lookups never need a lock.
+ *
  * @author Tim Ducheyne
  * @author Filip Neven
  */
 public class BehaviorDefiningInvocations {
 
     protected boolean removeWhenUsed;
-    protected List<BehaviorDefiningInvocation> behaviorDefiningInvocations = new ArrayList<BehaviorDefiningInvocation>();
+    protected List<BehaviorDefiningInvocation> behaviorDefiningInvocations = new CopyOnWriteArrayList<BehaviorDefiningInvocation>();
 
 
     public BehaviorDefiningInvocations(boolean removeWhenUsed) {
@@ -59,10 +62,27 @@ public class BehaviorDefiningInvocations {
      *
      * The second one will be returned if the given proxy invocation has the value "a" as first argument.
      *
+     * If behaviors are removed when used, a behavior is only returned to one invocation, also when several threads
+     * invoke the mock at the same time.
+     *
      * @param proxyInvocation The actual invocation to match with, not null
      * @return The behavior defining invocation that matches best with the actual invocation, null if none found
      */
     public BehaviorDefiningInvocation getMatchingBehaviorDefiningInvocation(ProxyInvocation proxyInvocation) {
+        while (true) {
+            BehaviorDefiningInvocation bestMatchingBehaviorDefiningInvocation = getBestMatchingBehaviorDefiningInvocation(proxyInvocation);
+            if (!removeWhenUsed || bestMatchingBehaviorDefiningInvocation == null) {
+                return bestMatchingBehaviorDefiningInvocation;
+            }
+            if (behaviorDefiningInvocations.remove(bestMatchingBehaviorDefiningInvocation)) {
+                return bestMatchingBehaviorDefiningInvocation;
+            }
+            // another thread used the behavior in the meantime, look again
+        }
+    }
+
+
+    protected BehaviorDefiningInvocation getBestMatchingBehaviorDefiningInvocation(ProxyInvocation proxyInvocation) {
         BehaviorDefiningInvocation bestMatchingBehaviorDefiningInvocation = null;
         int bestMatchingScore = -1;
 
@@ -92,9 +112,6 @@ public class BehaviorDefiningInvocations {
                 }
             }
         }
-        if (removeWhenUsed && bestMatchingBehaviorDefiningInvocation != null) {
-            behaviorDefiningInvocations.remove(bestMatchingBehaviorDefiningInvocation);
-        }
         return bestMatchingBehaviorDefiningInvocation;
     }
 }
\ No newline at end of file
@@ -62,6 +62,8 @@ public class MockObject<T> implements Mock<T>, MockFactory, ObjectToInjectHolder
     protected BehaviorDefiningInvocations alwaysMatchingBehaviorDefiningInvocations;
     /* Created chained mocks per mock name */
     protected Map<String, Mock<?>> chainedMocksPerName;
+    /* The scenario that records the invocations of this mock, also when invoked from another thread */
+    protected Scenario scenario;
 
     /* The scenario that will record all observed invocations */
     protected static ThreadLocal<Scenario> scenarioThreadLocal = new ThreadLocal<Scenario>();
@@ -105,8 +107,21 @@ public class MockObject<T> implements Mock<T>, MockFactory, ObjectToInjectHolder
      * @param mockedType The mock type that will be proxied, use the raw type when mocking generic types, not null
      * @param testObject The test object, not null
      */
-    @SuppressWarnings({"unchecked"})
     public MockObject(String name, Class<?> mockedType, Object testObject) {
+        this(name, mockedType, testObject, null);
+    }
+
+    /**
+     * Creates a mock of the given type that records its invocations in the given scenario. If no scenario is given,
+     * the scenario of the current thread is used.
+     *
+     * @param name       The name of the mock, e.g. the field-name, null for the default
+     * @param mockedType The mock type that will be proxied, use the raw type when mocking generic types, not null
+     * @param testObject The test object, not null
+     * @param scenario   The scenario, null for the scenario of the current thread
+     */
+    @SuppressWarnings({"unchecked"})
+    protected MockObject(String name, Class<?> mockedType, Object testObject, Scenario scenario) {
         if (isBlank(name)) {
             this.name = uncapitalize(mockedType.getSimpleName()) + "Mock";
         } else {
@@ -117,12 +132,15 @@ public class MockObject<T> implements Mock<T>, MockFactory, ObjectToInjectHolder
         this.alwaysMatchingBehaviorDefiningInvocations = createAlwaysMatchingBehaviorDefiningInvocations();
         this.chainedMocksPerName = new HashMap<String, Mock<?>>();
 
-        Scenario scenario = getScenario(testObject);
-        if (scenario.getTestObject() != testObject) {
-            scenario.reset();
-            getMatchingInvocationBuilder().reset();
-            scenario.setTestObject(testObject);
+        if (scenario == null) {
+            scenario = getScenario(testObject);
+            if (scenario.getTestObject() != testObject) {
+                scenario.reset();
+                getMatchingInvocationBuilder().reset();
+                scenario.setTestObject(testObject);
+            }
         }
+        this.scenario = scenario;
         this.mockProxy = createMockProxy();
     }
 
@@ -410,7 +428,7 @@ public class MockObject<T> implements Mock<T>, MockFactory, ObjectToInjectHolder
 
 
     @SuppressWarnings({"unchecked"})
-    public <M> Mock<M> createChainedMock(String name, Class<M> mockedType) {
+    public synchronized <M> Mock<M> createChainedMock(String name, Class<M> mockedType) {
         Mock<?> chainedMock = chainedMocksPerName.get(name);
         if (chainedMock != null) {
             return (Mock<M>) chainedMock;
@@ -419,7 +437,7 @@ public class MockObject<T> implements Mock<T>, MockFactory, ObjectToInjectHolder
             if (Void.class.equals(mockedType) || mockedType.isPrimitive() || mockedType.isArray()) {
                 return null;
             }
-            chainedMock = new MockObject<M>(name, mockedType, getCurrentScenario().getTestObject());
+            chainedMock = new MockObject<M>(name, mockedType, scenario.getTestObject(), scenario);
             chainedMocksPerName.put(name, chainedMock);
             return (Mock<M>) chainedMock;
 
@@ -456,7 +474,7 @@ public class MockObject<T> implements Mock<T>, MockFactory, ObjectToInjectHolder
     }
 
     protected MockProxy<T> createMockProxy() {
-        return new MockProxy<T>(name, mockedType, oneTimeMatchingBehaviorDefiningInvocations, alwaysMatchingBehaviorDefiningInvocations, getCurrentScenario(), getMatchingInvocationBuilder());
+        return new MockProxy<T>(name, mockedType, oneTimeMatchingBehaviorDefiningInvocations, alwaysMatchingBehaviorDefiningInvocations, scenario, getMatchingInvocationBuilder());
     }
 
     protected MatchingInvocationHandler createOneTimeMatchingBehaviorDefiningMatchingInvocationHandler(MockBehavior mockBehavior) {
@@ -476,15 +494,15 @@ public class MockObject<T> implements Mock<T>, MockFactory, ObjectToInjectHolder
     }
 
     protected MatchingInvocationHandler createAssertInvokedVerifyingMatchingInvocationHandler() {
-        return new AssertInvokedVerifyingMatchingInvocationHandler(getCurrentScenario(), this);
+        return new AssertInvokedVerifyingMatchingInvocationHandler(scenario, this);
     }
 
     protected MatchingInvocationHandler createAssertInvokedInSequenceVerifyingMatchingInvocationHandler() {
-        return new AssertInvokedInSequenceVerifyingMatchingInvocationHandler(getCurrentScenario(), this);
+        return new AssertInvokedInSequenceVerifyingMatchingInvocationHandler(scenario, this);
     }
 
     protected MatchingInvocationHandler createAssertNotInvokedVerifyingMatchingInvocationHandler() {
-        return new AssertNotInvokedVerifyingMatchingInvocationHandler(getCurrentScenario(), this);
+        return new AssertNotInvokedVerifyingMatchingInvocationHandler(scenario, this);
     }
 
 
@@ -130,7 +130,7 @@ public class PartialMockObject<T> extends MockObject<T> implements PartialMock<T
 
     @Override
     protected MockProxy<T> createMockProxy() {
-        return new PartialMockProxy<T>(name, mockedType, oneTimeMatchingBehaviorDefiningInvocations, alwaysMatchingBehaviorDefiningInvocations, getCurrentScenario(), getMatchingInvocationBuilder());
+        return new PartialMockProxy<T>(name, mockedType, oneTimeMatchingBehaviorDefiningInvocations, alwaysMatchingBehaviorDefiningInvocations, scenario, getMatchingInvocationBuilder());
     }
 
 }
\ No newline at end of file
@@ -24,13 +24,32 @@ import org.unitils.mock.report.impl.DetailedObservedInvocationsReport;
 import org.unitils.mock.report.impl.ObservedInvocationsReport;
 import org.unitils.mock.report.impl.SuggestedAssertsReport;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.unitils.mock.core.Scenario.VerificationStatus.*;
 import static org.unitils.util.ReflectionUtils.getSimpleMethodName;
 
 /**
+ * The observed invocations of all mocks of a test.
+ * <p/>
+ * Mocks can be invoked from any thread, e.g. by an executor used by the tested code. The invocations are therefore
+ * recorded in a log that can be appended to concurrently without locking. Every invocation gets a number of a global
+ * sequence, which determines the order of the invocations during verification and in the reports.
+ * <p/>
+ * The invocations are also indexed by invoked method. An asserted invocation can only match observed invocations of
+ * the same method, so verification only inspects the invocations of that method. Each method keeps a cursor to its
+ * first unverified invocation, so invocations that are already verified are not inspected again either.
+ *
  * @author Filip Neven
  * @author Tim Ducheyne
  * @author Kenny Claes
@@ -41,9 +60,17 @@ public class Scenario {
         UNVERIFIED, VERIFIED, VERIFIED_IN_ORDER
     }
 
-    protected List<ObservedInvocation> observedInvocations = new ArrayList<ObservedInvocation>();
+    /* The sequence that numbers the observed invocations of all threads */
+    protected static AtomicLong invocationSequence = new AtomicLong();
+
+    /* The observed invocations by sequence nr */
+    protected ConcurrentNavigableMap<Long, ObservedInvocationEntry> observedInvocations = new ConcurrentSkipListMap<Long, ObservedInvocationEntry>();
+
+    /* The observed invocations per invoked method */
+    protected ConcurrentMap<Method, InvocationBucket> invocationBuckets = new ConcurrentHashMap<Method, InvocationBucket>();
 
-    protected List<VerificationStatus> invocationVerificationStatuses = new ArrayList<VerificationStatus>();
+    /* The invocations that were verified using assertInvokedInOrder by sequence nr */
+    protected NavigableMap<Long, ObservedInvocationEntry> invocationsVerifiedInOrder = new TreeMap<Long, ObservedInvocationEntry>();
 
     protected Object testObject;
 
@@ -53,9 +80,10 @@ public class Scenario {
     }
 
 
-    public void reset() {
+    public synchronized void reset() {
         observedInvocations.clear();
-        invocationVerificationStatuses.clear();
+        invocationBuckets.clear();
+        invocationsVerifiedInOrder.clear();
     }
 
 
@@ -68,23 +96,36 @@ public class Scenario {
     }
 
 
+    /**
+     * Records the given invocation. This can be called from any thread.
+     *
+     * @param mockInvocation The invocation, not null
+     */
     public void addObservedMockInvocation(ObservedInvocation mockInvocation) {
-        observedInvocations.add(mockInvocation);
-        invocationVerificationStatuses.add(UNVERIFIED);
+        long sequenceNr = invocationSequence.incrementAndGet();
+        ObservedInvocationEntry entry = new ObservedInvocationEntry(sequenceNr, mockInvocation);
+        observedInvocations.put(sequenceNr, entry);
+        getInvocationBucket(mockInvocation.getMethod()).add(entry);
     }
 
 
+    /**
+     * @return A copy of the observed invocations in the order in which they occurred, not null
+     */
     public List<ObservedInvocation> getObservedInvocations() {
-        return observedInvocations;
+        List<ObservedInvocation> result = new ArrayList<ObservedInvocation>();
+        for (ObservedInvocationEntry entry : observedInvocations.values()) {
+            result.add(entry.observedInvocation);
+        }
+        return result;
     }
 
 
-    public void assertNoMoreInvocations(StackTraceElement[] assertedAt) {
+    public synchronized void assertNoMoreInvocations(StackTraceElement[] assertedAt) {
         List<ObservedInvocation> unexpectedInvocations = new ArrayList<ObservedInvocation>();
-        for (int i = 0; i < observedInvocations.size(); i++) {
-            ObservedInvocation observedInvocation = observedInvocations.get(i);
-            VerificationStatus invocationVerificationStatus = invocationVerificationStatuses.get(i);
-            if (observedInvocation.getMockBehavior() == null && invocationVerificationStatus == UNVERIFIED) {
+        for (ObservedInvocationEntry entry : observedInvocations.values()) {
+            ObservedInvocation observedInvocation = entry.observedInvocation;
+            if (observedInvocation.getMockBehavior() == null && entry.verificationStatus == UNVERIFIED) {
                 unexpectedInvocations.add(observedInvocation);
             }
         }
@@ -96,15 +137,12 @@ public class Scenario {
     }
 
 
-    public void assertInvoked(BehaviorDefiningInvocation assertInvocation) {
-        for (int i = 0; i < observedInvocations.size(); i++) {
-            ObservedInvocation observedInvocation = observedInvocations.get(i);
-            VerificationStatus invocationVerificationStatus = invocationVerificationStatuses.get(i);
-            if (invocationVerificationStatus == UNVERIFIED && assertInvocation.matches(observedInvocation) != -1) {
-                // Found a match that's not verified yet. Mark as verified and proceed.
-                invocationVerificationStatuses.set(i, VERIFIED);
-                return;
-            }
+    public synchronized void assertInvoked(BehaviorDefiningInvocation assertInvocation) {
+        ObservedInvocationEntry entry = getFirstUnverifiedMatchingEntry(assertInvocation);
+        if (entry != null) {
+            // Found a match that's not verified yet. Mark as verified and proceed.
+            markVerified(entry, VERIFIED);
+            return;
         }
         AssertionError assertionError = new AssertionError(getAssertInvokedErrorMessage(assertInvocation, assertInvocation.getInvokedAt()));
         assertionError.setStackTrace(assertInvocation.getInvokedAtTrace());
@@ -112,42 +150,74 @@ public class Scenario {
     }
 
 
-    public void assertInvokedInOrder(BehaviorDefiningInvocation assertInvocation) {
-        ObservedInvocation matchingInvocation = null;
-        for (int i = 0; i < observedInvocations.size(); i++) {
-            ObservedInvocation observedInvocation = observedInvocations.get(i);
-            VerificationStatus invocationVerificationStatus = invocationVerificationStatuses.get(i);
-            if (matchingInvocation == null && invocationVerificationStatus == UNVERIFIED && assertInvocation.matches(observedInvocation) != -1) {
-                // Found a match that's not verified yet. Mark as verified in order.
-                invocationVerificationStatuses.set(i, VERIFIED_IN_ORDER);
-                matchingInvocation = observedInvocation;
-                continue;
-            }
-            // If we found a match, then check if there's no subsequent observed invocation that's already verified using assertInvokedInOrder()
-            if (matchingInvocation != null && invocationVerificationStatus == VERIFIED_IN_ORDER) {
-                AssertionError assertionError = new AssertionError(getInvokedOutOfOrderErrorMessage(matchingInvocation, observedInvocation, assertInvocation.getInvokedAt()));
-                assertionError.setStackTrace(assertInvocation.getInvokedAtTrace());
-                throw assertionError;
-            }
-        }
-        if (matchingInvocation == null) {
+    public synchronized void assertInvokedInOrder(BehaviorDefiningInvocation assertInvocation) {
+        ObservedInvocationEntry entry = getFirstUnverifiedMatchingEntry(assertInvocation);
+        if (entry == null) {
             AssertionError assertionError = new AssertionError(getAssertInvokedErrorMessage(assertInvocation, assertInvocation.getInvokedAt()));
             assertionError.setStackTrace(assertInvocation.getInvokedAtTrace());
             throw assertionError;
         }
+        // Found a match that's not verified yet. Mark as verified in order.
+        markVerified(entry, VERIFIED_IN_ORDER);
+        invocationsVerifiedInOrder.put(entry.sequenceNr, entry);
+
+        // Check if there's no subsequent observed invocation that's already verified using assertInvokedInOrder()
+        Map.Entry<Long, ObservedInvocationEntry> subsequentEntry = invocationsVerifiedInOrder.higherEntry(entry.sequenceNr);
+        if (subsequentEntry != null) {
+            AssertionError assertionError = new AssertionError(getInvokedOutOfOrderErrorMessage(entry.observedInvocation, subsequentEntry.getValue().observedInvocation, assertInvocation.getInvokedAt()));
+            assertionError.setStackTrace(assertInvocation.getInvokedAtTrace());
+            throw assertionError;
+        }
+    }
+
+
+    public synchronized void assertNotInvoked(BehaviorDefiningInvocation assertInvocation) {
+        ObservedInvocationEntry entry = getFirstUnverifiedMatchingEntry(assertInvocation);
+        if (entry != null) {
+            AssertionError assertionError = new AssertionError(getAssertNotInvokedErrorMessage(assertInvocation, entry.observedInvocation, assertInvocation.getInvokedAtTrace()));
+            assertionError.setStackTrace(assertInvocation.getInvokedAtTrace());
+            throw assertionError;
+        }
     }
 
 
-    public void assertNotInvoked(BehaviorDefiningInvocation assertInvocation) {
-        for (int i = 0; i < observedInvocations.size(); i++) {
-            ObservedInvocation observedInvocation = observedInvocations.get(i);
-            VerificationStatus invocationVerificationStatus = invocationVerificationStatuses.get(i);
-            if (invocationVerificationStatus == UNVERIFIED && assertInvocation.matches(observedInvocation) != -1) {
-                AssertionError assertionError = new AssertionError(getAssertNotInvokedErrorMessage(assertInvocation, observedInvocation, assertInvocation.getInvokedAtTrace()));
-                assertionError.setStackTrace(assertInvocation.getInvokedAtTrace());
-                throw assertionError;
+    /**
+     * Gets the first (in order of invocation) observed invocation that is not yet verified and that matches the given
+     * asserted invocation. Only the observed invocations of the same method are inspected.
+     *
+     * @param assertInvocation The asserted invocation, not null
+     * @return The entry of the matching invocation, null if none found
+     */
+    protected ObservedInvocationEntry getFirstUnverifiedMatchingEntry(BehaviorDefiningInvocation assertInvocation) {
+        InvocationBucket invocationBucket = invocationBuckets.get(assertInvocation.getMethod());
+        if (invocationBucket == null) {
+            return null;
+        }
+        for (ObservedInvocationEntry entry : invocationBucket.getEntriesFromCursor()) {
+            if (entry.verificationStatus == UNVERIFIED && assertInvocation.matches(entry.observedInvocation) != -1) {
+                return entry;
             }
         }
+        return null;
+    }
+
+
+    protected void markVerified(ObservedInvocationEntry entry, VerificationStatus verificationStatus) {
+        entry.verificationStatus = verificationStatus;
+        invocationBuckets.get(entry.observedInvocation.getMethod()).advanceCursor();
+    }
+
+
+    protected InvocationBucket getInvocationBucket(Method method) {
+        InvocationBucket invocationBucket = invocationBuckets.get(method);
+        if (invocationBucket == null) {
+            invocationBucket = new InvocationBucket();
+            InvocationBucket existingInvocationBucket = invocationBuckets.putIfAbsent(method, invocationBucket);
+            if (existingInvocationBucket != null) {
+                invocationBucket = existingInvocationBucket;
+            }
+        }
+        return invocationBucket;
     }
 
 
@@ -228,4 +298,56 @@ public class Scenario {
     }
 
 
+    /**
+     * An observed invocation together with its verification status.
+     */
+    protected static class ObservedInvocationEntry {
+
+        protected long sequenceNr;
+
+        protected ObservedInvocation observedInvocation;
+
+        protected volatile VerificationStatus verificationStatus = UNVERIFIED;
+
+        public ObservedInvocationEntry(long sequenceNr, ObservedInvocation observedInvocation) {
+            this.sequenceNr = sequenceNr;
+            this.observedInvocation = observedInvocation;
+        }
+    }
+
+
+    /**
+     * The observed invocations of one method, in order of invocation. The cursor points to the first entry that is
+     * not yet verified: all entries before the cursor are verified and can be skipped during verification.
+     */
+    protected static class InvocationBucket {
+
+        protected ConcurrentNavigableMap<Long, ObservedInvocationEntry> entries = new ConcurrentSkipListMap<Long, ObservedInvocationEntry>();
+
+        protected volatile long cursor;
+
+        public synchronized void add(ObservedInvocationEntry entry) {
+            entries.put(entry.sequenceNr, entry);
+            if (entry.sequenceNr < cursor) {
+                // recorded by a thread that got its sequence nr before the cursor was advanced
+                cursor = entry.sequenceNr;
+            }
+        }
+
+        public Iterable<ObservedInvocationEntry> getEntriesFromCursor() {
+            return entries.tailMap(cursor).values();
+        }
+
+        public synchronized void advanceCursor() {
+            for (ObservedInvocationEntry entry : getEntriesFromCursor()) {
+                if (entry.verificationStatus == UNVERIFIED) {
+                    cursor = entry.sequenceNr;
+                    return;
+                }
+            }
+            cursor = entries.isEmpty() ? cursor : entries.lastKey() + 1;
+        }
+    }
+
+
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+/*
+ *
+ *  * Copyright 2010,  Unitils.org
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.unitils.mock.core.proxy;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.MethodInterceptor;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.unitils.mock.core.proxy.ProxyFactory.createInitializedOrUninitializedInstanceOfType;
+import static org.unitils.mock.core.proxy.ProxyFactory.createUninitializedInstanceOfType;
+import static org.unitils.mock.core.proxy.ProxyFactory.getInstantiator;
+
+/**
+ * Proxy engine that generates proxy classes using cglib. Both interfaces and classes can be proxied.
+ * <p/>
+ * Generating a proxy class is expensive, so the proxy classes are cached per proxied class and set of implemented
+ * interfaces. The cache does not prevent the class loaders of the proxied classes from being garbage collected.
+ *
+ * @author Kenny Claes
+ * @author Filip Neven
+ * @author Tim Ducheyne
+ */
+public class CglibProxyEngine implements ProxyEngine {
+
+    /* The generated proxy classes per proxied class and implemented interfaces */
+    protected ClassLoaderCache<Class<?>> proxyClassCache = new ClassLoaderCache<Class<?>>();
+
+
+    @SuppressWarnings({"unchecked"})
+    public <T> T createProxy(String mockName, boolean initialize, ProxyInvocationHandler invocationHandler, Class<T> proxiedClass, Class<?>... implementedInterfaces) {
+        Class<T> enhancedClass = createEnhancedClass(proxiedClass, implementedInterfaces);
+
+        Factory proxy;
+        if (initialize && !proxiedClass.isInterface()) {
+            proxy = (Factory) createInitializedOrUninitializedInstanceOfType(enhancedClass);
+        } else {
+            proxy = (Factory) createUninitializedInstanceOfType(enhancedClass);
+        }
+        proxy.setCallbacks(new Callback[]{new CglibProxyMethodInterceptor(mockName, proxiedClass, invocationHandler)});
+        return (T) proxy;
+    }
+
+
+    public void prepareProxyClass(Class<?> proxiedClass, Class<?>... implementedInterfaces) {
+        Class<?> enhancedClass = createEnhancedClass(proxiedClass, implementedInterfaces);
+        getInstantiator(enhancedClass);
+    }
+
+
+    public void clearCaches() {
+        proxyClassCache.clear();
+    }
+
+
+    @SuppressWarnings("unchecked")
+    protected <T> Class<T> createEnhancedClass(Class<T> proxiedClass, Class<?>... implementedInterfaces) {
+        Set<Class<?>> interfaces = getInterfaces(proxiedClass, implementedInterfaces);
+        String cacheKey = getProxyClassCacheKey(proxiedClass, interfaces);
+
+        Class<?> enhancedClass = proxyClassCache.get(proxiedClass.getClassLoader(), cacheKey);
+        if (enhancedClass == null || !isProxyClassFor(enhancedClass, proxiedClass, interfaces)) {
+            enhancedClass = generateEnhancedClass(proxiedClass, interfaces);
+            proxyClassCache.put(proxiedClass.getClassLoader(), cacheKey, enhancedClass);
+        }
+        return (Class<T>) enhancedClass;
+    }
+
+
+    protected Set<Class<?>> getInterfaces(Class<?> proxiedClass, Class<?>... implementedInterfaces) {
+        // sorted on name, so that the same set of interfaces always results in the same cache key
+        Map<String, Class<?>> sortedImplementedInterfaces = new TreeMap<String, Class<?>>();
+        if (implementedInterfaces != null) {
+            for (Class<?> implementedInterface : implementedInterfaces) {
+                sortedImplementedInterfaces.put(implementedInterface.getName(), implementedInterface);
+            }
+        }
+        // a proxied interface comes first: cglib defines the proxy class in the class loader of the first interface
+        Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        if (proxiedClass.isInterface()) {
+            interfaces.add(proxiedClass);
+        }
+        interfaces.addAll(sortedImplementedInterfaces.values());
+        return interfaces;
+    }
+
+
+    protected String getProxyClassCacheKey(Class<?> proxiedClass, Set<Class<?>> interfaces) {
+        StringBuilder cacheKey = new StringBuilder(proxiedClass.getName());
+        for (Class<?> implementedInterface : interfaces) {
+            cacheKey.append(',');
+            cacheKey.append(implementedInterface.getName());
+        }
+        return cacheKey.toString();
+    }
+
+
+    /**
+     * The cache key only contains class names. An interface with the same name could have been loaded by another
+     * class loader, so verify that the cached class really is a proxy for the given types.
+     */
+    protected boolean isProxyClassFor(Class<?> enhancedClass, Class<?> proxiedClass, Set<Class<?>> interfaces) {
+        if (!proxiedClass.isAssignableFrom(enhancedClass)) {
+            return false;
+        }
+        for (Class<?> implementedInterface : interfaces) {
+            if (!implementedInterface.isAssignableFrom(enhancedClass)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    protected Class<?> generateEnhancedClass(Class<?> proxiedClass, Set<Class<?>> interfaces) {
+        Enhancer enhancer = new Enhancer();
+        if (proxiedClass.isInterface()) {
+            enhancer.setSuperclass(Object.class);
+        } else {
+            enhancer.setSuperclass(proxiedClass);
+        }
+        if (!interfaces.isEmpty()) {
+            enhancer.setInterfaces(interfaces.toArray(new Class<?>[interfaces.size()]));
+        }
+        enhancer.setCallbackType(MethodInterceptor.class);
+        enhancer.setUseFactory(true);
+        return enhancer.createClass();
+    }
+
+}
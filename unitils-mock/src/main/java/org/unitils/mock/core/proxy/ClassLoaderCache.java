@@ -0,0 +1,76 @@
+/*
+ *
+ *  * Copyright 2010,  Unitils.org
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ */
+package org.unitils.mock.core.proxy;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Cache for values that belong to a class loader, e.g. generated proxy classes. The values are kept per class loader
+ * and looked up by a name, e.g. the name of a class.
+ * <p/>
+ * The class loaders are only weakly referenced and the values softly: a cache will not prevent a class loader, and
+ * the classes it loaded, from being garbage collected when memory is needed.
+ */
+public class ClassLoaderCache<V> {
+
+    /* The cached values per name, per class loader */
+    protected Map<ClassLoader, Map<String, SoftReference<V>>> valuesPerClassLoader = new WeakHashMap<ClassLoader, Map<String, SoftReference<V>>>();
+
+
+    /**
+     * @param classLoader The class loader, null for the bootstrap class loader
+     * @param name        The name of the value, not null
+     * @return The cached value, null if not cached
+     */
+    public synchronized V get(ClassLoader classLoader, String name) {
+        Map<String, SoftReference<V>> values = valuesPerClassLoader.get(classLoader);
+        if (values == null) {
+            return null;
+        }
+        SoftReference<V> value = values.get(name);
+        if (value == null) {
+            return null;
+        }
+        return value.get();
+    }
+
+
+    /**
+     * @param classLoader The class loader, null for the bootstrap class loader
+     * @param name        The name of the value, not null
+     * @param value       The value to cache, not null
+     */
+    public synchronized void put(ClassLoader classLoader, String name, V value) {
+        Map<String, SoftReference<V>> values = valuesPerClassLoader.get(classLoader);
+        if (values == null) {
+            values = new HashMap<String, SoftReference<V>>();
+            valuesPerClassLoader.put(classLoader, values);
+        }
+        values.put(name, new SoftReference<V>(value));
+    }
+
+
+    /**
+     * Removes all values from the cache.
+     */
+    public synchronized void clear() {
+        valuesPerClassLoader.clear();
+    }
+}
@@ -76,8 +76,8 @@ public class CloneUtil {
      *
      * It will try several ways to clone the object. First it will look for the simple cases: null, primitives,
      * immutables... If not it will check whether it's an array and clone it using the {@link #cloneArray} method.
-     * Finally it will see whether the object is cloneable and the clone method can be used. If not, Objenisis is
-     * used to create the instance. The last step is to recursively do the same operation for the inner fields.
+     * Proxies are never cloned. Finally it will see whether the object is cloneable and the clone method can be used.
+     * If not, Objenisis is used to create the instance. The last step is to recursively do the same operation for the inner fields.
      *
      * An object is cloned once. All created clones are put in a cache and if an object is to be cloned a second time,
      * the cached instance is used. This way the object graph is preserved.
@@ -102,6 +102,10 @@ public class CloneUtil {
         if (instanceToClone.getClass().isArray()) {
             return cloneArray(instanceToClone, cloneCache);
         }
+        // don't clone proxies, mocks are made cloneable but a jdk proxy does not pass clone() to its handler
+        if (isProxy(instanceToClone)) {
+            return instanceToClone;
+        }
         // if the instance is cloneable, try to clone it
         if (instanceToClone instanceof Cloneable) {
             return createInstanceUsingClone(instanceToClone);
@@ -110,10 +114,6 @@ public class CloneUtil {
         if (isJdkClass(instanceToClone)) {
             return instanceToClone;
         }
-        // don't clone proxies
-        if (isProxy(instanceToClone)) {
-            return instanceToClone;
-        }
         // try to clone it ourselves
         Object clonedInstance = createInstanceUsingObjenesis(instanceToClone);
 
@@ -0,0 +1,113 @@
+/*
+ *
+ *  * Copyright 2010,  Unitils.org
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ */
+package org.unitils.mock.core.proxy;
+
+import org.unitils.core.UnitilsException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Proxy engine that uses jdk dynamic proxies. No byte code needs to be generated for these proxies, which makes
+ * creating the proxy classes a lot cheaper than with cglib. The invocations are dispatched directly to the invocation
+ * handler, without going through the cglib method interceptor.
+ * <p/>
+ * Jdk dynamic proxies can only implement interfaces. Proxies for classes are created by the cglib engine.
+ */
+public class JdkProxyEngine implements ProxyEngine {
+
+    /* The engine for proxying classes */
+    protected ProxyEngine classProxyEngine = new CglibProxyEngine();
+
+    /* The constructors of the proxy classes per proxied interface and implemented interfaces */
+    protected ClassLoaderCache<Constructor<?>> proxyConstructorCache = new ClassLoaderCache<Constructor<?>>();
+
+
+    @SuppressWarnings({"unchecked"})
+    public <T> T createProxy(String mockName, boolean initialize, ProxyInvocationHandler invocationHandler, Class<T> proxiedClass, Class<?>... implementedInterfaces) {
+        if (!proxiedClass.isInterface()) {
+            return classProxyEngine.createProxy(mockName, initialize, invocationHandler, proxiedClass, implementedInterfaces);
+        }
+        Constructor<?> proxyConstructor = getProxyConstructor(proxiedClass, implementedInterfaces);
+        try {
+            return (T) proxyConstructor.newInstance(new JdkProxyInvocationHandler(mockName, proxiedClass, invocationHandler));
+
+        } catch (InvocationTargetException e) {
+            throw new UnitilsException("Unable to create proxy for type " + proxiedClass.getName(), e.getCause());
+        } catch (Exception e) {
+            throw new UnitilsException("Unable to create proxy for type " + proxiedClass.getName(), e);
+        }
+    }
+
+
+    public void prepareProxyClass(Class<?> proxiedClass, Class<?>... implementedInterfaces) {
+        if (!proxiedClass.isInterface()) {
+            classProxyEngine.prepareProxyClass(proxiedClass, implementedInterfaces);
+            return;
+        }
+        getProxyConstructor(proxiedClass, implementedInterfaces);
+    }
+
+
+    public void clearCaches() {
+        classProxyEngine.clearCaches();
+        proxyConstructorCache.clear();
+    }
+
+
+    protected Constructor<?> getProxyConstructor(Class<?> proxiedInterface, Class<?>... implementedInterfaces) {
+        Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        interfaces.add(proxiedInterface);
+        if (implementedInterfaces != null) {
+            interfaces.addAll(asList(implementedInterfaces));
+        }
+        ClassLoader classLoader = getClassLoader(proxiedInterface);
+        String cacheKey = interfaces.toString();
+
+        Constructor<?> proxyConstructor = proxyConstructorCache.get(classLoader, cacheKey);
+        if (proxyConstructor == null) {
+            try {
+                Class<?> proxyClass = Proxy.getProxyClass(classLoader, interfaces.toArray(new Class<?>[interfaces.size()]));
+                proxyConstructor = proxyClass.getConstructor(InvocationHandler.class);
+            } catch (Exception e) {
+                throw new UnitilsException("Unable to create jdk proxy class for interfaces " + interfaces, e);
+            }
+            proxyConstructorCache.put(classLoader, cacheKey, proxyConstructor);
+        }
+        return proxyConstructor;
+    }
+
+
+    /**
+     * The proxy class is defined in the class loader of the proxied interface. Interfaces of the jdk itself, e.g.
+     * java.util.List, are loaded by the bootstrap class loader. In that case the class loader of unitils is used,
+     * so that unitils interfaces, e.g. for dummy objects, can be implemented as well.
+     */
+    protected ClassLoader getClassLoader(Class<?> proxiedInterface) {
+        ClassLoader classLoader = proxiedInterface.getClassLoader();
+        if (classLoader == null) {
+            return getClass().getClassLoader();
+        }
+        return classLoader;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *
+ *  * Copyright 2010,  Unitils.org
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ */
+package org.unitils.mock.core.proxy;
+
+import org.unitils.core.UnitilsException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.unitils.mock.core.proxy.ProxyUtils.getProxiedMethodStackTrace;
+import static org.unitils.util.MethodUtils.*;
+
+/**
+ * A jdk invocation handler that will delegate the invocations to the given proxy invocation handler.
+ */
+public class JdkProxyInvocationHandler<T> implements InvocationHandler {
+
+    private String mockName;
+
+    private Class<T> proxiedType;
+
+    /* The invocation handler */
+    private ProxyInvocationHandler invocationHandler;
+
+
+    /**
+     * Creates an invocation handler.
+     *
+     * @param mockName          The name of the mock, not null
+     * @param proxiedType       The proxied type, not null
+     * @param invocationHandler The handler to delegate the invocations to, not null
+     */
+    public JdkProxyInvocationHandler(String mockName, Class<T> proxiedType, ProxyInvocationHandler invocationHandler) {
+        this.mockName = mockName;
+        this.proxiedType = proxiedType;
+        this.invocationHandler = invocationHandler;
+    }
+
+
+    /**
+     * Handles the method call by wrapping the invocation in a {@link JdkProxyInvocation} and delegating the
+     * handling to the invocation handler.
+     *
+     * @param proxy     The proxy, not null
+     * @param method    The method that was called, not null
+     * @param arguments The arguments that were used, null if there are no arguments
+     * @return The value to return for the method call, ignored for void methods
+     */
+    public Object invoke(Object proxy, Method method, Object[] arguments) throws Throwable {
+        if (isEqualsMethod(method)) {
+            return proxy == arguments[0];
+        } else if (isHashCodeMethod(method)) {
+            return super.hashCode();
+        } else if (isToStringMethod(method)) {
+            return getProxiedType().getSimpleName() + "@" + Integer.toHexString(super.hashCode());
+        }
+
+        List<Object> argumentList = arguments == null ? new ArrayList<Object>() : asList(arguments);
+        ProxyInvocation invocation = new JdkProxyInvocation(mockName, method, argumentList, getProxiedMethodStackTrace(), proxy);
+        Object result = invocationHandler.handleInvocation(invocation);
+        if (result == null && method.getReturnType().isPrimitive() && method.getReturnType() != Void.TYPE) {
+            // a jdk proxy cannot return null for a primitive, cglib proxies return the default value in that case
+            return getDefaultValue(method.getReturnType());
+        }
+        return result;
+    }
+
+
+    /**
+     * @param primitiveType The primitive type, not null
+     * @return The default value of the type, e.g. 0 for an int
+     */
+    protected Object getDefaultValue(Class<?> primitiveType) {
+        return Array.get(Array.newInstance(primitiveType, 1), 0);
+    }
+
+
+    public String getMockName() {
+        return mockName;
+    }
+
+    /**
+     * @return The proxied type, not null
+     */
+    public Class<?> getProxiedType() {
+        return proxiedType;
+    }
+
+
+    /**
+     * An invocation of a jdk proxy. Jdk proxies only implement interfaces, so there is never any original behavior.
+     */
+    public static class JdkProxyInvocation extends ProxyInvocation {
+
+        /**
+         * Creates an invocation.
+         *
+         * @param mockName  The name of the mock, not null
+         * @param method    The method that was called, not null
+         * @param arguments The arguments that were used, not null
+         * @param invokedAt The location of the invocation, not null
+         * @param proxy     The proxy, not null
+         */
+        public JdkProxyInvocation(String mockName, Method method, List<Object> arguments, StackTraceElement[] invokedAt, Object proxy) {
+            super(mockName, proxy, method, arguments, invokedAt);
+        }
+
+
+        /**
+         * There is no original behavior for an interface method, so an exception is raised.
+         *
+         * @return Never returns
+         */
+        @Override
+        public Object invokeOriginalBehavior() throws Throwable {
+            throw new UnitilsException("Unable to invoke original behavior. The method is abstract, it does not have any behavior defined: " + getMethod());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *
+ *  * Copyright 2010,  Unitils.org
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *     http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ */
+package org.unitils.mock.core.proxy;
+
+/**
+ * Engine that generates the proxy classes and creates the proxy instances for mocks and dummies.
+ * <p/>
+ * The engine that is used can be configured by setting the org.unitils.mock.core.proxy.ProxyEngine.implClassName
+ * property. By default cglib is used.
+ *
+ * @see ProxyFactory
+ */
+public interface ProxyEngine {
+
+    /**
+     * Creates a proxy object for the given type. All method invocations will be passed to the given invocation handler.
+     *
+     * @param mockName              The name of the mock, not null
+     * @param initialize            If possible, use the default constructor and initialize all fields
+     * @param invocationHandler     The handler that will handle the method invocations of the proxy, not null.
+     * @param proxiedClass          The type to proxy, not null
+     * @param implementedInterfaces Additional interfaces that the proxy must implement
+     * @return The proxy object, not null
+     */
+    <T> T createProxy(String mockName, boolean initialize, ProxyInvocationHandler invocationHandler, Class<T> proxiedClass, Class<?>... implementedInterfaces);
+
+    /**
+     * Generates the proxy class for the given type, so that the first proxy of this type can be created without
+     * that delay.
+     *
+     * @param proxiedClass          The type to proxy, not null
+     * @param implementedInterfaces Additional interfaces that the proxy must implement
+     */
+    void prepareProxyClass(Class<?> proxiedClass, Class<?>... implementedInterfaces);
+
+    /**
+     * Removes all cached proxy classes.
+     */
+    void clearCaches();
+
+}
@@ -17,24 +17,20 @@
  */
 package org.unitils.mock.core.proxy;
 
-import net.sf.cglib.proxy.Callback;
-import net.sf.cglib.proxy.Enhancer;
-import net.sf.cglib.proxy.Factory;
-import net.sf.cglib.proxy.MethodInterceptor;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.objenesis.Objenesis;
 import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
 import org.unitils.core.UnitilsException;
 
-import java.util.HashSet;
-import java.util.Set;
-
-import static java.util.Arrays.asList;
 import static org.unitils.util.ReflectionUtils.createInstanceOfType;
 
 /**
- * Utility class to create and work with proxy objects.
+ * Utility class to create and work with proxy objects. The proxies are created by the configured {@link ProxyEngine}.
+ * <p/>
+ * The objenesis instantiators, that create instances without calling a constructor, are cached per class.
+ * The cache does not prevent the class loaders of the classes from being garbage collected.
  *
  * @author Kenny Claes
  * @author Filip Neven
@@ -44,6 +40,15 @@ public class ProxyFactory {
 
     private static Log logger = LogFactory.getLog(ProxyFactory.class);
 
+    /* The engine that creates the proxies */
+    protected static volatile ProxyEngine proxyEngine = new CglibProxyEngine();
+
+    /* The instantiators per class */
+    protected static ClassLoaderCache<ObjectInstantiator<?>> instantiatorCache = new ClassLoaderCache<ObjectInstantiator<?>>();
+
+    /* Objenesis without a cache of its own: its cache is keyed on class name only */
+    protected static Objenesis objenesis = new ObjenesisStd(false);
+
 
     /**
      * Creates a proxy object for the given type. All method invocations will be passed to the given invocation handler.
@@ -86,18 +91,26 @@ public class ProxyFactory {
      * @return The proxy object, not null
      */
 
-    @SuppressWarnings({"unchecked"})
     protected static <T> T createProxy(String mockName, boolean initialize, ProxyInvocationHandler invocationHandler, Class<T> proxiedClass, Class<?>... implementedInterfaces) {
-        Class<T> enhancedClass = createEnhancedClass(proxiedClass, implementedInterfaces);
+        return proxyEngine.createProxy(mockName, initialize, invocationHandler, proxiedClass, implementedInterfaces);
+    }
 
-        Factory proxy;
-        if (initialize && !proxiedClass.isInterface()) {
-            proxy = (Factory) createInitializedOrUninitializedInstanceOfType(enhancedClass);
-        } else {
-            proxy = (Factory) createUninitializedInstanceOfType(enhancedClass);
-        }
-        proxy.setCallbacks(new Callback[]{new CglibProxyMethodInterceptor(mockName, proxiedClass, invocationHandler)});
-        return (T) proxy;
+
+    /**
+     * @return The engine that creates the proxies, not null
+     */
+    public static ProxyEngine getProxyEngine() {
+        return proxyEngine;
+    }
+
+    /**
+     * Sets the engine that creates the proxies. This is typically set by the mock module, as configured by the
+     * org.unitils.mock.core.proxy.ProxyEngine.implClassName property.
+     *
+     * @param proxyEngine The engine, not null
+     */
+    public static void setProxyEngine(ProxyEngine proxyEngine) {
+        ProxyFactory.proxyEngine = proxyEngine;
     }
 
     /**
@@ -130,31 +143,40 @@ public class ProxyFactory {
      */
     @SuppressWarnings("unchecked")
     public static <T> T createUninitializedInstanceOfType(Class<T> clazz) {
-        Objenesis objenesis = new ObjenesisStd();
-        return (T) objenesis.newInstance(clazz);
+        ObjectInstantiator<?> instantiator = getInstantiator(clazz);
+        return (T) instantiator.newInstance();
     }
 
 
-    @SuppressWarnings("unchecked")
-    protected static <T> Class<T> createEnhancedClass(Class<T> proxiedClass, Class<?>... implementedInterfaces) {
-        Enhancer enhancer = new Enhancer();
-
-        Set<Class<?>> interfaces = new HashSet<Class<?>>();
-        if (proxiedClass.isInterface()) {
-            enhancer.setSuperclass(Object.class);
-            interfaces.add(proxiedClass);
-        } else {
-            enhancer.setSuperclass(proxiedClass);
-        }
-        if (implementedInterfaces != null && implementedInterfaces.length > 0) {
-            interfaces.addAll(asList(implementedInterfaces));
-        }
-        if (!interfaces.isEmpty()) {
-            enhancer.setInterfaces(interfaces.toArray(new Class<?>[interfaces.size()]));
+    /**
+     * Generates the proxy class for the given type and prepares its instantiator, so that the first proxy of this
+     * type can be created without that delay. This can for example be used to create the proxy classes of known
+     * mock types up front.
+     *
+     * @param proxiedClass          The type to proxy, not null
+     * @param implementedInterfaces Additional interfaces that the proxy must implement
+     */
+    public static void prepareProxyClass(Class<?> proxiedClass, Class<?>... implementedInterfaces) {
+        proxyEngine.prepareProxyClass(proxiedClass, implementedInterfaces);
+    }
+
+
+    /**
+     * Removes all cached proxy classes and instantiators.
+     */
+    public static void clearCaches() {
+        proxyEngine.clearCaches();
+        instantiatorCache.clear();
+    }
+
+
+    protected static ObjectInstantiator<?> getInstantiator(Class<?> clazz) {
+        ObjectInstantiator<?> instantiator = instantiatorCache.get(clazz.getClassLoader(), clazz.getName());
+        if (instantiator == null) {
+            instantiator = objenesis.getInstantiatorOf(clazz);
+            instantiatorCache.put(clazz.getClassLoader(), clazz.getName(), instantiator);
         }
-        enhancer.setCallbackType(MethodInterceptor.class);
-        enhancer.setUseFactory(true);
-        return enhancer.createClass();
+        return instantiator;
     }
 
-}
\ No newline at end of file
+}
@@ -22,6 +22,7 @@ import net.sf.cglib.proxy.Factory;
 import org.unitils.core.UnitilsException;
 import org.unitils.mock.core.MockObject;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -54,6 +55,10 @@ public class ProxyUtils {
                 return ((CglibProxyMethodInterceptor) callbacks[0]).getProxiedType();
             }
         }
+        JdkProxyInvocationHandler<?> jdkProxyInvocationHandler = getJdkProxyInvocationHandler(object);
+        if (jdkProxyInvocationHandler != null) {
+            return jdkProxyInvocationHandler.getProxiedType();
+        }
         return null;
     }
 
@@ -71,10 +76,20 @@ public class ProxyUtils {
 
     /**
      * @param className The class name to check, not null
-     * @return True if the given class name is cglib proxy class name
+     * @return True if the given class name is cglib or jdk proxy class name
      */
     public static boolean isProxyClassName(String className) {
-        return className.contains("$$EnhancerByCGLIB$$");
+        return className.contains("$$EnhancerByCGLIB$$") || isJdkProxyClassName(className);
+    }
+
+    /**
+     * Jdk proxy classes are named $Proxy followed by a number, e.g. com.sun.proxy.$Proxy12 or $Proxy12.
+     *
+     * @param className The class name to check, not null
+     * @return True if the given class name is a jdk proxy class name
+     */
+    public static boolean isJdkProxyClassName(String className) {
+        return className.startsWith("$Proxy", className.lastIndexOf('.') + 1);
     }
 
 
@@ -98,12 +113,28 @@ public class ProxyUtils {
                 return ((CglibProxyMethodInterceptor) callback).getMockName();
             }
         }
+        JdkProxyInvocationHandler<?> jdkProxyInvocationHandler = getJdkProxyInvocationHandler(object);
+        if (jdkProxyInvocationHandler != null) {
+            return jdkProxyInvocationHandler.getMockName();
+        }
+        return null;
+    }
+
+
+    protected static JdkProxyInvocationHandler<?> getJdkProxyInvocationHandler(Object object) {
+        if (!Proxy.isProxyClass(object.getClass())) {
+            return null;
+        }
+        InvocationHandler invocationHandler = Proxy.getInvocationHandler(object);
+        if (invocationHandler instanceof JdkProxyInvocationHandler) {
+            return (JdkProxyInvocationHandler<?>) invocationHandler;
+        }
         return null;
     }
 
 
     /**
-     * First finds a trace element in which a cglib proxy method was invoked. Then it returns the rest of the stack trace following that
+     * First finds a trace element in which a cglib or jdk proxy method was invoked. Then it returns the rest of the stack trace following that
      * element. The stack trace starts with the element rh  r is the method call that was proxied by the proxy method.
      *
      * @return The proxied method trace, not null
@@ -123,7 +154,7 @@ public class ProxyUtils {
             }
         }
         if (stackTrace.isEmpty()) {
-            throw new UnitilsException("No invocation of a cglib proxy method found in stacktrace: " + Arrays.toString(stackTraceElements));
+            throw new UnitilsException("No invocation of a proxy method found in stacktrace: " + Arrays.toString(stackTraceElements));
         }
         return stackTrace.toArray(new StackTraceElement[stackTrace.size()]);
     }
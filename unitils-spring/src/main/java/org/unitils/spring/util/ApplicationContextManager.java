@@ -22,6 +22,8 @@ import java.util.List;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.unitils.core.UnitilsException;
+import org.unitils.core.timing.TimingRecorder;
+import org.unitils.core.timing.TimingRecorder.Measurement;
 import org.unitils.core.util.AnnotatedInstanceManager;
 import org.unitils.spring.annotation.SpringApplicationContext;
 
@@ -110,6 +112,7 @@ public class ApplicationContextManager extends AnnotatedInstanceManager<Applicat
      */
     @Override
     protected ApplicationContext createInstanceForValues(Object testObject, Class<?> testClass, List<String> locations) {
+        Measurement measurement = TimingRecorder.start("SpringModule", "ApplicationContextManager.createApplicationContext");
     	try {
             // create application context
             final ConfigurableApplicationContext applicationContext = applicationContextFactory.createApplicationContext(locations);
@@ -119,6 +122,8 @@ public class ApplicationContextManager extends AnnotatedInstanceManager<Applicat
 
         } catch (Throwable t) {
             throw new UnitilsException("Unable to create application context for locations " + locations, t);
+        } finally {
+            TimingRecorder.stop(measurement);
         }
     }
    
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.timing.TimingRecorder;
+import org.unitils.core.timing.TimingRecorder.Statistic;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.core.Unitils.PROPKEY_TIMING_ENABLED;
+import static org.unitils.core.Unitils.PROPKEY_TIMING_REPORT_FILE;
+
+/**
+ * Test for the test listener of {@link Unitils}.
+ */
+public class UnitilsTestListenerTest {
+
+    /* Class under test */
+    private TestListener unitilsTestListener;
+
+    private RecordingModule allTestsModule;
+    private RecordingModule noTestsModule;
+
+    private Object testObject = new TestClass();
+    private Method testMethod;
+
+
+    @Before
+    public void setUp() throws Exception {
+        allTestsModule = new RecordingModule(true);
+        noTestsModule = new RecordingModule(false);
+        unitilsTestListener = createUnitilsTestListener(new Properties());
+        testMethod = TestClass.class.getDeclaredMethod("test");
+    }
+
+    @After
+    public void tearDown() {
+        TimingRecorder.disable();
+    }
+
+
+    private TestListener createUnitilsTestListener(Properties configuration) {
+        Unitils unitils = new Unitils() {
+            @Override
+            protected ModulesRepository createModulesRepository(Properties configuration) {
+                return new ModulesRepository(Arrays.<Module>asList(allTestsModule, noTestsModule));
+            }
+        };
+        unitils.init(configuration);
+        return unitils.getTestListener();
+    }
+
+
+    @Test
+    public void onlyListenersOfInterestedModulesAreInvoked() {
+        unitilsTestListener.beforeTestClass(TestClass.class);
+        unitilsTestListener.afterCreateTestObject(testObject);
+        unitilsTestListener.beforeTestSetUp(testObject, testMethod);
+        unitilsTestListener.beforeTestMethod(testObject, testMethod);
+        unitilsTestListener.afterTestMethod(testObject, testMethod, null);
+        unitilsTestListener.afterTestTearDown(testObject, testMethod);
+
+        assertEquals(Arrays.asList("beforeTestClass", "afterCreateTestObject", "beforeTestSetUp", "beforeTestMethod", "afterTestMethod", "afterTestTearDown"), allTestsModule.invokedMethods);
+        assertEquals(0, noTestsModule.invokedMethods.size());
+    }
+
+    @Test
+    public void testClassIsOnlyCheckedOnce() {
+        unitilsTestListener.beforeTestClass(TestClass.class);
+        unitilsTestListener.beforeTestSetUp(testObject, testMethod);
+        unitilsTestListener.beforeTestSetUp(testObject, testMethod);
+
+        assertEquals(1, allTestsModule.nrOfShouldListenToTestClassInvocations);
+        assertEquals(1, noTestsModule.nrOfShouldListenToTestClassInvocations);
+    }
+
+    @Test
+    public void beforeTestClassNotInvoked() {
+        unitilsTestListener.beforeTestSetUp(testObject, testMethod);
+
+        assertEquals(Arrays.asList("beforeTestSetUp"), allTestsModule.invokedMethods);
+        assertEquals(0, noTestsModule.invokedMethods.size());
+    }
+
+    @Test
+    public void timing() {
+        Properties configuration = new Properties();
+        configuration.setProperty(PROPKEY_TIMING_ENABLED, "true");
+        configuration.setProperty(PROPKEY_TIMING_REPORT_FILE, "target/UnitilsTestListenerTest-timing.csv");
+        unitilsTestListener = createUnitilsTestListener(configuration);
+
+        unitilsTestListener.beforeTestClass(TestClass.class);
+        unitilsTestListener.beforeTestSetUp(testObject, testMethod);
+        unitilsTestListener.afterTestTearDown(testObject, testMethod);
+
+        List<Statistic> phaseStatistics = TimingRecorder.getInstance().getPhaseStatistics();
+        assertEquals(3, phaseStatistics.size());
+        for (Statistic phaseStatistic : phaseStatistics) {
+            assertEquals("RecordingModule", phaseStatistic.getCategory());
+        }
+        List<Statistic> testStatistics = TimingRecorder.getInstance().getTestStatistics();
+        assertEquals(1, testStatistics.size());
+        assertEquals(TestClass.class.getName() + ".test", testStatistics.get(0).getName());
+        assertTrue(allTestsModule.invokedMethods.contains("beforeTestSetUp"));
+    }
+
+
+    private static class TestClass {
+
+        public void test() {
+        }
+    }
+
+
+    private static class RecordingModule implements Module {
+
+        private boolean shouldListen;
+        private int nrOfShouldListenToTestClassInvocations;
+        private List<String> invokedMethods = new ArrayList<String>();
+
+        public RecordingModule(boolean shouldListen) {
+            this.shouldListen = shouldListen;
+        }
+
+        public void init(Properties configuration) {
+        }
+
+        public void afterInit() {
+        }
+
+        public TestListener getTestListener() {
+            return new TestListener() {
+
+                @Override
+                public boolean shouldListenToTestClass(Class<?> testClass) {
+                    nrOfShouldListenToTestClassInvocations++;
+                    return shouldListen;
+                }
+
+                @Override
+                public void beforeTestClass(Class<?> testClass) {
+                    invokedMethods.add("beforeTestClass");
+                }
+
+                @Override
+                public void afterCreateTestObject(Object testObject) {
+                    invokedMethods.add("afterCreateTestObject");
+                }
+
+                @Override
+                public void beforeTestSetUp(Object testObject, Method testMethod) {
+                    invokedMethods.add("beforeTestSetUp");
+                }
+
+                @Override
+                public void beforeTestMethod(Object testObject, Method testMethod) {
+                    invokedMethods.add("beforeTestMethod");
+                }
+
+                @Override
+                public void afterTestMethod(Object testObject, Method testMethod, Throwable testThrowable) {
+                    invokedMethods.add("afterTestMethod");
+                }
+
+                @Override
+                public void afterTestTearDown(Object testObject, Method testMethod) {
+                    invokedMethods.add("afterTestTearDown");
+                }
+            };
+        }
+    }
+}
@@ -30,6 +30,8 @@ import static org.unitils.database.SQLUnitils.executeUpdate;
 import static org.unitils.database.SQLUnitils.getItemAsLong;
 import static org.unitils.reflectionassert.ReflectionAssert.assertLenientEquals;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -67,6 +69,9 @@ public class DbSupportTest extends UnitilsJUnit4 {
 
     /* Instance under test */
     protected DbSupport dbSupport;
+
+    /* The unitils configuration */
+    protected Properties configuration;
     
     private String dialect;
 
@@ -76,7 +81,7 @@ public class DbSupportTest extends UnitilsJUnit4 {
      */
     @Before
     public void setUp() throws Exception {
-        Properties configuration = (Properties) new ConfigurationLoader().loadConfiguration().clone();
+        configuration = (Properties) new ConfigurationLoader().loadConfiguration().clone();
         
         initDatabaseModule(configuration);
         
@@ -301,6 +306,55 @@ public class DbSupportTest extends UnitilsJUnit4 {
     }
 
 
+    /**
+     * Tests getting the primary column names of all tables at once.
+     */
+    @Test
+    public void testGetIdentityColumnNames_allTables() throws Exception {
+        if (!dbSupport.supportsIdentityColumns()) {
+            logger.warn("Test is not for current dialect. Skipping test.");
+            return;
+        }
+        Map<String, Set<String>> result = dbSupport.getIdentityColumnNames();
+        assertLenientEquals(asList(dbSupport.toCorrectCaseIdentifier("col1")), result.get(dbSupport.toCorrectCaseIdentifier("test_table")));
+    }
+
+
+    /**
+     * Tests getting the values of all sequences at once.
+     */
+    @Test
+    public void testGetSequenceValues() throws Exception {
+        if (!dbSupport.supportsSequences()) {
+            logger.warn("Test is not for current dialect. Skipping test.");
+            return;
+        }
+        String sequenceName = dbSupport.toCorrectCaseIdentifier("TEST_SEQUENCE");
+        dbSupport.incrementSequenceToValue(sequenceName, 30);
+
+        Map<String, Long> result = dbSupport.getSequenceValues();
+        assertLenientEquals(asList(sequenceName, "Test_CASE_Sequence"), result.keySet());
+        assertEquals(30, (long) result.get(sequenceName));
+    }
+
+
+    /**
+     * Tests incrementing the current value of several sequences at once.
+     */
+    @Test
+    public void testIncrementSequencesToValue() throws Exception {
+        if (!dbSupport.supportsSequences()) {
+            logger.warn("Test is not for current dialect. Skipping test.");
+            return;
+        }
+        String sequenceName = dbSupport.toCorrectCaseIdentifier("TEST_SEQUENCE");
+        dbSupport.incrementSequencesToValue(new HashSet<String>(asList(sequenceName, "Test_CASE_Sequence")), 30);
+
+        assertEquals(30, dbSupport.getSequenceValue(sequenceName));
+        assertEquals(30, dbSupport.getSequenceValue("Test_CASE_Sequence"));
+    }
+
+
     /**
      * Tests incrementing the current value of the primary key.
      */
@@ -483,6 +537,36 @@ public class DbSupportTest extends UnitilsJUnit4 {
     }
 
 
+    /**
+     * Tests the bulk operations with a sql handler that is not a default sql handler. All statements should go
+     * through that sql handler.
+     */
+    @Test
+    public void testBulkOperationsWithOtherSQLHandler() throws Exception {
+        CountingSQLHandler sqlHandler = new CountingSQLHandler(new DefaultSQLHandler(dataSource));
+        DbSupport otherDbSupport = dbSupport.getClass().newInstance();
+        otherDbSupport.init(configuration, sqlHandler, dbSupport.getSchemaName());
+
+        if (otherDbSupport.supportsIdentityColumns()) {
+            Map<String, Set<String>> result = otherDbSupport.getIdentityColumnNames();
+            assertLenientEquals(asList(dbSupport.toCorrectCaseIdentifier("col1")), result.get(dbSupport.toCorrectCaseIdentifier("test_table")));
+        }
+        if (otherDbSupport.supportsSequences()) {
+            Map<String, Long> result = otherDbSupport.getSequenceValues();
+            assertLenientEquals(asList(dbSupport.toCorrectCaseIdentifier("TEST_SEQUENCE"), "Test_CASE_Sequence"), result.keySet());
+        }
+        otherDbSupport.disableReferentialConstraints();
+        otherDbSupport.disableValueConstraints();
+        assertTrue(sqlHandler.nrOfStatements > 0);
+
+        if ("mssql".equals(dbSupport.getDatabaseDialect())) {
+            executeUpdate("insert into test_table (col2) values (null)", dataSource);
+        } else {
+            executeUpdate("insert into test_table (col1, col2) values (1, null)", dataSource);
+        }
+    }
+
+
     /**
      * Creates all test database structures (view, tables...)
      */
@@ -865,4 +949,62 @@ public class DbSupportTest extends UnitilsJUnit4 {
         databaseModule.afterInit();
         dataSource = databaseModule.getWrapper("").getTransactionalDataSourceAndActivateTransactionIfNeeded(this);
     }
+
+
+    /**
+     * Sql handler that counts the statements and passes them to another sql handler.
+     */
+    private static class CountingSQLHandler implements SQLHandler {
+
+        private SQLHandler sqlHandler;
+
+        private int nrOfStatements;
+
+        public CountingSQLHandler(SQLHandler sqlHandler) {
+            this.sqlHandler = sqlHandler;
+        }
+
+        public int executeUpdate(String sql) {
+            nrOfStatements++;
+            return sqlHandler.executeUpdate(sql);
+        }
+
+        public void executeQuery(String sql) {
+            nrOfStatements++;
+            sqlHandler.executeQuery(sql);
+        }
+
+        public int executeUpdateAndCommit(String sql) {
+            nrOfStatements++;
+            return sqlHandler.executeUpdateAndCommit(sql);
+        }
+
+        public long getItemAsLong(String sql) {
+            nrOfStatements++;
+            return sqlHandler.getItemAsLong(sql);
+        }
+
+        public String getItemAsString(String sql) {
+            nrOfStatements++;
+            return sqlHandler.getItemAsString(sql);
+        }
+
+        public Set<String> getItemsAsStringSet(String sql) {
+            nrOfStatements++;
+            return sqlHandler.getItemsAsStringSet(sql);
+        }
+
+        public boolean exists(String sql) {
+            nrOfStatements++;
+            return sqlHandler.exists(sql);
+        }
+
+        public DataSource getDataSource() {
+            return sqlHandler.getDataSource();
+        }
+
+        public boolean isDoExecuteUpdates() {
+            return sqlHandler.isDoExecuteUpdates();
+        }
+    }
 }
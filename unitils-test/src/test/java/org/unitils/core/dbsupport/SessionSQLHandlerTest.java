@@ -0,0 +1,242 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.dbsupport;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.unitils.core.dbsupport.SessionSQLHandler.MAX_NR_OF_STATEMENT_STATISTICS;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.executeUpdateQuietly;
+import static org.unitils.reflectionassert.ReflectionAssert.assertLenientEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.UnitilsException;
+import org.unitils.core.dbsupport.SessionSQLHandler.StatementStatistics;
+import org.unitils.database.annotations.TestDataSource;
+
+/**
+ * Tests for the {@link SessionSQLHandler}.
+ */
+public class SessionSQLHandlerTest extends UnitilsJUnit4 {
+
+    @TestDataSource
+    private DataSource dataSource;
+
+    private ConnectionCountingDataSource connectionCountingDataSource;
+
+    /* Tested object */
+    private SessionSQLHandler sessionSQLHandler;
+
+
+    @Before
+    public void setUp() throws Exception {
+        dropTestTables();
+        executeUpdate("create table test_session(name varchar(10))", dataSource);
+        executeUpdate("insert into test_session(name) values('a')", dataSource);
+        executeUpdate("insert into test_session(name) values('b')", dataSource);
+
+        connectionCountingDataSource = new ConnectionCountingDataSource(dataSource);
+        sessionSQLHandler = new SessionSQLHandler(connectionCountingDataSource);
+    }
+
+
+    @After
+    public void tearDown() throws Exception {
+        sessionSQLHandler.close();
+        dropTestTables();
+    }
+
+
+    @Test
+    public void singleConnectionForSession() {
+        sessionSQLHandler.executeUpdate("insert into test_session(name) values('c')");
+        sessionSQLHandler.getItemsAsStringSet("select name from test_session");
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session");
+
+        assertEquals(1, connectionCountingDataSource.nrOfConnections);
+        assertLenientEquals(new String[]{"a", "b", "c"}, sessionSQLHandler.getItemsAsStringSet("select name from test_session"));
+    }
+
+
+    @Test
+    public void parametersAreBound() {
+        assertEquals(1, sessionSQLHandler.getItemAsLong("select count(1) from test_session where name = ?", "a"));
+        assertEquals(0, sessionSQLHandler.getItemAsLong("select count(1) from test_session where name = ?", "x"));
+        assertEquals("b", sessionSQLHandler.getItemAsString("select name from test_session where name = ?", "b"));
+    }
+
+
+    @Test
+    public void preparedStatementsDiscardedAfterUpdate() {
+        String sql = "select TABLE_NAME from INFORMATION_SCHEMA.SYSTEM_TABLES where TABLE_NAME like ?";
+        assertLenientEquals(new String[]{"TEST_SESSION"}, sessionSQLHandler.getItemsAsStringSet(sql, "TEST_SESSION%"));
+        sessionSQLHandler.executeUpdate("create table test_session_other(name varchar(10))");
+        assertLenientEquals(new String[]{"TEST_SESSION", "TEST_SESSION_OTHER"}, sessionSQLHandler.getItemsAsStringSet(sql, "TEST_SESSION%"));
+    }
+
+
+    @Test
+    public void preparedStatementsKeptAfterDataUpdate() throws Exception {
+        String sql = "select count(1) from test_session where name = ?";
+        sessionSQLHandler.getItemAsLong(sql, "a");
+        PreparedStatement preparedStatement = sessionSQLHandler.getSession().preparedStatements.get(sql);
+        sessionSQLHandler.executeUpdate("insert into test_session(name) values('c')");
+        sessionSQLHandler.executeUpdateBatch(asList("update test_session set name = 'd' where name = 'c'", "delete from test_session where name = 'd'"));
+
+        assertEquals(1, sessionSQLHandler.getItemAsLong(sql, "a"));
+        assertSame(preparedStatement, sessionSQLHandler.getSession().preparedStatements.get(sql));
+    }
+
+
+    @Test
+    public void preparedStatementsDiscardedAfterSchemaChangeInBatch() throws Exception {
+        String sql = "select count(1) from test_session where name = ?";
+        sessionSQLHandler.getItemAsLong(sql, "a");
+        PreparedStatement preparedStatement = sessionSQLHandler.getSession().preparedStatements.get(sql);
+        sessionSQLHandler.executeUpdateBatch(asList("insert into test_session(name) values('c')", "create table test_session_other(name varchar(10))"));
+
+        assertEquals(1, sessionSQLHandler.getItemAsLong(sql, "a"));
+        assertNotSame(preparedStatement, sessionSQLHandler.getSession().preparedStatements.get(sql));
+    }
+
+
+    @Test
+    public void batchAfterFailedBatch() throws Exception {
+        try {
+            sessionSQLHandler.executeUpdateBatch(asList("insert into test_session(name) values('c')", "insert into xxxx(name) values('c')"));
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            // expected
+        }
+        sessionSQLHandler.executeUpdateBatch(asList("insert into test_session(name) values('d')"));
+
+        assertEquals(1, sessionSQLHandler.getItemAsLong("select count(1) from test_session where name = 'd'"));
+    }
+
+
+    @Test
+    public void batchClearedAfterFailedBatch() throws Exception {
+        final List<String> invokedMethodNames = new ArrayList<String>();
+        Statement statement = (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Statement.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                invokedMethodNames.add(method.getName());
+                if ("executeBatch".equals(method.getName())) {
+                    throw new SQLException("failure");
+                }
+                return null;
+            }
+        });
+        try {
+            sessionSQLHandler.executeBatch(statement, asList("insert into test_session(name) values('c')"));
+            fail("SQLException expected");
+        } catch (SQLException e) {
+            // expected
+        }
+        assertEquals(asList("addBatch", "executeBatch", "clearBatch"), invokedMethodNames);
+    }
+
+
+    @Test
+    public void statementStatistics() {
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session where name = ?", "a");
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session where name = ?", "b");
+        sessionSQLHandler.executeUpdate("delete from test_session");
+
+        Map<String, StatementStatistics> result = sessionSQLHandler.getStatementStatistics();
+        assertEquals(2, result.size());
+        assertEquals(2, result.get("select count(1) from test_session where name = ?").getCount());
+        assertEquals(1, result.get("delete from test_session").getCount());
+    }
+
+
+    @Test
+    public void statementStatisticsAreBounded() {
+        for (int i = 0; i < MAX_NR_OF_STATEMENT_STATISTICS + 10; i++) {
+            sessionSQLHandler.getItemAsLong("select count(1) from test_session where name = ? and " + i + " = " + i, "a");
+        }
+        assertEquals(MAX_NR_OF_STATEMENT_STATISTICS, sessionSQLHandler.getStatementStatistics().size());
+    }
+
+
+    @Test
+    public void connectionPerStatementAfterClose() {
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session");
+        sessionSQLHandler.close();
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session");
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session where name = ?", "a");
+
+        assertEquals(3, connectionCountingDataSource.nrOfConnections);
+    }
+
+
+    @Test
+    public void connectionPerThread() throws Exception {
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session");
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                sessionSQLHandler.getItemAsLong("select count(1) from test_session");
+            }
+        };
+        thread.start();
+        thread.join();
+        sessionSQLHandler.getItemAsLong("select count(1) from test_session");
+
+        assertEquals(2, connectionCountingDataSource.nrOfConnections);
+    }
+
+
+    private void dropTestTables() {
+        executeUpdateQuietly("drop table test_session", dataSource);
+        executeUpdateQuietly("drop table test_session_other", dataSource);
+    }
+
+
+    private static class ConnectionCountingDataSource extends DelegatingDataSource {
+
+        private int nrOfConnections;
+
+        public ConnectionCountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public synchronized Connection getConnection() throws SQLException {
+            nrOfConnections++;
+            return super.getConnection();
+        }
+    }
+}
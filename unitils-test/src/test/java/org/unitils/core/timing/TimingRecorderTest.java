@@ -0,0 +1,157 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.timing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.timing.TimingRecorder.Measurement;
+import org.unitils.core.timing.TimingRecorder.Statistic;
+import org.unitils.thirdparty.org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link TimingRecorder}.
+ */
+public class TimingRecorderTest {
+
+    private File reportFile;
+
+
+    @Before
+    public void setUp() {
+        reportFile = new File("target/" + TimingRecorderTest.class.getSimpleName() + ".csv");
+        reportFile.delete();
+        TimingRecorder.enable(reportFile);
+    }
+
+    @After
+    public void tearDown() {
+        TimingRecorder.disable();
+    }
+
+
+    @Test
+    public void disabled() {
+        TimingRecorder.disable();
+
+        assertFalse(TimingRecorder.isEnabled());
+        assertNull(TimingRecorder.start("module", "phase"));
+        TimingRecorder.stop(null);
+        TimingRecorder.startTest("test");
+        TimingRecorder.stopTest();
+    }
+
+    @Test
+    public void phasesSortedOnWallTime() {
+        TimingRecorder timingRecorder = TimingRecorder.getInstance();
+        timingRecorder.record("module1", "phase", 100, 50);
+        timingRecorder.record("module2", "phase", 300, 100);
+        timingRecorder.record("module1", "phase", 250, 50);
+
+        List<Statistic> result = timingRecorder.getPhaseStatistics();
+        assertEquals(2, result.size());
+        assertStatistic(result.get(0), "module1", "phase", 2, 350, 100, 250);
+        assertStatistic(result.get(1), "module2", "phase", 1, 300, 100, 300);
+        assertTrue(timingRecorder.getTestStatistics().isEmpty());
+    }
+
+    @Test
+    public void measurement() {
+        Measurement measurement = TimingRecorder.start("module", "phase");
+        TimingRecorder.stop(measurement);
+
+        List<Statistic> result = TimingRecorder.getInstance().getPhaseStatistics();
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).getCount());
+    }
+
+    @Test
+    public void tests() {
+        TimingRecorder.startTest("MyTest.test1");
+        TimingRecorder.stopTest();
+        TimingRecorder.stopTest();
+
+        List<Statistic> result = TimingRecorder.getInstance().getTestStatistics();
+        assertEquals(1, result.size());
+        assertEquals("MyTest.test1", result.get(0).getName());
+        assertEquals(1, result.get(0).getCount());
+        assertTrue(TimingRecorder.getInstance().getPhaseStatistics().isEmpty());
+    }
+
+    @Test
+    public void enableTwiceWithSameReportFile() {
+        TimingRecorder timingRecorder = TimingRecorder.getInstance();
+        TimingRecorder.enable(reportFile);
+
+        assertSame(timingRecorder, TimingRecorder.getInstance());
+    }
+
+    @Test
+    public void csvReport() throws Exception {
+        TimingRecorder timingRecorder = TimingRecorder.getInstance();
+        timingRecorder.record("DbUnitModule", "beforeTestSetUp", 2000000, 1000000);
+        timingRecorder.record(TimingRecorder.TEST_CATEGORY, "MyTest.test1", 5000000, 4000000);
+
+        timingRecorder.writeReport();
+        String result = FileUtils.readFileToString(reportFile, "UTF-8");
+        assertEquals("type,category,name,count,wallTimeMillis,cpuTimeMillis,maxWallTimeMillis\n" +
+                "phase,DbUnitModule,beforeTestSetUp,1,2.000,1.000,2.000\n" +
+                "test,test,MyTest.test1,1,5.000,4.000,5.000\n", result);
+    }
+
+    @Test
+    public void jsonReport() throws Exception {
+        File jsonReportFile = new File("target/" + TimingRecorderTest.class.getSimpleName() + ".json");
+        TimingRecorder.enable(jsonReportFile);
+        TimingRecorder timingRecorder = TimingRecorder.getInstance();
+        timingRecorder.record("DbUnitModule", "beforeTestSetUp", 2000000, 1000000);
+
+        timingRecorder.writeReport();
+        String result = FileUtils.readFileToString(jsonReportFile, "UTF-8");
+        assertEquals("{\n  \"phases\": [\n" +
+                "    {\"category\": \"DbUnitModule\", \"name\": \"beforeTestSetUp\", \"count\": 1, \"wallTimeMillis\": 2.000, \"cpuTimeMillis\": 1.000, \"maxWallTimeMillis\": 2.000}\n" +
+                "  ],\n  \"tests\": []\n}\n", result);
+    }
+
+    @Test
+    public void jsonReportWithSpecialCharacters() throws Exception {
+        File jsonReportFile = new File("target/" + TimingRecorderTest.class.getSimpleName() + ".json");
+        TimingRecorder.enable(jsonReportFile);
+        TimingRecorder timingRecorder = TimingRecorder.getInstance();
+        timingRecorder.record(TimingRecorder.TEST_CATEGORY, "MyTest.test[\"a\\b\n\r\t\u0001\"]", 2000000, 1000000);
+
+        timingRecorder.writeReport();
+        String result = FileUtils.readFileToString(jsonReportFile, "UTF-8");
+        assertEquals("{\n  \"phases\": [],\n  \"tests\": [\n" +
+                "    {\"category\": \"test\", \"name\": \"MyTest.test[\\\"a\\\\b\\n\\r\\t\\u0001\\\"]\", \"count\": 1, \"wallTimeMillis\": 2.000, \"cpuTimeMillis\": 1.000, \"maxWallTimeMillis\": 2.000}\n" +
+                "  ]\n}\n", result);
+    }
+
+
+    private void assertStatistic(Statistic statistic, String category, String name, long count, long wallTime, long cpuTime, long maxWallTime) {
+        assertEquals(category, statistic.getCategory());
+        assertEquals(name, statistic.getName());
+        assertEquals(count, statistic.getCount());
+        assertEquals(wallTime, statistic.getWallTime());
+        assertEquals(cpuTime, statistic.getCpuTime());
+        assertEquals(maxWallTime, statistic.getMaxWallTime());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.core.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests the cycle detection and the size limit of the object formatter.
+ */
+public class ObjectFormatterTest {
+
+    private ObjectFormatter objectFormatter = new ObjectFormatter();
+
+
+    @Test
+    public void formatObject() {
+        String result = objectFormatter.format(new Child("a", "b"));
+        assertEquals("ObjectFormatterTest.Child<childValue=\"b\", parent=null, parentValue=\"a\">", result);
+    }
+
+    @Test
+    public void formatToStringBuilder() {
+        StringBuilder result = new StringBuilder("value: ");
+        objectFormatter.formatImpl(new Child("a", "b"), 0, result);
+        assertEquals("value: ObjectFormatterTest.Child<childValue=\"b\", parent=null, parentValue=\"a\">", result.toString());
+    }
+
+    @Test
+    public void cycleInObject() {
+        Child child = new Child("a", "b");
+        ((Parent) child).parent = child;
+
+        String result = new ObjectFormatter(10, 15).format(child);
+        assertEquals("ObjectFormatterTest.Child<childValue=\"b\", parent=ObjectFormatterTest.Child<cycle>, parentValue=\"a\">", result);
+    }
+
+    @Test
+    public void cycleInCollection() {
+        List<Object> list = new ArrayList<Object>();
+        list.add("a");
+        list.add(list);
+
+        String result = objectFormatter.format(list);
+        assertEquals("[\"a\", ArrayList<cycle>]", result);
+    }
+
+    @Test
+    public void sameObjectTwiceIsNoCycle() {
+        Child child = new Child("a", "b");
+        List<Object> list = new ArrayList<Object>();
+        list.add(child);
+        list.add(child);
+
+        String result = objectFormatter.format(list);
+        assertEquals("[ObjectFormatterTest.Child<childValue=\"b\", parent=null, parentValue=\"a\">, ObjectFormatterTest.Child<childValue=\"b\", parent=null, parentValue=\"a\">]", result);
+    }
+
+    @Test
+    public void outputIsTruncated() {
+        ObjectFormatter limitedObjectFormatter = new ObjectFormatter(3, 15, 10);
+
+        String result = limitedObjectFormatter.format(new Child("a", "b"));
+        assertEquals("ObjectForm...", result);
+    }
+
+    @Test
+    public void longCollectionIsTruncated() {
+        ObjectFormatter limitedObjectFormatter = new ObjectFormatter(3, 100000, 100);
+        List<String> list = new ArrayList<String>();
+        for (int i = 0; i < 100000; i++) {
+            list.add("value" + i);
+        }
+        String result = limitedObjectFormatter.format(list);
+        assertEquals(100 + ObjectFormatterOutput.TRUNCATION_MARKER.length(), result.length());
+        assertTrue(result.endsWith(ObjectFormatterOutput.TRUNCATION_MARKER));
+    }
+
+    @Test
+    public void formatToAppendable() {
+        StringBuilder result = new StringBuilder("value: ");
+        objectFormatter.format(new Child("a", "b"), result);
+        assertEquals("value: ObjectFormatterTest.Child<childValue=\"b\", parent=null, parentValue=\"a\">", result.toString());
+    }
+
+
+    private static class Parent {
+
+        private static String staticValue = "static";
+
+        private Child parent;
+
+        private String parentValue;
+
+        public Parent(String parentValue) {
+            this.parentValue = parentValue;
+        }
+    }
+
+    private static class Child extends Parent {
+
+        private transient String transientValue = "transient";
+
+        private String childValue;
+
+        public Child(String parentValue, String childValue) {
+            super(parentValue);
+            this.childValue = childValue;
+        }
+    }
+}
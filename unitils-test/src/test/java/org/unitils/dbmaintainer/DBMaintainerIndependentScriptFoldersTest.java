@@ -0,0 +1,180 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbmaintainer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.UnitilsException;
+import org.unitils.core.dbsupport.SQLHandler;
+import org.unitils.dbmaintainer.script.ExecutedScript;
+import org.unitils.dbmaintainer.script.Script;
+import org.unitils.dbmaintainer.script.ScriptContentHandle;
+import org.unitils.dbmaintainer.script.ScriptContentHandle.StringScriptContentHandle;
+import org.unitils.dbmaintainer.script.ScriptRunner;
+import org.unitils.dbmaintainer.version.ExecutedScriptInfoSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the execution of independent script folders by the DBMaintainer.
+ */
+public class DBMaintainerIndependentScriptFoldersTest {
+
+    /* Tested object */
+    private DBMaintainer dbMaintainer;
+
+    private RecordingScriptRunner scriptRunner;
+    private RecordingExecutedScriptInfoSource executedScriptInfoSource;
+
+    private Script mainScript1, mainScript2, folderAScript1, folderAScript2, folderBScript1;
+
+
+    @Before
+    public void setUp() throws Exception {
+        scriptRunner = new RecordingScriptRunner();
+        executedScriptInfoSource = new RecordingExecutedScriptInfoSource();
+
+        dbMaintainer = new DBMaintainer();
+        dbMaintainer.scriptRunner = scriptRunner;
+        dbMaintainer.versionSource = executedScriptInfoSource;
+        dbMaintainer.independentScriptFolders = Arrays.asList("02_folderA", "03_folderB");
+        dbMaintainer.maxParallelScriptFolders = 4;
+
+        mainScript1 = createScript("01_main/01_script.sql");
+        folderAScript1 = createScript("02_folderA/01_script.sql");
+        folderAScript2 = createScript("02_folderA/02_script.sql");
+        folderBScript1 = createScript("03_folderB/01_script.sql");
+        mainScript2 = createScript("04_main/01_script.sql");
+    }
+
+
+    @Test
+    public void getScriptBranches() {
+        List<List<Script>> result = dbMaintainer.getScriptBranches(Arrays.asList(mainScript1, folderAScript1, folderAScript2, folderBScript1, mainScript2));
+
+        assertEquals(3, result.size());
+        assertEquals(Arrays.asList(mainScript1, mainScript2), result.get(0));
+        assertEquals(Arrays.asList(folderAScript1, folderAScript2), result.get(1));
+        assertEquals(Arrays.asList(folderBScript1), result.get(2));
+    }
+
+
+    @Test
+    public void getScriptBranches_noIndependentFolders() {
+        dbMaintainer.independentScriptFolders = new ArrayList<String>();
+
+        List<List<Script>> result = dbMaintainer.getScriptBranches(Arrays.asList(mainScript1, folderAScript1, folderBScript1));
+
+        assertEquals(1, result.size());
+        assertEquals(Arrays.asList(mainScript1, folderAScript1, folderBScript1), result.get(0));
+    }
+
+
+    @Test
+    public void executeScripts() {
+        dbMaintainer.executeScripts(Arrays.asList(mainScript1, folderAScript1, folderAScript2, folderBScript1, mainScript2));
+
+        assertEquals(5, scriptRunner.executedScriptContentHandles.size());
+        assertExecutedInOrder(mainScript1, mainScript2);
+        assertExecutedInOrder(folderAScript1, folderAScript2);
+        assertEquals(5, executedScriptInfoSource.registeredScripts.size());
+        assertEquals(5, executedScriptInfoSource.successfulScripts.size());
+    }
+
+
+    @Test
+    public void executeScripts_errorStopsAllBranches() {
+        scriptRunner.failingScriptContentHandle = folderAScript1.getScriptContentHandle();
+        try {
+            dbMaintainer.executeScripts(Arrays.asList(folderAScript1, folderAScript2, folderBScript1));
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            // expected
+        }
+        assertFalse(scriptRunner.executedScriptContentHandles.contains(folderAScript2.getScriptContentHandle()));
+        assertTrue(executedScriptInfoSource.registeredScripts.contains(folderAScript1));
+        assertFalse(executedScriptInfoSource.successfulScripts.contains(folderAScript1));
+    }
+
+
+    private void assertExecutedInOrder(Script first, Script second) {
+        List<ScriptContentHandle> executed = scriptRunner.executedScriptContentHandles;
+        assertTrue(executed.indexOf(first.getScriptContentHandle()) < executed.indexOf(second.getScriptContentHandle()));
+    }
+
+
+    private Script createScript(String fileName) {
+        return new Script(fileName, 0L, new StringScriptContentHandle(fileName));
+    }
+
+
+    private static class RecordingScriptRunner implements ScriptRunner {
+
+        private List<ScriptContentHandle> executedScriptContentHandles = Collections.synchronizedList(new ArrayList<ScriptContentHandle>());
+
+        private ScriptContentHandle failingScriptContentHandle;
+
+        public void init(Properties configuration, SQLHandler sqlHandler, String dialect, List<String> schemaNames) {
+        }
+
+        public void execute(ScriptContentHandle scriptContentHandle) {
+            if (scriptContentHandle == failingScriptContentHandle) {
+                throw new UnitilsException("Failing script");
+            }
+            executedScriptContentHandles.add(scriptContentHandle);
+        }
+    }
+
+
+    private static class RecordingExecutedScriptInfoSource implements ExecutedScriptInfoSource {
+
+        private List<Script> registeredScripts = new ArrayList<Script>();
+
+        private List<Script> successfulScripts = new ArrayList<Script>();
+
+        public void init(Properties configuration, SQLHandler sqlHandler, String dialect, List<String> schemaNames) {
+        }
+
+        public boolean isFromScratchUpdateRecommended() {
+            return false;
+        }
+
+        public void registerExecutedScript(ExecutedScript executedScript) {
+            registeredScripts.add(executedScript.getScript());
+        }
+
+        public void updateExecutedScript(ExecutedScript executedScript) {
+            if (executedScript.isSucceeded()) {
+                successfulScripts.add(executedScript.getScript());
+            }
+        }
+
+        public void clearAllExecutedScripts() {
+        }
+
+        public Set<ExecutedScript> getExecutedScripts() {
+            return new HashSet<ExecutedScript>();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbmaintainer.locator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.thirdparty.org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the classpath resource index.
+ */
+public class ClassPathResourceIndexTest {
+
+    /* Tested object */
+    private ClassPathResourceIndex classPathResourceIndex;
+
+    private ClassLoader classLoader;
+
+    private File tempDir;
+
+
+    @Before
+    public void setUp() throws Exception {
+        classPathResourceIndex = new ClassPathResourceIndex();
+        classLoader = getClass().getClassLoader();
+        tempDir = File.createTempFile("ClassPathResourceIndexTest", "");
+        tempDir.delete();
+        tempDir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+
+    @Test
+    public void getResources() throws Exception {
+        List<URL> result = classPathResourceIndex.getResources(classLoader, "org/unitils/testdata/exampleResourceData.xml");
+
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).toString().endsWith("org/unitils/testdata/exampleResourceData.xml"));
+    }
+
+    @Test
+    public void resourcesAreOnlyLookedUpOnce() throws Exception {
+        List<URL> result1 = classPathResourceIndex.getResources(classLoader, "org/unitils/testdata/exampleResourceData.xml");
+        List<URL> result2 = classPathResourceIndex.getResources(classLoader, "org/unitils/testdata/exampleResourceData.xml");
+
+        assertSame(result1, result2);
+    }
+
+    @Test
+    public void getResourcesNotFound() throws Exception {
+        List<URL> result = classPathResourceIndex.getResources(classLoader, "org/unitils/testdata/xxx.xml");
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void resourceAddedAfterItWasNotFound() throws Exception {
+        ClassLoader tempDirClassLoader = new URLClassLoader(new URL[]{tempDir.toURI().toURL()}, null);
+        assertTrue(classPathResourceIndex.getResources(tempDirClassLoader, "script.sql").isEmpty());
+
+        FileUtils.writeStringToFile(new File(tempDir, "script.sql"), "script", "UTF-8");
+
+        assertEquals(1, classPathResourceIndex.getResources(tempDirClassLoader, "script.sql").size());
+    }
+
+    @Test
+    public void getSubResources() throws Exception {
+        URL url = classLoader.getResource("org/unitils/dbunit/testdbscripts/");
+
+        List<URL> result = classPathResourceIndex.getSubResources(url);
+
+        assertTrue(result.contains(classLoader.getResource("org/unitils/dbunit/testdbscripts/001_Initial_TESTcreate.sql")));
+    }
+
+    @Test
+    public void subResourceAddedToDirectory() throws Exception {
+        URL url = tempDir.toURI().toURL();
+        FileUtils.writeStringToFile(new File(tempDir, "001_script.sql"), "script", "UTF-8");
+        assertEquals(1, classPathResourceIndex.getSubResources(url).size());
+
+        FileUtils.writeStringToFile(new File(tempDir, "002_script.sql"), "script", "UTF-8");
+
+        assertEquals(2, classPathResourceIndex.getSubResources(url).size());
+    }
+
+    @Test
+    public void getLastModified() throws Exception {
+        URL url = classLoader.getResource("org/unitils/testdata/exampleResourceData.xml");
+
+        long result = classPathResourceIndex.getLastModified(url);
+
+        assertEquals(new File(url.toURI()).lastModified(), result);
+    }
+
+    @Test
+    public void lastModifiedOfChangedFile() throws Exception {
+        File file = new File(tempDir, "script.sql");
+        FileUtils.writeStringToFile(file, "script", "UTF-8");
+        file.setLastModified(1000000000000L);
+        URL url = file.toURI().toURL();
+        assertEquals(1000000000000L, classPathResourceIndex.getLastModified(url));
+
+        file.setLastModified(2000000000000L);
+
+        assertEquals(2000000000000L, classPathResourceIndex.getLastModified(url));
+    }
+
+    @Test
+    public void clear() throws Exception {
+        List<URL> result1 = classPathResourceIndex.getResources(classLoader, "org/unitils/testdata/exampleResourceData.xml");
+        classPathResourceIndex.clear();
+        List<URL> result2 = classPathResourceIndex.getResources(classLoader, "org/unitils/testdata/exampleResourceData.xml");
+
+        assertNotSame(result1, result2);
+        assertEquals(result1, result2);
+    }
+}
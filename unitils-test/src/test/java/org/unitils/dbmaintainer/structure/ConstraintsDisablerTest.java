@@ -145,6 +145,21 @@ public class ConstraintsDisablerTest extends UnitilsJUnit4 {
     }
 
 
+    /**
+     * Tests whether disabling the constraints again only handles the constraints that were not yet disabled.
+     */
+    @Test
+    public void testDisableConstraints_twice() throws Exception {
+        constraintsDisabler.disableConstraints();
+        executeUpdate("create table table4 (col1 varchar(10) not null, foreign key (col1) references table1(col1))", dataSource);
+        constraintsDisabler.disableConstraints();
+
+        // Should not throw exception anymore
+        executeUpdate("insert into table2 (col1) values ('test')", dataSource);
+        executeUpdate("insert into table4 (col1) values (null)", dataSource);
+    }
+
+
     /**
      * Creates the test tables
      */
@@ -159,6 +174,7 @@ public class ConstraintsDisablerTest extends UnitilsJUnit4 {
      * Drops the test tables
      */
     protected void cleanupTestDatabase() {
+        executeUpdateQuietly("drop table table4", dataSource);
         executeUpdateQuietly("drop table table3", dataSource);
         executeUpdateQuietly("drop table table2", dataSource);
         executeUpdateQuietly("drop table table1", dataSource);
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbunit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.executeUpdateQuietly;
+import static org.unitils.database.SQLUnitils.getItemAsString;
+import static org.unitils.database.util.TransactionMode.DISABLED;
+import static org.unitils.thirdparty.org.apache.commons.io.FileUtils.writeStringToFile;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.IDataSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.core.UnitilsException;
+import org.unitils.database.annotations.TestDataSource;
+import org.unitils.database.annotations.Transactional;
+import org.unitils.dbunit.datasetfactory.impl.MultiSchemaXmlDataSetFactory;
+import org.unitils.dbunit.datasetloadstrategy.impl.CleanInsertLoadStrategy;
+import org.unitils.dbunit.util.DbUnitDatabaseConnection;
+
+/**
+ * Tests loading the tables of a data set concurrently using the DbUnitModule. Transactions are disabled: tables are
+ * never loaded concurrently when a transaction is active for the test.
+ */
+@Transactional(DISABLED)
+public class DbUnitModuleParallelLoadTest extends UnitilsJUnit4 {
+
+    private DbUnitModule dbUnitModule;
+
+    @TestDataSource
+    private DataSource dataSource;
+
+    private File dataSetFile;
+
+
+    @Before
+    public void setUp() throws Exception {
+        Properties configuration = new ConfigurationLoader().loadConfiguration();
+        configuration.setProperty(DbUnitModule.PROPKEY_MAX_PARALLEL_TABLES, "4");
+        dbUnitModule = new DbUnitModule();
+        dbUnitModule.init(configuration);
+
+        dropTestTables();
+        createTestTables();
+
+        dataSetFile = File.createTempFile("parallelDataSet", ".xml");
+        writeStringToFile(dataSetFile, "<dataset>" +
+                "<test1 dataset=\"1\"/>" +
+                "<test2 dataset=\"2\"/>" +
+                "<test3 dataset=\"3\"/>" +
+                "</dataset>", "UTF-8");
+        RecordingLoadStrategy.threadNames.clear();
+        RecordingLoadStrategy.failingTableName = null;
+    }
+
+
+    @After
+    public void tearDown() throws Exception {
+        dropTestTables();
+        dataSetFile.delete();
+    }
+
+
+    @Test
+    public void tablesLoadedConcurrently() throws Exception {
+        assertTrue(dbUnitModule.isParallelLoadPossible());
+        executeUpdate("insert into test1(dataset) values('existing')", dataSource);
+
+        dbUnitModule.insertDataSet(dataSetFile, MultiSchemaXmlDataSetFactory.class, RecordingLoadStrategy.class);
+
+        assertEquals("1", getItemAsString("select dataset from test1", dataSource));
+        assertEquals("2", getItemAsString("select dataset from test2", dataSource));
+        assertEquals("3", getItemAsString("select dataset from test3", dataSource));
+        assertEquals(3, RecordingLoadStrategy.threadNames.size());
+        assertTrue(Collections.disjoint(RecordingLoadStrategy.threadNames, Collections.singleton(Thread.currentThread().getName())));
+    }
+
+
+    @Test
+    public void tablesLoadedInSequence() throws Exception {
+        dbUnitModule.maxParallelTables = 1;
+
+        dbUnitModule.insertDataSet(dataSetFile, MultiSchemaXmlDataSetFactory.class, RecordingLoadStrategy.class);
+
+        assertEquals("3", getItemAsString("select dataset from test3", dataSource));
+        assertEquals(Collections.singleton(Thread.currentThread().getName()), RecordingLoadStrategy.threadNames);
+    }
+
+
+    @Test
+    public void errorIsRethrown() throws Exception {
+        assertTrue(dbUnitModule.isParallelLoadPossible());
+        RecordingLoadStrategy.failingTableName = "test2";
+        try {
+            dbUnitModule.insertDataSet(dataSetFile, MultiSchemaXmlDataSetFactory.class, RecordingLoadStrategy.class);
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            assertEquals("Failing table", e.getMessage());
+        }
+        assertEquals("3", getItemAsString("select dataset from test3", dataSource));
+    }
+
+
+    /**
+     * Creates the test tables.
+     */
+    private void createTestTables() {
+        executeUpdate("create table test1(dataset varchar(100))", dataSource);
+        executeUpdate("create table test2(dataset varchar(100))", dataSource);
+        executeUpdate("create table test3(dataset varchar(100))", dataSource);
+    }
+
+
+    /**
+     * Removes the test database tables
+     */
+    private void dropTestTables() {
+        executeUpdateQuietly("drop table test1", dataSource);
+        executeUpdateQuietly("drop table test2", dataSource);
+        executeUpdateQuietly("drop table test3", dataSource);
+    }
+
+
+    public static class RecordingLoadStrategy extends CleanInsertLoadStrategy {
+
+        private static Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+
+        private static String failingTableName;
+
+        @Override
+        public void execute(DbUnitDatabaseConnection dbUnitDatabaseConnection, IDataSet dataSet) {
+            threadNames.add(Thread.currentThread().getName());
+            if (getTableName(dataSet).equals(failingTableName)) {
+                throw new UnitilsException("Failing table");
+            }
+            super.execute(dbUnitDatabaseConnection, dataSet);
+        }
+
+        private String getTableName(IDataSet dataSet) {
+            try {
+                return dataSet.getTableNames()[0];
+            } catch (DataSetException e) {
+                throw new UnitilsException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbunit;
+
+import static org.junit.Assert.assertEquals;
+import static org.unitils.database.SQLUnitils.executeUpdate;
+import static org.unitils.database.SQLUnitils.executeUpdateQuietly;
+import static org.unitils.database.SQLUnitils.getItemAsLong;
+import static org.unitils.database.SQLUnitils.getItemsAsStringSet;
+import static org.unitils.reflectionassert.ReflectionAssert.assertLenientEquals;
+import static org.unitils.thirdparty.org.apache.commons.io.FileUtils.writeStringToFile;
+
+import java.io.File;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.ConfigurationLoader;
+import org.unitils.database.annotations.TestDataSource;
+import org.unitils.dbunit.datasetloadstrategy.impl.CleanInsertLoadStrategy;
+import org.unitils.dbunit.datasetloadstrategy.impl.InsertLoadStrategy;
+
+/**
+ * Tests streaming a data set into the database using the DbUnitModule.
+ */
+public class DbUnitModuleStreamDataSetTest extends UnitilsJUnit4 {
+
+    private DbUnitModule dbUnitModule;
+
+    @TestDataSource
+    private DataSource dataSource;
+
+    private File dataSetFile;
+
+
+    @Before
+    public void setUp() throws Exception {
+        Properties configuration = new ConfigurationLoader().loadConfiguration();
+        configuration.setProperty(DbUnitModule.PROPKEY_STREAMING_BATCH_SIZE, "2");
+        dbUnitModule = new DbUnitModule();
+        dbUnitModule.init(configuration);
+
+        dropTestTables();
+        createTestTables();
+
+        dataSetFile = File.createTempFile("streamedDataSet", ".xml");
+        writeStringToFile(dataSetFile, "<dataset>" +
+                "<test dataset=\"1\"/>" +
+                "<test dataset=\"2\"/>" +
+                "<test dataset=\"3\"/>" +
+                "<test2 dataset=\"a\"/>" +
+                "<test dataset=\"4\"/>" +
+                "<test dataset=\"[null]\"/>" +
+                "</dataset>", "UTF-8");
+    }
+
+
+    @After
+    public void tearDown() throws Exception {
+        dropTestTables();
+        dataSetFile.delete();
+    }
+
+
+    @Test
+    public void cleanInsert() throws Exception {
+        executeUpdate("insert into test(dataset) values('existing')", dataSource);
+        executeUpdate("insert into test2(dataset) values('existing')", dataSource);
+
+        dbUnitModule.streamDataSet(dataSetFile, CleanInsertLoadStrategy.class);
+
+        assertLenientEquals(new String[]{"1", "2", "3", "4"}, getItemsAsStringSet("select dataset from test where dataset is not null", dataSource));
+        assertEquals(5, getItemAsLong("select count(1) from test", dataSource));
+        assertLenientEquals(new String[]{"a"}, getItemsAsStringSet("select dataset from test2", dataSource));
+    }
+
+
+    @Test
+    public void insert() throws Exception {
+        executeUpdate("insert into test(dataset) values('existing')", dataSource);
+
+        dbUnitModule.streamDataSet(dataSetFile, InsertLoadStrategy.class);
+
+        assertLenientEquals(new String[]{"existing", "1", "2", "3", "4"}, getItemsAsStringSet("select dataset from test where dataset is not null", dataSource));
+        assertEquals(6, getItemAsLong("select count(1) from test", dataSource));
+    }
+
+
+    /**
+     * Creates the test tables.
+     */
+    private void createTestTables() {
+        executeUpdate("create table test(dataset varchar(100))", dataSource);
+        executeUpdate("create table test2(dataset varchar(100))", dataSource);
+    }
+
+
+    /**
+     * Removes the test database tables
+     */
+    private void dropTestTables() {
+        executeUpdateQuietly("drop table test", dataSource);
+        executeUpdateQuietly("drop table test2", dataSource);
+    }
+}
@@ -18,6 +18,7 @@ package org.unitils.dbunit.dataset;
 import static org.dbunit.dataset.datatype.DataType.*;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import org.junit.Test;
 import org.unitils.core.UnitilsException;
 import org.unitils.dbunit.dataset.comparison.ColumnDifference;
@@ -140,4 +141,37 @@ public class ColumnComparisonTest {
         assertNotNull(result);
     }
 
+
+    @Test
+    public void castedValueIsReusedForSameType() throws Exception {
+        Column expectedValue = new Column("column", VARCHAR, "2009-06-10");
+
+        Object result1 = expectedValue.getCastedValue(DATE);
+        Object result2 = expectedValue.getCastedValue(DATE);
+
+        assertSame(result1, result2);
+    }
+
+
+    @Test
+    public void equalBinaryValue() throws Exception {
+        Column expectedValue = new Column("column", BINARY, new byte[]{1, 2, 3});
+        Column actualValue = new Column("column", BINARY, new byte[]{1, 2, 3});
+
+        ColumnDifference result = expectedValue.compare(actualValue);
+
+        assertNull(result);
+    }
+
+
+    @Test
+    public void differentBinaryValue() throws Exception {
+        Column expectedValue = new Column("column", BINARY, new byte[]{1, 2, 3});
+        Column actualValue = new Column("column", BINARY, new byte[]{1, 2, 4});
+
+        ColumnDifference result = expectedValue.compare(actualValue);
+
+        assertNotNull(result);
+    }
+
 }
\ No newline at end of file
@@ -108,6 +108,34 @@ public class RowComparisonTest extends UnitilsJUnit4 {
     }
 
 
+    @Test
+    public void testGetColumnIgnoresCase() throws Exception {
+        addColumn(actualRow, "column1", "value1");
+        actualRow.addPrimaryKeyColumn(new Column("Pk_Column", VARCHAR, "pk"));
+
+        assertEquals("value1", actualRow.getColumn("COLUMN1").getValue());
+        assertEquals("pk", actualRow.getColumn("pk_column").getValue());
+        assertNull(actualRow.getColumn("xxxxx"));
+    }
+
+
+    @Test(expected = UnitilsException.class)
+    public void testAddDuplicateColumnDifferentCase() throws Exception {
+        addColumn(actualRow, "column1", "value1");
+        actualRow.addPrimaryKeyColumn(new Column("COLUMN1", VARCHAR, "pk"));
+    }
+
+
+    @Test
+    public void testGetColumnWithNameThatChangesLengthInUpperCase() throws Exception {
+        addColumn(actualRow, "stra\u00dfe", "value1");
+        addColumn(actualRow, "STRASSE", "value2");
+
+        assertEquals("value1", actualRow.getColumn("STRA\u00dfE").getValue());
+        assertEquals("value2", actualRow.getColumn("strasse").getValue());
+    }
+
+
     @Test
     public void testGetColumnDifferenceForUnknownColumn() throws Exception {
         RowDifference rowDifference = new RowDifference(new Row(), new Row());
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbunit.util;
+
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+import static org.unitils.reflectionassert.ReflectionAssert.assertLenientEquals;
+import static org.unitils.thirdparty.org.apache.commons.io.FileUtils.*;
+
+/**
+ * Test for {@link MultiSchemaXmlDataSetReader} using compiled data sets.
+ */
+public class MultiSchemaXmlDataSetReaderCompiledTest {
+
+    /* Tested object */
+    private MultiSchemaXmlDataSetReader multiSchemaXmlDataSetReader;
+
+    private CompiledDataSetCache compiledDataSetCache;
+
+    private File cacheDirectory;
+
+    private File dataSetFile;
+
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDirectory = File.createTempFile("compiledDataSets", "");
+        cacheDirectory.delete();
+        cacheDirectory.mkdirs();
+        dataSetFile = new File(cacheDirectory, "dataSet.xml");
+        writeStringToFile(dataSetFile, "<dataset xmlns:b=\"SCHEMA_B\">" +
+                "<TABLE_A COLUMN_1=\"1\" COLUMN_2=\"a &amp; é\"/>" +
+                "<b:TABLE_A COLUMN_1=\"2\"/>" +
+                "<TABLE_A COLUMN_2=\"[null]\"/>" +
+                "<TABLE_B/>" +
+                "</dataset>", "UTF-8");
+
+        compiledDataSetCache = new CompiledDataSetCache(cacheDirectory);
+        multiSchemaXmlDataSetReader = new MultiSchemaXmlDataSetReader("SCHEMA_A", compiledDataSetCache);
+    }
+
+
+    @After
+    public void tearDown() throws Exception {
+        deleteDirectory(cacheDirectory);
+    }
+
+
+    @Test
+    public void dataSetIsCompiledOnFirstRead() throws Exception {
+        MultiSchemaDataSet result = multiSchemaXmlDataSetReader.readDataSetXml(dataSetFile);
+
+        assertTrue(compiledDataSetCache.getCompiledFile(dataSetFile).exists());
+        assertDataSet(result);
+    }
+
+    @Test
+    public void compiledDataSetIsReadOnSecondRead() throws Exception {
+        multiSchemaXmlDataSetReader.readDataSetXml(dataSetFile);
+        File compiledFile = compiledDataSetCache.getCompiledFile(dataSetFile);
+        long lastModified = compiledFile.lastModified();
+
+        MultiSchemaDataSet result = multiSchemaXmlDataSetReader.readDataSetXml(dataSetFile);
+
+        assertEquals(lastModified, compiledFile.lastModified());
+        assertDataSet(result);
+    }
+
+    @Test
+    public void modifiedDataSetIsCompiledAgain() throws Exception {
+        multiSchemaXmlDataSetReader.readDataSetXml(dataSetFile);
+        File compiledFile = compiledDataSetCache.getCompiledFile(dataSetFile);
+
+        writeStringToFile(dataSetFile, "<dataset><TABLE_C COLUMN_1=\"3\"/></dataset>", "UTF-8");
+        MultiSchemaDataSet result = multiSchemaXmlDataSetReader.readDataSetXml(dataSetFile);
+
+        assertFalse(compiledFile.equals(compiledDataSetCache.getCompiledFile(dataSetFile)));
+        assertEquals("3", result.getDataSetForSchema("SCHEMA_A").getTable("TABLE_C").getValue(0, "COLUMN_1"));
+    }
+
+    @Test
+    public void invalidDataSetIsNotCompiled() throws Exception {
+        writeStringToFile(dataSetFile, "<dataset><TABLE_C COLUMN_1=\"3\"></dataset>", "UTF-8");
+        try {
+            multiSchemaXmlDataSetReader.readDataSetXml(dataSetFile);
+            fail("Exception expected");
+        } catch (Exception e) {
+            // expected
+        }
+        assertFalse(compiledDataSetCache.getCompiledFile(dataSetFile).exists());
+        assertEquals(1, cacheDirectory.list().length);
+    }
+
+
+    private void assertDataSet(MultiSchemaDataSet result) throws Exception {
+        assertLenientEquals(new String[]{"SCHEMA_A", "SCHEMA_B"}, result.getSchemaNames());
+
+        IDataSet dataSetA = result.getDataSetForSchema("SCHEMA_A");
+        assertLenientEquals(new String[]{"TABLE_A", "TABLE_B"}, dataSetA.getTableNames());
+        ITable tableA = dataSetA.getTable("TABLE_A");
+        assertEquals(2, tableA.getRowCount());
+        assertEquals("1", tableA.getValue(0, "COLUMN_1"));
+        assertEquals("a & é", tableA.getValue(0, "COLUMN_2"));
+        assertNull(tableA.getValue(1, "COLUMN_2"));
+        assertEquals(0, dataSetA.getTable("TABLE_B").getRowCount());
+
+        IDataSet dataSetB = result.getDataSetForSchema("SCHEMA_B");
+        assertEquals("2", dataSetB.getTable("TABLE_A").getValue(0, "COLUMN_1"));
+    }
+}
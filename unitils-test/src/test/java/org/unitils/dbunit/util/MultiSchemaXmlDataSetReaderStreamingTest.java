@@ -0,0 +1,155 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.dbunit.util;
+
+import org.dbunit.dataset.IDataSet;
+import org.dbunit.dataset.ITable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.unitils.thirdparty.org.apache.commons.io.FileUtils.*;
+
+/**
+ * Test for streaming data sets using the {@link MultiSchemaXmlDataSetReader}.
+ */
+public class MultiSchemaXmlDataSetReaderStreamingTest {
+
+    /* Tested object */
+    private MultiSchemaXmlDataSetReader multiSchemaXmlDataSetReader;
+
+    private RecordingDataSetBatchHandler dataSetBatchHandler;
+
+    private File dataSetFile;
+
+
+    @Before
+    public void setUp() throws Exception {
+        dataSetFile = File.createTempFile("streamedDataSet", ".xml");
+        writeStringToFile(dataSetFile, "<dataset xmlns:b=\"SCHEMA_B\">" +
+                "<TABLE_A COLUMN_1=\"1\" COLUMN_2=\"a\"/>" +
+                "<TABLE_A COLUMN_1=\"2\"/>" +
+                "<TABLE_A COLUMN_2=\"[null]\"/>" +
+                "<b:TABLE_A COLUMN_1=\"4\"/>" +
+                "<TABLE_B/>" +
+                "<TABLE_A COLUMN_1=\"5\"/>" +
+                "</dataset>", "UTF-8");
+
+        dataSetBatchHandler = new RecordingDataSetBatchHandler();
+        multiSchemaXmlDataSetReader = new MultiSchemaXmlDataSetReader("SCHEMA_A");
+    }
+
+
+    @After
+    public void tearDown() throws Exception {
+        dataSetFile.delete();
+    }
+
+
+    @Test
+    public void batchesInDataSetOrder() throws Exception {
+        multiSchemaXmlDataSetReader.streamDataSetXml(dataSetBatchHandler, 2, dataSetFile);
+
+        assertEquals(5, dataSetBatchHandler.batches.size());
+        assertBatch(0, "SCHEMA_A", "TABLE_A", 2, true);
+        assertBatch(1, "SCHEMA_A", "TABLE_A", 1, false);
+        assertBatch(2, "SCHEMA_B", "TABLE_A", 1, true);
+        assertBatch(3, "SCHEMA_A", "TABLE_B", 0, true);
+        assertBatch(4, "SCHEMA_A", "TABLE_A", 1, false);
+    }
+
+    @Test
+    public void rowValues() throws Exception {
+        multiSchemaXmlDataSetReader.streamDataSetXml(dataSetBatchHandler, 2, dataSetFile);
+
+        ITable firstBatch = getTable(0);
+        assertEquals("1", firstBatch.getValue(0, "COLUMN_1"));
+        assertEquals("a", firstBatch.getValue(0, "COLUMN_2"));
+        assertEquals("2", firstBatch.getValue(1, "COLUMN_1"));
+        assertNull(getTable(1).getValue(0, "COLUMN_2"));
+    }
+
+    @Test
+    public void batchPerTableSwitch() throws Exception {
+        multiSchemaXmlDataSetReader.streamDataSetXml(dataSetBatchHandler, 1000, dataSetFile);
+
+        assertEquals(4, dataSetBatchHandler.batches.size());
+        assertBatch(0, "SCHEMA_A", "TABLE_A", 3, true);
+        assertBatch(3, "SCHEMA_A", "TABLE_A", 1, false);
+    }
+
+    @Test
+    public void compiledDataSet() throws Exception {
+        File cacheDirectory = File.createTempFile("compiledDataSets", "");
+        cacheDirectory.delete();
+        cacheDirectory.mkdirs();
+        try {
+            multiSchemaXmlDataSetReader = new MultiSchemaXmlDataSetReader("SCHEMA_A", new CompiledDataSetCache(cacheDirectory));
+            multiSchemaXmlDataSetReader.streamDataSetXml(new RecordingDataSetBatchHandler(), 2, dataSetFile);
+            multiSchemaXmlDataSetReader.streamDataSetXml(dataSetBatchHandler, 2, dataSetFile);
+
+            assertEquals(5, dataSetBatchHandler.batches.size());
+            assertBatch(4, "SCHEMA_A", "TABLE_A", 1, false);
+        } finally {
+            deleteDirectory(cacheDirectory);
+        }
+    }
+
+
+    private void assertBatch(int index, String schemaName, String tableName, int rowCount, boolean firstBatch) throws Exception {
+        Batch batch = dataSetBatchHandler.batches.get(index);
+        assertEquals(schemaName, batch.schemaName);
+        assertEquals(firstBatch, batch.firstBatch);
+        assertEquals(1, batch.dataSet.getTableNames().length);
+        assertEquals(rowCount, batch.dataSet.getTable(tableName).getRowCount());
+    }
+
+    private ITable getTable(int index) throws Exception {
+        IDataSet dataSet = dataSetBatchHandler.batches.get(index).dataSet;
+        return dataSet.getTable(dataSet.getTableNames()[0]);
+    }
+
+
+    private static class RecordingDataSetBatchHandler implements DataSetBatchHandler {
+
+        private List<Batch> batches = new ArrayList<Batch>();
+
+        public void handleBatch(String schemaName, IDataSet dataSet, boolean firstBatch) {
+            batches.add(new Batch(schemaName, dataSet, firstBatch));
+        }
+    }
+
+
+    private static class Batch {
+
+        private String schemaName;
+
+        private IDataSet dataSet;
+
+        private boolean firstBatch;
+
+        private Batch(String schemaName, IDataSet dataSet, boolean firstBatch) {
+            this.schemaName = schemaName;
+            this.dataSet = dataSet;
+            this.firstBatch = firstBatch;
+        }
+    }
+}
@@ -15,11 +15,14 @@
  */
 package org.unitils.inject;
 
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 import org.unitils.core.UnitilsException;
 import org.unitils.inject.util.InjectionUtils;
 import static org.unitils.inject.util.PropertyAccess.FIELD;
+import static org.unitils.inject.util.PropertyAccess.SETTER;
 
 import java.util.HashMap;
 import java.util.List;
@@ -48,12 +51,48 @@ public class InjectionUtilsInjectIntoByTypeTest {
     }
 
 
+    @Test
+    public void injectIntoByTypeSameTypeIntoOtherTarget() {
+        InjectTarget otherInjectTarget = new InjectTarget();
+        Properties otherTestProperties = new Properties();
+
+        InjectionUtils.injectIntoByType(testProperties, Properties.class, injectTarget, FIELD);
+        Object oldValue = InjectionUtils.injectIntoByType(otherTestProperties, Properties.class, otherInjectTarget, FIELD);
+
+        assertNull(oldValue);
+        assertSame(testProperties, injectTarget.properties);
+        assertSame(otherTestProperties, otherInjectTarget.properties);
+    }
+
+
+    @Test
+    public void injectIntoByTypeSetterReturnsOldValue() {
+        InjectionUtils.injectIntoByType(testProperties, Properties.class, injectTarget, SETTER);
+        Object oldValue = InjectionUtils.injectIntoByType(new Properties(), Properties.class, injectTarget, SETTER);
+
+        assertSame(testProperties, oldValue);
+    }
+
+
     @Test(expected = UnitilsException.class)
     public void genericsButMoreThanOneFieldWithSameRawType() {
         InjectionUtils.injectIntoByType(testMap, Map.class, injectTarget, FIELD);
     }
 
 
+    @Test
+    public void errorIsThrownForEveryInjection() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                InjectionUtils.injectIntoByType(testMap, Map.class, injectTarget, FIELD);
+                fail("UnitilsException expected");
+            } catch (UnitilsException e) {
+                // expected
+            }
+        }
+    }
+
+
     public static class InjectTarget {
 
         public Properties properties;
@@ -62,6 +101,13 @@ public class InjectionUtilsInjectIntoByTypeTest {
 
         public Map<String, String> map2;
 
+        public Properties getProperties() {
+            return properties;
+        }
+
+        public void setProperties(Properties properties) {
+            this.properties = properties;
+        }
     }
 
 
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io;
+
+import org.junit.Test;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.io.annotation.FileContent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+
+/**
+ * @since 3.4
+ */
+public class IOModuleLazyFileContentIntegrationTest extends UnitilsJUnit4 {
+
+    @FileContent
+    protected BufferedReader readerContent;
+
+    @FileContent
+    protected CharSequence charSequenceContent;
+
+    @Test
+    public void lazyValuesTest() throws IOException {
+        assertEquals("line 1", readerContent.readLine());
+        assertEquals("line 2", readerContent.readLine());
+        assertNull(readerContent.readLine());
+        assertEquals("line 1\nline 2\n", charSequenceContent.toString());
+    }
+
+}
@@ -24,6 +24,9 @@ import org.unitils.io.annotation.FileContent;
 import org.unitils.io.filecontent.FileContentReader;
 import org.unitils.mock.Mock;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Properties;
 
 import static org.junit.Assert.*;
@@ -100,6 +103,29 @@ public class FileContentAnnotationHandlerTest extends UnitilsJUnit4 {
         }
     }
 
+    @Test
+    public void closeAfterTestMethod() {
+        ReaderTestClass testObject = new ReaderTestClass();
+        testObject.reader = new StringReader("content");
+
+        fileContentAnnotationHandler.afterTestMethod(testObject, null, null);
+        try {
+            testObject.reader.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // expected: reader is closed
+        }
+    }
+
+    @Test
+    public void afterTestMethodIgnoresContentThatIsNotCloseable() {
+        DefaultValuesTestClass testObject = new DefaultValuesTestClass();
+        testObject.properties = testProperties;
+
+        fileContentAnnotationHandler.afterTestMethod(testObject, null, null);
+        assertSame(testProperties, testObject.properties);
+    }
+
 
     private static class DefaultValuesTestClass {
 
@@ -119,6 +145,12 @@ public class FileContentAnnotationHandlerTest extends UnitilsJUnit4 {
         protected Properties properties;
     }
 
+    private static class ReaderTestClass {
+
+        @FileContent
+        protected Reader reader;
+    }
+
     private static class NoAnnotationTestClass {
 
         protected Properties properties;
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.UnitilsException;
+import org.unitils.thirdparty.org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @since 3.4
+ */
+public class ByteBufferConversionStrategyTest {
+
+    /* Tested object */
+    private ByteBufferConversionStrategy conversion = new ByteBufferConversionStrategy();
+
+    private File file;
+
+
+    @Before
+    public void initialize() throws IOException {
+        file = File.createTempFile("ByteBufferConversionStrategyTest", ".bin");
+        FileUtils.writeStringToFile(file, "abc", "ISO-8859-1");
+    }
+
+    @After
+    public void cleanUp() {
+        file.delete();
+    }
+
+
+    @Test
+    public void file() throws IOException {
+        ByteBuffer result = conversion.convertContent(file, "ISO-8859-1");
+        assertTrue(result.isReadOnly());
+        assertEquals(ByteBuffer.wrap("abc".getBytes("ISO-8859-1")), result);
+    }
+
+    @Test
+    public void fileLargerThan2GB() throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            // sparse file, no disk space is used
+            randomAccessFile.setLength(Integer.MAX_VALUE + 1L);
+        } finally {
+            randomAccessFile.close();
+        }
+        try {
+            conversion.convertContent(file, "ISO-8859-1");
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            assertTrue(e.getMessage().contains(file.toString()));
+            assertTrue(e.getMessage().contains("2147483648 bytes"));
+        }
+    }
+
+    @Test
+    public void inputStream() throws IOException {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream("abc".getBytes("ISO-8859-1"));
+
+        ByteBuffer result = conversion.convertContent(inputStream, "ISO-8859-1");
+        assertTrue(result.isReadOnly());
+        assertEquals(ByteBuffer.wrap("abc".getBytes("ISO-8859-1")), result);
+    }
+}
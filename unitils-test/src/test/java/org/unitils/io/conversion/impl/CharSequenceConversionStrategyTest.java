@@ -0,0 +1,124 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.thirdparty.org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 3.4
+ */
+public class CharSequenceConversionStrategyTest {
+
+    /* Tested object */
+    private CharSequenceConversionStrategy conversion = new CharSequenceConversionStrategy();
+
+    private File file;
+
+    private String input = "€é*ù¨´ù]:~e;[=+";
+
+
+    @Before
+    public void initialize() throws IOException {
+        file = File.createTempFile("CharSequenceConversionStrategyTest", ".txt");
+    }
+
+    @After
+    public void cleanUp() {
+        file.delete();
+    }
+
+
+    @Test
+    public void singleByteEncoding() throws IOException {
+        String latin1Input = "éèù¨´ù]:~e;[=+";
+        FileUtils.writeStringToFile(file, latin1Input, "ISO-8859-1");
+
+        CharSequence result = conversion.convertContent(file, "ISO-8859-1");
+        assertTrue(result instanceof MappedCharSequence);
+        assertEquals(latin1Input, result.toString());
+        assertEquals(latin1Input.length(), result.length());
+        assertEquals('è', result.charAt(1));
+        assertEquals(latin1Input.substring(2, 5), result.subSequence(2, 5).toString());
+    }
+
+    @Test
+    public void multiByteEncoding() throws IOException {
+        FileUtils.writeStringToFile(file, input, "utf-8");
+
+        CharSequence result = conversion.convertContent(file, "utf-8");
+        assertTrue(result instanceof ChunkedCharSequence);
+        assertEquals(input, result.toString());
+        assertEquals(input.length(), result.length());
+        assertEquals('é', result.charAt(1));
+        assertEquals(input.substring(2, 5), result.subSequence(2, 5).toString());
+    }
+
+    @Test
+    public void multiByteEncodingThatCannotBeChunked() throws IOException {
+        FileUtils.writeStringToFile(file, input, "utf-16");
+
+        CharSequence result = conversion.convertContent(file, "utf-16");
+        assertFalse(result instanceof ChunkedCharSequence);
+        assertEquals(input, result.toString());
+    }
+
+    @Test
+    public void decodedInChunks() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            // mix of 1, 2, 3 and 4 byte (surrogate pair) chars
+            content.append("a\u00e9\u20ac\ud834\udd1e").append(i);
+        }
+        String expected = content.toString();
+        ByteBuffer bytes = ByteBuffer.wrap(expected.getBytes("utf-8"));
+
+        ChunkedCharSequence result = new ChunkedCharSequence(bytes, Charset.forName("utf-8"), 7);
+        assertEquals(expected.length(), result.length());
+        assertEquals(expected, result.toString());
+        for (int i = expected.length() - 1; i >= 0; i--) {
+            assertEquals(expected.charAt(i), result.charAt(i));
+        }
+        assertEquals(expected.substring(100, 200), result.subSequence(100, 200).toString());
+    }
+
+    @Test
+    public void emptyFileDecodedInChunks() throws IOException {
+        CharSequence result = conversion.convertContent(file, "utf-8");
+        assertEquals(0, result.length());
+        assertEquals("", result.toString());
+    }
+
+    @Test
+    public void inputStream() throws IOException {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(input.getBytes("utf-8"));
+
+        CharSequence result = conversion.convertContent(inputStream, "utf-8");
+        assertEquals(input, result.toString());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.conversion.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.thirdparty.org.apache.commons.io.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 3.4
+ */
+public class ReaderConversionStrategyTest {
+
+    /* Tested object */
+    private ReaderConversionStrategy conversion = new ReaderConversionStrategy();
+
+    private File file;
+
+
+    @Before
+    public void initialize() throws IOException {
+        file = File.createTempFile("ReaderConversionStrategyTest", ".txt");
+        FileUtils.writeStringToFile(file, "line 1\nline 2\n", "utf-8");
+    }
+
+    @After
+    public void cleanUp() {
+        file.delete();
+    }
+
+
+    @Test
+    public void file() throws IOException {
+        Reader result = conversion.convertContent(file, "utf-8");
+        try {
+            assertTrue(result instanceof BufferedReader);
+            assertEquals("line 1", ((BufferedReader) result).readLine());
+            assertEquals("line 2", ((BufferedReader) result).readLine());
+            assertNull(((BufferedReader) result).readLine());
+        } finally {
+            result.close();
+        }
+    }
+
+    @Test
+    public void inputStream() throws IOException {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream("line 1\nline 2\n".getBytes("utf-8"));
+
+        BufferedReader result = (BufferedReader) conversion.convertContent(inputStream, "utf-8");
+        assertEquals("line 1", result.readLine());
+        assertEquals("line 2", result.readLine());
+        assertNull(result.readLine());
+    }
+
+    @Test(expected = UnsupportedEncodingException.class)
+    public void invalidEncoding() throws IOException {
+        conversion.convertContent(file, "xxxx");
+    }
+}
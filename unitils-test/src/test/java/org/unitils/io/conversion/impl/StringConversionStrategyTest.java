@@ -21,6 +21,7 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 
 import static org.junit.Assert.assertEquals;
 
@@ -51,4 +52,12 @@ public class StringConversionStrategyTest {
         ByteArrayInputStream inputStream = new ByteArrayInputStream(input.getBytes());
         conversion.convertContent(inputStream, "xxxx");
     }
+
+    @Test
+    public void validEncodingForByteBuffer() throws IOException {
+        ByteBuffer content = ByteBuffer.wrap(input.getBytes("utf-8"));
+
+        String result = conversion.convertContent(content, "utf-8");
+        assertEquals(input, result);
+    }
 }
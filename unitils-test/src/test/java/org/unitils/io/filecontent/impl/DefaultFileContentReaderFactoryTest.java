@@ -33,6 +33,7 @@ import java.io.InputStream;
 import java.util.Properties;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.unitils.io.filecontent.impl.DefaultFileContentReaderFactory.*;
 import static org.unitils.io.reader.impl.DefaultFileResolvingStrategyFactory.PATH_PREFIX_PROPERTY;
@@ -72,6 +73,18 @@ public class DefaultFileContentReaderFactoryTest {
         assertTrue(fileContentReader.conversionStrategies.get(0) instanceof PropertiesConversionStrategy);
         assertTrue(fileContentReader.conversionStrategies.get(1) instanceof StringConversionStrategy);
         assertTrue(fileContentReader.readingStrategy instanceof FileReadingStrategy);
+        assertNull(fileContentReader.fileContentCache);
+        assertEquals(Long.MAX_VALUE, fileContentReader.mappedFileThreshold);
+    }
+
+    @Test
+    public void cacheAndMappedFileThreshold() {
+        properties.setProperty(CACHE_MAX_SIZE_KEY, "1000");
+        properties.setProperty(MAPPED_FILE_THRESHOLD_KEY, "500");
+
+        DefaultFileContentReader fileContentReader = (DefaultFileContentReader) defaultFileContentReaderFactory.createFileContentReader(properties);
+        assertEquals(1000, fileContentReader.fileContentCache.maxSize);
+        assertEquals(500, fileContentReader.mappedFileThreshold);
     }
 
     @Test
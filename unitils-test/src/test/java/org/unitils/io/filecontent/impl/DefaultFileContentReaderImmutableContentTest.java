@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.filecontent.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.UnitilsJUnit4;
+import org.unitils.core.UnitilsException;
+import org.unitils.io.conversion.ConversionStrategy;
+import org.unitils.io.conversion.impl.StringConversionStrategy;
+import org.unitils.io.reader.FileLocatingReadingStrategy;
+import org.unitils.io.reader.ReadingStrategy;
+import org.unitils.mock.Mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @since 3.4
+ */
+public class DefaultFileContentReaderImmutableContentTest extends UnitilsJUnit4 {
+
+    /* Tested object */
+    private DefaultFileContentReader defaultFileContentReader;
+
+    private Mock<FileLocatingReadingStrategy> readingStrategyMock;
+    private Mock<ReadingStrategy> otherReadingStrategyMock;
+
+    private List<ConversionStrategy<?>> conversionStrategies;
+    private File file;
+
+
+    @Before
+    public void initialize() throws Exception {
+        conversionStrategies = new ArrayList<ConversionStrategy<?>>();
+        conversionStrategies.add(new StringConversionStrategy());
+
+        file = File.createTempFile("defaultFileContentReader", ".txt");
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write("content".getBytes("utf-8"));
+        } finally {
+            outputStream.close();
+        }
+        readingStrategyMock.returns(file.toURI()).getFileURI("fileName", DefaultFileContentReader.class);
+    }
+
+    @After
+    public void cleanup() {
+        file.delete();
+    }
+
+
+    @Test
+    public void cachedContentIsShared() throws Exception {
+        defaultFileContentReader = new DefaultFileContentReader(readingStrategyMock.getMock(), conversionStrategies, "utf-8", new FileContentCache(1000), Long.MAX_VALUE);
+
+        String result1 = defaultFileContentReader.readFileContent("fileName", String.class, null, DefaultFileContentReader.class);
+        String result2 = defaultFileContentReader.readFileContent("fileName", String.class, null, DefaultFileContentReader.class);
+        assertEquals("content", result1);
+        assertSame(result1, result2);
+    }
+
+    @Test
+    public void memoryMappedFile() throws Exception {
+        defaultFileContentReader = new DefaultFileContentReader(readingStrategyMock.getMock(), conversionStrategies, "utf-8", null, 0);
+
+        String result = defaultFileContentReader.readFileContent("fileName", String.class, null, DefaultFileContentReader.class);
+        assertEquals("content", result);
+    }
+
+    @Test
+    public void contentThatIsNotAFileIsReadFromStream() throws Exception {
+        defaultFileContentReader = new DefaultFileContentReader(readingStrategyMock.getMock(), conversionStrategies, "utf-8", new FileContentCache(1000), Long.MAX_VALUE);
+        readingStrategyMock.returns(new URI("http://localhost/otherFileName")).getFileURI("otherFileName", DefaultFileContentReader.class);
+        readingStrategyMock.returns(new ByteArrayInputStream("other content".getBytes("utf-8"))).getInputStream("otherFileName", DefaultFileContentReader.class);
+
+        String result = defaultFileContentReader.readFileContent("otherFileName", String.class, null, DefaultFileContentReader.class);
+        assertEquals("other content", result);
+    }
+
+    @Test
+    public void readingStrategyThatCannotLocateContent() throws Exception {
+        defaultFileContentReader = new DefaultFileContentReader(otherReadingStrategyMock.getMock(), conversionStrategies, "utf-8", new FileContentCache(1000), 0);
+        otherReadingStrategyMock.onceReturns(new ByteArrayInputStream("content 1".getBytes("utf-8"))).getInputStream("fileName", DefaultFileContentReader.class);
+        otherReadingStrategyMock.onceReturns(new ByteArrayInputStream("content 2".getBytes("utf-8"))).getInputStream("fileName", DefaultFileContentReader.class);
+
+        String result1 = defaultFileContentReader.readFileContent("fileName", String.class, null, DefaultFileContentReader.class);
+        String result2 = defaultFileContentReader.readFileContent("fileName", String.class, null, DefaultFileContentReader.class);
+        assertEquals("content 1", result1);
+        assertEquals("content 2", result2);
+    }
+
+    @Test
+    public void fileLargerThan2GB() throws Exception {
+        defaultFileContentReader = new DefaultFileContentReader(readingStrategyMock.getMock(), conversionStrategies, "utf-8", null, 0);
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            // sparse file, no disk space is used
+            randomAccessFile.setLength(Integer.MAX_VALUE + 1L);
+        } finally {
+            randomAccessFile.close();
+        }
+        try {
+            defaultFileContentReader.readFileContent("fileName", String.class, null, DefaultFileContentReader.class);
+            fail("UnitilsException expected");
+        } catch (UnitilsException e) {
+            assertTrue(e.getCause().getMessage().contains(file.toString()));
+            assertTrue(e.getCause().getMessage().contains("2147483648 bytes"));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.filecontent.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @since 3.4
+ */
+public class FileContentCacheTest {
+
+    /* Tested object */
+    private FileContentCache fileContentCache;
+
+    private File file1;
+    private File file2;
+
+
+    @Before
+    public void initialize() throws IOException {
+        fileContentCache = new FileContentCache(15);
+
+        file1 = createFile("0123456789");
+        file2 = createFile("01234");
+    }
+
+    @After
+    public void cleanup() {
+        file1.delete();
+        file2.delete();
+    }
+
+
+    @Test
+    public void cachedContent() {
+        fileContentCache.put(file1, "utf-8", String.class, "content");
+
+        Object result = fileContentCache.get(file1, "utf-8", String.class);
+        assertEquals("content", result);
+    }
+
+    @Test
+    public void otherEncodingOrTargetType() {
+        fileContentCache.put(file1, "utf-8", String.class, "content");
+
+        assertNull(fileContentCache.get(file1, "ISO-8859-1", String.class));
+        assertNull(fileContentCache.get(file1, "utf-8", Object.class));
+    }
+
+    @Test
+    public void modifiedFile() {
+        fileContentCache.put(file1, "utf-8", String.class, "content");
+        file1.setLastModified(file1.lastModified() - 10000);
+
+        Object result = fileContentCache.get(file1, "utf-8", String.class);
+        assertNull(result);
+    }
+
+    @Test
+    public void leastRecentlyUsedContentIsRemovedWhenMaxSizeIsExceeded() throws IOException {
+        File file3 = createFile("01234");
+        try {
+            fileContentCache.put(file1, "utf-8", String.class, "content1");
+            fileContentCache.put(file2, "utf-8", String.class, "content2");
+            fileContentCache.get(file1, "utf-8", String.class);
+            fileContentCache.put(file3, "utf-8", String.class, "content3");
+
+            assertEquals("content1", fileContentCache.get(file1, "utf-8", String.class));
+            assertNull(fileContentCache.get(file2, "utf-8", String.class));
+            assertEquals("content3", fileContentCache.get(file3, "utf-8", String.class));
+            assertEquals(15, fileContentCache.currentSize);
+        } finally {
+            file3.delete();
+        }
+    }
+
+    @Test
+    public void fileLargerThanMaxSizeIsNotCached() throws IOException {
+        File largeFile = createFile("0123456789012345");
+        try {
+            fileContentCache.put(largeFile, "utf-8", String.class, "content");
+
+            assertNull(fileContentCache.get(largeFile, "utf-8", String.class));
+            assertEquals(0, fileContentCache.currentSize);
+        } finally {
+            largeFile.delete();
+        }
+    }
+
+
+    private File createFile(String content) throws IOException {
+        File file = File.createTempFile("fileContentCache", ".txt");
+        FileOutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(content.getBytes("utf-8"));
+        } finally {
+            outputStream.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.io.temp.impl;
+
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.unitils.io.temp.impl.DefaultTempService.TRASH_DIR_NAME;
+
+/**
+ * @since 3.4
+ */
+public class DefaultTempServiceAsyncDeleteTest {
+
+    /* Tested object */
+    private DefaultTempService defaultTempService;
+
+    private File rootTempDir;
+    private File trashDir;
+    private RecordingExecutor deleteExecutor;
+
+
+    @Before
+    public void initialize() throws Exception {
+        rootTempDir = new File("target/" + DefaultTempServiceAsyncDeleteTest.class.getSimpleName());
+        trashDir = new File(rootTempDir, TRASH_DIR_NAME);
+        new DefaultTempService(rootTempDir).deleteTempFileOrDir(rootTempDir);
+        rootTempDir.mkdirs();
+
+        deleteExecutor = new RecordingExecutor();
+        defaultTempService = new DefaultTempService(rootTempDir, deleteExecutor);
+    }
+
+
+    @Test
+    public void deleteTempDir() throws Exception {
+        File tempDir = defaultTempService.createTempDir("tempDir");
+        new File(tempDir, "file.txt").createNewFile();
+
+        defaultTempService.deleteTempFileOrDir(tempDir);
+        assertFalse(tempDir.exists());
+        assertEquals(1, trashDir.listFiles().length);
+        assertEquals(1, deleteExecutor.runnables.size());
+
+        deleteExecutor.runAll();
+        assertEquals(0, trashDir.listFiles().length);
+    }
+
+    @Test
+    public void createTempFileThatAlreadyExists() throws Exception {
+        File tempFile = defaultTempService.createTempFile("tempFile.txt");
+
+        File result = defaultTempService.createTempFile("tempFile.txt");
+        assertEquals(tempFile, result);
+        assertTrue(result.exists());
+        assertEquals(1, deleteExecutor.runnables.size());
+    }
+
+    @Test
+    public void deletedSynchronouslyWhenRenameFails() throws Exception {
+        defaultTempService.deleteTempFileOrDir(rootTempDir);
+        assertFalse(rootTempDir.exists());
+        assertTrue(deleteExecutor.runnables.isEmpty());
+    }
+
+    @Test
+    public void emptyTrash() throws Exception {
+        trashDir.mkdirs();
+        new File(trashDir, "leftOverFile.txt").createNewFile();
+        new File(trashDir, "leftOverDir").mkdirs();
+
+        defaultTempService.emptyTrash();
+        assertEquals(2, deleteExecutor.runnables.size());
+
+        deleteExecutor.runAll();
+        assertEquals(0, trashDir.listFiles().length);
+    }
+
+    @Test
+    public void emptyTrashWithoutTrashDir() throws Exception {
+        defaultTempService.emptyTrash();
+        assertTrue(deleteExecutor.runnables.isEmpty());
+    }
+
+
+    private static class RecordingExecutor implements Executor {
+
+        private List<Runnable> runnables = new ArrayList<Runnable>();
+
+        public void execute(Runnable runnable) {
+            runnables.add(runnable);
+        }
+
+        public void runAll() {
+            for (Runnable runnable : runnables) {
+                runnable.run();
+            }
+        }
+    }
+}
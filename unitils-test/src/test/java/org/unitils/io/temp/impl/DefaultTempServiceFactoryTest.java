@@ -25,6 +25,9 @@ import java.io.File;
 import java.util.Properties;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static org.unitils.io.temp.impl.DefaultTempServiceFactory.ASYNC_DELETE;
 import static org.unitils.io.temp.impl.DefaultTempServiceFactory.ROOT_TEMP_DIR;
 
 /**
@@ -68,6 +71,24 @@ public class DefaultTempServiceFactoryTest {
         assertEquals(new File("target/" + DefaultTempServiceFactoryTest.class.getSimpleName()), defaultTempService.rootTempDir);
     }
 
+    @Test
+    public void asyncDelete() {
+        properties.setProperty(ROOT_TEMP_DIR, "target/" + DefaultTempServiceFactoryTest.class.getSimpleName());
+        properties.setProperty(ASYNC_DELETE, "true");
+        DefaultTempService defaultTempService = (DefaultTempService) defaultTempServiceFactory.createTempService(properties);
+
+        assertNotNull(defaultTempService.deleteExecutor);
+    }
+
+    @Test
+    public void synchronousDelete() {
+        properties.setProperty(ROOT_TEMP_DIR, "target/" + DefaultTempServiceFactoryTest.class.getSimpleName());
+        properties.setProperty(ASYNC_DELETE, "false");
+        DefaultTempService defaultTempService = (DefaultTempService) defaultTempServiceFactory.createTempService(properties);
+
+        assertNull(defaultTempService.deleteExecutor);
+    }
+
     @Test(expected = UnitilsException.class)
     public void specifiedRootTempDirIsNotADirectory() throws Exception {
         File testFile = new File(testFileName);
@@ -100,6 +100,49 @@ public class MockObjectAssertTest {
     }
 
 
+    @Test
+    public void assertInvokedInSequenceInterleavedWithOtherMethod() {
+        mockObject.getMock().testMethod1();
+        mockObject.getMock().testMethod2();
+        mockObject.getMock().testMethod1();
+
+        mockObject.assertInvokedInSequence().testMethod1();
+        mockObject.assertInvokedInSequence().testMethod2();
+        mockObject.assertInvokedInSequence().testMethod1();
+    }
+
+
+    @Test
+    public void assertInvokedInSequenceButVerifiedInvocationOfOtherMethodOutOfSequence() {
+        mockObject.getMock().testMethod1();
+        mockObject.getMock().testMethod2();
+        mockObject.getMock().testMethod1();
+
+        mockObject.assertInvokedInSequence().testMethod1();
+        mockObject.assertInvokedInSequence().testMethod1();
+        try {
+            mockObject.assertInvokedInSequence().testMethod2();
+            fail();
+        } catch (AssertionError e) {
+            assertTopOfStackTracePointsToCurrentTest(e, "assertInvokedInSequenceButVerifiedInvocationOfOtherMethodOutOfSequence");
+        }
+    }
+
+
+    @Test
+    public void assertInvokedOnlyOncePerInvocation() {
+        mockObject.getMock().testMethod1();
+        mockObject.getMock().testMethod2();
+        mockObject.getMock().testMethod1();
+
+        mockObject.assertInvoked().testMethod1();
+        mockObject.assertInvoked().testMethod1();
+        mockObject.assertNotInvoked().testMethod1();
+        mockObject.assertInvoked().testMethod2();
+        assertNoMoreInvocations();
+    }
+
+
     @Test
     public void testNoMoreInvocations() {
         mockObject.getMock().testMethod1();
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2006-2007,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.mock.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the invocation of a mock object from several threads at the same time.
+ */
+public class MockObjectConcurrentInvocationTest {
+
+    private static final int NR_OF_THREADS = 8;
+
+    private static final int NR_OF_INVOCATIONS = 500;
+
+    /* Class under test */
+    private MockObject<TestClass> mockObject;
+
+    private ExecutorService executorService;
+
+
+    @Before
+    public void setUp() {
+        mockObject = new MockObject<TestClass>("testMock", TestClass.class, this);
+        executorService = newFixedThreadPool(NR_OF_THREADS);
+    }
+
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+
+    @Test
+    public void allInvocationsObserved() throws Exception {
+        invokeConcurrently();
+
+        List<ObservedInvocation> observedInvocations = mockObject.scenario.getObservedInvocations();
+        assertEquals(NR_OF_THREADS * NR_OF_INVOCATIONS, observedInvocations.size());
+        for (int i = 0; i < NR_OF_THREADS * NR_OF_INVOCATIONS; i++) {
+            mockObject.assertInvoked().testMethod(null);
+        }
+        mockObject.assertNotInvoked().testMethod(null);
+        mockObject.scenario.assertNoMoreInvocations(new Throwable().getStackTrace());
+    }
+
+
+    @Test
+    public void oneTimeBehaviorUsedOnlyOnce() throws Exception {
+        mockObject.onceReturns("aValue").testMethod(null);
+
+        List<String> results = invokeConcurrently();
+
+        int count = 0;
+        for (String result : results) {
+            if ("aValue".equals(result)) {
+                count++;
+            }
+        }
+        assertEquals(1, count);
+    }
+
+
+    private List<String> invokeConcurrently() throws Exception {
+        List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+        for (int i = 0; i < NR_OF_THREADS; i++) {
+            futures.add(executorService.submit(new Callable<List<String>>() {
+                public List<String> call() {
+                    List<String> results = new ArrayList<String>();
+                    for (int j = 0; j < NR_OF_INVOCATIONS; j++) {
+                        results.add(mockObject.getMock().testMethod(Thread.currentThread().getName()));
+                    }
+                    return results;
+                }
+            }));
+        }
+        List<String> results = new ArrayList<String>();
+        for (Future<List<String>> future : futures) {
+            results.addAll(future.get());
+        }
+        return results;
+    }
+
+
+    /**
+     * Interface that is mocked during the tests
+     */
+    private static interface TestClass {
+
+        public String testMethod(String value);
+
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2006-2007,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.mock.core.proxy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.core.UnitilsException;
+import org.unitils.mock.core.MockObject;
+import org.unitils.mock.core.ObservedInvocation;
+import org.unitils.mock.mockbehavior.MockBehavior;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.unitils.mock.core.MockObject.getCurrentScenario;
+import static org.unitils.mock.core.proxy.ProxyFactory.setProxyEngine;
+import static org.unitils.mock.core.proxy.ProxyUtils.getMockName;
+import static org.unitils.mock.core.proxy.ProxyUtils.getProxiedTypeIfProxy;
+
+/**
+ * Tests mocking using jdk dynamic proxies.
+ */
+public class JdkProxyEngineTest {
+
+    private MockObject<TestInterface> mockObject;
+
+
+    @Before
+    public void initialize() {
+        setProxyEngine(new JdkProxyEngine());
+        mockObject = new MockObject<TestInterface>("testMock", TestInterface.class, this);
+    }
+
+
+    @After
+    public void cleanUp() {
+        setProxyEngine(new CglibProxyEngine());
+    }
+
+
+    @Test
+    public void jdkProxyForInterface() {
+        TestInterface proxy = mockObject.getMock();
+
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+        assertEquals(TestInterface.class, getProxiedTypeIfProxy(proxy));
+        assertEquals("testMock", getMockName(proxy));
+    }
+
+
+    @Test
+    public void cglibProxyForClass() {
+        MockObject<TestClass> classMockObject = new MockObject<TestClass>("testMock", TestClass.class, this);
+        TestClass proxy = classMockObject.getMock();
+
+        assertFalse(Proxy.isProxyClass(proxy.getClass()));
+        assertEquals(TestClass.class, getProxiedTypeIfProxy(proxy));
+    }
+
+
+    @Test
+    public void returns() {
+        mockObject.returns("value").testMethod();
+        mockObject.returns(5).primitiveMethod();
+
+        assertEquals("value", mockObject.getMock().testMethod());
+        assertEquals(5, mockObject.getMock().primitiveMethod());
+    }
+
+
+    @Test
+    public void defaultValueForPrimitive() {
+        assertEquals(0, mockObject.getMock().primitiveMethod());
+    }
+
+
+    @Test
+    public void assertInvoked() {
+        mockObject.getMock().testMethod();
+
+        mockObject.assertInvoked().testMethod();
+        mockObject.assertNotInvoked().primitiveMethod();
+    }
+
+
+    @Test
+    public void assertInvokedButNotInvoked() {
+        try {
+            mockObject.assertInvoked().testMethod();
+            fail();
+        } catch (AssertionError e) {
+            StackTraceElement topOfStackTrace = e.getStackTrace()[0];
+            assertEquals(JdkProxyEngineTest.class.getName(), topOfStackTrace.getClassName());
+            assertEquals("assertInvokedButNotInvoked", topOfStackTrace.getMethodName());
+        }
+    }
+
+
+    @Test(expected = UnitilsException.class)
+    public void noOriginalBehavior() {
+        mockObject.performs(new MockBehavior() {
+            public Object execute(ProxyInvocation proxyInvocation) throws Throwable {
+                return proxyInvocation.invokeOriginalBehavior();
+            }
+        }).testMethod();
+        mockObject.getMock().testMethod();
+    }
+
+
+    @Test
+    public void sameProxyClassForSameInterface() {
+        TestInterface proxy1 = mockObject.getMock();
+        TestInterface proxy2 = new MockObject<TestInterface>("otherMock", TestInterface.class, this).getMock();
+
+        assertSame(proxy1.getClass(), proxy2.getClass());
+    }
+
+
+    @Test
+    public void mockAsArgumentIsNotCloned() {
+        TestInterface otherMock = new MockObject<TestInterface>("otherMock", TestInterface.class, this).getMock();
+        mockObject.getMock().methodWithArgument(otherMock);
+
+        List<ObservedInvocation> observedInvocations = getCurrentScenario().getObservedInvocations();
+        ObservedInvocation observedInvocation = observedInvocations.get(observedInvocations.size() - 1);
+        assertSame(otherMock, observedInvocation.getArgumentsAtInvocationTime().get(0));
+    }
+
+
+    protected static interface TestInterface {
+
+        String testMethod();
+
+        int primitiveMethod();
+
+        void methodWithArgument(TestInterface argument);
+    }
+
+
+    protected static class TestClass {
+
+        public String testMethod() {
+            return "original";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2006-2009,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.mock.core.proxy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.unitils.mock.core.proxy.ProxyFactory.*;
+
+/**
+ * Tests the caching of proxy classes and instantiators by the proxy factory.
+ */
+public class ProxyFactoryTest {
+
+
+    @Before
+    public void initialize() {
+        clearCaches();
+    }
+
+
+    @Test
+    public void sameProxyClassForSameType() {
+        TestInterface proxy1 = createProxy("mock1", new ValueReturningProxyInvocationHandler("1"), TestInterface.class);
+        TestInterface proxy2 = createProxy("mock2", new ValueReturningProxyInvocationHandler("2"), TestInterface.class);
+
+        assertSame(proxy1.getClass(), proxy2.getClass());
+        assertEquals("1", proxy1.testMethod());
+        assertEquals("2", proxy2.testMethod());
+    }
+
+
+    @Test
+    public void sameProxyClassForSameInterfacesInOtherOrder() {
+        Object proxy1 = createProxy("mock1", new ValueReturningProxyInvocationHandler("1"), TestClass.class, Cloneable.class, TestInterface.class);
+        Object proxy2 = createProxy("mock2", new ValueReturningProxyInvocationHandler("2"), TestClass.class, TestInterface.class, Cloneable.class);
+
+        assertSame(proxy1.getClass(), proxy2.getClass());
+    }
+
+
+    @Test
+    public void otherProxyClassForOtherInterfaces() {
+        Object proxy1 = createProxy("mock1", new ValueReturningProxyInvocationHandler("1"), TestClass.class);
+        Object proxy2 = createProxy("mock2", new ValueReturningProxyInvocationHandler("2"), TestClass.class, TestInterface.class);
+
+        assertNotSame(proxy1.getClass(), proxy2.getClass());
+        assertFalse(proxy1 instanceof TestInterface);
+        assertTrue(proxy2 instanceof TestInterface);
+    }
+
+
+    @Test
+    public void preparedProxyClassIsUsed() {
+        CglibProxyEngine cglibProxyEngine = new CglibProxyEngine();
+        cglibProxyEngine.prepareProxyClass(TestInterface.class, Cloneable.class);
+        Class<?> preparedClass = cglibProxyEngine.createEnhancedClass(TestInterface.class, Cloneable.class);
+
+        Object proxy = cglibProxyEngine.createProxy("mock", true, new ValueReturningProxyInvocationHandler("value"), TestInterface.class, Cloneable.class);
+        assertSame(preparedClass, proxy.getClass());
+    }
+
+
+    @Test
+    public void uninitializedInstances() {
+        TestClass instance1 = createUninitializedInstanceOfType(TestClass.class);
+        TestClass instance2 = createUninitializedInstanceOfType(TestClass.class);
+
+        assertNotSame(instance1, instance2);
+        assertNull(instance1.value);
+    }
+
+
+    protected static interface TestInterface {
+
+        String testMethod();
+    }
+
+
+    protected static class TestClass {
+
+        protected String value = "value";
+    }
+
+
+    private static class ValueReturningProxyInvocationHandler implements ProxyInvocationHandler {
+
+        private String value;
+
+        public ValueReturningProxyInvocationHandler(String value) {
+            this.value = value;
+        }
+
+        public Object handleInvocation(ProxyInvocation invocation) throws Throwable {
+            return value;
+        }
+    }
+
+}
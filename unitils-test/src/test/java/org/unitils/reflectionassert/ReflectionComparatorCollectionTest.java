@@ -22,6 +22,7 @@ import org.unitils.reflectionassert.difference.CollectionDifference;
 import org.unitils.reflectionassert.difference.Difference;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
 
+import static java.util.Arrays.asList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -221,6 +222,37 @@ public class ReflectionComparatorCollectionTest extends TestCase {
     }
 
 
+    /**
+     * Test for two lists of strings and boxed primitives with the same values.
+     */
+    public void testGetAllDifferences_equalsValueLists() {
+        Difference result = reflectionComparator.getDifference(asList("a", 1, 2L, 'c', true), asList("a", 1, 2L, 'c', true));
+        assertNull(result);
+    }
+
+
+    /**
+     * Test for two lists with equal numbers of a different type. These are still compared as numbers.
+     */
+    public void testGetAllDifferences_equalsValueListsDifferentNumberTypes() {
+        Difference result = reflectionComparator.getDifference(asList(1, 2, 3), asList(1L, 2.0, 3));
+        assertNull(result);
+    }
+
+
+    /**
+     * Test for two lists of strings that contain a different value.
+     */
+    public void testGetAllDifferences_notEqualsValueLists() {
+        CollectionDifference result = (CollectionDifference) reflectionComparator.getDifference(asList("a", "b", "c"), asList("a", "x", "c"));
+
+        assertEquals(1, result.getElementDifferences().size());
+        Difference difference = getInnerDifference("1", result);
+        assertEquals("b", difference.getLeftValue());
+        assertEquals("x", difference.getRightValue());
+    }
+
+
     /**
      * Creates a collection.
      *
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.*;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.*;
+
+/**
+ * Tests the sharing of the reflection comparators that are created by the factory.
+ */
+public class ReflectionComparatorFactoryTest {
+
+
+    @Test
+    public void sameComparatorForSameModes() {
+        ReflectionComparator reflectionComparator1 = createRefectionComparator(LENIENT_ORDER, IGNORE_DEFAULTS);
+        ReflectionComparator reflectionComparator2 = createRefectionComparator(IGNORE_DEFAULTS, LENIENT_ORDER);
+
+        assertSame(reflectionComparator1, reflectionComparator2);
+    }
+
+
+    @Test
+    public void sameStrictComparator() {
+        ReflectionComparator reflectionComparator1 = createRefectionComparator();
+        ReflectionComparator reflectionComparator2 = createRefectionComparator((ReflectionComparatorMode[]) null);
+
+        assertSame(reflectionComparator1, reflectionComparator2);
+    }
+
+
+    @Test
+    public void otherComparatorForOtherModes() {
+        ReflectionComparator reflectionComparator1 = createRefectionComparator(LENIENT_ORDER);
+        ReflectionComparator reflectionComparator2 = createRefectionComparator(LENIENT_ORDER, LENIENT_DATES);
+
+        assertNotSame(reflectionComparator1, reflectionComparator2);
+    }
+
+
+    @Test
+    public void noResultsKeptBetweenComparisons() {
+        ReflectionComparator reflectionComparator = createRefectionComparator();
+        List<String> left = new ArrayList<String>(asList("a", "b"));
+        List<String> right = new ArrayList<String>(asList("a", "b"));
+        assertTrue(reflectionComparator.isEqual(left, right));
+
+        right.set(1, "c");
+        assertFalse(reflectionComparator.isEqual(left, right));
+        assertNotNull(reflectionComparator.getDifference(left, right));
+    }
+
+
+    @Test
+    public void concurrentComparisons() throws Exception {
+        final ReflectionComparator reflectionComparator = createRefectionComparator(LENIENT_ORDER);
+        ExecutorService executorService = newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 100; i++) {
+                final boolean equal = i % 2 == 0;
+                futures.add(executorService.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        List<Integer> left = asList(1, 2, 3, 4, 5);
+                        List<Integer> right = equal ? asList(5, 4, 3, 2, 1) : asList(5, 4, 3, 2, 0);
+                        return reflectionComparator.isEqual(left, right) == equal;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
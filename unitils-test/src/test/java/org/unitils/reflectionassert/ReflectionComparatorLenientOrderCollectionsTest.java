@@ -21,8 +21,15 @@ import org.junit.Before;
 import org.junit.Test;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+import org.unitils.reflectionassert.comparator.impl.LenientOrderCollectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 import static java.util.Arrays.binarySearch;
 
 
@@ -70,6 +77,57 @@ public class ReflectionComparatorLenientOrderCollectionsTest {
         assertBestMatch(expected, "3", actual, "4", difference);
     }
 
+    @Test
+    public void matchingElementsAreNotComparedWithOtherElements() {
+        List<String> expected = createList("a", 100);
+        List<String> actual = createList("a", 100);
+        actual.set(50, "xxx");
+
+        UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator.getDifference(expected, actual);
+        assertEquals(1, difference.getBestMatchingIndexes().size());
+        assertEquals(50, (int) difference.getBestMatchingIndexes().get(50));
+        assertEquals(1, difference.getElementDifferences().get(0).size());
+    }
+
+    @Test
+    public void nrOfElementComparisonsIsBounded() {
+        List<String> expected = createList("a", 200);
+        List<String> actual = createList("b", 200);
+
+        UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator.getDifference(expected, actual);
+        assertEquals(200, difference.getBestMatchingIndexes().size());
+        assertEquals(-1, (int) difference.getBestMatchingIndexes().get(199));
+        assertEquals(LenientOrderCollectionComparator.MAX_NR_OF_ELEMENT_COMPARISONS, getNrOfElementDifferences(difference));
+    }
+
+    @Test
+    public void searchForMatchingElementsIsBounded() {
+        List<String> expected = createList("a", 200);
+        List<String> actual = createList("a", 200);
+        Collections.reverse(actual);
+        actual.set(0, "xxx");
+
+        UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator.getDifference(expected, actual);
+        assertEquals(LenientOrderCollectionComparator.MAX_NR_OF_ELEMENT_COMPARISONS, getNrOfElementDifferences(difference));
+        assertEquals(-1, (int) difference.getBestMatchingIndexes().get(199));
+    }
+
+
+    private int getNrOfElementDifferences(UnorderedCollectionDifference difference) {
+        int nrOfElementDifferences = 0;
+        for (Map<Integer, Difference> rightDifferences : difference.getElementDifferences().values()) {
+            nrOfElementDifferences += rightDifferences.size();
+        }
+        return nrOfElementDifferences;
+    }
+
+    private List<String> createList(String prefix, int size) {
+        List<String> result = new ArrayList<String>();
+        for (int i = 0; i < size; i++) {
+            result.add(prefix + i);
+        }
+        return result;
+    }
 
     @SuppressWarnings({"RedundantCast"})
     private void assertBestMatch(String[] expected, String expectedValue, String[] actual, String actualValue, UnorderedCollectionDifference difference) {
@@ -21,9 +21,11 @@ import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.difference.MapDifference;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.UUID;
 
 
 /**
@@ -217,6 +219,78 @@ public class ReflectionComparatorMapTest extends TestCase {
     }
 
 
+    /**
+     * Tests for large maps with keys that are only equal using reflection. One of the keys is different.
+     */
+    public void testGetDifference_notEqualsLargeMapComparingKeysUsingReflection() {
+        Map<Element, String> left = new HashMap<Element, String>();
+        Map<Element, String> right = new HashMap<Element, String>();
+        for (int i = 0; i < 50000; i++) {
+            left.put(new Element("key " + i, null), "value " + i);
+            right.put(new Element(i == 123 ? "XXXXXX" : "key " + i, null), "value " + i);
+        }
+        MapDifference result = (MapDifference) reflectionComparator.getDifference(left, right);
+
+        assertTrue(result.getValueDifferences().isEmpty());
+        assertEquals("key 123", ((Element) result.getLeftMissingKeys().get(0)).getString());
+        assertEquals("XXXXXX", ((Element) result.getRightMissingKeys().get(0)).getString());
+    }
+
+
+    /**
+     * Tests for large maps with UUID keys. The keys are equal but different instances. One of the keys is different.
+     */
+    public void testGetDifference_notEqualsLargeMapWithUUIDKeys() {
+        Map<UUID, String> left = new HashMap<UUID, String>();
+        Map<UUID, String> right = new HashMap<UUID, String>();
+        for (int i = 0; i < 50000; i++) {
+            UUID key = new UUID(i, 1000 - i);
+            left.put(key, "value " + i);
+            right.put(i == 123 ? new UUID(-1, -1) : new UUID(key.getMostSignificantBits(), key.getLeastSignificantBits()), "value " + i);
+        }
+        MapDifference result = (MapDifference) reflectionComparator.getDifference(left, right);
+
+        assertTrue(result.getValueDifferences().isEmpty());
+        assertEquals(new UUID(123, 1000 - 123), result.getLeftMissingKeys().get(0));
+        assertEquals(new UUID(-1, -1), result.getRightMissingKeys().get(0));
+    }
+
+
+    /**
+     * Tests for maps with number keys of a different type. The keys are compared on their value.
+     */
+    public void testGetDifference_equalsDifferentNumberKeyTypes() {
+        Map<Integer, String> left = new HashMap<Integer, String>();
+        left.put(1, "a");
+        left.put(2, "b");
+        Map<Long, String> right = new HashMap<Long, String>();
+        right.put(1L, "a");
+        right.put(2L, "b");
+
+        Difference result = reflectionComparator.getDifference(left, right);
+        assertNull(result);
+    }
+
+
+    /**
+     * Tests for maps with date keys. Dates are matched by comparing them with all keys.
+     */
+    public void testGetDifference_dateKeys() {
+        Map<Object, String> left = new HashMap<Object, String>();
+        left.put(new Date(1000), "a");
+        left.put("key", "b");
+        Map<Object, String> right = new HashMap<Object, String>();
+        right.put(new Date(1000), "a");
+        right.put("key", "XXXXXX");
+
+        Difference result = reflectionComparator.getDifference(left, right);
+
+        Difference difference = getInnerDifference("\"key\"", result);
+        assertEquals("b", difference.getLeftValue());
+        assertEquals("XXXXXX", difference.getRightValue());
+    }
+
+
     /**
      * Creates a map.
      *
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.comparator.impl.*;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.MapDifference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.PARALLEL;
+
+/**
+ * Tests the comparison of large collections, arrays and maps on several threads.
+ * The results should be the same as for a comparison on a single thread.
+ */
+public class ReflectionComparatorParallelTest {
+
+    private static final int NR_OF_ELEMENTS = 5000;
+
+    /* Class under test, compares in parallel using 4 threads */
+    private ReflectionComparator parallelReflectionComparator;
+    /* Compares on a single thread */
+    private ReflectionComparator reflectionComparator;
+
+    private List<Element> listA;
+    private List<Element> listB;
+    private List<Element> listDifferentValues;
+
+
+    @Before
+    public void initialize() {
+        ParallelElementComparator parallelElementComparator = new ParallelElementComparator(4, 100);
+        List<Comparator> comparators = new ArrayList<Comparator>();
+        comparators.add(new LenientNumberComparator());
+        comparators.add(new SimpleCasesComparator());
+        comparators.add(new ParallelCollectionComparator(parallelElementComparator));
+        comparators.add(new ParallelMapComparator(parallelElementComparator));
+        comparators.add(new ObjectComparator());
+        parallelReflectionComparator = new ReflectionComparator(comparators);
+        reflectionComparator = createRefectionComparator();
+
+        listA = createList();
+        listB = createList();
+        listDifferentValues = createList();
+        listDifferentValues.get(1234).value = "xxx";
+        listDifferentValues.get(3500).value = "yyy";
+        listDifferentValues.get(4999).inner.value = "zzz";
+    }
+
+
+    @Test
+    public void equalLists() {
+        assertTrue(parallelReflectionComparator.isEqual(listA, listB));
+    }
+
+
+    @Test
+    public void equalArrays() {
+        assertTrue(parallelReflectionComparator.isEqual(listA.toArray(), listB.toArray()));
+    }
+
+
+    @Test
+    public void allDifferences() {
+        CollectionDifference result = (CollectionDifference) parallelReflectionComparator.getDifference(listA, listDifferentValues);
+        CollectionDifference expected = (CollectionDifference) reflectionComparator.getDifference(listA, listDifferentValues);
+
+        assertEquals(new HashSet<Integer>(asList(1234, 3500, 4999)), result.getElementDifferences().keySet());
+        assertEquals(expected.getElementDifferences().keySet(), result.getElementDifferences().keySet());
+    }
+
+
+    @Test
+    public void onlyFirstDifference() {
+        CollectionDifference result = (CollectionDifference) parallelReflectionComparator.getDifference(listA, listDifferentValues, true);
+
+        assertEquals(asList(1234), new ArrayList<Integer>(result.getElementDifferences().keySet()));
+    }
+
+
+    @Test
+    public void missingElements() {
+        List<Element> longerList = createList();
+        longerList.add(new Element("extra", null));
+        CollectionDifference result = (CollectionDifference) parallelReflectionComparator.getDifference(listA, longerList);
+
+        assertTrue(result.getElementDifferences().isEmpty());
+        assertEquals(asList(NR_OF_ELEMENTS), result.getRightMissingIndexes());
+    }
+
+
+    @Test
+    public void sharedReferences() {
+        Element shared = new Element("shared", null);
+        List<Element> left = new ArrayList<Element>();
+        List<Element> right = new ArrayList<Element>();
+        for (int i = 0; i < NR_OF_ELEMENTS; i++) {
+            left.add(shared);
+            right.add(new Element("shared", null));
+        }
+        assertTrue(parallelReflectionComparator.isEqual(left, right));
+    }
+
+
+    @Test
+    public void mapDifferences() {
+        Map<String, Element> mapA = createMap(listA);
+        Map<String, Element> mapDifferentValues = createMap(listDifferentValues);
+        mapDifferentValues.remove("key 10");
+        mapDifferentValues.put("other key", new Element("other", null));
+
+        MapDifference result = (MapDifference) parallelReflectionComparator.getDifference(mapA, mapDifferentValues);
+        MapDifference expected = (MapDifference) reflectionComparator.getDifference(mapA, mapDifferentValues);
+
+        assertEquals(expected.getValueDifferences().keySet(), result.getValueDifferences().keySet());
+        assertEquals(asList("key 10"), result.getLeftMissingKeys());
+        assertEquals(asList("other key"), result.getRightMissingKeys());
+    }
+
+
+    @Test
+    public void mapOnlyFirstDifference() {
+        Map<String, Element> mapA = createMap(listA);
+        Map<String, Element> mapDifferentValues = createMap(listDifferentValues);
+
+        MapDifference result = (MapDifference) parallelReflectionComparator.getDifference(mapA, mapDifferentValues, true);
+        MapDifference expected = (MapDifference) reflectionComparator.getDifference(mapA, mapDifferentValues, true);
+
+        assertEquals(1, result.getValueDifferences().size());
+        assertEquals(expected.getValueDifferences().keySet(), result.getValueDifferences().keySet());
+    }
+
+
+    @Test
+    public void parallelMode() {
+        ReflectionComparator reflectionComparator = createRefectionComparator(PARALLEL);
+
+        assertTrue(reflectionComparator.isEqual(listA, listB));
+        assertFalse(reflectionComparator.isEqual(listA, listDifferentValues));
+    }
+
+
+    private List<Element> createList() {
+        List<Element> result = new ArrayList<Element>();
+        for (int i = 0; i < NR_OF_ELEMENTS; i++) {
+            result.add(new Element("value " + i, new Element("inner " + i, null)));
+        }
+        return result;
+    }
+
+
+    private Map<String, Element> createMap(List<Element> elements) {
+        Map<String, Element> result = new HashMap<String, Element>();
+        for (int i = 0; i < elements.size(); i++) {
+            result.put("key " + i, elements.get(i));
+        }
+        return result;
+    }
+
+
+    private static class Element {
+
+        private String value;
+        private Element inner;
+
+        public Element(String value, Element inner) {
+            this.value = value;
+            this.inner = inner;
+        }
+    }
+}
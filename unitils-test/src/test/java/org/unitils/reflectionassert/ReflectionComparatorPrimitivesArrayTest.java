@@ -18,6 +18,7 @@ package org.unitils.reflectionassert;
 import junit.framework.TestCase;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+import org.unitils.reflectionassert.difference.CollectionDifference;
 import org.unitils.reflectionassert.difference.Difference;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
 
@@ -185,6 +186,45 @@ public class ReflectionComparatorPrimitivesArrayTest extends TestCase {
     }
 
 
+    /**
+     * Test for two large arrays of each primitive type that contain the same values.
+     */
+    public void testGetDifference_equalsLargeArrays() {
+        assertNull(reflectionComparator.getDifference(new long[100000], new long[100000]));
+        assertNull(reflectionComparator.getDifference(new byte[100000], new byte[100000]));
+        assertNull(reflectionComparator.getDifference(new double[]{1.5, Double.NaN}, new double[]{1.5, Double.NaN}));
+        assertNull(reflectionComparator.getDifference(new char[]{'a', 'b'}, new char[]{'a', 'b'}));
+        assertNull(reflectionComparator.getDifference(new boolean[]{true, false}, new boolean[]{true, false}));
+    }
+
+
+    /**
+     * Test for two large arrays that contain a different value. Only the different element is reported.
+     */
+    public void testGetDifference_notEqualsLargeArrays() {
+        long[] left = new long[100000];
+        long[] right = new long[100000];
+        right[54321] = 5;
+
+        CollectionDifference result = (CollectionDifference) reflectionComparator.getDifference(left, right);
+
+        assertEquals(1, result.getElementDifferences().size());
+        Difference difference = getInnerDifference("54321", result);
+        assertEquals(0L, difference.getLeftValue());
+        assertEquals(5L, difference.getRightValue());
+    }
+
+
+    /**
+     * Test for arrays with a different zero value: 0.0 and -0.0 are compared as different values.
+     */
+    public void testGetDifference_notEqualsNegativeZero() {
+        Difference result = reflectionComparator.getDifference(new double[]{0.0}, new double[]{-0.0});
+
+        assertNotNull(getInnerDifference("0", result));
+    }
+
+
     /**
      * Test class with failing equals.
      */
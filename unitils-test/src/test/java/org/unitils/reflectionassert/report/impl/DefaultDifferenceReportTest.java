@@ -0,0 +1,129 @@
+/*
+ * Copyright 2008,  Unitils.org
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.report.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRefectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_DEPTH;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_NR_OF_INNER_DIFFERENCES;
+import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.MAX_VIEW_SIZE;
+
+/**
+ * Test for the size limits of the {@link DefaultDifferenceReport}.
+ */
+public class DefaultDifferenceReportTest {
+
+    /* Tested object */
+    private DefaultDifferenceReport defaultDifferenceReport;
+
+
+    @Before
+    public void initialize() {
+        defaultDifferenceReport = new DefaultDifferenceReport();
+    }
+
+
+    @Test
+    public void nrOfElementDifferencesIsLimited() {
+        Difference difference = createRefectionComparator().getDifference(createList(0, 5000), createList(1, 5000));
+
+        String result = defaultDifferenceReport.createReport(difference);
+        assertTrue(result.contains("[49]: expected: 49, actual: 50"));
+        assertTrue(result.contains("...and 4950 more differences"));
+        assertTrue(result.length() < 2 * MAX_VIEW_SIZE);
+    }
+
+    @Test
+    public void nrOfElementDifferencesIsLimitedForLenientOrder() {
+        ReflectionComparator reflectionComparator = createRefectionComparator(LENIENT_ORDER);
+        Difference difference = reflectionComparator.getDifference(createList(0, 1000), createList(1000, 1000));
+
+        String result = defaultDifferenceReport.createReport(difference);
+        assertTrue(result.contains("...and 950 more differences"));
+        assertTrue(result.length() < 2 * MAX_VIEW_SIZE);
+    }
+
+    @Test
+    public void outputIsTruncatedWhenMaxViewSizeIsReached() {
+        DefaultDifferenceView defaultDifferenceView = new DefaultDifferenceView() {
+            @Override
+            protected DifferenceViewLimiter createDifferenceViewLimiter() {
+                return new DifferenceViewLimiter(100, MAX_NR_OF_INNER_DIFFERENCES, MAX_DEPTH);
+            }
+        };
+        Difference difference = createRefectionComparator().getDifference(createList(0, 20), createList(1, 20));
+
+        String result = defaultDifferenceView.createView(difference);
+        assertTrue(result.endsWith("...and more differences, output truncated\n"));
+        assertTrue(result.length() < 200);
+    }
+
+    @Test
+    public void depthIsLimited() {
+        Node expected = createNodes(0, 20);
+        Node actual = createNodes(1, 20);
+        TreeDifferenceView treeDifferenceView = new TreeDifferenceView() {
+            @Override
+            protected DifferenceViewLimiter createDifferenceViewLimiter() {
+                return new DifferenceViewLimiter(MAX_VIEW_SIZE, MAX_NR_OF_INNER_DIFFERENCES, 2);
+            }
+        };
+        Difference difference = createRefectionComparator().getDifference(expected, actual);
+
+        String result = treeDifferenceView.createView(difference);
+        assertTrue(result.contains("child.child expected:"));
+        assertTrue(!result.contains("child.child.child.child"));
+    }
+
+
+    private List<Integer> createList(int start, int size) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (int i = start; i < start + size; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    private Node createNodes(int value, int depth) {
+        Node result = new Node(value, null);
+        for (int i = 0; i < depth; i++) {
+            result = new Node(value, result);
+        }
+        return result;
+    }
+
+
+    private static class Node {
+
+        private int value;
+
+        private Node child;
+
+        public Node(int value, Node child) {
+            this.value = value;
+            this.child = child;
+        }
+    }
+}